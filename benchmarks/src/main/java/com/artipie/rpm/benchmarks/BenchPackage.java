@@ -0,0 +1,100 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+
+package com.artipie.rpm.benchmarks;
+
+import com.artipie.rpm.Digest;
+import com.artipie.rpm.FileChecksum;
+import com.artipie.rpm.pkg.Checksum;
+import com.artipie.rpm.pkg.FilePackage;
+import com.artipie.rpm.pkg.FilePackageHeader;
+import com.artipie.rpm.pkg.Package;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.redline_rpm.header.Header;
+
+/**
+ * Generated RPM package state for per-package stage benchmarks.
+ * @since 1.9
+ * @checkstyle DesignForExtensionCheck (500 lines)
+ * @checkstyle JavadocMethodCheck (500 lines)
+ * @checkstyle VisibilityModifierCheck (500 lines)
+ */
+@State(Scope.Benchmark)
+public class BenchPackage {
+
+    /**
+     * Files in package.
+     */
+    @Param({"10", "1000"})
+    public int files;
+
+    /**
+     * Changelog entries in package.
+     */
+    @Param({"10", "100"})
+    public int changelog;
+
+    /**
+     * Temporary directory.
+     */
+    private Path dir;
+
+    /**
+     * Package file.
+     */
+    private Path rpm;
+
+    /**
+     * Package header.
+     */
+    private Header hdr;
+
+    /**
+     * Package checksum.
+     */
+    private Checksum sum;
+
+    @Setup
+    public void setup() throws IOException {
+        this.dir = Files.createTempDirectory("rpm-stage-bench");
+        this.rpm = new RpmCorpus(1, this.files, this.changelog, 64).generate(this.dir).get(0);
+        this.hdr = new FilePackageHeader(this.rpm).header();
+        this.sum = new Checksum.Simple(
+            Digest.SHA256, new FileChecksum(this.rpm, Digest.SHA256).hex()
+        );
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(this.dir.toFile());
+    }
+
+    /**
+     * Package file.
+     * @return Path
+     */
+    public Path path() {
+        return this.rpm;
+    }
+
+    /**
+     * Package metadata with precomputed checksum, so that stages are measured
+     * without reading the package file.
+     * @return Package meta
+     */
+    public Package.Meta meta() {
+        return new FilePackage.Headers(
+            this.hdr, this.rpm, this.sum, this.rpm.getFileName().toString()
+        );
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+
+package com.artipie.rpm.benchmarks;
+
+import com.artipie.rpm.Digest;
+import com.artipie.rpm.FileChecksum;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmark for {@link FileChecksum#hex()} with different read buffer sizes.
+ * @since 1.9
+ * @checkstyle DesignForExtensionCheck (500 lines)
+ * @checkstyle JavadocMethodCheck (500 lines)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class FileChecksumBench {
+
+    /**
+     * File size.
+     */
+    @Param("16777216")
+    private int size;
+
+    /**
+     * Read buffer size.
+     */
+    @Param({"1024", "8192", "65536", "1048576"})
+    private int buffer;
+
+    /**
+     * Digest.
+     */
+    @Param({"SHA256", "SHA1"})
+    private Digest digest;
+
+    /**
+     * File to compute checksum of.
+     */
+    private Path file;
+
+    @Setup
+    public void setup() throws IOException {
+        this.file = Files.createTempFile("checksum-bench", ".bin");
+        final byte[] data = new byte[this.size];
+        new Random(this.size).nextBytes(data);
+        Files.write(this.file, data);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.delete(this.file);
+    }
+
+    @Benchmark
+    public String hex() throws IOException {
+        return new FileChecksum(this.file, this.digest, this.buffer).hex();
+    }
+
+    /**
+     * Main.
+     * @param args CLI args
+     * @throws RunnerException On benchmark failure
+     */
+    public static void main(final String... args) throws RunnerException {
+        new Runner(
+            new OptionsBuilder()
+                .include(FileChecksumBench.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .forks(1)
+                .build()
+        ).run();
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+
+package com.artipie.rpm.benchmarks;
+
+import com.artipie.rpm.pkg.FilePackageHeader;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmark for {@link FilePackageHeader#header()}.
+ * @since 1.9
+ * @checkstyle DesignForExtensionCheck (500 lines)
+ * @checkstyle JavadocMethodCheck (500 lines)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class FilePackageHeaderBench {
+
+    @Benchmark
+    public void header(final BenchPackage pkg, final Blackhole bhl) throws IOException {
+        bhl.consume(new FilePackageHeader(pkg.path()).header());
+    }
+
+    /**
+     * Main.
+     * @param args CLI args
+     * @throws RunnerException On benchmark failure
+     */
+    public static void main(final String... args) throws RunnerException {
+        new Runner(
+            new OptionsBuilder()
+                .include(FilePackageHeaderBench.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .forks(1)
+                .build()
+        ).run();
+    }
+}
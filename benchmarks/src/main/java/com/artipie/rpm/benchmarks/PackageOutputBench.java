@@ -0,0 +1,112 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+
+package com.artipie.rpm.benchmarks;
+
+import com.artipie.rpm.pkg.FilelistsOutput;
+import com.artipie.rpm.pkg.OthersOutput;
+import com.artipie.rpm.pkg.PrimaryOutput;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmark for {@link PrimaryOutput#accept}, {@link FilelistsOutput#accept} and
+ * {@link OthersOutput#accept}: each invocation writes one package record to
+ * the metadata file, files are recreated on each iteration.
+ * @since 1.9
+ * @checkstyle DesignForExtensionCheck (500 lines)
+ * @checkstyle JavadocMethodCheck (500 lines)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class PackageOutputBench {
+
+    /**
+     * Temporary directory.
+     */
+    private Path dir;
+
+    /**
+     * Primary output.
+     */
+    private PrimaryOutput primary;
+
+    /**
+     * Filelists output.
+     */
+    private FilelistsOutput filelists;
+
+    /**
+     * Others output.
+     */
+    private OthersOutput others;
+
+    @Setup(Level.Iteration)
+    public void setup() throws IOException {
+        this.dir = Files.createTempDirectory("rpm-output-bench");
+        this.primary = new PrimaryOutput(this.dir.resolve("primary.xml")).start();
+        this.filelists = new FilelistsOutput(this.dir.resolve("filelists.xml")).start();
+        this.others = new OthersOutput(this.dir.resolve("others.xml")).start();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        this.primary.close();
+        this.filelists.close();
+        this.others.close();
+        FileUtils.deleteDirectory(this.dir.toFile());
+    }
+
+    @Benchmark
+    public void primary(final BenchPackage pkg) throws IOException {
+        this.primary.accept(pkg.meta());
+    }
+
+    @Benchmark
+    public void filelists(final BenchPackage pkg) throws IOException {
+        this.filelists.accept(pkg.meta());
+    }
+
+    @Benchmark
+    public void others(final BenchPackage pkg) throws IOException {
+        this.others.accept(pkg.meta());
+    }
+
+    /**
+     * Main.
+     * @param args CLI args
+     * @throws RunnerException On benchmark failure
+     */
+    public static void main(final String... args) throws RunnerException {
+        new Runner(
+            new OptionsBuilder()
+                .include(PackageOutputBench.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .forks(1)
+                .build()
+        ).run();
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+
+package com.artipie.rpm.benchmarks;
+
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.blocking.BlockingStorage;
+import com.artipie.rpm.meta.XmlPackage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Unpacked repository metadata xmls from storage {@code repodata} directory.
+ * @since 1.9
+ */
+final class RepodataXml {
+
+    /**
+     * Storage.
+     */
+    private final Storage asto;
+
+    /**
+     * Ctor.
+     * @param asto Storage
+     */
+    RepodataXml(final Storage asto) {
+        this.asto = asto;
+    }
+
+    /**
+     * Reads and unpacks metadata files.
+     * @return Metadata xml bytes by type
+     * @throws IOException On error
+     */
+    Map<XmlPackage, byte[]> unpacked() throws IOException {
+        final BlockingStorage bsto = new BlockingStorage(this.asto);
+        final Map<XmlPackage, byte[]> res = new EnumMap<>(XmlPackage.class);
+        for (final Key key : bsto.list(new Key.From("repodata"))) {
+            final Optional<XmlPackage> xml = new XmlPackage.Stream(true).get()
+                .filter(item -> key.string().contains(item.filename()))
+                .findFirst();
+            if (xml.isPresent()) {
+                try (InputStream input = new GZIPInputStream(
+                    new ByteArrayInputStream(bsto.value(key))
+                )) {
+                    res.put(xml.get(), IOUtils.toByteArray(input));
+                }
+            }
+        }
+        return res;
+    }
+}
@@ -7,7 +7,6 @@ package com.artipie.rpm.benchmarks;
 
 import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
-import com.artipie.asto.blocking.BlockingStorage;
 import com.artipie.asto.fs.FileStorage;
 import com.artipie.asto.memory.InMemoryStorage;
 import com.artipie.asto.memory.BenchmarkStorage;
@@ -17,17 +16,17 @@ import hu.akarnokd.rxjava2.interop.CompletableInterop;
 import hu.akarnokd.rxjava2.interop.SingleInterop;
 import io.reactivex.Observable;
 import io.reactivex.Single;
-import java.nio.file.Paths;
-import java.util.Collection;
-import java.util.List;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
+import org.apache.commons.io.FileUtils;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
-import org.openjdk.jmh.annotations.Level;
 import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
@@ -52,9 +51,28 @@ import org.openjdk.jmh.runner.options.OptionsBuilder;
 public class RpmBench {
 
     /**
-     * Benchmark directory.
+     * Packages count.
      */
-    private static final String BENCH_DIR = System.getenv("BENCH_DIR");
+    @Param("100")
+    private int packages;
+
+    /**
+     * Files per package.
+     */
+    @Param("5")
+    private int files;
+
+    /**
+     * Changelog entries per package.
+     */
+    @Param("10")
+    private int changelog;
+
+    /**
+     * Size of each packaged file.
+     */
+    @Param("1024")
+    private int size;
 
     /**
      * Repository source storage.
@@ -62,15 +80,15 @@ public class RpmBench {
     private InMemoryStorage readonly;
 
     @Setup
-    public void setup() {
-        if (RpmBench.BENCH_DIR == null) {
-            throw new IllegalStateException("BENCH_DIR environment variable must be set");
+    public void setup() throws IOException {
+        final Path dir = Files.createTempDirectory("rpm-bench");
+        try {
+            new RpmCorpus(this.packages, this.files, this.changelog, this.size).generate(dir);
+            this.readonly = new InMemoryStorage();
+            RpmBench.sync(new FileStorage(dir), this.readonly);
+        } finally {
+            FileUtils.deleteDirectory(dir.toFile());
         }
-        this.readonly = new InMemoryStorage();
-        final Storage src = new FileStorage(Paths.get(RpmBench.BENCH_DIR));
-        final BlockingStorage bsto = new BlockingStorage(src);
-        bsto.list(new Key.From("repodata")).forEach(key -> bsto.delete(key));
-        RpmBench.sync(src, this.readonly);
     }
 
     @Benchmark
@@ -0,0 +1,210 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+
+package com.artipie.rpm.benchmarks;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.NoSuchAlgorithmException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+import org.redline_rpm.Builder;
+import org.redline_rpm.header.Architecture;
+import org.redline_rpm.header.Header;
+import org.redline_rpm.header.Os;
+import org.redline_rpm.header.RpmType;
+import org.redline_rpm.payload.Directive;
+
+/**
+ * Synthetic RPM packages corpus for benchmarks. Generated packages depend only
+ * on corpus parameters and package number: content of the files is produced by
+ * seeded random, build time, build host and files modification time are fixed
+ * and parent directories are not packaged (redline stamps them with current time),
+ * so the same corpus is generated byte to byte on each run.
+ * @since 1.9
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+public final class RpmCorpus {
+
+    /**
+     * Fixed build and modification time, 2021-01-04 00:00:00 UTC.
+     */
+    private static final long TIME = 1_609_718_400_000L;
+
+    /**
+     * Packages count.
+     */
+    private final int packages;
+
+    /**
+     * Files per package.
+     */
+    private final int files;
+
+    /**
+     * Changelog entries per package.
+     */
+    private final int changelog;
+
+    /**
+     * Size of each packaged file in bytes.
+     */
+    private final int size;
+
+    /**
+     * Ctor.
+     * @param packages Packages count
+     * @param files Files per package
+     * @param changelog Changelog entries per package
+     * @param size Size of each packaged file in bytes
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public RpmCorpus(final int packages, final int files, final int changelog,
+        final int size) {
+        this.packages = packages;
+        this.files = files;
+        this.changelog = changelog;
+        this.size = size;
+    }
+
+    /**
+     * Generates packages into directory.
+     * @param dir Directory
+     * @return Generated packages
+     * @throws IOException On error
+     */
+    public List<Path> generate(final Path dir) throws IOException {
+        return this.generate(dir, 0);
+    }
+
+    /**
+     * Generates packages into directory starting from package number, packages
+     * generated with different offsets do not clash.
+     * @param dir Directory
+     * @param offset Number of the first package
+     * @return Generated packages
+     * @throws IOException On error
+     */
+    public List<Path> generate(final Path dir, final int offset) throws IOException {
+        Files.createDirectories(dir);
+        final Path tmp = Files.createTempDirectory("corpus");
+        try {
+            final List<Path> res = new ArrayList<>(this.packages);
+            for (int num = offset; num < offset + this.packages; num += 1) {
+                res.add(this.rpm(dir, tmp, num));
+            }
+            return res;
+        } finally {
+            Files.delete(tmp);
+        }
+    }
+
+    /**
+     * Builds one package.
+     * @param dir Output directory
+     * @param tmp Directory for packaged files
+     * @param num Package number
+     * @return Package path
+     * @throws IOException On error
+     */
+    private Path rpm(final Path dir, final Path tmp, final int num) throws IOException {
+        final Random random = new Random(num);
+        final String name = String.format("bench-%d", num);
+        final CorpusBuilder builder = new CorpusBuilder();
+        builder.setPackage(name, String.format("1.%d", num % 10), "1");
+        builder.setType(RpmType.BINARY);
+        builder.setPlatform(Architecture.NOARCH, Os.LINUX);
+        builder.setSummary(String.format("Synthetic package %d", num));
+        builder.setDescription(String.format("Synthetic package %d for benchmarks", num));
+        builder.setBuildHost("localhost");
+        builder.setLicense("MIT");
+        builder.setGroup("Development/Tools");
+        builder.setVendor("artipie");
+        builder.setPackager("artipie");
+        builder.setUrl("https://github.com/artipie/rpm-adapter");
+        builder.addHeaderEntry(
+            Header.HeaderTag.BUILDTIME, (int) TimeUnit.MILLISECONDS.toSeconds(RpmCorpus.TIME)
+        );
+        if (num > 0) {
+            builder.addDependencyMore(String.format("bench-%d", num - 1), "1.0");
+        }
+        builder.changelog(this.entries(num));
+        final List<Path> payload = new ArrayList<>(this.files);
+        try {
+            for (int idx = 0; idx < this.files; idx += 1) {
+                final Path file = tmp.resolve(String.format("%s-%d.dat", name, idx));
+                final byte[] content = new byte[this.size];
+                random.nextBytes(content);
+                Files.write(file, content);
+                payload.add(file);
+                file.toFile().setLastModified(RpmCorpus.TIME);
+                builder.addFile(
+                    String.format("/usr/share/%s/file-%d.dat", name, idx), file.toFile(),
+                    0644, 0755, Directive.NONE, "root", "root", false
+                );
+            }
+            final Path res = dir.resolve(String.format("%s-1.%d-1.noarch.rpm", name, num % 10));
+            try (FileChannel channel = FileChannel.open(
+                res, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING
+            )) {
+                builder.build(channel);
+            }
+            return res;
+        } catch (final NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        } finally {
+            for (final Path file : payload) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    /**
+     * Changelog entries in the form {@code * <date> <author> - <text>}.
+     * @param num Package number
+     * @return Entries
+     */
+    private String[] entries(final int num) {
+        final SimpleDateFormat fmt = new SimpleDateFormat("EEE MMM dd yyyy", Locale.US);
+        fmt.setTimeZone(TimeZone.getTimeZone("UTC"));
+        final String[] res = new String[this.changelog];
+        for (int idx = 0; idx < this.changelog; idx += 1) {
+            res[idx] = String.format(
+                "* %s Bench Author <bench@artipie.com> - 1.%d-%d\n- Change %d of package %d",
+                fmt.format(new Date(RpmCorpus.TIME - TimeUnit.DAYS.toMillis(idx))),
+                num % 10, this.changelog - idx, idx, num
+            );
+        }
+        return res;
+    }
+
+    /**
+     * Redline builder which can write legacy {@code CHANGELOG} header read by
+     * the adapter.
+     * @since 1.9
+     */
+    private static final class CorpusBuilder extends Builder {
+
+        /**
+         * Adds changelog entries.
+         * @param entries Changelog entries
+         */
+        void changelog(final String... entries) {
+            if (entries.length > 0) {
+                this.format.getHeader().createEntry(Header.HeaderTag.CHANGELOG, entries);
+            }
+        }
+    }
+}
@@ -5,8 +5,14 @@
 
 package com.artipie.rpm.benchmarks;
 
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.fs.FileStorage;
 import com.artipie.rpm.Digest;
+import com.artipie.rpm.RepoConfig;
+import com.artipie.rpm.Rpm;
 import com.artipie.rpm.RpmMetadata;
+import com.artipie.rpm.StandardNamingPolicy;
 import com.artipie.rpm.meta.XmlPackage;
 import com.artipie.rpm.pkg.FilePackage;
 import com.artipie.rpm.pkg.FilePackageHeader;
@@ -16,24 +22,22 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.Collection;
-import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
-import org.cactoos.map.MapEntry;
+import org.apache.commons.io.FileUtils;
 import org.cactoos.scalar.Unchecked;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
 import org.openjdk.jmh.annotations.Warmup;
 import org.openjdk.jmh.infra.Blackhole;
 import org.openjdk.jmh.runner.Runner;
@@ -56,9 +60,39 @@ import org.openjdk.jmh.runner.options.OptionsBuilder;
 public class RpmMetadataAppendBench {
 
     /**
-     * Benchmark directory.
+     * Packages count in the repository.
      */
-    private static final String BENCH_DIR = System.getenv("BENCH_DIR");
+    @Param("1000")
+    private int packages;
+
+    /**
+     * Count of the packages to append.
+     */
+    @Param("10")
+    private int append;
+
+    /**
+     * Files per package.
+     */
+    @Param("5")
+    private int files;
+
+    /**
+     * Changelog entries per package.
+     */
+    @Param("10")
+    private int changelog;
+
+    /**
+     * Size of each packaged file.
+     */
+    @Param("1024")
+    private int size;
+
+    /**
+     * Temporary directory with generated packages.
+     */
+    private Path dir;
 
     /**
      * Benchmark metadata.
@@ -72,30 +106,26 @@ public class RpmMetadataAppendBench {
 
     @Setup
     public void setup() throws IOException {
-        if (RpmMetadataAppendBench.BENCH_DIR == null) {
-            throw new IllegalStateException("BENCH_DIR environment variable must be set");
-        }
-        try (Stream<Path> files = Files.list(Paths.get(RpmMetadataAppendBench.BENCH_DIR))) {
-            final List<Path> flist = files.collect(Collectors.toList());
-            this.items = flist.stream().map(
-                file -> new XmlPackage.Stream(true).get()
-                    .filter(xml -> file.toString().contains(xml.filename()))
-                    .findFirst().map(
-                        item -> new MapEntry<>(
-                            item,
-                            new Unchecked<>(() -> Files.readAllBytes(file)).value()
-                        )
-                    )
-            ).filter(Optional::isPresent).map(Optional::get)
-                .collect(Collectors.toMap(MapEntry::getKey, MapEntry::getValue));
-            this.rpms = flist.stream().filter(item -> item.endsWith(".rpm"))
-                .map(
-                    item -> new FilePackage.Headers(
-                        new Unchecked<>(() -> new FilePackageHeader(item).header()).value(),
-                        item, Digest.SHA256, item.getFileName().toString()
-                    )
-                ).collect(Collectors.toList());
-        }
+        this.dir = Files.createTempDirectory("rpm-append-bench");
+        final Path repo = this.dir.resolve("repo");
+        new RpmCorpus(this.packages, this.files, this.changelog, this.size).generate(repo);
+        final Storage storage = new FileStorage(repo);
+        new Rpm(storage, new RepoConfig.Simple(Digest.SHA256, StandardNamingPolicy.PLAIN, true))
+            .batchUpdate(Key.ROOT).blockingAwait();
+        this.items = new RepodataXml(storage).unpacked();
+        this.rpms = new RpmCorpus(this.append, this.files, this.changelog, this.size)
+            .generate(this.dir.resolve("append"), this.packages).stream()
+            .map(
+                item -> new FilePackage.Headers(
+                    new Unchecked<>(() -> new FilePackageHeader(item).header()).value(),
+                    item, Digest.SHA256, item.getFileName().toString()
+                )
+            ).collect(Collectors.toList());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(this.dir.toFile());
     }
 
     @Benchmark
@@ -5,27 +5,32 @@
 
 package com.artipie.rpm.benchmarks;
 
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.fs.FileStorage;
+import com.artipie.rpm.Digest;
+import com.artipie.rpm.FileChecksum;
+import com.artipie.rpm.RepoConfig;
+import com.artipie.rpm.Rpm;
 import com.artipie.rpm.RpmMetadata;
+import com.artipie.rpm.StandardNamingPolicy;
 import com.artipie.rpm.meta.XmlPackage;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
-import org.cactoos.list.ListOf;
-import org.cactoos.map.MapEntry;
-import org.cactoos.scalar.Unchecked;
+import org.apache.commons.io.FileUtils;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
@@ -51,32 +56,63 @@ import org.openjdk.jmh.runner.options.OptionsBuilder;
 public class RpmMetadataRemoveBench {
 
     /**
-     * Benchmark directory.
+     * Packages count in the repository.
      */
-    private static final String BENCH_DIR = System.getenv("BENCH_DIR");
+    @Param("1000")
+    private int packages;
+
+    /**
+     * Count of the packages to remove.
+     */
+    @Param("10")
+    private int remove;
+
+    /**
+     * Files per package.
+     */
+    @Param("5")
+    private int files;
+
+    /**
+     * Changelog entries per package.
+     */
+    @Param("10")
+    private int changelog;
+
+    /**
+     * Size of each packaged file.
+     */
+    @Param("1024")
+    private int size;
 
     /**
      * Benchmark metadata.
      */
     private Map<XmlPackage, byte[]> items;
 
+    /**
+     * Checksums of the packages to remove.
+     */
+    private List<String> checksums;
+
     @Setup
     public void setup() throws IOException {
-        if (RpmMetadataRemoveBench.BENCH_DIR == null) {
-            throw new IllegalStateException("BENCH_DIR environment variable must be set");
-        }
-        try (Stream<Path> files = Files.list(Paths.get(RpmMetadataRemoveBench.BENCH_DIR))) {
-            this.items = files.map(
-                file -> new XmlPackage.Stream(true).get()
-                    .filter(xml -> file.toString().contains(xml.filename()))
-                    .findFirst().map(
-                        item -> new MapEntry<>(
-                            item,
-                            new Unchecked<>(() -> Files.readAllBytes(file)).value()
-                        )
-                    )
-            ).filter(Optional::isPresent).map(Optional::get)
-                .collect(Collectors.toMap(MapEntry::getKey, MapEntry::getValue));
+        final Path dir = Files.createTempDirectory("rpm-remove-bench");
+        try {
+            final List<Path> rpms = new RpmCorpus(
+                this.packages, this.files, this.changelog, this.size
+            ).generate(dir);
+            this.checksums = new ArrayList<>(this.remove);
+            for (final Path rpm : rpms.subList(0, Math.min(this.remove, rpms.size()))) {
+                this.checksums.add(new FileChecksum(rpm, Digest.SHA256).hex());
+            }
+            final Storage storage = new FileStorage(dir);
+            new Rpm(
+                storage, new RepoConfig.Simple(Digest.SHA256, StandardNamingPolicy.PLAIN, true)
+            ).batchUpdate(Key.ROOT).blockingAwait();
+            this.items = new RepodataXml(storage).unpacked();
+        } finally {
+            FileUtils.deleteDirectory(dir.toFile());
         }
     }
 
@@ -91,21 +127,7 @@ public class RpmMetadataRemoveBench {
                     new ByteArrayOutputStream()
                 )
             ).toArray(RpmMetadata.MetadataItem[]::new)
-        ).perform(
-            new ListOf<String>(
-                "35f6b7ceecb3b66d41991358113ae019dbabbac21509afbe770c06d6999d75c7",
-                "8dad6a68a8868c7e4595634affbad8677e48e259dac9180dd73a41ae8414305a",
-                "0ab1a22f716b480392a3fe28e9fafebd61ff8afe3196aa35ccc937413e0a3c4a",
-                "8440d6772087e9b4f0c3db57eb328594d1c18cdacd52f3565cba87fb0ce0cc0d",
-                "3f7e099180803c182194a5277fe6d7e2561550ca51598d5bc3334c11361090af",
-                "2cbe8499cd1c48e0440bcf0a8e4a1e4a336142d521db91e35a546ec99f7c50ac",
-                "05c37cb7b04bfe885f139340fb58aa8e0051b62e4215feded619a8cc726609a3",
-                "3d81ad4030684e997772d2bdf1dd5d8253fb66df68e30a09507aafb49ae359f6",
-                "5eb3cc0a41ea8770c2c4491e7d574e263aa3ae3bb1006a4b9b883abbd58cbfd9",
-                "2b068b878a023ebd9bec65767dea211035dbb2d72470fba08b8ca36a130cc5ec",
-                "5104d2c1feecedc2f19778219530f2f7731b296c5957659aaddc5968a555a020"
-            )
-        );
+        ).perform(this.checksums);
     }
 
     /**
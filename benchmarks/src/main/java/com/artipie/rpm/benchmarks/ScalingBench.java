@@ -0,0 +1,409 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+
+package com.artipie.rpm.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.json.Json;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonReader;
+import javax.json.JsonValue;
+import javax.json.JsonWriter;
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Scaling benchmark: measures {@code batchUpdate}, {@code batchUpdateIncrementally},
+ * {@link com.artipie.rpm.RpmMetadata.Append} and {@link com.artipie.rpm.RpmMetadata.Remove}
+ * on repositories of different sizes and computes scaling exponent of time, peak RSS
+ * and allocated bytes, i.e. slope of the metric against repository size in log-log
+ * scale. Exponent close to 1 means linear growth, close to 2 means quadratic.
+ * <p>
+ * Results are compared with JSON baseline, benchmark exits with non-zero code if any
+ * exponent is greater than the baseline exponent plus tolerance. Baseline is created
+ * when it does not exist or when {@code --update} option is set. Each measurement is
+ * run by {@link ScalingMeasurement} in a separate JVM. Generated packages are kept in
+ * work directory and reused by next runs.
+ * </p>
+ * @since 1.9
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+@SuppressWarnings("PMD.SystemPrintln")
+public final class ScalingBench {
+
+    /**
+     * Operations in the order of run, operations after {@code batchUpdate} use
+     * metadata created by it.
+     */
+    private static final List<String> OPERATIONS = Arrays.asList(
+        "batchUpdate", "append", "remove", "batchUpdateIncrementally"
+    );
+
+    /**
+     * Metrics.
+     */
+    private static final List<String> METRICS = Arrays.asList("millis", "rss", "allocated");
+
+    /**
+     * Number of the first package to append, packages of repositories have
+     * smaller numbers.
+     */
+    private static final int EXTRA = 10_000_000;
+
+    /**
+     * Command line.
+     */
+    private final CommandLine cli;
+
+    /**
+     * Ctor.
+     * @param cli Command line
+     */
+    public ScalingBench(final CommandLine cli) {
+        this.cli = cli;
+    }
+
+    /**
+     * Main.
+     * @param args CLI args
+     * @throws Exception On error
+     */
+    @SuppressWarnings("PMD.ProhibitPublicStaticMethods")
+    public static void main(final String... args) throws Exception {
+        final boolean passed = new ScalingBench(ScalingBench.parse(args)).run();
+        System.exit(passed ? 0 : 1);
+    }
+
+    /**
+     * Runs benchmark.
+     * @return True if no regression was found
+     * @throws IOException On error
+     * @throws InterruptedException If interrupted
+     */
+    public boolean run() throws IOException, InterruptedException {
+        final List<Integer> sizes = Stream.of(this.option("sizes").split(","))
+            .map(String::trim).map(Integer::parseInt).sorted().collect(Collectors.toList());
+        final List<String> ops = Arrays.asList(this.option("operations").split(","));
+        final Path work = Paths.get(this.option("work"));
+        final List<Path> corpus = ScalingBench.corpus(
+            work.resolve("packages"), sizes.get(sizes.size() - 1), 0
+        );
+        final Path extra = work.resolve("extra");
+        ScalingBench.corpus(extra, ScalingMeasurement.CHANGES, ScalingBench.EXTRA);
+        final JsonArrayBuilder results = Json.createArrayBuilder();
+        final List<JsonObject> all = new ArrayList<>(sizes.size() * ops.size());
+        for (final int size : sizes) {
+            final Path repo = work.resolve(String.format("repo-%d", size));
+            FileUtils.deleteDirectory(repo.toFile());
+            Files.createDirectories(repo);
+            for (final Path pkg : corpus.subList(0, size)) {
+                Files.createLink(repo.resolve(pkg.getFileName()), pkg);
+            }
+            for (final String op : ScalingBench.OPERATIONS) {
+                if (ops.contains(op) || "batchUpdate".equals(op)) {
+                    final JsonObject res = this.measure(op, size, repo, extra, work);
+                    System.out.println(res);
+                    if (ops.contains(op)) {
+                        results.add(res);
+                        all.add(res);
+                    }
+                }
+            }
+            FileUtils.deleteDirectory(repo.toFile());
+        }
+        final JsonObject current = Json.createObjectBuilder()
+            .add("results", results)
+            .add("exponents", ScalingBench.exponents(all))
+            .build();
+        ScalingBench.write(work.resolve("scaling-result.json"), current);
+        final Path file = Paths.get(this.option("baseline"));
+        boolean passed = true;
+        if (this.cli.hasOption("update") || !Files.exists(file)) {
+            ScalingBench.write(file, current);
+            System.out.printf("Baseline %s is saved%n", file);
+        } else {
+            passed = this.compare(ScalingBench.read(file), current);
+        }
+        return passed;
+    }
+
+    /**
+     * Runs measurement in separate JVM.
+     * @param operation Operation
+     * @param size Repository size
+     * @param repo Repository directory
+     * @param extra Packages to add
+     * @param work Work directory
+     * @return Measurement result
+     * @throws IOException On error
+     * @throws InterruptedException If interrupted
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private JsonObject measure(final String operation, final int size, final Path repo,
+        final Path extra, final Path work) throws IOException, InterruptedException {
+        final Path out = work.resolve(String.format("%s-%d.json", operation, size));
+        final List<String> cmd = new ArrayList<>(10);
+        cmd.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        if (this.cli.hasOption("jvm")) {
+            cmd.addAll(Arrays.asList(this.option("jvm").trim().split("\\s+")));
+        }
+        cmd.add("-cp");
+        cmd.add(System.getProperty("java.class.path"));
+        cmd.add(ScalingMeasurement.class.getName());
+        cmd.add(operation);
+        cmd.add(repo.toString());
+        cmd.add(extra.toString());
+        cmd.add(out.toString());
+        final int code = new ProcessBuilder(cmd).inheritIO().start().waitFor();
+        if (code != 0) {
+            throw new IllegalStateException(
+                String.format("Measurement of %s at %d packages failed", operation, size)
+            );
+        }
+        final JsonObject res = ScalingBench.read(out);
+        Files.delete(out);
+        final JsonObjectBuilder builder = Json.createObjectBuilder().add("packages", size);
+        res.forEach(builder::add);
+        return builder.build();
+    }
+
+    /**
+     * Compares exponents with baseline.
+     * @param baseline Baseline
+     * @param current Current results
+     * @return True if no exponent regressed
+     */
+    private boolean compare(final JsonObject baseline, final JsonObject current) {
+        final double tolerance = Double.parseDouble(this.option("tolerance"));
+        final JsonObject before = baseline.getJsonObject("exponents");
+        boolean passed = true;
+        for (final Map.Entry<String, JsonValue> entry
+            : current.getJsonObject("exponents").entrySet()) {
+            if (before.containsKey(entry.getKey())) {
+                final JsonObject was = before.getJsonObject(entry.getKey());
+                final JsonObject now = entry.getValue().asJsonObject();
+                for (final String metric : ScalingBench.METRICS) {
+                    if (was.containsKey(metric) && now.containsKey(metric)) {
+                        final double old = was.getJsonNumber(metric).doubleValue();
+                        final double exp = now.getJsonNumber(metric).doubleValue();
+                        if (exp > old + tolerance) {
+                            passed = false;
+                            System.err.printf(
+                                "%s %s scaling exponent regressed: %.2f -> %.2f%n",
+                                entry.getKey(), metric, old, exp
+                            );
+                        } else {
+                            System.out.printf(
+                                "%s %s scaling exponent: %.2f (baseline %.2f)%n",
+                                entry.getKey(), metric, exp, old
+                            );
+                        }
+                    }
+                }
+            }
+        }
+        return passed;
+    }
+
+    /**
+     * Option value or default.
+     * @param name Option name
+     * @return Value
+     */
+    private String option(final String name) {
+        return this.cli.getOptionValue(name, ScalingBench.defaults(name));
+    }
+
+    /**
+     * Scaling exponents of each operation and metric.
+     * @param results Measurement results
+     * @return Exponents by operation
+     */
+    private static JsonObject exponents(final List<JsonObject> results) {
+        final JsonObjectBuilder res = Json.createObjectBuilder();
+        final Map<String, List<JsonObject>> byop = results.stream().collect(
+            Collectors.groupingBy(item -> item.getString("operation"))
+        );
+        for (final Map.Entry<String, List<JsonObject>> entry : byop.entrySet()) {
+            if (entry.getValue().size() > 1) {
+                final JsonObjectBuilder metrics = Json.createObjectBuilder();
+                for (final String metric : ScalingBench.METRICS) {
+                    final List<JsonObject> valid = entry.getValue().stream()
+                        .filter(item -> item.getJsonNumber(metric).longValue() > 0)
+                        .collect(Collectors.toList());
+                    if (valid.size() > 1) {
+                        metrics.add(metric, ScalingBench.slope(valid, metric));
+                    }
+                }
+                res.add(entry.getKey(), metrics);
+            }
+        }
+        return res.build();
+    }
+
+    /**
+     * Least squares slope of metric against packages count in log-log scale.
+     * @param results Results
+     * @param metric Metric
+     * @return Slope
+     */
+    private static double slope(final List<JsonObject> results, final String metric) {
+        final double[] xs = results.stream()
+            .mapToDouble(item -> Math.log(item.getInt("packages"))).toArray();
+        final double[] ys = results.stream()
+            .mapToDouble(item -> Math.log(item.getJsonNumber(metric).doubleValue())).toArray();
+        final double mx = Arrays.stream(xs).average().orElse(0);
+        final double my = Arrays.stream(ys).average().orElse(0);
+        double num = 0;
+        double den = 0;
+        for (int idx = 0; idx < xs.length; idx += 1) {
+            num += (xs[idx] - mx) * (ys[idx] - my);
+            den += (xs[idx] - mx) * (xs[idx] - mx);
+        }
+        return num / den;
+    }
+
+    /**
+     * Generates missing packages of the corpus in directory.
+     * @param dir Directory
+     * @param count Packages count
+     * @param offset Number of the first package
+     * @return Packages sorted by name
+     * @throws IOException On error
+     */
+    private static List<Path> corpus(final Path dir, final int count, final int offset)
+        throws IOException {
+        Files.createDirectories(dir);
+        final int existing = ScalingBench.rpms(dir).size();
+        if (existing < count) {
+            System.out.printf("Generating %d packages%n", count - existing);
+            new RpmCorpus(count - existing, 5, 5, 64).generate(dir, offset + existing);
+        }
+        return ScalingBench.rpms(dir);
+    }
+
+    /**
+     * RPM packages in directory sorted by name.
+     * @param dir Directory
+     * @return Packages
+     * @throws IOException On error
+     */
+    private static List<Path> rpms(final Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> file.toString().endsWith(".rpm")).sorted()
+                .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Reads JSON object.
+     * @param file File
+     * @return JSON object
+     * @throws IOException On error
+     */
+    private static JsonObject read(final Path file) throws IOException {
+        try (InputStream input = Files.newInputStream(file);
+            JsonReader reader = Json.createReader(input)) {
+            return reader.readObject();
+        }
+    }
+
+    /**
+     * Writes JSON object.
+     * @param file File
+     * @param json JSON object
+     * @throws IOException On error
+     */
+    private static void write(final Path file, final JsonObject json) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file);
+            JsonWriter writer = Json.createWriter(out)) {
+            writer.writeObject(json);
+        }
+    }
+
+    /**
+     * Option default value.
+     * @param name Option name
+     * @return Default value
+     */
+    private static String defaults(final String name) {
+        final String res;
+        switch (name) {
+            case "sizes":
+                res = "1000,10000,100000,500000";
+                break;
+            case "operations":
+                res = String.join(",", ScalingBench.OPERATIONS);
+                break;
+            case "work":
+                res = "target/scaling";
+                break;
+            case "baseline":
+                res = "scaling-baseline.json";
+                break;
+            case "tolerance":
+                res = "0.15";
+                break;
+            default:
+                res = null;
+                break;
+        }
+        return res;
+    }
+
+    /**
+     * Parses command line.
+     * @param args Arguments
+     * @return Command line
+     * @throws ParseException On invalid arguments
+     */
+    private static CommandLine parse(final String... args) throws ParseException {
+        final Options opts = new Options();
+        opts.addOption(
+            Option.builder("s").longOpt("sizes").hasArg()
+                .desc("Comma separated repository sizes").build()
+        );
+        opts.addOption(
+            Option.builder("o").longOpt("operations").hasArg()
+                .desc("Comma separated operations").build()
+        );
+        opts.addOption(
+            Option.builder("w").longOpt("work").hasArg()
+                .desc("Work directory to keep generated packages").build()
+        );
+        opts.addOption(
+            Option.builder("b").longOpt("baseline").hasArg().desc("Baseline JSON file").build()
+        );
+        opts.addOption(
+            Option.builder("t").longOpt("tolerance").hasArg()
+                .desc("Allowed scaling exponent increase").build()
+        );
+        opts.addOption(
+            Option.builder("j").longOpt("jvm").hasArg()
+                .desc("Options of measurement JVM, e.g. -Xmx4g").build()
+        );
+        opts.addOption(
+            Option.builder("u").longOpt("update").desc("Save results as baseline").build()
+        );
+        return new DefaultParser().parse(opts, args);
+    }
+}
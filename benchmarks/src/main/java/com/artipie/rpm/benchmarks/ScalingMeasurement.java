@@ -0,0 +1,349 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+
+package com.artipie.rpm.benchmarks;
+
+import com.artipie.asto.Key;
+import com.artipie.asto.fs.FileStorage;
+import com.artipie.rpm.Digest;
+import com.artipie.rpm.FileChecksum;
+import com.artipie.rpm.RepoConfig;
+import com.artipie.rpm.Rpm;
+import com.artipie.rpm.RpmMetadata;
+import com.artipie.rpm.StandardNamingPolicy;
+import com.artipie.rpm.meta.XmlPackage;
+import com.artipie.rpm.pkg.FilePackage;
+import com.artipie.rpm.pkg.FilePackageHeader;
+import com.artipie.rpm.pkg.Package;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import javax.json.Json;
+import org.apache.commons.io.output.NullOutputStream;
+
+/**
+ * Single measurement of the scaling benchmark, it's run by {@link ScalingBench} in
+ * a separate JVM, so that peak RSS of the process belongs to one operation only.
+ * Arguments are operation name, repository directory, directory with packages to
+ * add and output file, result is written to output file as JSON object with
+ * operation time in milliseconds, peak RSS and allocated bytes.
+ * <p>
+ * Operation is prepared before measurement start: {@code append} and {@code remove}
+ * require repository metadata created by {@code batchUpdate}, packages to append
+ * are parsed and checksums of packages to remove are computed in advance.
+ * Allocated bytes are summed over threads alive at the end of the operation.
+ * </p>
+ * @since 1.9
+ */
+public final class ScalingMeasurement {
+
+    /**
+     * Count of packages to append or remove.
+     */
+    static final int CHANGES = 100;
+
+    /**
+     * Repository configuration.
+     */
+    private static final RepoConfig CONFIG = new RepoConfig.Simple(
+        Digest.SHA256, StandardNamingPolicy.PLAIN, true
+    );
+
+    /**
+     * Operation name.
+     */
+    private final String operation;
+
+    /**
+     * Repository directory.
+     */
+    private final Path repo;
+
+    /**
+     * Packages to add.
+     */
+    private final Path extra;
+
+    /**
+     * Ctor.
+     * @param operation Operation name
+     * @param repo Repository directory
+     * @param extra Packages to add
+     */
+    public ScalingMeasurement(final String operation, final Path repo, final Path extra) {
+        this.operation = operation;
+        this.repo = repo;
+        this.extra = extra;
+    }
+
+    /**
+     * Main.
+     * @param args Operation, repository directory, extra packages directory, output file
+     * @throws IOException On error
+     */
+    public static void main(final String... args) throws IOException {
+        final String operation = args[0];
+        final Result result = new ScalingMeasurement(
+            operation, Paths.get(args[1]), Paths.get(args[2])
+        ).measure();
+        Files.write(
+            Paths.get(args[3]),
+            Json.createObjectBuilder()
+                .add("operation", operation)
+                .add("millis", result.millis)
+                .add("rss", ScalingMeasurement.peakRss())
+                .add("allocated", result.allocated)
+                .build().toString().getBytes(StandardCharsets.UTF_8)
+        );
+        System.exit(0);
+    }
+
+    /**
+     * Prepares and measures operation.
+     * @return Measured time and allocation
+     * @throws IOException On error
+     */
+    public Result measure() throws IOException {
+        final Result res;
+        switch (this.operation) {
+            case "batchUpdate":
+                res = Result.of(
+                    () -> new Rpm(new FileStorage(this.repo), ScalingMeasurement.CONFIG)
+                        .batchUpdate(Key.ROOT).blockingAwait()
+                );
+                break;
+            case "batchUpdateIncrementally":
+                res = this.incremental();
+                break;
+            case "append":
+                res = this.append();
+                break;
+            case "remove":
+                res = this.remove();
+                break;
+            default:
+                throw new IllegalArgumentException(
+                    String.format("Unknown operation: %s", this.operation)
+                );
+        }
+        return res;
+    }
+
+    /**
+     * Adds extra packages to repository and measures incremental update.
+     * @return Measured time and allocation
+     * @throws IOException On error
+     */
+    private Result incremental() throws IOException {
+        for (final Path pkg : ScalingMeasurement.rpms(this.extra)) {
+            Files.createLink(this.repo.resolve(pkg.getFileName()), pkg);
+        }
+        return Result.of(
+            () -> new Rpm(new FileStorage(this.repo), ScalingMeasurement.CONFIG)
+                .batchUpdateIncrementally(Key.ROOT).blockingAwait()
+        );
+    }
+
+    /**
+     * Measures appending extra packages to repository metadata.
+     * @return Measured time and allocation
+     * @throws IOException On error
+     */
+    private Result append() throws IOException {
+        final Collection<Package.Meta> metas = new ArrayList<>(ScalingMeasurement.CHANGES);
+        for (final Path pkg : ScalingMeasurement.rpms(this.extra)) {
+            metas.add(
+                new FilePackage.Headers(
+                    new FilePackageHeader(pkg).header(), pkg, Digest.SHA256,
+                    pkg.getFileName().toString()
+                )
+            );
+        }
+        return this.withMetadata(items -> new RpmMetadata.Append(items).perform(metas));
+    }
+
+    /**
+     * Measures removing first repository packages from metadata.
+     * @return Measured time and allocation
+     * @throws IOException On error
+     */
+    private Result remove() throws IOException {
+        final List<String> checksums = new ArrayList<>(ScalingMeasurement.CHANGES);
+        final List<Path> rpms = ScalingMeasurement.rpms(this.repo);
+        for (final Path pkg : rpms.subList(0, Math.min(ScalingMeasurement.CHANGES, rpms.size()))) {
+            checksums.add(new FileChecksum(pkg, Digest.SHA256).hex());
+        }
+        return this.withMetadata(items -> new RpmMetadata.Remove(items).perform(checksums));
+    }
+
+    /**
+     * Measures operation over repository metadata items, metadata is read from
+     * gzipped files and written to discarding output.
+     * @param action Operation
+     * @return Measured time and allocation
+     * @throws IOException On error
+     */
+    private Result withMetadata(final MetadataAction action) throws IOException {
+        final List<InputStream> inputs = new ArrayList<>(3);
+        final List<RpmMetadata.MetadataItem> items = new ArrayList<>(3);
+        try {
+            for (final XmlPackage xml : XmlPackage.values()) {
+                final Path file = this.repo.resolve("repodata")
+                    .resolve(String.format("%s.xml.gz", xml.filename()));
+                final InputStream input = new GZIPInputStream(Files.newInputStream(file));
+                inputs.add(input);
+                items.add(
+                    new RpmMetadata.MetadataItem(
+                        xml, Optional.of(input), NullOutputStream.NULL_OUTPUT_STREAM
+                    )
+                );
+            }
+            return Result.of(
+                () -> action.run(items.toArray(new RpmMetadata.MetadataItem[0]))
+            );
+        } finally {
+            for (final Closeable input : inputs) {
+                input.close();
+            }
+        }
+    }
+
+    /**
+     * RPM packages in directory sorted by name.
+     * @param dir Directory
+     * @return Packages
+     * @throws IOException On error
+     */
+    private static List<Path> rpms(final Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> file.toString().endsWith(".rpm")).sorted()
+                .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Peak resident set size of the process from {@code /proc/self/status}.
+     * @return Peak RSS in bytes or -1 if not available
+     * @throws IOException On error
+     */
+    private static long peakRss() throws IOException {
+        final Path status = Paths.get("/proc/self/status");
+        long res = -1;
+        if (Files.exists(status)) {
+            res = Files.readAllLines(status).stream()
+                .filter(line -> line.startsWith("VmHWM:"))
+                .findFirst()
+                .map(
+                    line -> Long.parseLong(
+                        Arrays.stream(line.split("\\s+")).skip(1).findFirst().orElse("-1")
+                    ) * 1024
+                ).orElse(-1L);
+        }
+        return res;
+    }
+
+    /**
+     * Action over metadata items.
+     * @since 1.9
+     */
+    @FunctionalInterface
+    private interface MetadataAction {
+
+        /**
+         * Runs action.
+         * @param items Metadata items
+         * @throws IOException On error
+         */
+        void run(RpmMetadata.MetadataItem... items) throws IOException;
+    }
+
+    /**
+     * Measured operation.
+     * @since 1.9
+     */
+    @FunctionalInterface
+    private interface Operation {
+
+        /**
+         * Runs operation.
+         * @throws IOException On error
+         */
+        void run() throws IOException;
+    }
+
+    /**
+     * Measured time and allocation of the operation.
+     * @since 1.9
+     */
+    public static final class Result {
+
+        /**
+         * Time in milliseconds.
+         */
+        private final long millis;
+
+        /**
+         * Allocated bytes.
+         */
+        private final long allocated;
+
+        /**
+         * Ctor.
+         * @param millis Time in milliseconds
+         * @param allocated Allocated bytes
+         */
+        private Result(final long millis, final long allocated) {
+            this.millis = millis;
+            this.allocated = allocated;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                Locale.US, "%d ms, %d bytes allocated", this.millis, this.allocated
+            );
+        }
+
+        /**
+         * Measures operation.
+         * @param operation Operation
+         * @return Measured values
+         * @throws IOException On error
+         */
+        private static Result of(final Operation operation) throws IOException {
+            final long before = Result.allocated();
+            final long start = System.nanoTime();
+            operation.run();
+            final long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            return new Result(millis, Result.allocated() - before);
+        }
+
+        /**
+         * Bytes allocated by alive threads.
+         * @return Allocated bytes
+         */
+        private static long allocated() {
+            final com.sun.management.ThreadMXBean bean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            return Arrays.stream(bean.getThreadAllocatedBytes(bean.getAllThreadIds()))
+                .filter(bytes -> bytes > 0).sum();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+
+package com.artipie.rpm.benchmarks;
+
+import com.artipie.rpm.meta.XmlEvent;
+import com.fasterxml.aalto.stax.OutputFactoryImpl;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLStreamException;
+import org.apache.commons.io.output.NullOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmark for {@link XmlEvent} implementations, events are written to
+ * discarding output inside of the root element.
+ * @since 1.9
+ * @checkstyle DesignForExtensionCheck (500 lines)
+ * @checkstyle JavadocMethodCheck (500 lines)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class XmlEventBench {
+
+    /**
+     * Xml events writer.
+     */
+    private XMLEventWriter writer;
+
+    @Setup(Level.Iteration)
+    public void setup() throws XMLStreamException {
+        this.writer = new OutputFactoryImpl()
+            .createXMLEventWriter(NullOutputStream.NULL_OUTPUT_STREAM);
+        final XMLEventFactory events = XMLEventFactory.newFactory();
+        this.writer.add(events.createStartDocument());
+        this.writer.add(events.createStartElement("", "", "metadata"));
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws XMLStreamException {
+        this.writer.close();
+    }
+
+    @Benchmark
+    public void primary(final BenchPackage pkg) throws IOException {
+        new XmlEvent.Primary().add(this.writer, pkg.meta());
+    }
+
+    @Benchmark
+    public void filelists(final BenchPackage pkg) throws IOException {
+        new XmlEvent.Filelists().add(this.writer, pkg.meta());
+    }
+
+    @Benchmark
+    public void other(final BenchPackage pkg) throws IOException {
+        new XmlEvent.Other().add(this.writer, pkg.meta());
+    }
+
+    @Benchmark
+    public void packageAndVersion(final BenchPackage pkg) throws IOException {
+        new XmlEvent.PackageAndVersion().add(this.writer, pkg.meta());
+    }
+
+    @Benchmark
+    public void files(final BenchPackage pkg) throws IOException {
+        new XmlEvent.Files().add(this.writer, pkg.meta());
+    }
+
+    /**
+     * Main.
+     * @param args CLI args
+     * @throws RunnerException On benchmark failure
+     */
+    public static void main(final String... args) throws RunnerException {
+        new Runner(
+            new OptionsBuilder()
+                .include(XmlEventBench.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .forks(1)
+                .build()
+        ).run();
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+
+package com.artipie.rpm.benchmarks;
+
+import com.artipie.rpm.meta.XmlPrimaryMaid;
+import com.fasterxml.aalto.stax.InputFactoryImpl;
+import com.fasterxml.aalto.stax.OutputFactoryImpl;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.XMLEvent;
+import org.apache.commons.io.output.NullOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmark for removing packages from {@code primary.xml}: {@link XmlPrimaryMaid.Stream},
+ * which works with cursor reader and copies kept records as bytes, is compared with
+ * event reader/writer baseline, which buffers events of each package, as the maid did
+ * before. Primary is
+ * generated in setup, each package record has provides and requires entries and files.
+ * @since 1.9
+ * @checkstyle MagicNumberCheck (500 lines)
+ * @checkstyle DesignForExtensionCheck (500 lines)
+ * @checkstyle JavadocMethodCheck (500 lines)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+public class XmlMaidBench {
+
+    /**
+     * Packages count in primary.
+     */
+    @Param("100000")
+    private int packages;
+
+    /**
+     * Count of the packages to remove.
+     */
+    @Param("10")
+    private int remove;
+
+    /**
+     * Primary xml.
+     */
+    private byte[] primary;
+
+    /**
+     * Checksums of the packages to remove.
+     */
+    private Set<String> checksums;
+
+    @Setup
+    public void setup() {
+        final StringBuilder xml = new StringBuilder(this.packages * 1024)
+            .append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n")
+            .append("<metadata xmlns=\"http://linux.duke.edu/metadata/common\" ")
+            .append("xmlns:rpm=\"http://linux.duke.edu/metadata/rpm\" packages=\"")
+            .append(this.packages).append("\">\n");
+        final List<String> all = new ArrayList<>(this.packages);
+        for (int idx = 0; idx < this.packages; idx += 1) {
+            final String checksum = String.format("%064x", idx);
+            all.add(checksum);
+            XmlMaidBench.record(xml, idx, checksum);
+        }
+        xml.append("</metadata>\n");
+        this.primary = xml.toString().getBytes(StandardCharsets.UTF_8);
+        this.checksums = new HashSet<>(this.remove);
+        final int step = Math.max(this.packages / Math.max(this.remove, 1), 1);
+        for (int idx = 0; idx < this.remove && idx * step < all.size(); idx += 1) {
+            this.checksums.add(all.get(idx * step));
+        }
+    }
+
+    @Benchmark
+    public long cursor() throws IOException {
+        return new XmlPrimaryMaid.Stream(
+            new ByteArrayInputStream(this.primary), NullOutputStream.NULL_OUTPUT_STREAM
+        ).clean(this.checksums);
+    }
+
+    @Benchmark
+    public long events() throws XMLStreamException {
+        final XMLEventReader reader =
+            new InputFactoryImpl().createXMLEventReader(new ByteArrayInputStream(this.primary));
+        final XMLEventWriter writer =
+            new OutputFactoryImpl().createXMLEventWriter(NullOutputStream.NULL_OUTPUT_STREAM);
+        try {
+            final XMLEventFactory events = XMLEventFactory.newFactory();
+            writer.add(events.createStartDocument());
+            writer.add(events.createStartElement("", "", "metadata"));
+            final long res = XmlMaidBench.events(this.checksums, reader, writer);
+            writer.add(events.createEndElement("", "", "metadata"));
+            return res;
+        } finally {
+            writer.close();
+            reader.close();
+        }
+    }
+
+    /**
+     * Main.
+     * @param args CLI args
+     * @throws RunnerException On benchmark failure
+     */
+    public static void main(final String... args) throws RunnerException {
+        new Runner(
+            new OptionsBuilder()
+                .include(XmlMaidBench.class.getSimpleName())
+                .forks(1)
+                .build()
+        ).run();
+    }
+
+    /**
+     * Event based baseline: events of each package are buffered until package end
+     * and written if package checksum is not removed.
+     * @param checksums Checksums to remove
+     * @param reader Reader
+     * @param writer Writer
+     * @return Kept packages count
+     * @throws XMLStreamException On error
+     */
+    private static long events(final Collection<String> checksums,
+        final XMLEventReader reader, final XMLEventWriter writer) throws XMLStreamException {
+        final List<XMLEvent> pckg = new ArrayList<>(10);
+        boolean valid = true;
+        long cnt = 0;
+        while (reader.hasNext()) {
+            XMLEvent event = reader.nextEvent();
+            if (XmlMaidBench.isStart(event, "package")) {
+                pckg.clear();
+            }
+            pckg.add(event);
+            if (XmlMaidBench.isStart(event, "checksum")) {
+                event = reader.nextEvent();
+                pckg.add(event);
+                valid = event.isCharacters()
+                    && !checksums.contains(event.asCharacters().getData());
+            }
+            if (event.isEndElement()
+                && "package".equals(event.asEndElement().getName().getLocalPart()) && valid) {
+                cnt += 1;
+                for (final XMLEvent item : pckg) {
+                    writer.add(item);
+                }
+            }
+        }
+        return cnt;
+    }
+
+    /**
+     * Is event a start of the tag.
+     * @param event Event
+     * @param tag Tag name
+     * @return True if start of the tag
+     */
+    private static boolean isStart(final XMLEvent event, final String tag) {
+        return event.isStartElement()
+            && event.asStartElement().getName().getLocalPart().equals(tag);
+    }
+
+    /**
+     * Appends package record.
+     * @param xml Xml to append to
+     * @param idx Package index
+     * @param checksum Package checksum
+     */
+    private static void record(final StringBuilder xml, final int idx, final String checksum) {
+        xml.append("<package type=\"rpm\"><name>bench-").append(idx).append("</name>")
+            .append("<arch>x86_64</arch><version epoch=\"0\" ver=\"1.0\" rel=\"1\"/>")
+            .append("<checksum type=\"sha256\" pkgid=\"YES\">").append(checksum)
+            .append("</checksum><summary>Benchmark package</summary>")
+            .append("<description>Benchmark package &lt;").append(idx)
+            .append("&gt;</description><packager>artipie</packager>")
+            .append("<url>https://artipie.com</url><time file=\"1\" build=\"1\"/>")
+            .append("<size package=\"4096\" installed=\"8192\" archive=\"8192\"/>")
+            .append("<location href=\"bench-").append(idx).append(".rpm\"/><format>")
+            .append("<rpm:license>MIT</rpm:license><rpm:group>Development</rpm:group>")
+            .append("<rpm:header-range start=\"4504\" end=\"6000\"/><rpm:provides>")
+            .append("<rpm:entry name=\"bench-").append(idx)
+            .append("\" flags=\"EQ\" epoch=\"0\" ver=\"1.0\" rel=\"1\"/></rpm:provides>")
+            .append("<rpm:requires><rpm:entry name=\"libc.so.6()(64bit)\"/>")
+            .append("<rpm:entry name=\"rpmlib(CompressedFileNames)\" flags=\"LE\"/>")
+            .append("</rpm:requires><file>/usr/bin/bench-").append(idx).append("</file>")
+            .append("</format></package>\n");
+    }
+}
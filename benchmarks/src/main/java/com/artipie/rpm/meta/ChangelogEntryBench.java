@@ -0,0 +1,83 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+
+package com.artipie.rpm.meta;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmark for {@link ChangelogEntry} parsing. It's placed in the same package
+ * as {@link ChangelogEntry} to access package private class.
+ * @since 1.9
+ * @checkstyle DesignForExtensionCheck (500 lines)
+ * @checkstyle JavadocMethodCheck (500 lines)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class ChangelogEntryBench {
+
+    /**
+     * Lines in changelog entry content.
+     */
+    @Param({"1", "20"})
+    private int lines;
+
+    /**
+     * Changelog entry.
+     */
+    private String entry;
+
+    @Setup
+    public void setup() {
+        final StringBuilder content = new StringBuilder(
+            "* Mon Jan 04 2021 Bench Author <bench@artipie.com> - 1.0-1"
+        );
+        for (int idx = 0; idx < this.lines; idx += 1) {
+            content.append(String.format("\n- Change %d", idx));
+        }
+        this.entry = content.toString();
+    }
+
+    @Benchmark
+    public void parse(final Blackhole bhl) {
+        final ChangelogEntry parsed = new ChangelogEntry(this.entry);
+        bhl.consume(parsed.author());
+        bhl.consume(parsed.date());
+        bhl.consume(parsed.content());
+    }
+
+    /**
+     * Main.
+     * @param args CLI args
+     * @throws RunnerException On benchmark failure
+     */
+    public static void main(final String... args) throws RunnerException {
+        new Runner(
+            new OptionsBuilder()
+                .include(ChangelogEntryBench.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .forks(1)
+                .build()
+        ).run();
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm;
+
+import com.artipie.asto.Content;
+import com.artipie.rpm.meta.MergedXml;
+import com.artipie.rpm.meta.XmlPackage;
+import com.artipie.rpm.misc.ContentAsStream;
+import com.artipie.rpm.misc.ContentPipe;
+import com.artipie.rpm.pkg.Package;
+import hu.akarnokd.rxjava2.interop.SingleInterop;
+import io.reactivex.Single;
+import io.reactivex.schedulers.Schedulers;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+
+/**
+ * Non-blocking variant of {@link RpmMetadata}: reads metadata from {@link Content},
+ * publishes results as {@link Content} and returns {@link CompletionStage}. Metadata
+ * is streamed between input content, xml engine and output consumer with
+ * backpressure, nothing is buffered in memory or on disk except of merged primary
+ * temp file. Xml engine is blocking, so it works on {@link Schedulers#io()} and never
+ * blocks the caller thread, e.g. event loop. Usage:
+ * <pre>
+ * new AsyncMetadata(
+ *     new AsyncMetadata.Item(
+ *         XmlPackage.PRIMARY, Optional.of(content),
+ *         res -> storage.save(key, res)
+ *     ),
+ *     ...
+ * ).update(checksums, packages)
+ * </pre>
+ * @since 1.9
+ */
+public final class AsyncMetadata {
+
+    /**
+     * Metadata items.
+     */
+    private final List<Item> items;
+
+    /**
+     * Ctor.
+     * @param items Metadata items
+     */
+    public AsyncMetadata(final Item... items) {
+        this.items = Arrays.asList(items);
+    }
+
+    /**
+     * Appends records about provided RPMs.
+     * @param packages RPMs to append
+     * @return Completion with packages count
+     */
+    public CompletionStage<MergedXml.Result> append(final Collection<Package.Meta> packages) {
+        return this.update(Collections.emptySet(), packages);
+    }
+
+    /**
+     * Removes records about RPMs with provided checksums.
+     * @param checksums Checksums of the RPMs to remove
+     * @return Completion with packages count
+     */
+    public CompletionStage<MergedXml.Result> remove(final Collection<String> checksums) {
+        return this.update(checksums, Collections.emptyList());
+    }
+
+    /**
+     * Removes records about RPMs with provided checksums and appends records about
+     * provided RPMs with {@link RpmMetadata.Update}. Completes when metadata is
+     * processed and all items outputs are consumed.
+     * @param checksums Checksums of the RPMs to remove
+     * @param packages RPMs to append
+     * @return Completion with packages count
+     */
+    public CompletionStage<MergedXml.Result> update(final Collection<String> checksums,
+        final Collection<Package.Meta> packages) {
+        final List<ContentPipe> pipes = new ArrayList<>(this.items.size());
+        final List<CompletableFuture<?>> all = new ArrayList<>(this.items.size() + 1);
+        for (final Item item : this.items) {
+            final ContentPipe pipe = new ContentPipe();
+            pipes.add(pipe);
+            all.add(
+                item.output.apply(pipe.content()).toCompletableFuture()
+                    .whenComplete((nothing, err) -> pipe.cancel())
+            );
+        }
+        final CompletableFuture<MergedXml.Result> xml = Single.fromCallable(
+            () -> {
+                final List<OutputStream> outs = new ArrayList<>(pipes.size());
+                final RpmMetadata.MetadataItem[] meta =
+                    new RpmMetadata.MetadataItem[this.items.size()];
+                for (int idx = 0; idx < meta.length; idx += 1) {
+                    final Item item = this.items.get(idx);
+                    outs.add(pipes.get(idx).output());
+                    meta[idx] = new RpmMetadata.MetadataItem(
+                        item.type,
+                        item.input.map(content -> new ContentAsStream(content).stream()),
+                        outs.get(idx)
+                    );
+                }
+                final MergedXml.Result res = new RpmMetadata.Update(meta)
+                    .perform(checksums, packages);
+                for (final OutputStream out : outs) {
+                    out.close();
+                }
+                return res;
+            }
+        ).doOnError(err -> pipes.forEach(pipe -> pipe.fail(err)))
+            .subscribeOn(Schedulers.io())
+            .to(SingleInterop.get()).toCompletableFuture();
+        all.add(xml);
+        return CompletableFuture.allOf(all.toArray(new CompletableFuture<?>[0]))
+            .thenCompose(nothing -> xml);
+    }
+
+    /**
+     * Metadata item.
+     * @since 1.9
+     */
+    public static final class Item {
+
+        /**
+         * Xml metadata type.
+         */
+        private final XmlPackage type;
+
+        /**
+         * Xml metadata input.
+         */
+        private final Optional<Content> input;
+
+        /**
+         * Consumer of the resulting xml metadata.
+         */
+        private final Function<Content, CompletionStage<Void>> output;
+
+        /**
+         * Ctor.
+         * @param type Xml type
+         * @param input Xml metadata input
+         * @param output Consumer of the resulting xml metadata, e.g. storage save
+         */
+        public Item(final XmlPackage type, final Optional<Content> input,
+            final Function<Content, CompletionStage<Void>> output) {
+            this.type = type;
+            this.input = input;
+            this.output = output;
+        }
+    }
+}
@@ -6,7 +6,9 @@ package com.artipie.rpm;
 
 import com.artipie.asto.Key;
 import com.artipie.asto.fs.FileStorage;
+import io.reactivex.disposables.Disposable;
 import java.nio.file.Path;
+import java.time.Duration;
 
 /**
  * Cli tool main class.
@@ -29,9 +31,24 @@ public final class Cli {
     }
 
     /**
-     * Main method of Cli tool.
+     * Main method of Cli tool. Updates repository metadata, {@code verify} command
+     * checks existing repository metadata and prints json report.
      *
      * @param args Arguments of command line
+     */
+    public static void main(final String... args) {
+        final CliArguments cliargs = new CliArguments(args);
+        if (cliargs.verify()) {
+            Cli.verify(cliargs.repository(), cliargs.rehash());
+        } else {
+            Cli.update(cliargs);
+        }
+    }
+
+    /**
+     * Updates repository metadata.
+     *
+     * @param cliargs Arguments of command line
      * @checkstyle IllegalCatchCheck (70 lines)
      * @checkstyle LineLengthCheck (50 lines)
      */
@@ -42,8 +59,7 @@ public final class Cli {
             "PMD.AvoidDuplicateLiterals"
         }
     )
-    public static void main(final String... args) {
-        final CliArguments cliargs = new CliArguments(args);
+    private static void update(final CliArguments cliargs) {
         final RepoConfig cnfg = cliargs.config();
         final NamingPolicy naming = cnfg.naming();
         System.out.printf("RPM naming-policy=%s\n", naming);
@@ -68,10 +84,37 @@ public final class Cli {
         }
     }
 
+    /**
+     * Verifies repository metadata and prints json report.
+     *
+     * @param repository Repository path
+     * @param rehash Count of threads to re-hash packages, zero to skip
+     * @checkstyle IllegalCatchCheck (20 lines)
+     */
+    @SuppressWarnings({"PMD.SystemPrintln", "PMD.AvoidCatchingGenericException"})
+    private static void verify(final Path repository, final int rehash) {
+        try {
+            System.out.println(new RepodataVerifier(repository, rehash).verify());
+        } catch (final Exception err) {
+            System.err.printf("RPM verification failed: %s\n", err.getLocalizedMessage());
+            err.printStackTrace(System.err);
+        }
+    }
+
     /**
      * Run CLI tool.
      */
+    @SuppressWarnings("PMD.SystemPrintln")
     private void run() {
-        this.rpm.batchUpdate(Key.ROOT).blockingAwait();
+        final Progress progress = new Progress();
+        final Disposable printer = progress.updates(Duration.ofSeconds(1)).subscribe(
+            snapshot -> System.out.printf("RPM progress: %s\n", snapshot)
+        );
+        try {
+            this.rpm.batchUpdate(Key.ROOT, progress).blockingAwait();
+        } finally {
+            printer.dispose();
+        }
+        System.out.printf("RPM updated: %s\n", progress.snapshot());
     }
 }
@@ -4,13 +4,17 @@
  */
 package com.artipie.rpm;
 
+import com.artipie.rpm.files.Compression;
+import com.artipie.rpm.pkg.PackageVerifier;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
+import java.util.Optional;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.Option;
 import org.apache.commons.cli.Options;
 import org.apache.commons.cli.ParseException;
 
@@ -18,19 +22,39 @@ import org.apache.commons.cli.ParseException;
  * Cli tool argument parsing.
  *
  * Arguments values must be passed immediately after argument declaration (e.g
- * -dsha256) or after ´=´ signal (e.g -d=sha256).
+ * -dsha256) or after ´=´ signal (e.g -d=sha256). Repository metadata is updated by
+ * default, {@code verify} command before repository path checks existing metadata.
  *
  * @since 0.9
  */
 public final class CliArguments {
 
+    /**
+     * Verify command.
+     */
+    private static final String VERIFY = "verify";
+
+    /**
+     * Re-hash option of verify command.
+     */
+    private static final Option REHASH = Option.builder("r")
+        .argName("threads")
+        .longOpt("rehash")
+        .desc("(optional, default 0) verify command re-hashes packages with given threads count")
+        .hasArg()
+        .build();
+
     /**
      * Cli options.
      */
     private static final Options OPTIONS = new Options()
         .addOption(RpmOptions.DIGEST.option())
         .addOption(RpmOptions.NAMING_POLICY.option())
-        .addOption(RpmOptions.FILELISTS.option());
+        .addOption(RpmOptions.FILELISTS.option())
+        .addOption(RpmOptions.COMPRESSION.option())
+        .addOption(RpmOptions.VERIFY_PACKAGES.option())
+        .addOption(RpmOptions.KEYRING.option())
+        .addOption(CliArguments.REHASH);
 
     /**
      * Cli.
@@ -69,7 +93,38 @@ public final class CliArguments {
                 )
             );
         }
-        return Paths.get(args.get(0));
+        final Path res;
+        if (this.verify()) {
+            res = Paths.get(args.get(1));
+        } else {
+            res = Paths.get(args.get(0));
+        }
+        return res;
+    }
+
+    /**
+     * Is it verify command.
+     * @return True if verify command is passed before repository path
+     */
+    public boolean verify() {
+        final List<String> args = this.cli.getArgList();
+        return args.size() > 1 && CliArguments.VERIFY.equals(args.get(0));
+    }
+
+    /**
+     * Count of threads to re-hash packages by verify command.
+     * @return Threads count, zero to skip re-hashing
+     * @throws IllegalArgumentException If the arg value is incorrect
+     */
+    public int rehash() {
+        final String value = this.cli.getOptionValue(CliArguments.REHASH.getOpt(), "0");
+        try {
+            return Integer.parseInt(value);
+        } catch (final NumberFormatException ex) {
+            throw new IllegalArgumentException(
+                String.format("Expected threads count but got: %s", value), ex
+            );
+        }
     }
 
     /**
@@ -142,5 +197,31 @@ public final class CliArguments {
                 this.cli.getOptionValue(RpmOptions.FILELISTS.option().getOpt(), "true")
             );
         }
+
+        @Override
+        public List<Compression> compressions() {
+            return Compression.list(
+                this.cli.getOptionValue(RpmOptions.COMPRESSION.option().getOpt(), "")
+            );
+        }
+
+        @Override
+        public Optional<PackageVerifier> verifier() {
+            final Optional<PackageVerifier> res;
+            if (this.cli.hasOption(RpmOptions.KEYRING.option().getOpt())) {
+                res = Optional.of(
+                    new PackageVerifier(
+                        Paths.get(this.cli.getOptionValue(RpmOptions.KEYRING.option().getOpt()))
+                    )
+                );
+            } else if (Boolean.parseBoolean(
+                this.cli.getOptionValue(RpmOptions.VERIFY_PACKAGES.option().getOpt(), "false")
+            )) {
+                res = Optional.of(new PackageVerifier());
+            } else {
+                res = Optional.empty();
+            }
+            return res;
+        }
     }
 }
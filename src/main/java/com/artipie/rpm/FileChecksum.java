@@ -4,6 +4,7 @@
  */
 package com.artipie.rpm;
 
+import com.artipie.rpm.jfr.ChecksumEvent;
 import com.artipie.rpm.pkg.Checksum;
 import java.io.IOException;
 import java.nio.Buffer;
@@ -37,14 +38,30 @@ public final class FileChecksum implements Checksum {
      */
     private final Digest dgst;
 
+    /**
+     * Read buffer size.
+     */
+    private final int size;
+
     /**
      * Ctor.
      * @param path The path
      * @param dgst The hashing algorithm for checksum computation
      */
     public FileChecksum(final Path path, final Digest dgst) {
+        this(path, dgst, FileChecksum.BUF_SIZE);
+    }
+
+    /**
+     * Ctor.
+     * @param path The path
+     * @param dgst The hashing algorithm for checksum computation
+     * @param size Read buffer size
+     */
+    public FileChecksum(final Path path, final Digest dgst, final int size) {
         this.file = path;
         this.dgst = dgst;
+        this.size = size;
     }
 
     @Override
@@ -54,15 +71,22 @@ public final class FileChecksum implements Checksum {
 
     @Override
     public String hex() throws IOException {
+        final ChecksumEvent event = new ChecksumEvent();
+        event.begin();
         final MessageDigest digest = this.dgst.messageDigest();
+        long total = 0;
         try (FileChannel chan = FileChannel.open(this.file, StandardOpenOption.READ)) {
-            final ByteBuffer buf = ByteBuffer.allocateDirect(FileChecksum.BUF_SIZE);
-            while (chan.read(buf) > 0) {
+            final ByteBuffer buf = ByteBuffer.allocateDirect(this.size);
+            int read = chan.read(buf);
+            while (read > 0) {
+                total += read;
                 ((Buffer) buf).flip();
                 digest.update(buf);
                 buf.clear();
+                read = chan.read(buf);
             }
         }
+        event.complete(this.file, this.dgst.name(), total);
         return DatatypeConverter.printHexBinary(digest.digest())
             .toLowerCase(Locale.US);
     }
@@ -0,0 +1,180 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.KeyLastPart;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.asto.rx.RxStorageWrapper;
+import com.jcabi.log.Logger;
+import hu.akarnokd.rxjava2.interop.SingleInterop;
+import io.reactivex.Completable;
+import io.reactivex.Observable;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.json.Json;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonObject;
+import javax.json.JsonString;
+
+/**
+ * Atomic publish with recovery: write-ahead journal of the final step of repository
+ * update, metadata publishing. Generated metadata files
+ * are staged to {@code .artipie-journal/staged} of the repository first, then
+ * the journal record with the list of files is saved: from this point update result
+ * is durable. After that staged files are moved to {@code repodata}, old metadata
+ * files are removed and the record is deleted. If the process dies after the record
+ * was saved, {@link #recover()} called by the next update finishes publishing of
+ * the staged files, if it dies before, staged leftovers are removed and
+ * repository metadata stays untouched. Pending package adds and removes and
+ * results of packages parsing and metadata merging are not journaled, so an
+ * update interrupted before the record was saved is not resumed: the next update
+ * does all its work from scratch.
+ * @since 1.9
+ */
+final class Journal {
+
+    /**
+     * Journal directory name.
+     */
+    private static final String JOURNAL = ".artipie-journal";
+
+    /**
+     * Storage.
+     */
+    private final RxStorageWrapper storage;
+
+    /**
+     * Journal record key.
+     */
+    private final Key record;
+
+    /**
+     * Staged files key.
+     */
+    private final Key staged;
+
+    /**
+     * Repodata key.
+     */
+    private final Key repodata;
+
+    /**
+     * Ctor.
+     * @param storage Storage
+     * @param prefix Repository prefix
+     */
+    Journal(final Storage storage, final Key prefix) {
+        this.storage = new RxStorageWrapper(storage);
+        this.record = new Key.From(prefix, Journal.JOURNAL, "journal.json");
+        this.staged = new Key.From(prefix, Journal.JOURNAL, "staged");
+        this.repodata = new Key.From(prefix, "repodata");
+    }
+
+    /**
+     * Stages metadata file.
+     * @param name Metadata file name
+     * @param content Metadata file content
+     * @return Completion
+     */
+    Completable stage(final String name, final Content content) {
+        return this.storage.save(new Key.From(this.staged, name), content);
+    }
+
+    /**
+     * Publishes staged metadata files: saves journal record, moves staged files
+     * to repodata and removes old metadata.
+     * @param operation Update operation name
+     * @param files Staged metadata file names
+     * @return Completion
+     */
+    Completable publish(final String operation, final Set<String> files) {
+        final JsonArrayBuilder names = Json.createArrayBuilder();
+        files.forEach(names::add);
+        return this.storage.save(
+            this.record,
+            new Content.From(
+                Json.createObjectBuilder()
+                    .add("operation", operation)
+                    .add("files", names)
+                    .build().toString().getBytes(StandardCharsets.UTF_8)
+            )
+        ).andThen(this.finish(files));
+    }
+
+    /**
+     * Recovers interrupted publishing: finishes it if journal record exists,
+     * removes staged leftovers otherwise.
+     * @return Completion
+     */
+    Completable recover() {
+        return this.storage.exists(this.record).flatMapCompletable(
+            exists -> {
+                final Completable res;
+                if (exists) {
+                    res = this.storage.value(this.record)
+                        .flatMap(
+                            content -> SingleInterop.fromFuture(
+                                new PublisherAs(content).string(StandardCharsets.UTF_8)
+                            )
+                        ).map(json -> Json.createReader(new StringReader(json)).readObject())
+                        .flatMapCompletable(
+                            json -> {
+                                Logger.info(
+                                    this, "Resuming publishing of interrupted %s",
+                                    json.getString("operation")
+                                );
+                                return this.finish(Journal.files(json));
+                            }
+                        );
+                } else {
+                    res = this.storage.list(this.staged)
+                        .flatMapObservable(Observable::fromIterable)
+                        .flatMapCompletable(this.storage::delete);
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Moves staged files to repodata one by one, {@code repomd.xml} is moved last,
+     * so that it never refers to missing files, then removes old metadata and
+     * journal record.
+     * @param files Published metadata file names
+     * @return Completion
+     */
+    private Completable finish(final Set<String> files) {
+        return this.storage.list(this.staged)
+            .flatMapObservable(Observable::fromIterable)
+            .sorted(Comparator.comparing(key -> "repomd.xml".equals(new KeyLastPart(key).get())))
+            .concatMapCompletable(
+                key -> this.storage.move(
+                    key, new Key.From(this.repodata, new KeyLastPart(key).get())
+                )
+            ).andThen(this.storage.list(this.repodata))
+            .flatMapObservable(Observable::fromIterable)
+            .filter(key -> !files.contains(new KeyLastPart(key).get()))
+            .flatMapCompletable(this.storage::delete)
+            .andThen(this.storage.delete(this.record));
+    }
+
+    /**
+     * Metadata file names of journal record.
+     * @param json Journal record
+     * @return File names
+     */
+    private static Set<String> files(final JsonObject json) {
+        final Collection<JsonString> names = json.getJsonArray("files")
+            .getValuesAs(JsonString.class);
+        return names.stream().map(JsonString::getString).collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm;
+
+import com.artipie.asto.ArtipieIOException;
+import com.artipie.rpm.meta.MergedXml;
+import com.artipie.rpm.pkg.Package;
+import hu.akarnokd.rxjava2.interop.CompletableInterop;
+import io.reactivex.Completable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Batching facade of repository metadata: accepts append and remove requests and
+ * folds all requests queued within the latency window into a single
+ * {@link AsyncMetadata#update(Collection, Collection)} pass. Batches of one facade
+ * never run concurrently: requests which come while a batch is being written are
+ * queued to the next batch, which starts when both the window elapsed and the
+ * previous batch finished. Every request completes when the batch it was folded
+ * into is written. Requests are folded in order: removing a package cancels its
+ * pending append, appending a package after its removal replaces it. Create one
+ * facade per repository and use it for all the metadata updates of the repository:
+ * <pre>
+ * final MetadataBatch batch = new MetadataBatch(
+ *     () -> readMetadata(repo), Duration.ofMillis(200)
+ * );
+ * batch.append(packages).thenAccept(res -> ...);
+ * </pre>
+ * @since 1.9
+ */
+public final class MetadataBatch {
+
+    /**
+     * Metadata of the repository, it's called once per batch to read
+     * and write current metadata.
+     */
+    private final Supplier<CompletionStage<AsyncMetadata>> metadata;
+
+    /**
+     * Latency window.
+     */
+    private final Duration window;
+
+    /**
+     * Pending batch or null if there is no pending requests.
+     */
+    private Batch pending;
+
+    /**
+     * Completion of the last scheduled batch.
+     */
+    private CompletableFuture<Void> tail;
+
+    /**
+     * Ctor.
+     * @param metadata Metadata of the repository
+     * @param window Latency window
+     */
+    public MetadataBatch(final Supplier<CompletionStage<AsyncMetadata>> metadata,
+        final Duration window) {
+        this.metadata = metadata;
+        this.window = window;
+        this.tail = CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Appends records about provided RPMs.
+     * @param packages RPMs to append
+     * @return Completion with packages count after the batch
+     */
+    public CompletionStage<MergedXml.Result> append(final Collection<Package.Meta> packages) {
+        CompletionStage<MergedXml.Result> res;
+        try {
+            final Map<String, Package.Meta> keyed = new LinkedHashMap<>(packages.size());
+            for (final Package.Meta item : packages) {
+                keyed.put(item.checksum().hex(), item);
+            }
+            res = this.submit(batch -> batch.append(keyed));
+        } catch (final IOException err) {
+            final CompletableFuture<MergedXml.Result> failed = new CompletableFuture<>();
+            failed.completeExceptionally(new ArtipieIOException(err));
+            res = failed;
+        }
+        return res;
+    }
+
+    /**
+     * Removes records about RPMs with provided checksums.
+     * @param checksums Checksums of the RPMs to remove
+     * @return Completion with packages count after the batch
+     */
+    public CompletionStage<MergedXml.Result> remove(final Collection<String> checksums) {
+        return this.submit(batch -> batch.remove(checksums));
+    }
+
+    /**
+     * Folds request into pending batch, schedules the batch if it's new. Requests
+     * are folded under the facade monitor, so they must not do any io: checksums
+     * of appended packages are computed before.
+     * @param request Request
+     * @return Completion of the batch
+     */
+    private synchronized CompletionStage<MergedXml.Result> submit(final Request request) {
+        if (this.pending == null) {
+            this.pending = new Batch();
+            final CompletionStage<?> timer = Completable
+                .timer(this.window.toMillis(), TimeUnit.MILLISECONDS)
+                .to(CompletableInterop.await());
+            this.tail = CompletableFuture.allOf(
+                timer.toCompletableFuture(), this.tail.<Void>handle((nothing, err) -> null)
+            ).thenCompose(nothing -> this.flush());
+        }
+        final Batch batch = this.pending;
+        request.fold(batch);
+        return batch.result;
+    }
+
+    /**
+     * Writes pending batch.
+     * @return Completion
+     */
+    private CompletionStage<Void> flush() {
+        final Batch batch;
+        synchronized (this) {
+            batch = this.pending;
+            this.pending = null;
+        }
+        return CompletableFuture.completedFuture(batch)
+            .thenCompose(nothing -> this.metadata.get())
+            .thenCompose(
+                meta -> meta.update(batch.removed, new ArrayList<>(batch.packages.values()))
+            ).<Void>handle(
+                (res, err) -> {
+                    if (err == null) {
+                        batch.result.complete(res);
+                    } else {
+                        batch.result.completeExceptionally(err);
+                    }
+                    return null;
+                }
+            );
+    }
+
+    /**
+     * Request to fold into the batch.
+     * @since 1.9
+     */
+    @FunctionalInterface
+    private interface Request {
+
+        /**
+         * Folds request into the batch.
+         * @param batch Batch
+         */
+        void fold(Batch batch);
+    }
+
+    /**
+     * Batch of requests.
+     * @since 1.9
+     */
+    private static final class Batch {
+
+        /**
+         * Checksums of the packages to remove.
+         */
+        private final Set<String> removed;
+
+        /**
+         * Packages to append by checksums.
+         */
+        private final Map<String, Package.Meta> packages;
+
+        /**
+         * Batch result.
+         */
+        private final CompletableFuture<MergedXml.Result> result;
+
+        /**
+         * Ctor.
+         */
+        Batch() {
+            this.removed = new HashSet<>();
+            this.packages = new LinkedHashMap<>();
+            this.result = new CompletableFuture<>();
+        }
+
+        /**
+         * Folds append request.
+         * @param items RPMs to append by checksums
+         */
+        void append(final Map<String, Package.Meta> items) {
+            this.packages.putAll(items);
+        }
+
+        /**
+         * Folds remove request.
+         * @param checksums Checksums of the RPMs to remove
+         */
+        void remove(final Collection<String> checksums) {
+            this.removed.addAll(checksums);
+            this.packages.keySet().removeAll(checksums);
+        }
+    }
+}
@@ -67,7 +67,7 @@ public final class ModifiableRepository implements PackageOutput {
      * @throws IOException On error
      */
     public ModifiableRepository update(final FilePackage pkg) throws IOException {
-        final String hex = new FileChecksum(pkg.path(), this.digest).hex();
+        final String hex = pkg.checksum(this.digest).hex();
         if (!this.existing.remove(hex)) {
             try {
                 this.origin.update(pkg.parsed());
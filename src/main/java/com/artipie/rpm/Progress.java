@@ -0,0 +1,250 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm;
+
+import io.reactivex.Flowable;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+
+/**
+ * Progress of repository update. It's an {@link UpdateListener} which counts
+ * packages discovered in storage, fetched to local temp directory, parsed and
+ * written to metadata, bytes fetched, and estimates time left by the rate of
+ * written packages. Pass it to {@link Rpm#batchUpdate(com.artipie.asto.Key, UpdateListener)}
+ * and watch {@link #snapshot()} or {@link #updates(Duration)}:
+ * <pre>
+ * final Progress progress = new Progress();
+ * progress.updates(Duration.ofSeconds(1))
+ *     .takeUntil(rpm.batchUpdate(key, progress).toFlowable())
+ *     .subscribe(System.out::println);
+ * </pre>
+ * @since 1.9
+ */
+public final class Progress implements UpdateListener {
+
+    /**
+     * Update start time.
+     */
+    private final Instant start;
+
+    /**
+     * Discovered packages.
+     */
+    private final LongAdder discovered;
+
+    /**
+     * Fetched packages.
+     */
+    private final LongAdder fetched;
+
+    /**
+     * Parsed packages.
+     */
+    private final LongAdder parsed;
+
+    /**
+     * Written packages.
+     */
+    private final LongAdder written;
+
+    /**
+     * Fetched bytes.
+     */
+    private final LongAdder bytes;
+
+    /**
+     * Ctor.
+     */
+    public Progress() {
+        this(Instant.now());
+    }
+
+    /**
+     * Ctor.
+     * @param start Update start time
+     */
+    public Progress(final Instant start) {
+        this.start = start;
+        this.discovered = new LongAdder();
+        this.fetched = new LongAdder();
+        this.parsed = new LongAdder();
+        this.written = new LongAdder();
+        this.bytes = new LongAdder();
+    }
+
+    @Override
+    public void stage(final Stage stage, final String item, final long nanos,
+        final long size) {
+        switch (stage) {
+            case DISCOVER:
+                this.discovered.increment();
+                break;
+            case COPY:
+                if (item.endsWith(".rpm")) {
+                    this.fetched.increment();
+                    this.bytes.add(size);
+                }
+                break;
+            case CHECKSUM:
+                this.parsed.increment();
+                break;
+            case XML:
+                this.written.increment();
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Current progress.
+     * @return Progress snapshot
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(
+            new long[] {
+                this.discovered.sum(), this.fetched.sum(), this.parsed.sum(),
+                this.written.sum(), this.bytes.sum(),
+            },
+            Duration.between(this.start, Instant.now())
+        );
+    }
+
+    /**
+     * Periodical progress snapshots, this flowable never completes, limit it with
+     * update completion.
+     * @param period Period
+     * @return Flowable of snapshots
+     */
+    public Flowable<Snapshot> updates(final Duration period) {
+        return Flowable.interval(period.toMillis(), period.toMillis(), TimeUnit.MILLISECONDS)
+            .map(tick -> this.snapshot());
+    }
+
+    /**
+     * Progress snapshot.
+     * @since 1.9
+     */
+    public static final class Snapshot {
+
+        /**
+         * Discovered, fetched, parsed, written packages and fetched bytes.
+         */
+        private final long[] counters;
+
+        /**
+         * Time elapsed since update start.
+         */
+        private final Duration elapsed;
+
+        /**
+         * Ctor.
+         * @param counters Discovered, fetched, parsed, written packages and fetched bytes
+         * @param elapsed Time elapsed since update start
+         */
+        Snapshot(final long[] counters, final Duration elapsed) {
+            this.counters = counters.clone();
+            this.elapsed = elapsed;
+        }
+
+        /**
+         * Packages discovered in storage.
+         * @return Count
+         */
+        public long discovered() {
+            return this.counters[0];
+        }
+
+        /**
+         * Packages fetched to local temp directory.
+         * @return Count
+         */
+        public long fetched() {
+            return this.counters[1];
+        }
+
+        /**
+         * Packages parsed.
+         * @return Count
+         */
+        public long parsed() {
+            return this.counters[2];
+        }
+
+        /**
+         * Packages written to metadata.
+         * @return Count
+         */
+        public long written() {
+            return this.counters[3];
+        }
+
+        /**
+         * Bytes fetched.
+         * @return Bytes
+         */
+        public long bytes() {
+            // @checkstyle MagicNumberCheck (1 line)
+            return this.counters[4];
+        }
+
+        /**
+         * Time elapsed since update start.
+         * @return Elapsed time
+         */
+        public Duration elapsed() {
+            return this.elapsed;
+        }
+
+        /**
+         * Estimated time left, it's known after the first package is written.
+         * @return Time left
+         */
+        public Optional<Duration> eta() {
+            final Optional<Duration> res;
+            if (this.written() > 0 && this.discovered() >= this.written()) {
+                res = Optional.of(
+                    this.elapsed.multipliedBy(this.discovered() - this.written())
+                        .dividedBy(this.written())
+                );
+            } else {
+                res = Optional.empty();
+            }
+            return res;
+        }
+
+        /**
+         * Snapshot as json object.
+         * @return Json
+         */
+        public JsonObject json() {
+            final JsonObjectBuilder json = Json.createObjectBuilder()
+                .add("discovered", this.discovered())
+                .add("fetched", this.fetched())
+                .add("parsed", this.parsed())
+                .add("written", this.written())
+                .add("bytes", this.bytes())
+                .add("elapsed", this.elapsed.toMillis());
+            this.eta().ifPresent(eta -> json.add("eta", eta.toMillis()));
+            return json.build();
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                "discovered=%d, fetched=%d, parsed=%d, written=%d, bytes=%d, elapsed=%ds, eta=%s",
+                this.discovered(), this.fetched(), this.parsed(), this.written(), this.bytes(),
+                this.elapsed.getSeconds(),
+                this.eta().map(eta -> String.format("%ds", eta.getSeconds())).orElse("unknown")
+            );
+        }
+    }
+}
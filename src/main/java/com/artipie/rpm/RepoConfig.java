@@ -6,7 +6,13 @@ package com.artipie.rpm;
 
 import com.amihaiemil.eoyaml.Yaml;
 import com.amihaiemil.eoyaml.YamlMapping;
+import com.artipie.rpm.files.Compression;
+import com.artipie.rpm.pkg.PackageVerifier;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
 import java.util.Locale;
+import java.util.Objects;
 import java.util.Optional;
 
 /**
@@ -33,6 +39,31 @@ public interface RepoConfig {
      */
     boolean filelists();
 
+    /**
+     * Additional compressed variants of metadata to publish along with gzipped metadata.
+     * @return Metadata compressions, none by default
+     */
+    default List<Compression> compressions() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Listener of repository update stages.
+     * @return Update listener, no-op by default
+     */
+    default UpdateListener listener() {
+        return new UpdateListener.Nop();
+    }
+
+    /**
+     * Verifier of packages added to repository on update, packages which fail
+     * verification are rejected.
+     * @return Verifier, empty if packages are not verified
+     */
+    default Optional<PackageVerifier> verifier() {
+        return Optional.empty();
+    }
+
     /**
      * Repository configuration from yaml.
      * @since 0.10
@@ -78,10 +109,34 @@ public interface RepoConfig {
             return !Boolean.FALSE.toString()
                 .equals(this.yaml.string(RpmOptions.FILELISTS.optionName()));
         }
+
+        @Override
+        public List<Compression> compressions() {
+            return Compression.list(
+                Optional.ofNullable(this.yaml.string(RpmOptions.COMPRESSION.optionName()))
+                    .orElse("")
+            );
+        }
+
+        @Override
+        public Optional<PackageVerifier> verifier() {
+            final Optional<PackageVerifier> res;
+            final String keyring = this.yaml.string(RpmOptions.KEYRING.optionName());
+            if (keyring != null) {
+                res = Optional.of(new PackageVerifier(Paths.get(keyring)));
+            } else if (Boolean.parseBoolean(
+                this.yaml.string(RpmOptions.VERIFY_PACKAGES.optionName())
+            )) {
+                res = Optional.of(new PackageVerifier());
+            } else {
+                res = Optional.empty();
+            }
+            return res;
+        }
     }
 
     /**
-     * Simple.
+     * Simple, configurations with equal settings are equal.
      * @since 0.10
      */
     final class Simple implements RepoConfig {
@@ -101,6 +156,21 @@ public interface RepoConfig {
          */
         private final boolean filelist;
 
+        /**
+         * Metadata compressions.
+         */
+        private final List<Compression> cmps;
+
+        /**
+         * Update listener.
+         */
+        private final UpdateListener lsnr;
+
+        /**
+         * Packages verifier.
+         */
+        private final Optional<PackageVerifier> vrfr;
+
         /**
          * Ctor.
          * @param dgst Digest
@@ -108,9 +178,55 @@ public interface RepoConfig {
          * @param filelist Filelist
          */
         public Simple(final Digest dgst, final NamingPolicy npolicy, final boolean filelist) {
+            this(dgst, npolicy, filelist, Collections.emptyList());
+        }
+
+        /**
+         * Ctor.
+         * @param dgst Digest
+         * @param npolicy Naming policy
+         * @param filelist Filelist
+         * @param cmps Additional metadata compressions
+         * @checkstyle ParameterNumberCheck (5 lines)
+         */
+        public Simple(final Digest dgst, final NamingPolicy npolicy, final boolean filelist,
+            final List<Compression> cmps) {
+            this(dgst, npolicy, filelist, cmps, new UpdateListener.Nop());
+        }
+
+        /**
+         * Ctor.
+         * @param dgst Digest
+         * @param npolicy Naming policy
+         * @param filelist Filelist
+         * @param cmps Additional metadata compressions
+         * @param lsnr Update listener
+         * @checkstyle ParameterNumberCheck (5 lines)
+         */
+        public Simple(final Digest dgst, final NamingPolicy npolicy, final boolean filelist,
+            final List<Compression> cmps, final UpdateListener lsnr) {
+            this(dgst, npolicy, filelist, cmps, lsnr, Optional.empty());
+        }
+
+        /**
+         * Ctor.
+         * @param dgst Digest
+         * @param npolicy Naming policy
+         * @param filelist Filelist
+         * @param cmps Additional metadata compressions
+         * @param lsnr Update listener
+         * @param vrfr Packages verifier
+         * @checkstyle ParameterNumberCheck (5 lines)
+         */
+        public Simple(final Digest dgst, final NamingPolicy npolicy, final boolean filelist,
+            final List<Compression> cmps, final UpdateListener lsnr,
+            final Optional<PackageVerifier> vrfr) {
             this.dgst = dgst;
             this.npolicy = npolicy;
             this.filelist = filelist;
+            this.cmps = cmps;
+            this.lsnr = lsnr;
+            this.vrfr = vrfr;
         }
 
         /**
@@ -134,5 +250,43 @@ public interface RepoConfig {
         public boolean filelists() {
             return this.filelist;
         }
+
+        @Override
+        public List<Compression> compressions() {
+            return this.cmps;
+        }
+
+        @Override
+        public UpdateListener listener() {
+            return this.lsnr;
+        }
+
+        @Override
+        public Optional<PackageVerifier> verifier() {
+            return this.vrfr;
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            final boolean res;
+            if (this == other) {
+                res = true;
+            } else if (other == null || this.getClass() != other.getClass()) {
+                res = false;
+            } else {
+                final Simple that = (Simple) other;
+                res = this.dgst == that.dgst && this.npolicy.equals(that.npolicy)
+                    && this.filelist == that.filelist && this.cmps.equals(that.cmps)
+                    && this.lsnr.equals(that.lsnr) && this.vrfr.equals(that.vrfr);
+            }
+            return res;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(
+                this.dgst, this.npolicy, this.filelist, this.cmps, this.lsnr, this.vrfr
+            );
+        }
     }
 }
@@ -0,0 +1,798 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm;
+
+import com.artipie.asto.ArtipieIOException;
+import com.artipie.rpm.files.Compression;
+import com.artipie.rpm.meta.XmlPackage;
+import com.artipie.rpm.meta.XmlPackageIds;
+import com.artipie.rpm.meta.XmlRepomdEntries;
+import com.artipie.rpm.misc.UncheckedFunc;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.json.Json;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.xml.bind.DatatypeConverter;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CountingInputStream;
+import org.apache.commons.io.output.NullOutputStream;
+
+/**
+ * Verifies consistency of existing repository metadata, e.g. before the repository
+ * is migrated to the adapter. Metadata files listed in {@code repodata/repomd.xml}
+ * are streamed in parallel, checksums and sizes of compressed and open files are
+ * compared with repomd, records count is compared with {@code packages} attribute and
+ * package ids of primary, other and filelists are cross-checked. Package ids are kept
+ * as sorted arrays of 64-bit checksum prefixes, so that 100k packages take less than a
+ * megabyte. Optionally RPM packages are re-hashed with bounded parallelism and compared
+ * with primary checksums: primary is streamed once more for that, so that package
+ * locations are not kept in memory. Locations which resolve outside of the repository
+ * root are reported and never read. Result is json report:
+ * <pre>
+ * {
+ *   "repository": "/var/repo",
+ *   "valid": false,
+ *   "metadata": {"primary": {"location": "repodata/primary.xml.gz", "packages": 2, ...}},
+ *   "rehashed": 0,
+ *   "totals": {"pkgid": 1},
+ *   "issues": [{"check": "pkgid", "metadata": "other", "message": "..."}]
+ * }
+ * </pre>
+ * @since 1.9
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ * @checkstyle ClassFanOutComplexityCheck (500 lines)
+ */
+public final class RepodataVerifier {
+
+    /**
+     * Max count of reported issues of each check and of id samples.
+     */
+    private static final int SAMPLES = 100;
+
+    /**
+     * Repository root.
+     */
+    private final Path repo;
+
+    /**
+     * Count of threads to re-hash RPM packages, zero to skip re-hashing.
+     */
+    private final int rehash;
+
+    /**
+     * Ctor.
+     * @param repo Repository root
+     * @param rehash Count of threads to re-hash RPM packages, zero to skip re-hashing
+     */
+    public RepodataVerifier(final Path repo, final int rehash) {
+        this.repo = repo;
+        this.rehash = rehash;
+    }
+
+    /**
+     * Verifies repository metadata.
+     * @return Json report
+     * @throws IOException On error
+     */
+    public JsonObject verify() throws IOException {
+        final Map<String, XmlRepomdEntries.Entry> entries;
+        try (InputStream input = Files.newInputStream(this.repo.resolve("repodata/repomd.xml"))) {
+            entries = new XmlRepomdEntries(input).read();
+        }
+        final Issues issues = new Issues();
+        final Map<XmlPackage, Scan> scans = this.scans(entries, issues);
+        final JsonObjectBuilder metadata = Json.createObjectBuilder();
+        for (final Scan scan : scans.values()) {
+            metadata.add(scan.type.filename(), scan.json());
+        }
+        final Scan primary = scans.get(XmlPackage.PRIMARY);
+        if (primary != null) {
+            for (final Scan scan : scans.values()) {
+                if (scan.type != XmlPackage.PRIMARY) {
+                    scan.ids.compare(primary.ids, scan.type, issues);
+                }
+            }
+        }
+        int rehashed = 0;
+        if (this.rehash > 0 && primary != null) {
+            rehashed = this.rehashed(primary, issues);
+        }
+        return Json.createObjectBuilder()
+            .add("repository", this.repo.toString())
+            .add("valid", issues.empty())
+            .add("metadata", metadata)
+            .add("rehashed", rehashed)
+            .add("totals", issues.totals())
+            .add("issues", issues.json())
+            .build();
+    }
+
+    /**
+     * Scans metadata files in parallel.
+     * @param entries Repomd entries
+     * @param issues Issues
+     * @return Scans by metadata type
+     * @throws IOException On error
+     */
+    private Map<XmlPackage, Scan> scans(final Map<String, XmlRepomdEntries.Entry> entries,
+        final Issues issues) throws IOException {
+        final Map<XmlPackage, Future<Scan>> futures = new EnumMap<>(XmlPackage.class);
+        final ExecutorService exec = Executors.newFixedThreadPool(XmlPackage.values().length);
+        try {
+            for (final XmlPackage type : XmlPackage.values()) {
+                final XmlRepomdEntries.Entry entry = entries.get(type.filename());
+                if (entry != null && entry.location().isPresent()) {
+                    final Scan scan = new Scan(type, entry);
+                    futures.put(type, exec.submit(() -> scan.run(this.repo, issues)));
+                } else if (type != XmlPackage.FILELISTS) {
+                    issues.add("repomd", type, "metadata is not listed in repomd.xml");
+                }
+            }
+            final Map<XmlPackage, Scan> res = new EnumMap<>(XmlPackage.class);
+            for (final Map.Entry<XmlPackage, Future<Scan>> future : futures.entrySet()) {
+                res.put(future.getKey(), RepodataVerifier.result(future.getValue()));
+            }
+            return res;
+        } finally {
+            exec.shutdownNow();
+        }
+    }
+
+    /**
+     * Re-hashes RPM packages listed in primary with bounded parallelism. Primary is
+     * streamed again and packages are submitted to the pool as they are read, the
+     * pool queue is bounded, so that the reader waits for the hashing threads and
+     * package locations are never collected in memory.
+     * @param primary Primary scan
+     * @param issues Issues
+     * @return Count of re-hashed packages
+     * @throws IOException On error
+     */
+    private int rehashed(final Scan primary, final Issues issues) throws IOException {
+        final ThreadPoolExecutor exec = new ThreadPoolExecutor(
+            this.rehash, this.rehash, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(this.rehash * 2), new ThreadPoolExecutor.CallerRunsPolicy()
+        );
+        final AtomicInteger res = new AtomicInteger();
+        final AtomicReference<IOException> failure = new AtomicReference<>();
+        try {
+            primary.records(
+                this.repo,
+                (id, alg, href) -> {
+                    if (id != null && href != null) {
+                        exec.execute(
+                            () -> {
+                                try {
+                                    if (this.rehashed(href, alg, id, issues)) {
+                                        res.incrementAndGet();
+                                    }
+                                } catch (final IOException err) {
+                                    failure.compareAndSet(null, err);
+                                }
+                            }
+                        );
+                    }
+                }
+            );
+            exec.shutdown();
+            exec.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException err) {
+            Thread.currentThread().interrupt();
+            throw new ArtipieIOException(err);
+        } finally {
+            exec.shutdownNow();
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        return res.get();
+    }
+
+    /**
+     * Re-hashes RPM package.
+     * @param href Package location
+     * @param alg Checksum type
+     * @param id Package checksum
+     * @param issues Issues
+     * @return True if package was re-hashed
+     * @throws IOException On error
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private boolean rehashed(final String href, final String alg, final String id,
+        final Issues issues) throws IOException {
+        final Optional<Path> rpm = RepodataVerifier.resolved(this.repo, href);
+        final Optional<Digest> digest = RepodataVerifier.digest(alg);
+        boolean res = false;
+        if (!rpm.isPresent()) {
+            issues.add(
+                "location", XmlPackage.PRIMARY,
+                String.format("package location %s is outside of repository", href)
+            );
+        } else if (!digest.isPresent()) {
+            issues.add(
+                "rpm", XmlPackage.PRIMARY,
+                String.format("unsupported checksum type '%s' of %s", alg, href)
+            );
+        } else if (Files.exists(rpm.get())) {
+            final String hex = new FileChecksum(rpm.get(), digest.get()).hex();
+            if (!hex.equals(id)) {
+                issues.add(
+                    "rpm", XmlPackage.PRIMARY,
+                    String.format("%s checksum is %s, primary has %s", href, hex, id)
+                );
+            }
+            res = true;
+        } else {
+            issues.add(
+                "rpm", XmlPackage.PRIMARY, String.format("package %s not found", href)
+            );
+        }
+        return res;
+    }
+
+    /**
+     * Resolves location against repository root.
+     * @param repo Repository root
+     * @param href Location
+     * @return Normalized path if it's inside of repository root
+     */
+    private static Optional<Path> resolved(final Path repo, final String href) {
+        final Path root = repo.toAbsolutePath().normalize();
+        Optional<Path> res;
+        try {
+            res = Optional.of(root.resolve(href).normalize()).filter(
+                path -> path.startsWith(root) && !path.equals(root)
+            );
+        } catch (final InvalidPathException err) {
+            res = Optional.empty();
+        }
+        return res;
+    }
+
+    /**
+     * Digest by metadata checksum type.
+     * @param type Checksum type
+     * @return Digest if supported
+     */
+    private static Optional<Digest> digest(final String type) {
+        final Optional<Digest> res;
+        if ("sha".equals(type) || "sha1".equals(type)) {
+            res = Optional.of(Digest.SHA1);
+        } else if ("sha256".equals(type)) {
+            res = Optional.of(Digest.SHA256);
+        } else {
+            res = Optional.empty();
+        }
+        return res;
+    }
+
+    /**
+     * Waits for future result.
+     * @param future Future
+     * @param <T> Result type
+     * @return Result
+     * @throws IOException If future failed
+     */
+    private static <T> T result(final Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (final InterruptedException err) {
+            Thread.currentThread().interrupt();
+            throw new ArtipieIOException(err);
+        } catch (final ExecutionException err) {
+            if (err.getCause() instanceof IOException) {
+                throw (IOException) err.getCause();
+            }
+            throw new ArtipieIOException(err.getCause());
+        }
+    }
+
+    /**
+     * Scan of metadata file.
+     * @since 1.9
+     */
+    private static final class Scan {
+
+        /**
+         * Metadata type.
+         */
+        private final XmlPackage type;
+
+        /**
+         * Repomd entry.
+         */
+        private final XmlRepomdEntries.Entry entry;
+
+        /**
+         * Package ids.
+         */
+        private final Ids ids;
+
+        /**
+         * Value of packages attribute.
+         */
+        private long declared;
+
+        /**
+         * Checksum, open checksum, size and open size of the file.
+         */
+        private final String[] actual;
+
+        /**
+         * Ctor.
+         * @param type Metadata type
+         * @param entry Repomd entry
+         */
+        Scan(final XmlPackage type, final XmlRepomdEntries.Entry entry) {
+            this.type = type;
+            this.entry = entry;
+            this.ids = new Ids();
+            this.actual = new String[4];
+        }
+
+        /**
+         * Streams metadata file.
+         * @param repo Repository root
+         * @param issues Issues
+         * @return Itself
+         * @throws IOException On error
+         */
+        Scan run(final Path repo, final Issues issues) throws IOException {
+            final String href = this.entry.location().get();
+            final Optional<Path> file = RepodataVerifier.resolved(repo, href);
+            if (!file.isPresent()) {
+                issues.add(
+                    "location", this.type, String.format("%s is outside of repository", href)
+                );
+            } else if (Files.exists(file.get())) {
+                this.read(file.get(), href);
+                this.check(issues);
+            } else {
+                issues.add("location", this.type, String.format("%s not found", href));
+            }
+            return this;
+        }
+
+        /**
+         * Streams package records of the metadata file once more, does nothing if
+         * the file was not found by {@link #run(Path, Issues)}.
+         * @param repo Repository root
+         * @param records Records consumer
+         * @throws IOException On error
+         */
+        void records(final Path repo, final XmlPackageIds.Records records) throws IOException {
+            final String href = this.entry.location().get();
+            final Optional<Path> file = RepodataVerifier.resolved(repo, href);
+            if (file.isPresent() && Files.exists(file.get())) {
+                try (InputStream input = Scan.open(href, Files.newInputStream(file.get()))) {
+                    new XmlPackageIds(input, this.type).read(records);
+                }
+            }
+        }
+
+        /**
+         * Scan as json.
+         * @return Json
+         */
+        JsonObject json() {
+            final JsonObjectBuilder json = Json.createObjectBuilder()
+                .add("location", this.entry.location().get())
+                .add("packages", this.declared)
+                .add("records", this.ids.size());
+            final String[] names = {"checksum", "open-checksum", "size", "open-size"};
+            for (int idx = 0; idx < names.length; idx += 1) {
+                if (this.actual[idx] != null && idx < 2) {
+                    json.add(names[idx], this.actual[idx]);
+                } else if (this.actual[idx] != null) {
+                    json.add(names[idx], Long.parseLong(this.actual[idx]));
+                }
+            }
+            return json.build();
+        }
+
+        /**
+         * Streams metadata file computing checksums and sizes.
+         * @param file File
+         * @param href File location
+         * @throws IOException On error
+         */
+        private void read(final Path file, final String href) throws IOException {
+            final Optional<MessageDigest> pdigest =
+                Scan.digest(this.entry.checksum(), this.entry.checksumType());
+            final Optional<MessageDigest> odigest =
+                Scan.digest(this.entry.openChecksum(), this.entry.openChecksumType());
+            try (
+                CountingInputStream size = new CountingInputStream(Files.newInputStream(file));
+                DigestInputStream packed = new DigestInputStream(
+                    size, pdigest.orElseGet(Digest.SHA256::messageDigest)
+                );
+                CountingInputStream opensize = new CountingInputStream(Scan.open(href, packed));
+                DigestInputStream open = new DigestInputStream(
+                    opensize, odigest.orElseGet(Digest.SHA256::messageDigest)
+                )
+            ) {
+                packed.on(pdigest.isPresent());
+                open.on(odigest.isPresent());
+                this.declared = new XmlPackageIds(open, this.type)
+                    .read((id, alg, location) -> this.ids.add(id));
+                IOUtils.copy(open, NullOutputStream.NULL_OUTPUT_STREAM);
+                IOUtils.copy(packed, NullOutputStream.NULL_OUTPUT_STREAM);
+                if (pdigest.isPresent()) {
+                    this.actual[0] = Scan.hex(packed);
+                }
+                if (odigest.isPresent()) {
+                    this.actual[1] = Scan.hex(open);
+                }
+                this.actual[2] = String.valueOf(size.getByteCount());
+                this.actual[3] = String.valueOf(opensize.getByteCount());
+            }
+        }
+
+        /**
+         * Checks scan results.
+         * @param issues Issues
+         */
+        private void check(final Issues issues) {
+            final List<Optional<String>> expected = Arrays.asList(
+                this.entry.checksum(), this.entry.openChecksum(),
+                this.entry.size().map(String::valueOf), this.entry.openSize().map(String::valueOf)
+            );
+            final List<Optional<String>> types = Arrays.asList(
+                this.entry.checksumType(), this.entry.openChecksumType()
+            );
+            final String[] names = {"checksum", "open-checksum", "size", "open-size"};
+            for (int idx = 0; idx < names.length; idx += 1) {
+                if (expected.get(idx).isPresent() && idx < 2
+                    && !types.get(idx).flatMap(Scan::algorithm).isPresent()) {
+                    issues.add(
+                        names[idx], this.type,
+                        String.format(
+                            "unsupported checksum type %s", types.get(idx).orElse("(none)")
+                        )
+                    );
+                } else if (expected.get(idx).isPresent()
+                    && !expected.get(idx).get().equalsIgnoreCase(this.actual[idx])) {
+                    issues.add(
+                        names[idx], this.type,
+                        String.format(
+                            "repomd has %s, file has %s", expected.get(idx).get(), this.actual[idx]
+                        )
+                    );
+                }
+            }
+            if (this.declared != this.ids.size()) {
+                issues.add(
+                    "count", this.type,
+                    String.format(
+                        "packages attribute is %d, found %d records", this.declared, this.ids.size()
+                    )
+                );
+            }
+            this.ids.check(this.type, issues);
+        }
+
+        /**
+         * Decompressed input by file extension.
+         * @param href File location
+         * @param input Input
+         * @return Decompressed input
+         * @throws IOException On error
+         */
+        private static InputStream open(final String href, final InputStream input)
+            throws IOException {
+            InputStream res = input;
+            for (final Compression cmp : Compression.values()) {
+                if (href.endsWith(String.format(".%s", cmp.extension()))) {
+                    res = cmp.decompress(input);
+                }
+            }
+            return res;
+        }
+
+        /**
+         * Digest by repomd checksum type, empty if the checksum is listed with
+         * unsupported type. Files without checksum in repomd are hashed with SHA-256
+         * to report the actual value.
+         * @param checksum Checksum
+         * @param type Checksum type
+         * @return Digest if supported
+         */
+        private static Optional<MessageDigest> digest(
+            final Optional<String> checksum, final Optional<String> type
+        ) {
+            final Optional<MessageDigest> res;
+            if (checksum.isPresent()) {
+                res = type.flatMap(Scan::algorithm).map(
+                    new UncheckedFunc<>(MessageDigest::getInstance)
+                );
+            } else {
+                res = Optional.of(Digest.SHA256.messageDigest());
+            }
+            return res;
+        }
+
+        /**
+         * Java algorithm name by repomd checksum type.
+         * @param type Checksum type
+         * @return Algorithm name if supported
+         */
+        private static Optional<String> algorithm(final String type) {
+            final Optional<String> res;
+            switch (type) {
+                case "sha":
+                case "sha1":
+                    res = Optional.of("SHA-1");
+                    break;
+                case "sha224":
+                    res = Optional.of("SHA-224");
+                    break;
+                case "sha256":
+                    res = Optional.of("SHA-256");
+                    break;
+                case "sha384":
+                    res = Optional.of("SHA-384");
+                    break;
+                case "sha512":
+                    res = Optional.of("SHA-512");
+                    break;
+                default:
+                    res = Optional.empty();
+                    break;
+            }
+            return res;
+        }
+
+        /**
+         * Hex of the digest.
+         * @param input Digest input
+         * @return Hex
+         */
+        private static String hex(final DigestInputStream input) {
+            return DatatypeConverter.printHexBinary(input.getMessageDigest().digest())
+                .toLowerCase(Locale.US);
+        }
+    }
+
+    /**
+     * Compact set of package ids: 64-bit prefixes of checksums in sorted array.
+     * @since 1.9
+     */
+    private static final class Ids {
+
+        /**
+         * Prefix length in hex chars, it's also hex radix.
+         */
+        private static final int PREFIX = 16;
+
+        /**
+         * Prefixes.
+         */
+        private long[] prefixes;
+
+        /**
+         * Prefixes count.
+         */
+        private int count;
+
+        /**
+         * Count of records without valid id.
+         */
+        private int invalid;
+
+        /**
+         * Is array sorted.
+         */
+        private boolean sorted;
+
+        /**
+         * Ctor.
+         */
+        Ids() {
+            this.prefixes = new long[1024];
+        }
+
+        /**
+         * Adds package id.
+         * @param id Package id
+         */
+        void add(final String id) {
+            if (id != null && id.matches("^[0-9a-fA-F]{16}.*")) {
+                if (this.count == this.prefixes.length) {
+                    this.prefixes = Arrays.copyOf(this.prefixes, this.count * 2);
+                }
+                this.prefixes[this.count] = Long.parseUnsignedLong(
+                    id.substring(0, Ids.PREFIX), Ids.PREFIX
+                );
+                this.count += 1;
+                this.sorted = false;
+            } else {
+                this.invalid += 1;
+            }
+        }
+
+        /**
+         * Count of records.
+         * @return Count
+         */
+        long size() {
+            return (long) this.count + this.invalid;
+        }
+
+        /**
+         * Reports invalid and duplicated ids.
+         * @param type Metadata type
+         * @param issues Issues
+         */
+        void check(final XmlPackage type, final Issues issues) {
+            if (this.invalid > 0) {
+                issues.add(
+                    "pkgid", type, String.format("%d records without valid id", this.invalid)
+                );
+            }
+            final long[] arr = this.sorted();
+            for (int idx = 1; idx < this.count; idx += 1) {
+                if (arr[idx] == arr[idx - 1]) {
+                    issues.add(
+                        "duplicate", type,
+                        String.format("duplicated package id %s", Ids.hex(arr[idx]))
+                    );
+                }
+            }
+        }
+
+        /**
+         * Reports ids which are present in one set only.
+         * @param primary Primary ids
+         * @param type Metadata type of this set
+         * @param issues Issues
+         */
+        void compare(final Ids primary, final XmlPackage type, final Issues issues) {
+            final long[] mine = this.sorted();
+            final long[] other = primary.sorted();
+            int left = 0;
+            int right = 0;
+            while (left < this.count || right < primary.count) {
+                if (right == primary.count
+                    || left < this.count && Long.compareUnsigned(mine[left], other[right]) < 0) {
+                    issues.add(
+                        "pkgid", type,
+                        String.format("package %s... is not in primary", Ids.hex(mine[left]))
+                    );
+                    left += 1;
+                } else if (left == this.count
+                    || Long.compareUnsigned(mine[left], other[right]) > 0) {
+                    issues.add(
+                        "pkgid", type,
+                        String.format("package %s... of primary is missing", Ids.hex(other[right]))
+                    );
+                    right += 1;
+                } else {
+                    left += 1;
+                    right += 1;
+                }
+            }
+        }
+
+        /**
+         * Sorted prefixes.
+         * @return Array sorted in unsigned order, only the first {@link #count} items are used
+         */
+        private long[] sorted() {
+            if (!this.sorted) {
+                for (int idx = 0; idx < this.count; idx += 1) {
+                    this.prefixes[idx] ^= Long.MIN_VALUE;
+                }
+                Arrays.sort(this.prefixes, 0, this.count);
+                for (int idx = 0; idx < this.count; idx += 1) {
+                    this.prefixes[idx] ^= Long.MIN_VALUE;
+                }
+                this.sorted = true;
+            }
+            return this.prefixes;
+        }
+
+        /**
+         * Prefix as hex.
+         * @param prefix Prefix
+         * @return Hex
+         */
+        private static String hex(final long prefix) {
+            return String.format("%016x", prefix);
+        }
+    }
+
+    /**
+     * Found issues, thread safe.
+     * @since 1.9
+     */
+    private static final class Issues {
+
+        /**
+         * Reported issues.
+         */
+        private final JsonArrayBuilder issues;
+
+        /**
+         * Issues count by check.
+         */
+        private final Map<String, Integer> totals;
+
+        /**
+         * Ctor.
+         */
+        Issues() {
+            this.issues = Json.createArrayBuilder();
+            this.totals = new TreeMap<>();
+        }
+
+        /**
+         * Adds issue, only first {@link RepodataVerifier#SAMPLES} issues of each check
+         * are reported, others are counted.
+         * @param check Check name
+         * @param type Metadata type
+         * @param message Message
+         */
+        synchronized void add(final String check, final XmlPackage type, final String message) {
+            final int total = this.totals.merge(check, 1, Integer::sum);
+            if (total <= RepodataVerifier.SAMPLES) {
+                this.issues.add(
+                    Json.createObjectBuilder()
+                        .add("check", check)
+                        .add("metadata", type.filename())
+                        .add("message", message)
+                );
+            }
+        }
+
+        /**
+         * No issues found.
+         * @return True if empty
+         */
+        synchronized boolean empty() {
+            return this.totals.isEmpty();
+        }
+
+        /**
+         * Issues count by check.
+         * @return Json
+         */
+        synchronized JsonObjectBuilder totals() {
+            final JsonObjectBuilder res = Json.createObjectBuilder();
+            this.totals.forEach(res::add);
+            return res;
+        }
+
+        /**
+         * Reported issues.
+         * @return Json
+         */
+        synchronized JsonArrayBuilder json() {
+            return this.issues;
+        }
+    }
+}
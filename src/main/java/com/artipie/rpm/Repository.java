@@ -16,6 +16,7 @@ import java.io.IOException;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Repository aggregate {@link PackageOutput}. It accepts package metadata
@@ -68,7 +69,7 @@ final class Repository implements PackageOutput {
     }
 
     /**
-     * Save metadata files and gzip.
+     * Save metadata files, gzip and compressed variants.
      * @param repodata Repository repodata
      * @return All metadata files
      * @throws IOException On error
@@ -78,6 +79,11 @@ final class Repository implements PackageOutput {
             repomd.begin(System.currentTimeMillis() / Tv.THOUSAND);
             final List<Path> outs = this.metadata.stream()
                 .map(new UncheckedFunc<>(meta -> meta.save(repodata, this.digest, repomd)))
+                .flatMap(
+                    gzip -> Stream.concat(
+                        Stream.of(gzip), repodata.variants().stream().map(cmp -> cmp.variant(gzip))
+                    )
+                )
                 .collect(Collectors.toList());
             outs.add(repomd.file());
             return outs;
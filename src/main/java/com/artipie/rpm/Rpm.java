@@ -9,18 +9,28 @@ import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
 import com.artipie.asto.SubStorage;
 import com.artipie.asto.ext.KeyLastPart;
+import com.artipie.asto.ext.PublisherAs;
 import com.artipie.asto.fs.FileStorage;
-import com.artipie.asto.lock.Lock;
-import com.artipie.asto.lock.storage.StorageLock;
 import com.artipie.asto.rx.RxStorageWrapper;
+import com.artipie.rpm.jfr.LockAcquireEvent;
+import com.artipie.rpm.jfr.LockHoldEvent;
+import com.artipie.rpm.lock.LeaseLock;
+import com.artipie.rpm.lock.LockQueue;
 import com.artipie.rpm.meta.XmlPackage;
 import com.artipie.rpm.meta.XmlPrimaryChecksums;
+import com.artipie.rpm.meta.XmlRepomdEntries;
+import com.artipie.rpm.misc.ChecksumSidecar;
+import com.artipie.rpm.misc.LocationKey;
 import com.artipie.rpm.misc.UncheckedFunc;
+import com.artipie.rpm.pkg.Checksum;
+import com.artipie.rpm.pkg.ChunkedMetadata;
 import com.artipie.rpm.pkg.FilePackage;
+import com.artipie.rpm.pkg.FilePackageHeader;
 import com.artipie.rpm.pkg.InvalidPackageException;
 import com.artipie.rpm.pkg.MetadataFile;
 import com.artipie.rpm.pkg.ModifiableMetadata;
 import com.artipie.rpm.pkg.Package;
+import com.artipie.rpm.pkg.PackageVerifier;
 import com.artipie.rpm.pkg.PrecedingMetadata;
 import com.artipie.rpm.pkg.Repodata;
 import com.jcabi.log.Logger;
@@ -28,22 +38,33 @@ import hu.akarnokd.rxjava2.interop.CompletableInterop;
 import hu.akarnokd.rxjava2.interop.SingleInterop;
 import io.reactivex.Completable;
 import io.reactivex.Flowable;
+import io.reactivex.Maybe;
 import io.reactivex.Observable;
 import io.reactivex.Single;
 import io.reactivex.schedulers.Schedulers;
+import io.reactivex.schedulers.Timed;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.time.Duration;
-import java.time.Instant;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
-import java.util.function.Supplier;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.apache.commons.io.FileUtils;
+import org.redline_rpm.header.Format;
 
 /**
  * The RPM front.
@@ -67,6 +88,21 @@ import org.apache.commons.io.FileUtils;
 @SuppressWarnings({"PMD.AvoidDuplicateLiterals", "PMD.TooManyMethods"})
 public final class Rpm {
 
+    /**
+     * Operations of this process waiting for repository locks.
+     */
+    private static final LockQueue QUEUE = new LockQueue();
+
+    /**
+     * Repository lock lease.
+     */
+    private static final Duration LEASE = Duration.ofMinutes(1);
+
+    /**
+     * Repomd file name.
+     */
+    private static final String REPOMD = "repomd.xml";
+
     /**
      * Primary storage.
      */
@@ -179,40 +215,58 @@ public final class Rpm {
             throw new ArtipieIOException("Failed to create temp dir", err);
         }
         final Storage local = new FileStorage(tmpdir);
+        final Optional<PackageVerifier> verifier = this.config.verifier();
+        final int chunks = Runtime.getRuntime().availableProcessors();
         return this.doWithLock(
-            prefix,
-            () -> this.filePackageFromRpm(prefix, tmpdir, local)
-                .parallel().runOn(Schedulers.io())
-                .flatMap(
-                    file -> {
-                        Flowable<Package> parsed;
-                        try {
-                            parsed = Flowable.just(file.parsed());
-                        } catch (final InvalidPackageException ex) {
-                            Logger.warn(
-                                this, "Failed parsing '%s': %[exception]s", file.path(), ex
-                            );
-                            parsed = Flowable.empty();
-                        }
-                        return parsed;
-                    }
-                )
-                .sequential().observeOn(Schedulers.io())
-                .reduceWith(this::repository, Repository::update)
+            prefix, "batchUpdate",
+            lock -> Single.fromCallable(() -> this.repository(chunks)).flatMap(
+                repo -> this.filePackageFromRpm(prefix, tmpdir, local)
+                    .timestamp()
+                    .groupBy(timed -> ChunkedMetadata.part(timed.value().location(), chunks))
+                    .flatMap(
+                        part -> part.observeOn(Schedulers.io()).concatMap(
+                            timed -> {
+                                final FilePackage file = this.waited(timed);
+                                Flowable<Package> parsed;
+                                try {
+                                    parsed = Flowable.just(
+                                        new TimedPackage(
+                                            this.parsed(file, verifier),
+                                            file.path().getFileName().toString(),
+                                            this.config.listener()
+                                        )
+                                    );
+                                } catch (final InvalidPackageException ex) {
+                                    parsed = this.rejected(file, ex);
+                                }
+                                return parsed;
+                            }
+                        ).doOnNext(repo::update),
+                        chunks
+                    )
+                    .ignoreElements()
+                    .toSingleDefault(repo)
+            )
                 .doOnSuccess(rep -> Logger.info(this, "repository updated"))
                 .doOnSuccess(Repository::close)
                 .doOnSuccess(rep -> Logger.info(this, "repository closed"))
                 .flatMapObservable(
-                    rep -> Observable.fromIterable(
-                        rep.save(new Repodata.Temp(this.config.naming(), metadir))
-                    )
+                    rep -> {
+                        final long start = System.nanoTime();
+                        return this.compressed(
+                            rep.save(
+                                new Repodata.Temp(
+                                    this.config.naming(), metadir, this.config.compressions()
+                                )
+                            ),
+                            start
+                        );
+                    }
                 )
-                .flatMapSingle(
-                    path -> this.moveRepodataToStorage(new FileStorage(metadir), path, prefix)
+                .toList()
+                .flatMapCompletable(
+                    paths -> this.published(paths, metadir, prefix, lock, "batchUpdate")
                 )
-                .map(path -> path.getFileName().toString())
-                .toList().map(HashSet::new)
-                .flatMapCompletable(preserve -> this.removeOldMetadata(preserve, prefix))
             ).doOnTerminate(
                 () -> {
                     Rpm.cleanup(tmpdir);
@@ -221,6 +275,29 @@ public final class Rpm {
             );
     }
 
+    /**
+     * Batch update RPM files for repository reporting update stages to listener
+     * in addition to the listener of repository configuration.
+     * @param prefix Repository key prefix
+     * @param listener Update listener, e.g. {@link Progress}
+     * @return Completable action
+     */
+    public Completable batchUpdate(final Key prefix, final UpdateListener listener) {
+        return this.listened(listener).batchUpdate(prefix);
+    }
+
+    /**
+     * Updates repository incrementally reporting update stages to listener in
+     * addition to the listener of repository configuration.
+     * @param prefix Repo prefix
+     * @param listener Update listener, e.g. {@link Progress}
+     * @return Completable action
+     */
+    public Completable batchUpdateIncrementally(final Key prefix,
+        final UpdateListener listener) {
+        return this.listened(listener).batchUpdateIncrementally(prefix);
+    }
+
     /**
      * Updates repository incrementally.
      * @param prefix Repo prefix
@@ -237,24 +314,43 @@ public final class Rpm {
             throw new ArtipieIOException("Failed to create temp dir", err);
         }
         final Storage local = new FileStorage(tmpdir);
+        final Optional<PackageVerifier> verifier = this.config.verifier();
         return this.doWithLock(
-            prefix,
-            () -> SingleInterop.fromFuture(this.storage.list(prefix))
-                .flatMapPublisher(Flowable::fromIterable)
-                .filter(key -> key.string().endsWith("xml.gz"))
+            prefix, "batchUpdateIncrementally",
+            lock -> this.precedingMetadata(prefix)
                 .flatMapCompletable(
-                    key -> new RxStorageWrapper(this.storage)
-                        .value(key)
-                        .flatMapCompletable(
-                            content -> new RxStorageWrapper(local)
-                                .save(new Key.From(new KeyLastPart(key).get()), content)
-                        )
+                    key -> this.copied(key, local, tmpdir, new KeyLastPart(key).get())
                 ).andThen(Single.fromCallable(() -> this.mdfRepository(tmpdir)))
                 .flatMap(
                     repo -> this.filePackageFromRpm(prefix, tmpdir, local)
+                        .timestamp()
                         .parallel().runOn(Schedulers.io())
+                        .flatMap(
+                            timed -> {
+                                final FilePackage file = this.waited(timed);
+                                Flowable<FilePackage> hashed;
+                                try {
+                                    hashed = Flowable.just(this.hashed(file, verifier));
+                                } catch (final InvalidPackageException ex) {
+                                    hashed = this.rejected(file, ex);
+                                }
+                                return hashed;
+                            }
+                        )
                         .sequential().observeOn(Schedulers.io())
-                        .reduce(repo, (ignored, pkg) -> repo.update(pkg))
+                        .reduce(
+                            repo,
+                            (ignored, pkg) -> {
+                                final long start = System.nanoTime();
+                                final ModifiableRepository res = repo.update(pkg);
+                                this.config.listener().stage(
+                                    UpdateListener.Stage.XML,
+                                    pkg.path().getFileName().toString(),
+                                    System.nanoTime() - start, 0
+                                );
+                                return res;
+                            }
+                        )
                 )
                 .doOnSuccess(rep -> Logger.info(this, "repository updated"))
                 .doOnSuccess(ModifiableRepository::close)
@@ -262,16 +358,24 @@ public final class Rpm {
                 .doOnSuccess(ModifiableRepository::clear)
                 .doOnSuccess(rep -> Logger.info(this, "repository cleared"))
                 .flatMapObservable(
-                    rep -> Observable.fromIterable(
-                        rep.save(new Repodata.Temp(this.config.naming(), metadir))
-                    )
+                    rep -> {
+                        final long start = System.nanoTime();
+                        return this.compressed(
+                            rep.save(
+                                new Repodata.Temp(
+                                    this.config.naming(), metadir, this.config.compressions()
+                                )
+                            ),
+                            start
+                        );
+                    }
                 )
-                .flatMapSingle(
-                    path -> this.moveRepodataToStorage(new FileStorage(metadir), path, prefix)
+                .toList()
+                .flatMapCompletable(
+                    paths -> this.published(
+                        paths, metadir, prefix, lock, "batchUpdateIncrementally"
+                    )
                 )
-                .map(path -> path.getFileName().toString())
-                .toList().map(HashSet::new)
-                .flatMapCompletable(preserve -> this.removeOldMetadata(preserve, prefix))
             ).doOnTerminate(
                 () -> {
                     Rpm.cleanup(tmpdir);
@@ -281,22 +385,150 @@ public final class Rpm {
     }
 
     /**
-     * Removes old metadata.
-     * @param preserve Metadata to keep
+     * Rpm with additional update listener.
+     * @param listener Update listener
+     * @return Rpm
+     */
+    private Rpm listened(final UpdateListener listener) {
+        return new Rpm(
+            this.storage,
+            new RepoConfig.Simple(
+                this.config.digest(), this.config.naming(), this.config.filelists(),
+                this.config.compressions(),
+                new UpdateListener.Multiple(this.config.listener(), listener),
+                this.config.verifier()
+            )
+        );
+    }
+
+    /**
+     * Keys of the current repository metadata: {@code repomd.xml} and metadata
+     * files it refers to. If repository has no {@code repomd.xml}, all
+     * {@code xml.gz} files of the repository are returned.
      * @param prefix Repo prefix
-     * @return Completable
+     * @return Metadata keys
      */
-    private Completable removeOldMetadata(final Set<String> preserve, final Key prefix) {
-        return new RxStorageWrapper(this.storage).list(new Key.From(prefix, "repodata"))
-            .flatMapObservable(Observable::fromIterable)
-            .filter(item -> !preserve.contains(Paths.get(item.string()).getFileName().toString()))
-            .flatMapCompletable(
-                item -> new RxStorageWrapper(this.storage).delete(item)
-            );
+    private Flowable<Key> precedingMetadata(final Key prefix) {
+        final Key repomd = new Key.From(prefix, "repodata", Rpm.REPOMD);
+        return SingleInterop.fromFuture(this.storage.exists(repomd)).flatMapPublisher(
+            exists -> {
+                final Flowable<Key> res;
+                if (exists) {
+                    final Set<String> types = new XmlPackage.Stream(this.config.filelists()).get()
+                        .map(XmlPackage::filename).collect(Collectors.toSet());
+                    res = SingleInterop.fromFuture(this.storage.value(repomd))
+                        .flatMap(
+                            content -> SingleInterop.fromFuture(new PublisherAs(content).bytes())
+                        )
+                        .map(bytes -> new XmlRepomdEntries(new ByteArrayInputStream(bytes)).read())
+                        .flatMapPublisher(
+                            entries -> Flowable.fromIterable(entries.values())
+                                .filter(
+                                    entry -> types.contains(entry.type())
+                                        && entry.location().isPresent()
+                                )
+                                .<Key>map(
+                                    entry -> new LocationKey(prefix, entry.location().get())
+                                        .key().orElseThrow(
+                                            () -> new ArtipieIOException(
+                                                String.format(
+                                                    "Metadata location %s is outside of %s",
+                                                    entry.location().get(), prefix.string()
+                                                )
+                                            )
+                                        )
+                                )
+                                .startWith(repomd)
+                        );
+                } else {
+                    res = SingleInterop.fromFuture(this.storage.list(prefix))
+                        .flatMapPublisher(Flowable::fromIterable)
+                        .filter(key -> key.string().endsWith("xml.gz"));
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Publishes metadata files in two phases: files are moved to storage journal,
+     * then journal moves data files to repodata, replaces {@code repomd.xml} last
+     * and removes old metadata. Publishing is skipped if open checksums of the new
+     * metadata are equal to the checksums of current {@code repomd.xml}.
+     * @param paths Metadata files
+     * @param metadir Local metadata directory
+     * @param prefix Repo prefix
+     * @param lock Repository lock, checked before metadata is published
+     * @param kind Operation kind
+     * @return Completion
+     * @checkstyle ParameterNumberCheck (3 lines)
+     */
+    private Completable published(final List<Path> paths, final Path metadir,
+        final Key prefix, final LeaseLock lock, final String kind) {
+        return this.unchanged(metadir.resolve(Rpm.REPOMD), prefix).flatMapCompletable(
+            same -> {
+                final Completable res;
+                if (same) {
+                    Logger.info(this, "Metadata of %s is unchanged", prefix.string());
+                    res = Completable.complete();
+                } else {
+                    res = Observable.fromIterable(paths)
+                        .flatMapSingle(
+                            path -> this.moveRepodataToStorage(
+                                new FileStorage(metadir), path, prefix
+                            )
+                        )
+                        .map(path -> path.getFileName().toString())
+                        .toList().map(HashSet::new)
+                        .flatMapCompletable(
+                            preserve -> CompletableInterop.fromFuture(lock.check()).andThen(
+                                new Journal(this.storage, prefix).publish(kind, preserve)
+                            )
+                        );
+                }
+                return res;
+            }
+        );
     }
 
     /**
-     * Moves repodata to storage.
+     * Checks whether new metadata has the same open checksums as metadata in
+     * current {@code repomd.xml} of the repository.
+     * @param repomd New repomd file
+     * @param prefix Repo prefix
+     * @return True if all metadata is unchanged
+     */
+    private Single<Boolean> unchanged(final Path repomd, final Key prefix) {
+        final Key current = new Key.From(prefix, "repodata", Rpm.REPOMD);
+        return SingleInterop.fromFuture(this.storage.exists(current)).flatMap(
+            exists -> {
+                final Single<Boolean> res;
+                if (exists && Files.exists(repomd)) {
+                    res = SingleInterop.fromFuture(this.storage.value(current))
+                        .flatMap(
+                            content -> SingleInterop.fromFuture(new PublisherAs(content).bytes())
+                        ).map(
+                            bytes -> {
+                                final Map<String, String> before = Rpm.openChecksums(
+                                    new ByteArrayInputStream(bytes)
+                                );
+                                try (InputStream input = Files.newInputStream(repomd)) {
+                                    return !before.isEmpty()
+                                        && before.equals(Rpm.openChecksums(input));
+                                }
+                            }
+                        );
+                } else {
+                    res = Single.just(false);
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Moves repodata to storage journal, staged metadata is published after all
+     * metadata files are moved.
      * @param local Local storage
      * @param path Metadata to move
      * @param prefix Repo prefix
@@ -304,17 +536,225 @@ public final class Rpm {
      */
     private Single<Path> moveRepodataToStorage(final Storage local, final Path path,
         final Key prefix) {
-        return new RxStorageWrapper(local)
-            .value(new Key.From(path.getFileName().toString()))
-            .flatMapCompletable(
-                content -> new RxStorageWrapper(new SubStorage(prefix, this.storage)).save(
-                    new Key.From("repodata", path.getFileName().toString()), content
-                )
-            ).toSingleDefault(path);
+        return Single.defer(
+            () -> {
+                final long start = System.nanoTime();
+                return new RxStorageWrapper(local)
+                    .value(new Key.From(path.getFileName().toString()))
+                    .flatMapCompletable(
+                        content -> new Journal(this.storage, prefix)
+                            .stage(path.getFileName().toString(), content)
+                    ).doOnComplete(
+                        () -> this.config.listener().stage(
+                            UpdateListener.Stage.UPLOAD, path.getFileName().toString(),
+                            System.nanoTime() - start, Files.size(path)
+                        )
+                    ).toSingleDefault(path);
+            }
+        );
+    }
+
+    /**
+     * Open checksums of repomd entries.
+     * @param repomd Repomd input
+     * @return Open checksums by data type
+     */
+    private static Map<String, String> openChecksums(final InputStream repomd) {
+        return new XmlRepomdEntries(repomd).read().entrySet().stream().collect(
+            Collectors.toMap(
+                Map.Entry::getKey,
+                entry -> entry.getValue().openChecksum().orElse("")
+            )
+        );
+    }
+
+    /**
+     * Reports compression of metadata files to update listener.
+     * @param files Metadata files
+     * @param start Compression start time in nanoseconds
+     * @return Metadata files
+     * @throws IOException On error
+     */
+    private Observable<Path> compressed(final List<Path> files, final long start)
+        throws IOException {
+        long size = 0;
+        for (final Path file : files) {
+            size += Files.size(file);
+        }
+        this.config.listener().stage(
+            UpdateListener.Stage.COMPRESS, "repodata", System.nanoTime() - start, size
+        );
+        return Observable.fromIterable(files);
+    }
+
+    /**
+     * Reports the time package waited for parsing worker to update listener.
+     * @param timed Package with the time it was copied to local storage
+     * @return Package
+     */
+    private FilePackage waited(final Timed<FilePackage> timed) {
+        this.config.listener().stage(
+            UpdateListener.Stage.PARSE_WAIT, timed.value().path().getFileName().toString(),
+            TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis() - timed.time()), 0
+        );
+        return timed.value();
+    }
+
+    /**
+     * Computes package checksum with repository digest in advance, so that it's
+     * computed by parsing worker and only once.
+     * @param file Package
+     * @return Package with known checksum
+     * @throws IOException On error
+     */
+    private FilePackage hashed(final FilePackage file) throws IOException {
+        final long start = System.nanoTime();
+        final Checksum sum = new Checksum.Simple(
+            this.config.digest(), file.checksum(this.config.digest()).hex()
+        );
+        this.config.listener().stage(
+            UpdateListener.Stage.CHECKSUM, file.path().getFileName().toString(),
+            System.nanoTime() - start, Files.size(file.path())
+        );
+        return file.withChecksum(sum);
+    }
+
+    /**
+     * Computes package checksum, verifies the package with the same pass over
+     * the file if verifier is configured. Header read for verification is kept
+     * with the package, so it's not read once more if package is added to metadata.
+     * @param file Package
+     * @param verifier Packages verifier
+     * @return Package with known checksum
+     * @throws IOException On error
+     * @throws InvalidPackageException If package is invalid or rejected by verifier
+     */
+    private FilePackage hashed(final FilePackage file, final Optional<PackageVerifier> verifier)
+        throws IOException {
+        final FilePackage res;
+        if (verifier.isPresent()) {
+            final Format format = this.format(file);
+            res = this.verified(file, format, verifier.get()).withHeader(format.getHeader());
+        } else {
+            res = this.hashed(file);
+        }
+        return res;
+    }
+
+    /**
+     * Parses package and computes its checksum, if verifier is configured, package
+     * is verified with checksum and header is read only once.
+     * @param file Package
+     * @param verifier Packages verifier
+     * @return Parsed package
+     * @throws IOException On error
+     * @throws InvalidPackageException If package is invalid or rejected by verifier
+     */
+    private Package parsed(final FilePackage file, final Optional<PackageVerifier> verifier)
+        throws IOException {
+        final Package res;
+        if (verifier.isPresent()) {
+            final Format format = this.format(file);
+            res = this.verified(file, format, verifier.get()).parsed(format.getHeader());
+        } else {
+            final FilePackage hashed = this.hashed(file);
+            final long start = System.nanoTime();
+            res = hashed.parsed();
+            this.config.listener().stage(
+                UpdateListener.Stage.HEADER, file.path().getFileName().toString(),
+                System.nanoTime() - start, 0
+            );
+        }
+        return res;
+    }
+
+    /**
+     * Reads package format: lead, signature header and header.
+     * @param file Package
+     * @return Format
+     * @throws IOException On error
+     * @throws InvalidPackageException If package is invalid
+     */
+    private Format format(final FilePackage file) throws IOException {
+        final long start = System.nanoTime();
+        final Format res = new FilePackageHeader(file.path()).format();
+        this.config.listener().stage(
+            UpdateListener.Stage.HEADER, file.path().getFileName().toString(),
+            System.nanoTime() - start, 0
+        );
+        return res;
+    }
+
+    /**
+     * Verifies package and computes its checksum with one pass over the file.
+     * @param file Package
+     * @param format Package format
+     * @param verifier Packages verifier
+     * @return Package with known checksum
+     * @throws IOException On error
+     * @throws InvalidPackageException If package is rejected by verifier
+     */
+    private FilePackage verified(final FilePackage file, final Format format,
+        final PackageVerifier verifier) throws IOException {
+        final long start = System.nanoTime();
+        final Checksum sum = verifier.verified(file.path(), format, this.config.digest());
+        this.config.listener().stage(
+            UpdateListener.Stage.CHECKSUM, file.path().getFileName().toString(),
+            System.nanoTime() - start, Files.size(file.path())
+        );
+        return file.withChecksum(sum);
+    }
+
+    /**
+     * Reports rejected package: logs the reason and reports it to update listener.
+     * @param file Package
+     * @param err Reason
+     * @param <T> Items type
+     * @return Empty flowable
+     */
+    private <T> Flowable<T> rejected(final FilePackage file, final InvalidPackageException err) {
+        Logger.warn(this, "Package '%s' is rejected: %[exception]s", file.path(), err);
+        this.config.listener().stage(
+            UpdateListener.Stage.REJECT, file.path().getFileName().toString(), 0, 0
+        );
+        return Flowable.empty();
+    }
+
+    /**
+     * Copies file from storage to local storage.
+     * @param key File key
+     * @param local Local storage
+     * @param tmpdir Local storage directory
+     * @param filename Local file name
+     * @return Completable
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private Completable copied(final Key key, final Storage local, final Path tmpdir,
+        final String filename) {
+        return Completable.defer(
+            () -> {
+                final long start = System.nanoTime();
+                return new RxStorageWrapper(this.storage)
+                    .value(key)
+                    .flatMapCompletable(
+                        content -> new RxStorageWrapper(local)
+                            .save(new Key.From(filename), content)
+                    ).doOnComplete(
+                        () -> this.config.listener().stage(
+                            UpdateListener.Stage.COPY, filename, System.nanoTime() - start,
+                            Files.size(tmpdir.resolve(filename))
+                        )
+                    );
+            }
+        );
     }
 
     /**
      * Copies rpms to local storage and constacts {@link FilePackage} instance.
+     * Verified package checksum from {@link ChecksumSidecar} is used if it's present,
+     * was computed with repository digest and recorded for the package of the same size,
+     * sidecars of removed packages are deleted. Packages are copied concurrently, but
+     * emitted sorted by key, so that metadata is written in the same order each time.
      * @param prefix Repo prefix
      * @param tmpdir Tempdir
      * @param local Local storage
@@ -323,29 +763,58 @@ public final class Rpm {
     private Flowable<FilePackage> filePackageFromRpm(
         final Key prefix, final Path tmpdir, final Storage local
     ) {
+        final long start = System.nanoTime();
         return SingleInterop.fromFuture(this.storage.list(prefix))
-            .flatMapPublisher(Flowable::fromIterable)
-            .filter(key -> key.string().endsWith(".rpm"))
-            .flatMapSingle(
-                key -> {
-                    final String filename;
-                    if (key.equals(prefix)) {
-                        filename = key.string();
-                    } else {
-                        filename = key.string().replaceFirst(prefix.string(), "")
-                            .replaceFirst("^/", "");
-                    }
-                    return new RxStorageWrapper(this.storage)
-                        .value(key)
-                        .flatMapCompletable(
-                            content -> new RxStorageWrapper(local)
-                                .save(new Key.From(filename), content)
-                        ).andThen(
-                            Single.fromCallable(
-                                () -> new FilePackage(tmpdir.resolve(filename), filename)
-                            )
-                        );
-                }
+            .<Set<Key>>map(HashSet::new)
+            .doOnSuccess(
+                keys -> this.config.listener().stage(
+                    UpdateListener.Stage.LIST, prefix.string(), System.nanoTime() - start, 0
+                )
+            )
+            .flatMapPublisher(
+                keys -> CompletableInterop.fromFuture(
+                    new ChecksumSidecar.Orphans(this.storage, keys).remove()
+                ).andThen(Flowable.fromIterable(keys))
+                    .filter(key -> key.string().endsWith(".rpm"))
+                    .sorted(Comparator.comparing(Key::string))
+                    .doOnNext(
+                        key -> this.config.listener().stage(
+                            UpdateListener.Stage.DISCOVER, new KeyLastPart(key).get(), 0, 0
+                        )
+                    )
+                    .concatMapEager(
+                        key -> {
+                            final String filename;
+                            if (key.equals(prefix)) {
+                                filename = key.string();
+                            } else {
+                                filename = key.string().replaceFirst(prefix.string(), "")
+                                    .replaceFirst("^/", "");
+                            }
+                            final ChecksumSidecar sidecar = new ChecksumSidecar(this.storage, key);
+                            final Path path = tmpdir.resolve(filename);
+                            final Maybe<Checksum> known;
+                            if (this.config.digest() == Digest.SHA256
+                                && keys.contains(sidecar.key())) {
+                                known = Maybe.defer(
+                                    () -> SingleInterop.fromFuture(
+                                        sidecar.read(Files.size(path))
+                                    ).flatMapMaybe(
+                                        sum -> sum.map(Maybe::just).orElseGet(Maybe::empty)
+                                    )
+                                );
+                            } else {
+                                known = Maybe.empty();
+                            }
+                            return this.copied(key, local, tmpdir, filename).andThen(
+                                    known.map(
+                                        sum -> new FilePackage(path, filename, sum)
+                                    ).defaultIfEmpty(
+                                        new FilePackage(path, filename)
+                                    ).toFlowable()
+                                );
+                        }
+                    )
             );
     }
 
@@ -362,14 +831,19 @@ public final class Rpm {
     }
 
     /**
-     * Get repository for file updates.
+     * Get repository for file updates, each metadata file is written in chunks,
+     * but not more chunks than packages. Unlike plain metadata files, chunked ones
+     * accept packages concurrently, so {@link #batchUpdate(Key)} groups packages by
+     * chunk and parses and writes each group on its own thread in order of keys,
+     * which keeps metadata of unchanged repository the same.
+     * @param chunks Max chunks count
      * @return Repository
      */
-    private Repository repository() {
+    private Repository repository(final int chunks) {
         return new Repository(
             new XmlPackage.Stream(this.config.filelists()).get().map(
-                new UncheckedFunc<XmlPackage, MetadataFile, IOException>(
-                    item -> new MetadataFile(item, item.output().start())
+                new UncheckedFunc<XmlPackage, ChunkedMetadata, IOException>(
+                    item -> new ChunkedMetadata(item, chunks, idx -> item.output().start())
                 )
             ).collect(Collectors.toList()),
             this.config.digest()
@@ -401,23 +875,100 @@ public final class Rpm {
     }
 
     /**
-     * Performs operation under root lock with one hour expiration time.
+     * Performs operation under repository lock. Operations of this process waiting
+     * for the same lock are queued, the operation is coalesced with the queued one
+     * of the same kind and configuration, which is not started yet. Lock lease is
+     * renewed while operation runs, operation should check the lock before
+     * publishing metadata. Publishing interrupted by previous update is finished
+     * before the operation.
      *
      * @param target Lock target key.
+     * @param kind Operation kind.
      * @param operation Operation.
      * @return Completion of operation and lock.
      */
-    private Completable doWithLock(final Key target, final Supplier<Completable> operation) {
-        final Lock lock = new StorageLock(
-            this.storage,
-            target,
-            Instant.now().plus(Duration.ofHours(1))
-        );
-        return Completable.fromFuture(
-            lock.acquire()
-                .thenCompose(nothing -> operation.get().to(CompletableInterop.await()))
-                .thenCompose(nothing -> lock.release())
-                .toCompletableFuture()
+    private Completable doWithLock(final Key target, final String kind,
+        final Function<LeaseLock, Completable> operation) {
+        return Completable.defer(
+            () -> {
+                final long start = System.nanoTime();
+                final LockAcquireEvent acquire = new LockAcquireEvent();
+                acquire.begin();
+                return CompletableInterop.fromFuture(
+                    Rpm.QUEUE.coalesce(
+                        Arrays.asList(this.storage, target.string()),
+                        Arrays.asList(kind, this.config),
+                        () -> this.locked(target, operation, start, acquire)
+                    )
+                );
+            }
         );
     }
+
+    /**
+     * Acquires lock and performs operation, reports lock wait and hold time.
+     * @param target Lock target key
+     * @param operation Operation
+     * @param start Start of waiting for the lock in nanoseconds
+     * @param acquire Lock acquisition event
+     * @return Completion of operation and lock
+     * @checkstyle ParameterNumberCheck (3 lines)
+     */
+    private CompletionStage<Void> locked(final Key target,
+        final Function<LeaseLock, Completable> operation, final long start,
+        final LockAcquireEvent acquire) {
+        final LeaseLock lock = new LeaseLock(this.storage, target, Rpm.LEASE);
+        final LockHoldEvent hold = new LockHoldEvent();
+        final AtomicLong acquired = new AtomicLong();
+        return lock.acquire()
+            .thenCompose(
+                locked -> {
+                    acquired.set(System.nanoTime());
+                    this.config.listener().stage(
+                        UpdateListener.Stage.LOCK, target.string(), acquired.get() - start, 0
+                    );
+                    acquire.complete(target.string());
+                    hold.begin();
+                    return new Journal(this.storage, target).recover()
+                        .andThen(Completable.defer(() -> operation.apply(lock)))
+                        .to(CompletableInterop.await())
+                        .handle(
+                            (nothing, err) -> lock.release().handle(
+                                (released, rerr) -> Rpm.first(err, rerr)
+                            ).thenCompose(Function.identity())
+                        )
+                        .thenCompose(Function.identity());
+                }
+            )
+            .whenComplete(
+                (nothing, err) -> {
+                    if (acquired.get() != 0) {
+                        this.config.listener().stage(
+                            UpdateListener.Stage.HOLD, target.string(),
+                            System.nanoTime() - acquired.get(), 0
+                        );
+                    }
+                    hold.complete(target.string(), err == null);
+                }
+            );
+    }
+
+    /**
+     * Completion which fails with the first of the errors, the error of the
+     * operation is never replaced by the error of the lock release.
+     * @param err Operation error or null
+     * @param rerr Release error or null
+     * @return Completion
+     */
+    private static CompletionStage<Void> first(final Throwable err, final Throwable rerr) {
+        final CompletableFuture<Void> res = new CompletableFuture<>();
+        if (err != null) {
+            res.completeExceptionally(err);
+        } else if (rerr != null) {
+            res.completeExceptionally(rerr);
+        } else {
+            res.complete(null);
+        }
+        return res;
+    }
 }
@@ -5,6 +5,7 @@
 package com.artipie.rpm;
 
 import com.artipie.asto.ArtipieIOException;
+import com.artipie.rpm.files.Compression;
 import com.artipie.rpm.meta.MergedXml;
 import com.artipie.rpm.meta.MergedXmlPackage;
 import com.artipie.rpm.meta.MergedXmlPrimary;
@@ -13,10 +14,11 @@ import com.artipie.rpm.meta.XmlEvent;
 import com.artipie.rpm.meta.XmlMaid;
 import com.artipie.rpm.meta.XmlPackage;
 import com.artipie.rpm.meta.XmlPrimaryMaid;
+import com.artipie.rpm.meta.XmlRepomd;
+import com.artipie.rpm.meta.XmlSpill;
 import com.artipie.rpm.pkg.Checksum;
 import com.artipie.rpm.pkg.FilePackage;
 import com.artipie.rpm.pkg.Package;
-import com.jcabi.log.Logger;
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.IOException;
@@ -24,12 +26,28 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.security.DigestOutputStream;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import javax.xml.bind.DatatypeConverter;
+import javax.xml.stream.XMLStreamException;
+import org.apache.commons.io.output.CloseShieldOutputStream;
+import org.apache.commons.io.output.CountingOutputStream;
 import org.redline_rpm.header.Header;
 
 /**
@@ -126,28 +144,155 @@ public interface RpmMetadata {
          * Appends records about provided RPMs.
          * @param packages Rpms to append info about, map of the path to file and location
          * @throws ArtipieIOException On io-operation error
-         * @checkstyle NestedTryDepthCheck (20 lines)
          */
         public void perform(final Collection<Package.Meta> packages) {
+            new Update(this.items).perform(Collections.emptySet(), packages);
+        }
+
+        /**
+         * Appends records about RPMs from iterator with bounded heap, see
+         * {@link Update#perform(Collection, Iterator)}.
+         * @param packages Rpms to append info about
+         * @throws ArtipieIOException On io-operation error
+         */
+        public void perform(final Iterator<? extends Package.Meta> packages) {
+            new Update(this.items).perform(Collections.emptySet(), packages);
+        }
+    }
+
+    /**
+     * Removes and appends RPM records in one pass over each metadata file: replaces
+     * {@link Remove} and {@link Append} sequence, e.g. for package version update.
+     * Primary is merged first: packages with provided checksums and packages with the
+     * same location as appended ones are skipped, then other and filelists are merged
+     * in parallel skipping the same packages. As primary packages count is known only
+     * at the end, merged primary is written to a local temp file first and then copied
+     * to the output, count is fixed in primary head with {@link XmlAlter.Head} without
+     * xml parsing.
+     * @since 1.9
+     */
+    final class Update {
+
+        /**
+         * Metadata list.
+         */
+        private final Collection<MetadataItem> items;
+
+        /**
+         * Ctor.
+         * @param items Metadata items
+         */
+        public Update(final MetadataItem... items) {
+            this(Arrays.asList(items));
+        }
+
+        /**
+         * Ctor.
+         * @param items Metadata items
+         */
+        Update(final Collection<MetadataItem> items) {
+            this.items = items;
+        }
+
+        /**
+         * Removes records about RPMs with provided checksums and appends records
+         * about provided RPMs.
+         * @param checksums Checksums of the RPMs to remove
+         * @param packages RPMs to append
+         * @return Result with packages count and checksums of all removed packages
+         * @throws ArtipieIOException On io-operation error
+         */
+        public MergedXml.Result perform(final Collection<String> checksums,
+            final Collection<Package.Meta> packages) {
+            final Map<XmlPackage, MergedXml.Appended> appended =
+                new EnumMap<>(XmlPackage.class);
+            for (final MetadataItem item : this.items) {
+                appended.put(
+                    item.type, new MergedXml.Appended.From(packages, Update.event(item.type))
+                );
+            }
+            return this.perform(checksums, appended);
+        }
+
+        /**
+         * Removes records about RPMs with provided checksums and appends records
+         * about RPMs from iterator. Each RPM is rendered to temp spill documents
+         * with {@link XmlSpill} once and replayed from them for each metadata file,
+         * so that only locations of RPMs are kept in memory.
+         * Iterator can be obtained from publisher with
+         * {@code Flowable.fromPublisher(packages).blockingIterable().iterator()}.
+         * @param checksums Checksums of the RPMs to remove
+         * @param packages RPMs to append
+         * @return Result with packages count and checksums of all removed packages
+         * @throws ArtipieIOException On io-operation error
+         */
+        public MergedXml.Result perform(final Collection<String> checksums,
+            final Iterator<? extends Package.Meta> packages) {
+            try {
+                final Path dir = Files.createTempDirectory("rpm-spill");
+                try (XmlSpill spill = new XmlSpill(
+                    dir, this.items.stream().map(item -> item.type).collect(Collectors.toList()),
+                    Update::event
+                )) {
+                    spill.write(packages);
+                    final Map<XmlPackage, MergedXml.Appended> appended =
+                        new EnumMap<>(XmlPackage.class);
+                    for (final MetadataItem item : this.items) {
+                        appended.put(item.type, spill.appended(item.type));
+                    }
+                    return this.perform(checksums, appended);
+                } finally {
+                    Files.delete(dir);
+                }
+            } catch (final IOException err) {
+                throw new ArtipieIOException(err);
+            }
+        }
+
+        /**
+         * Removes records about RPMs with provided checksums and appends records
+         * about provided RPMs.
+         * @param checksums Checksums of the RPMs to remove
+         * @param appended RPMs to append by metadata types
+         * @return Result with packages count and checksums of all removed packages
+         * @throws ArtipieIOException On io-operation error
+         * @checkstyle NestedTryDepthCheck (30 lines)
+         */
+        private MergedXml.Result perform(final Collection<String> checksums,
+            final Map<XmlPackage, MergedXml.Appended> appended) {
             try {
-                final Path temp = Files.createTempFile("rpm-primary-append", Remove.SUFFIX);
+                final Path temp = Files.createTempFile("rpm-primary-update", Remove.SUFFIX);
                 try {
-                    final MergedXml.Result res;
-                    final MetadataItem primary = this.items.stream()
-                        .filter(item -> item.type == XmlPackage.PRIMARY).findFirst().get();
+                    final MergedXml.Result merged;
+                    final MetadataItem primary = this.item(XmlPackage.PRIMARY).get();
                     try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp))) {
-                        res = new MergedXmlPrimary(primary.input, out)
-                            .merge(packages, new XmlEvent.Primary());
+                        merged = new MergedXmlPrimary(primary.input, out, checksums)
+                            .merge(appended.get(XmlPackage.PRIMARY));
                     }
+                    final Set<String> removed = new HashSet<>(merged.checksums());
+                    removed.addAll(checksums);
+                    final MergedXml.Result res = new MergedXml.Result(merged.count(), removed);
                     final ExecutorService service = Executors.newFixedThreadPool(3);
-                    service.submit(Append.setPrimaryPckg(temp, res, primary));
-                    service.submit(this.updateOther(packages, res));
-                    service.submit(this.updateFilelist(packages, res));
-                    service.shutdown();
-                    service.awaitTermination(Long.MAX_VALUE, TimeUnit.HOURS);
+                    try {
+                        final List<Future<Void>> tasks = service.invokeAll(
+                            Arrays.asList(
+                                Update.primaryCount(temp, res, primary),
+                                this.merge(XmlPackage.OTHER, appended, res),
+                                this.merge(XmlPackage.FILELISTS, appended, res)
+                            )
+                        );
+                        for (final Future<Void> task : tasks) {
+                            task.get();
+                        }
+                    } finally {
+                        service.shutdown();
+                    }
+                    return res;
                 } catch (final InterruptedException err) {
                     Thread.currentThread().interrupt();
-                    Logger.error(this, err.getMessage());
+                    throw new ArtipieIOException(err);
+                } catch (final ExecutionException err) {
+                    throw new ArtipieIOException(err.getCause());
                 } finally {
                     Files.delete(temp);
                 }
@@ -157,66 +302,68 @@ public interface RpmMetadata {
         }
 
         /**
-         * Creates runnable action to update filelist.xml index.
-         * @param packages Packages to add
-         * @param res Xml update primary result
-         * @return Action
+         * Metadata item of the type.
+         * @param type Metadata type
+         * @return Item if present
          */
-        private Runnable updateFilelist(final Collection<Package.Meta> packages,
-            final MergedXml.Result res) {
-            return () -> {
-                final Optional<MetadataItem> filelist = this.items.stream()
-                    .filter(item -> item.type == XmlPackage.FILELISTS).findFirst();
-                if (filelist.isPresent()) {
-                    try {
-                        new MergedXmlPackage(
-                            filelist.get().input, filelist.get().out, XmlPackage.FILELISTS, res
-                        ).merge(packages, new XmlEvent.Filelists());
-                    } catch (final IOException err) {
-                        throw new ArtipieIOException(err);
-                    }
-                }
-            };
+        private Optional<MetadataItem> item(final XmlPackage type) {
+            return this.items.stream().filter(item -> item.type == type).findFirst();
         }
 
         /**
-         * Creates runnable action to update other.xml index.
-         * @param packages Packages to add
+         * Creates action to merge other.xml or filelists.xml index if it's present.
+         * @param type Metadata type
+         * @param appended Packages to add by metadata types
          * @param res Xml update primary result
          * @return Action
          */
-        private Runnable updateOther(final Collection<Package.Meta> packages,
-            final MergedXml.Result res) {
+        private Callable<Void> merge(final XmlPackage type,
+            final Map<XmlPackage, MergedXml.Appended> appended, final MergedXml.Result res) {
             return () -> {
-                try {
-                    final MetadataItem other = this.items.stream()
-                        .filter(item -> item.type == XmlPackage.OTHER).findFirst().get();
-                    new MergedXmlPackage(other.input, other.out, XmlPackage.OTHER, res)
-                        .merge(packages, new XmlEvent.Other());
-                } catch (final IOException err) {
-                    throw new ArtipieIOException(err);
+                final Optional<MetadataItem> item = this.item(type);
+                if (item.isPresent()) {
+                    new MergedXmlPackage(item.get().input, item.get().out, type, res)
+                        .merge(appended.get(type));
                 }
+                return null;
             };
         }
 
         /**
-         * Creates actions to update `packages` attribute of primary.xml.
+         * Creates action to copy merged primary.xml to output setting
+         * `packages` attribute.
          * @param temp Merge result temp file
          * @param res Xml primary update result
          * @param primary Metadata
          * @return Action
          */
-        private static Runnable setPrimaryPckg(final Path temp, final MergedXml.Result res,
+        private static Callable<Void> primaryCount(final Path temp, final MergedXml.Result res,
             final MetadataItem primary) {
             return () -> {
                 try (InputStream input = new BufferedInputStream(Files.newInputStream(temp))) {
-                    new XmlAlter.Stream(input, primary.out)
+                    new XmlAlter.Head(input, primary.out)
                         .pkgAttr(primary.type.tag(), String.valueOf(res.count()));
-                } catch (final IOException err) {
-                    throw new ArtipieIOException(err);
                 }
+                return null;
             };
         }
+
+        /**
+         * Xml event to add package to metadata of the type.
+         * @param type Metadata type
+         * @return Xml event
+         */
+        private static XmlEvent event(final XmlPackage type) {
+            final XmlEvent res;
+            if (type == XmlPackage.PRIMARY) {
+                res = new XmlEvent.Primary();
+            } else if (type == XmlPackage.OTHER) {
+                res = new XmlEvent.Other();
+            } else {
+                res = new XmlEvent.Filelists();
+            }
+            return res;
+        }
     }
 
     /**
@@ -274,6 +421,227 @@ public interface RpmMetadata {
         }
     }
 
+    /**
+     * Compressed metadata item: reads gzipped xml metadata, writes the result gzipped
+     * and computes checksums and sizes of compressed and open result on the fly, so
+     * that {@code *.xml.gz} can be updated and described in {@code repomd.xml}
+     * without gunzipping, gzipping and hashing it through separate temp files.
+     * Note that operations themselves still use local disk: {@link Update} merges
+     * primary into one open temp file, as primary packages count is known only after
+     * the merge, {@link Remove} does the same for each metadata file, and
+     * {@link Update#perform(Collection, Iterator)} spills appended packages to a temp
+     * directory. Usage:
+     * <pre>
+     * final RpmMetadata.GzipItem primary = new RpmMetadata.GzipItem(
+     *     XmlPackage.PRIMARY, Optional.of(gzin), gzout, Digest.SHA256
+     * );
+     * new RpmMetadata.Append(primary.item(), ...).perform(packages);
+     * final RpmMetadata.GzipItem.Summary summary = primary.finish();
+     * </pre>
+     * Output stream is not closed by {@link #finish()}.
+     * @since 1.9
+     */
+    final class GzipItem {
+
+        /**
+         * Xml metadata type.
+         */
+        private final XmlPackage type;
+
+        /**
+         * Gzipped xml metadata input stream.
+         */
+        private final Optional<InputStream> input;
+
+        /**
+         * Digest.
+         */
+        private final Digest digest;
+
+        /**
+         * Compressed output with checksum.
+         */
+        private final DigestOutputStream gzsum;
+
+        /**
+         * Compressed output with bytes counter.
+         */
+        private final CountingOutputStream gzipped;
+
+        /**
+         * Open output with bytes counter, created by {@link #item()}.
+         */
+        private CountingOutputStream open;
+
+        /**
+         * Open output with checksum, created by {@link #item()}.
+         */
+        private DigestOutputStream opensum;
+
+        /**
+         * Ctor.
+         * @param type Xml type
+         * @param input Gzipped xml metadata input stream
+         * @param out Where to write gzipped result
+         * @param digest Checksums digest
+         * @checkstyle ParameterNumberCheck (5 lines)
+         */
+        public GzipItem(final XmlPackage type, final Optional<InputStream> input,
+            final OutputStream out, final Digest digest) {
+            this.type = type;
+            this.input = input;
+            this.digest = digest;
+            this.gzsum = new DigestOutputStream(
+                new CloseShieldOutputStream(out), digest.messageDigest()
+            );
+            this.gzipped = new CountingOutputStream(this.gzsum);
+        }
+
+        /**
+         * Ctor.
+         * @param type Xml type
+         * @param out Where to write gzipped result
+         * @param digest Checksums digest
+         */
+        public GzipItem(final XmlPackage type, final OutputStream out, final Digest digest) {
+            this(type, Optional.empty(), out, digest);
+        }
+
+        /**
+         * Metadata item to pass to {@link Remove}, {@link Append} or {@link Update}.
+         * @return Metadata item reading and writing open xml
+         * @throws IOException On error
+         */
+        public MetadataItem item() throws IOException {
+            this.opensum = new DigestOutputStream(
+                Compression.GZIP.compress(this.gzipped), this.digest.messageDigest()
+            );
+            this.open = new CountingOutputStream(this.opensum);
+            Optional<InputStream> xml = Optional.empty();
+            if (this.input.isPresent()) {
+                xml = Optional.of(
+                    new BufferedInputStream(Compression.GZIP.decompress(this.input.get()))
+                );
+            }
+            return new MetadataItem(this.type, xml, this.open);
+        }
+
+        /**
+         * Finishes compressed output, should be called after the operation.
+         * @return Checksums and sizes of the result
+         * @throws IOException On error
+         */
+        public Summary finish() throws IOException {
+            this.open.close();
+            return new Summary(
+                new Checksum.Simple(this.digest, GzipItem.hex(this.gzsum)),
+                new Checksum.Simple(this.digest, GzipItem.hex(this.opensum)),
+                this.gzipped.getByteCount(), this.open.getByteCount()
+            );
+        }
+
+        /**
+         * Checksum hex.
+         * @param stream Digest stream
+         * @return Hex string
+         */
+        private static String hex(final DigestOutputStream stream) {
+            return DatatypeConverter.printHexBinary(stream.getMessageDigest().digest())
+                .toLowerCase(Locale.US);
+        }
+
+        /**
+         * Checksums and sizes of compressed metadata.
+         * @since 1.9
+         */
+        public static final class Summary {
+
+            /**
+             * Compressed file checksum.
+             */
+            private final Checksum gzip;
+
+            /**
+             * Open file checksum.
+             */
+            private final Checksum open;
+
+            /**
+             * Compressed file size.
+             */
+            private final long size;
+
+            /**
+             * Open file size.
+             */
+            private final long opensize;
+
+            /**
+             * Ctor.
+             * @param gzip Compressed file checksum
+             * @param open Open file checksum
+             * @param size Compressed file size
+             * @param opensize Open file size
+             * @checkstyle ParameterNumberCheck (5 lines)
+             */
+            Summary(final Checksum gzip, final Checksum open, final long size,
+                final long opensize) {
+                this.gzip = gzip;
+                this.open = open;
+                this.size = size;
+                this.opensize = opensize;
+            }
+
+            /**
+             * Compressed file checksum.
+             * @return Checksum
+             */
+            public Checksum checksum() {
+                return this.gzip;
+            }
+
+            /**
+             * Open file checksum.
+             * @return Checksum
+             */
+            public Checksum openChecksum() {
+                return this.open;
+            }
+
+            /**
+             * Compressed file size.
+             * @return Size in bytes
+             */
+            public long size() {
+                return this.size;
+            }
+
+            /**
+             * Open file size.
+             * @return Size in bytes
+             */
+            public long openSize() {
+                return this.opensize;
+            }
+
+            /**
+             * Writes checksums and sizes to repomd data.
+             * @param data Repomd data
+             * @throws IOException On error
+             */
+            public void repomd(final XmlRepomd.Data data) throws IOException {
+                try {
+                    data.gzipChecksum(this.gzip);
+                    data.openChecksum(this.open);
+                    data.gzipSize(this.size);
+                    data.openSize(this.opensize);
+                } catch (final XMLStreamException err) {
+                    throw new IOException(err);
+                }
+            }
+        }
+    }
+
     /**
      * Rpm file item.
      * @since 1.8
@@ -35,6 +35,33 @@ public enum RpmOptions {
     FILELISTS(
         "filelists", "fl",
         "(optional, default true) includes File Lists for Rpm: true or false"
+    ),
+
+    /**
+     * Metadata compression variants option.
+     */
+    COMPRESSION(
+        "compression", "cmp",
+        // @checkstyle LineLengthCheck (1 line)
+        "(optional, default none) comma separated metadata variants to publish along with gzip: bzip2, xz"
+    ),
+
+    /**
+     * Packages verification option.
+     */
+    VERIFY_PACKAGES(
+        "verify-packages", "vp",
+        // @checkstyle LineLengthCheck (1 line)
+        "(optional, default false) verifies packages header and payload digests on update: true or false"
+    ),
+
+    /**
+     * Keyring option.
+     */
+    KEYRING(
+        "keyring", "krng",
+        // @checkstyle LineLengthCheck (1 line)
+        "(optional, default none) local OpenPGP public keyring to verify packages signatures on update"
     );
 
     /**
@@ -0,0 +1,74 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm;
+
+import com.artipie.rpm.pkg.Package;
+import com.artipie.rpm.pkg.PackageOutput;
+import java.io.IOException;
+
+/**
+ * Package decorator which reports to {@link UpdateListener} how long the package
+ * waited for metadata writer since it was created and how long its records were
+ * written to metadata.
+ * @since 1.9
+ */
+final class TimedPackage implements Package {
+
+    /**
+     * Origin package.
+     */
+    private final Package origin;
+
+    /**
+     * Package name.
+     */
+    private final String name;
+
+    /**
+     * Update listener.
+     */
+    private final UpdateListener listener;
+
+    /**
+     * Time when package was ready to be written in nanoseconds.
+     */
+    private final long ready;
+
+    /**
+     * Ctor.
+     * @param origin Origin package
+     * @param name Package name
+     * @param listener Update listener
+     */
+    TimedPackage(final Package origin, final String name, final UpdateListener listener) {
+        this(origin, name, listener, System.nanoTime());
+    }
+
+    /**
+     * Ctor.
+     * @param origin Origin package
+     * @param name Package name
+     * @param listener Update listener
+     * @param ready Time when package was ready to be written in nanoseconds
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    TimedPackage(final Package origin, final String name, final UpdateListener listener,
+        final long ready) {
+        this.origin = origin;
+        this.name = name;
+        this.listener = listener;
+        this.ready = ready;
+    }
+
+    @Override
+    public void save(final PackageOutput out, final Digest digest) throws IOException {
+        final long start = System.nanoTime();
+        this.listener.stage(UpdateListener.Stage.WRITE_WAIT, this.name, start - this.ready, 0);
+        this.origin.save(out, digest);
+        this.listener.stage(
+            UpdateListener.Stage.XML, this.name, System.nanoTime() - start, 0
+        );
+    }
+}
@@ -0,0 +1,345 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Listener of repository update stages. {@link Rpm} reports each completed stage
+ * of the update pipeline to the listener configured with {@link RepoConfig#listener()}:
+ * stage, item the stage worked with (package file name, metadata file name or
+ * repository key), time spent and bytes processed. Listener is called from different
+ * threads concurrently, implementation should be thread safe and fast.
+ * @since 1.9
+ */
+public interface UpdateListener {
+
+    /**
+     * Reports completed stage.
+     * @param stage Update stage
+     * @param item Item stage worked with
+     * @param nanos Time spent in nanoseconds
+     * @param bytes Bytes processed or zero if not applicable
+     */
+    void stage(Stage stage, String item, long nanos, long bytes);
+
+    /**
+     * Repository update stages.
+     * @since 1.9
+     */
+    enum Stage {
+
+        /**
+         * Waiting for repository lock, including the wait in in-process queue.
+         */
+        LOCK,
+
+        /**
+         * Listing repository storage.
+         */
+        LIST,
+
+        /**
+         * Package found in repository storage, reported once per package with zero time.
+         */
+        DISCOVER,
+
+        /**
+         * Copying package from storage to local temp directory.
+         */
+        COPY,
+
+        /**
+         * Waiting in queue for parsing worker.
+         */
+        PARSE_WAIT,
+
+        /**
+         * Reading package header.
+         */
+        HEADER,
+
+        /**
+         * Computing package checksum.
+         */
+        CHECKSUM,
+
+        /**
+         * Package rejected: it's invalid or failed verification, reported once per
+         * package with zero time.
+         */
+        REJECT,
+
+        /**
+         * Waiting in queue for metadata writer.
+         */
+        WRITE_WAIT,
+
+        /**
+         * Writing package records to metadata XML files.
+         */
+        XML,
+
+        /**
+         * Compressing metadata files and creating {@code repomd.xml}.
+         */
+        COMPRESS,
+
+        /**
+         * Uploading metadata file to storage.
+         */
+        UPLOAD,
+
+        /**
+         * Holding repository lock, reported once when the lock is released.
+         */
+        HOLD
+    }
+
+    /**
+     * Listener which ignores all stages.
+     * @since 1.9
+     */
+    final class Nop implements UpdateListener {
+
+        @Override
+        public void stage(final Stage stage, final String item, final long nanos,
+            final long bytes) {
+            // nothing to do
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            return other instanceof Nop;
+        }
+
+        @Override
+        public int hashCode() {
+            return Nop.class.hashCode();
+        }
+    }
+
+    /**
+     * Listener which reports stages to several listeners.
+     * @since 1.9
+     */
+    final class Multiple implements UpdateListener {
+
+        /**
+         * Listeners.
+         */
+        private final List<UpdateListener> listeners;
+
+        /**
+         * Ctor.
+         * @param listeners Listeners
+         */
+        public Multiple(final UpdateListener... listeners) {
+            this(Arrays.asList(listeners));
+        }
+
+        /**
+         * Ctor.
+         * @param listeners Listeners
+         */
+        public Multiple(final List<UpdateListener> listeners) {
+            this.listeners = listeners;
+        }
+
+        @Override
+        public void stage(final Stage stage, final String item, final long nanos,
+            final long bytes) {
+            for (final UpdateListener listener : this.listeners) {
+                listener.stage(stage, item, nanos, bytes);
+            }
+        }
+    }
+
+    /**
+     * In memory histogram of stages. It counts calls, time and bytes of each stage,
+     * remembers items and keeps histogram of the stage time with power of two
+     * microsecond buckets.
+     * @since 1.9
+     */
+    final class Histogram implements UpdateListener {
+
+        /**
+         * Buckets count, the last bucket holds all times greater than 2^30 microseconds.
+         */
+        private static final int BUCKETS = 32;
+
+        /**
+         * Stages statistics.
+         */
+        private final Map<Stage, Stats> stats;
+
+        /**
+         * Ctor.
+         */
+        public Histogram() {
+            this.stats = new EnumMap<>(Stage.class);
+            for (final Stage stage : Stage.values()) {
+                this.stats.put(stage, new Stats());
+            }
+        }
+
+        @Override
+        public void stage(final Stage stage, final String item, final long nanos,
+            final long bytes) {
+            final Stats stat = this.stats.get(stage);
+            stat.count.increment();
+            stat.nanos.add(nanos);
+            stat.bytes.add(bytes);
+            stat.items.add(item);
+            stat.buckets.incrementAndGet(Histogram.bucket(nanos));
+        }
+
+        /**
+         * Count of the stage calls.
+         * @param stage Stage
+         * @return Count
+         */
+        public long count(final Stage stage) {
+            return this.stats.get(stage).count.sum();
+        }
+
+        /**
+         * Total time of the stage.
+         * @param stage Stage
+         * @return Time in nanoseconds
+         */
+        public long nanos(final Stage stage) {
+            return this.stats.get(stage).nanos.sum();
+        }
+
+        /**
+         * Total bytes processed by the stage.
+         * @param stage Stage
+         * @return Bytes
+         */
+        public long bytes(final Stage stage) {
+            return this.stats.get(stage).bytes.sum();
+        }
+
+        /**
+         * Items the stage worked with.
+         * @param stage Stage
+         * @return Items
+         */
+        public Set<String> items(final Stage stage) {
+            return Collections.unmodifiableSet(this.stats.get(stage).items);
+        }
+
+        /**
+         * Upper bound of the stage time percentile, it's the upper bound of the
+         * histogram bucket the percentile falls into.
+         * @param stage Stage
+         * @param percentile Percentile from 0 to 100
+         * @return Time in microseconds or zero if stage was not called
+         */
+        public long percentile(final Stage stage, final double percentile) {
+            final AtomicLongArray buckets = this.stats.get(stage).buckets;
+            final long total = this.count(stage);
+            final double limit = total * percentile / 100;
+            long seen = 0;
+            long res = 0;
+            for (int idx = 0; idx < Histogram.BUCKETS && total > 0; idx += 1) {
+                seen += buckets.get(idx);
+                if (seen >= limit) {
+                    res = 1L << idx;
+                    break;
+                }
+            }
+            return res;
+        }
+
+        @Override
+        public String toString() {
+            return Stream.of(Stage.values())
+                .filter(stage -> this.count(stage) > 0)
+                .map(
+                    stage -> String.format(
+                        "%s: count=%d, time=%dms, bytes=%d, p50=%dus, p99=%dus",
+                        stage, this.count(stage),
+                        TimeUnit.NANOSECONDS.toMillis(this.nanos(stage)), this.bytes(stage),
+                        this.percentile(stage, 50), this.percentile(stage, 99)
+                    )
+                ).collect(Collectors.joining("\n"));
+        }
+
+        /**
+         * Histogram bucket of the time, bucket {@code n} holds times from
+         * {@code 2^(n-1)} to {@code 2^n} microseconds.
+         * @param nanos Time in nanoseconds
+         * @return Bucket index
+         */
+        private static int bucket(final long nanos) {
+            final long micros = TimeUnit.NANOSECONDS.toMicros(Math.max(nanos, 0));
+            final int res;
+            if (micros <= 1) {
+                res = 0;
+            } else {
+                res = Math.min(
+                    Long.SIZE - Long.numberOfLeadingZeros(micros - 1), Histogram.BUCKETS - 1
+                );
+            }
+            return res;
+        }
+
+        /**
+         * Statistics of one stage.
+         * @since 1.9
+         */
+        private static final class Stats {
+
+            /**
+             * Calls count.
+             */
+            private final LongAdder count;
+
+            /**
+             * Total time.
+             */
+            private final LongAdder nanos;
+
+            /**
+             * Total bytes.
+             */
+            private final LongAdder bytes;
+
+            /**
+             * Items.
+             */
+            private final Set<String> items;
+
+            /**
+             * Time histogram buckets.
+             */
+            private final AtomicLongArray buckets;
+
+            /**
+             * Ctor.
+             */
+            Stats() {
+                this.count = new LongAdder();
+                this.nanos = new LongAdder();
+                this.bytes = new LongAdder();
+                this.items = ConcurrentHashMap.newKeySet();
+                this.buckets = new AtomicLongArray(Histogram.BUCKETS);
+            }
+        }
+    }
+}
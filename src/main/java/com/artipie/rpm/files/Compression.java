@@ -0,0 +1,191 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.files;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
+import org.apache.commons.compress.compressors.xz.XZCompressorInputStream;
+import org.apache.commons.compress.compressors.xz.XZCompressorOutputStream;
+
+/**
+ * Metadata files compression. Gzip is always used for metadata referenced
+ * from standard {@code primary}, {@code other} and {@code filelists} entries of
+ * {@code repomd.xml}, other codecs can be used to publish precompressed variants
+ * of the same metadata next to gzipped file. Variants are listed in {@code repomd.xml}
+ * as {@code <type>_<extension>} entries, e.g. {@code primary_xz}: these entries are
+ * specific to this adapter and are not standard, dnf and yum ignore them and keep
+ * using gzipped metadata.
+ * @since 1.9
+ */
+public enum Compression {
+
+    /**
+     * Gzip.
+     */
+    GZIP("gz", "application/gzip") {
+        @Override
+        public OutputStream compress(final OutputStream out) throws IOException {
+            return new GZIPOutputStream(out);
+        }
+
+        @Override
+        public InputStream decompress(final InputStream input) throws IOException {
+            return new GZIPInputStream(input);
+        }
+    },
+
+    /**
+     * Bzip2.
+     */
+    BZIP2("bz2", "application/x-bzip2") {
+        @Override
+        public OutputStream compress(final OutputStream out) throws IOException {
+            return new BZip2CompressorOutputStream(out);
+        }
+
+        @Override
+        public InputStream decompress(final InputStream input) throws IOException {
+            return new BZip2CompressorInputStream(input);
+        }
+    },
+
+    /**
+     * Xz.
+     */
+    XZ("xz", "application/x-xz") {
+        @Override
+        public OutputStream compress(final OutputStream out) throws IOException {
+            return new XZCompressorOutputStream(out);
+        }
+
+        @Override
+        public InputStream decompress(final InputStream input) throws IOException {
+            return new XZCompressorInputStream(input);
+        }
+    };
+
+    /**
+     * File extension.
+     */
+    private final String ext;
+
+    /**
+     * Media type.
+     */
+    private final String mime;
+
+    /**
+     * Ctor.
+     * @param ext File extension
+     * @param mime Media type
+     */
+    Compression(final String ext, final String mime) {
+        this.ext = ext;
+        this.mime = mime;
+    }
+
+    /**
+     * File extension without dot.
+     * @return Extension
+     */
+    public String extension() {
+        return this.ext;
+    }
+
+    /**
+     * Media type of compressed file.
+     * @return Media type
+     */
+    public String mediaType() {
+        return this.mime;
+    }
+
+    /**
+     * Compressing output stream.
+     * @param out Output to write compressed data to
+     * @return Output stream
+     * @throws IOException On error
+     */
+    public abstract OutputStream compress(OutputStream out) throws IOException;
+
+    /**
+     * Decompressing input stream.
+     * @param input Compressed input
+     * @return Input stream
+     * @throws IOException On error
+     */
+    public abstract InputStream decompress(InputStream input) throws IOException;
+
+    /**
+     * Compresses file.
+     * @param input File to compress
+     * @param output Compressed file
+     * @throws IOException On error
+     */
+    public void compress(final Path input, final Path output) throws IOException {
+        try (OutputStream out = this.compress(Files.newOutputStream(output))) {
+            Files.copy(input, out);
+        }
+    }
+
+    /**
+     * Variant of the compressed file with this compression: name of the file
+     * with extension of the file compression replaced by this compression extension.
+     * @param file Compressed file
+     * @return Variant path
+     */
+    public Path variant(final Path file) {
+        final String name = file.getFileName().toString();
+        return file.resolveSibling(
+            String.format(
+                "%s.%s",
+                Compression.of(name).map(
+                    cmp -> name.substring(0, name.length() - cmp.ext.length() - 1)
+                ).orElse(name),
+                this.ext
+            )
+        );
+    }
+
+    /**
+     * Variant compressions list from comma separated names, e.g. {@code "bzip2,xz"}.
+     * Gzip is skipped, as gzipped metadata is always published and can't be a variant
+     * of itself.
+     * @param names Compression names
+     * @return Compressions
+     */
+    public static List<Compression> list(final String names) {
+        return Stream.of(names.split(","))
+            .map(String::trim)
+            .filter(name -> !name.isEmpty())
+            .map(name -> Compression.valueOf(name.toUpperCase(Locale.US)))
+            .filter(cmp -> cmp != Compression.GZIP)
+            .distinct()
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Compression of the file by its name.
+     * @param name File name
+     * @return Compression if file name has known extension
+     */
+    public static Optional<Compression> of(final String name) {
+        return Stream.of(Compression.values())
+            .filter(cmp -> name.endsWith(String.format(".%s", cmp.ext)))
+            .findFirst();
+    }
+}
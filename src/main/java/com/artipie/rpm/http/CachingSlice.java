@@ -0,0 +1,489 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.http;
+
+import com.artipie.asto.ArtipieIOException;
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.KeyLastPart;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.http.Headers;
+import com.artipie.http.Response;
+import com.artipie.http.Slice;
+import com.artipie.http.async.AsyncResponse;
+import com.artipie.http.rq.RequestLineFrom;
+import com.artipie.http.rs.RsFull;
+import com.artipie.http.rs.RsStatus;
+import com.artipie.http.rs.RsWithStatus;
+import com.artipie.http.rs.StandardRs;
+import com.artipie.http.slice.KeyFromPath;
+import com.artipie.http.slice.SliceDownload;
+import com.artipie.rpm.meta.XmlRepomdEntries;
+import com.artipie.rpm.misc.LocationKey;
+import com.jcabi.log.Logger;
+import io.reactivex.Flowable;
+import io.reactivex.processors.UnicastProcessor;
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import org.reactivestreams.Publisher;
+
+/**
+ * Slice which serves files from cache storage and fetches missing files from
+ * upstream slice.
+ * <p>
+ * Response from upstream is streamed to the cache storage and to the client at the
+ * same time: the cache write drives the upstream body, and the client gets a copy of
+ * each chunk as it is written, so that the cache write does not depend on the client
+ * reading the body. A client which cancels the body stops getting chunks, a client
+ * which lags behind the cache write by more than 16 MB gets a body error and can be
+ * served from cache on retry, in both cases the file is cached completely. File is
+ * downloaded to a temp key under hidden {@code .artipie-parts} prefix, which is not
+ * served, and moved to its key when download is complete. Small {@code repomd.xml}
+ * is served from cache after it is saved and cached metadata files are validated by
+ * it, so that the following metadata requests see the validation result. Concurrent
+ * requests for the file which is being fetched wait for the fetch to complete and
+ * are served from cache. RPMs and hash-prefixed
+ * metadata files are immutable and are served from cache without revalidation,
+ * {@code repomd.xml} and metadata files without hash in name are fetched from
+ * upstream again after time to live is expired. Stale cached file is served if
+ * upstream is not available. When {@code repomd.xml} is fetched, cached metadata
+ * files are validated by checksums it refers to: files with the same checksum as
+ * on fetch become fresh again, changed files are fetched on the next request.
+ * </p>
+ * @since 1.9
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+final class CachingSlice implements Slice {
+
+    /**
+     * Hash-prefixed metadata file name pattern.
+     */
+    private static final Pattern HASHED = Pattern.compile("^[0-9a-f]{40,64}-.+");
+
+    /**
+     * Hidden prefix of temp keys of files being downloaded or uploaded.
+     */
+    static final Key PARTS = new Key.From(".artipie-parts");
+
+    /**
+     * Repomd file name.
+     */
+    private static final String REPOMD = "repomd.xml";
+
+    /**
+     * Upstream.
+     */
+    private final Slice upstream;
+
+    /**
+     * Cache storage.
+     */
+    private final Storage cache;
+
+    /**
+     * Time to live of mutable files.
+     */
+    private final Duration ttl;
+
+    /**
+     * Time when mutable files were fetched from upstream by key string.
+     */
+    private final ConcurrentMap<String, Instant> fetched;
+
+    /**
+     * Fetches in progress by key string.
+     */
+    private final ConcurrentMap<String, CompletableFuture<Void>> inflight;
+
+    /**
+     * Checksums of metadata files referenced by the latest fetched
+     * {@code repomd.xml} by key string.
+     */
+    private final ConcurrentMap<String, String> checksums;
+
+    /**
+     * Checksums of cached metadata files by key string: checksum referenced by
+     * {@code repomd.xml} when the file was fetched.
+     */
+    private final ConcurrentMap<String, String> validators;
+
+    /**
+     * Ctor.
+     * @param upstream Upstream slice
+     * @param cache Cache storage
+     * @param ttl Time to live of mutable files
+     */
+    CachingSlice(final Slice upstream, final Storage cache, final Duration ttl) {
+        this.upstream = upstream;
+        this.cache = cache;
+        this.ttl = ttl;
+        this.fetched = new ConcurrentHashMap<>();
+        this.inflight = new ConcurrentHashMap<>();
+        this.checksums = new ConcurrentHashMap<>();
+        this.validators = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public Response response(
+        final String line, final Iterable<Map.Entry<String, String>> headers,
+        final Publisher<ByteBuffer> body
+    ) {
+        final Key key = new KeyFromPath(new RequestLineFrom(line).uri().getPath());
+        final CompletableFuture<Void> running = this.inflight.get(key.string());
+        final CompletionStage<Response> res;
+        if (key.string().startsWith(String.format("%s/", CachingSlice.PARTS.string()))) {
+            res = CompletableFuture.completedFuture(StandardRs.NOT_FOUND);
+        } else if (running == null) {
+            res = this.cache.exists(key).thenCompose(
+                cached -> {
+                    final CompletionStage<Response> rsp;
+                    if (cached && this.fresh(key)) {
+                        rsp = CompletableFuture.completedFuture(this.cached(line, key));
+                    } else {
+                        rsp = this.fetch(line, key, cached);
+                    }
+                    return rsp;
+                }
+            );
+        } else {
+            res = this.awaited(line, key, running);
+        }
+        return new AsyncResponse(res);
+    }
+
+    /**
+     * Fetches file from upstream or waits for fetch in progress.
+     * @param line Request line
+     * @param key File key
+     * @param cached Whether stale file is in cache
+     * @return Response
+     */
+    private CompletionStage<Response> fetch(final String line, final Key key,
+        final boolean cached) {
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+        final CompletableFuture<Void> running = this.inflight.putIfAbsent(key.string(), done);
+        final CompletionStage<Response> res;
+        if (running == null) {
+            done.whenComplete((nothing, err) -> this.inflight.remove(key.string(), done));
+            res = this.load(line, key, cached, done);
+        } else {
+            res = this.awaited(line, key, running);
+        }
+        return res;
+    }
+
+    /**
+     * Waits for fetch in progress and serves file from cache.
+     * @param line Request line
+     * @param key File key
+     * @param running Fetch in progress
+     * @return Response
+     */
+    private CompletionStage<Response> awaited(final String line, final Key key,
+        final CompletableFuture<Void> running) {
+        return running.handle((nothing, err) -> nothing)
+            .thenCompose(nothing -> this.cache.exists(key))
+            .thenApply(
+                exists -> {
+                    final Response rsp;
+                    if (exists) {
+                        rsp = this.cached(line, key);
+                    } else {
+                        rsp = StandardRs.NOT_FOUND;
+                    }
+                    return rsp;
+                }
+            );
+    }
+
+    /**
+     * Loads file from upstream, successful response body is saved to cache
+     * and served to the client at the same time.
+     * @param line Request line
+     * @param key File key
+     * @param cached Whether stale file is in cache
+     * @param done Completed when file is saved to cache or fetch is failed
+     * @return Response
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private CompletionStage<Response> load(final String line, final Key key,
+        final boolean cached, final CompletableFuture<Void> done) {
+        final CompletableFuture<Response> res = new CompletableFuture<>();
+        this.upstream.response(line, Headers.EMPTY, Content.EMPTY).send(
+            (status, headers, body) -> {
+                final CompletionStage<Void> stored;
+                if (status == RsStatus.OK
+                    && CachingSlice.REPOMD.equals(new KeyLastPart(key).get())) {
+                    stored = this.stored(key, body)
+                        .thenRun(() -> res.complete(this.cached(line, key)));
+                } else if (status == RsStatus.OK) {
+                    final Tee tee = new Tee(body);
+                    stored = this.stored(key, tee.source());
+                    res.complete(new RsFull(status, headers, tee.client()));
+                } else {
+                    stored = CompletableFuture.allOf();
+                    if (cached) {
+                        res.complete(this.cached(line, key));
+                    } else {
+                        res.complete(new RsFull(status, headers, body));
+                    }
+                }
+                return stored;
+            }
+        ).whenComplete(
+            (nothing, err) -> {
+                if (err == null) {
+                    done.complete(null);
+                } else {
+                    Logger.warn(this, "Failed to fetch %s: %[exception]s", key.string(), err);
+                    done.completeExceptionally(err);
+                    if (cached) {
+                        res.complete(this.cached(line, key));
+                    } else {
+                        res.complete(new RsWithStatus(RsStatus.UNAVAILABLE));
+                    }
+                }
+            }
+        );
+        return res;
+    }
+
+    /**
+     * Saves upstream body to cache via temp key under hidden prefix and
+     * validates saved file.
+     * @param key File key
+     * @param body Upstream body
+     * @return Completion
+     */
+    private CompletionStage<Void> stored(final Key key, final Publisher<ByteBuffer> body) {
+        final Key temp = new Key.From(CachingSlice.PARTS, UUID.randomUUID().toString());
+        return this.cache.save(temp, new Content.From(body))
+            .thenCompose(nothing -> this.cache.move(temp, key))
+            .whenComplete(
+                (nothing, err) -> {
+                    if (err != null) {
+                        this.discard(temp);
+                    }
+                }
+            )
+            .thenRun(() -> this.fetched.put(key.string(), Instant.now()))
+            .thenCompose(nothing -> this.validate(key));
+    }
+
+    /**
+     * Removes temp file of failed download if it exists.
+     * @param temp Temp key
+     */
+    private void discard(final Key temp) {
+        this.cache.exists(temp).thenCompose(
+            exists -> {
+                final CompletableFuture<Void> res;
+                if (exists) {
+                    res = this.cache.delete(temp);
+                } else {
+                    res = CompletableFuture.allOf();
+                }
+                return res;
+            }
+        ).exceptionally(
+            err -> {
+                Logger.warn(this, "Failed to remove %s: %[exception]s", temp.string(), err);
+                return null;
+            }
+        );
+    }
+
+    /**
+     * Validates cached metadata files by fetched {@code repomd.xml} or remembers
+     * the checksum of fetched metadata file.
+     * @param key Fetched file key
+     * @return Completion
+     */
+    private CompletionStage<Void> validate(final Key key) {
+        final CompletionStage<Void> res;
+        if (CachingSlice.REPOMD.equals(new KeyLastPart(key).get())) {
+            final Key root = key.parent().flatMap(Key::parent).orElse(Key.ROOT);
+            res = this.cache.value(key)
+                .thenCompose(content -> new PublisherAs(content).bytes())
+                .thenAccept(
+                    bytes -> new XmlRepomdEntries(new ByteArrayInputStream(bytes)).read()
+                        .values().stream()
+                        .filter(entry -> entry.location().isPresent())
+                        .filter(entry -> entry.checksum().isPresent())
+                        .forEach(
+                            entry -> new LocationKey(root, entry.location().get()).key()
+                                .ifPresent(
+                                    file -> this.validated(file.string(), entry.checksum().get())
+                                )
+                        )
+                ).exceptionally(
+                    err -> {
+                        Logger.warn(
+                            this, "Failed to read %s: %[exception]s", key.string(), err
+                        );
+                        return null;
+                    }
+                );
+        } else {
+            Optional.ofNullable(this.checksums.get(key.string()))
+                .ifPresent(sum -> this.validators.put(key.string(), sum));
+            res = CompletableFuture.allOf();
+        }
+        return res;
+    }
+
+    /**
+     * Marks cached metadata file fresh if it has the checksum referenced by
+     * {@code repomd.xml}, otherwise expires it.
+     * @param file File key string
+     * @param checksum Checksum referenced by {@code repomd.xml}
+     */
+    private void validated(final String file, final String checksum) {
+        this.checksums.put(file, checksum);
+        if (checksum.equals(this.validators.get(file))) {
+            this.fetched.put(file, Instant.now());
+        } else {
+            this.fetched.remove(file);
+        }
+    }
+
+    /**
+     * Response from cache.
+     * @param line Request line
+     * @param key File key
+     * @return Response
+     */
+    private Response cached(final String line, final Key key) {
+        return new SliceDownload(this.cache, path -> key)
+            .response(line, Headers.EMPTY, Content.EMPTY);
+    }
+
+    /**
+     * Whether cached file can be served without revalidation.
+     * @param key File key
+     * @return True if file is immutable or was fetched less than ttl ago
+     */
+    private boolean fresh(final Key key) {
+        final String name = new KeyLastPart(key).get();
+        final boolean mutable = name.startsWith(CachingSlice.REPOMD)
+            || key.string().matches("^(.*/)?repodata/[^/]+$")
+            && !CachingSlice.HASHED.matcher(name).matches();
+        return !mutable || Optional.ofNullable(this.fetched.get(key.string()))
+            .map(time -> time.plus(this.ttl).isAfter(Instant.now()))
+            .orElse(false);
+    }
+
+    /**
+     * Upstream body shared between the cache write and the client: the cache write
+     * subscribes to {@link #source()} and drives upstream, each chunk is copied to
+     * {@link #client()} buffer. The client never slows down the cache write: if it
+     * cancels, chunks are not copied any more, if it lags behind too much, its body
+     * fails.
+     * @since 1.9
+     */
+    private static final class Tee {
+
+        /**
+         * Max size of the chunks buffered for the client in bytes.
+         */
+        private static final long LAG = 16L * 1024 * 1024;
+
+        /**
+         * Upstream body.
+         */
+        private final Publisher<ByteBuffer> origin;
+
+        /**
+         * Client body buffer.
+         */
+        private final UnicastProcessor<ByteBuffer> copy;
+
+        /**
+         * Whether client body is cancelled or failed.
+         */
+        private final AtomicBoolean closed;
+
+        /**
+         * Size of the buffered chunks in bytes.
+         */
+        private final AtomicLong lag;
+
+        /**
+         * Ctor.
+         * @param origin Upstream body
+         */
+        Tee(final Publisher<ByteBuffer> origin) {
+            this.origin = origin;
+            this.closed = new AtomicBoolean();
+            this.copy = UnicastProcessor.create(Flowable.bufferSize(), () -> this.closed.set(true));
+            this.lag = new AtomicLong();
+        }
+
+        /**
+         * Upstream body to write to cache.
+         * @return Publisher
+         */
+        Publisher<ByteBuffer> source() {
+            return Flowable.fromPublisher(this.origin)
+                .doOnNext(this::share)
+                .doOnComplete(
+                    () -> {
+                        if (!this.closed.get()) {
+                            this.copy.onComplete();
+                        }
+                    }
+                )
+                .doOnError(this::fail);
+        }
+
+        /**
+         * Body for the client.
+         * @return Publisher
+         */
+        Publisher<ByteBuffer> client() {
+            return this.copy.doOnNext(chunk -> this.lag.addAndGet(-chunk.remaining()));
+        }
+
+        /**
+         * Copies chunk to the client buffer.
+         * @param buf Chunk
+         */
+        private void share(final ByteBuffer buf) {
+            if (!this.closed.get()) {
+                final ByteBuffer chunk = ByteBuffer.allocate(buf.remaining());
+                chunk.put(buf.duplicate());
+                chunk.flip();
+                if (this.lag.addAndGet(chunk.remaining()) > Tee.LAG) {
+                    this.fail(new ArtipieIOException("Client does not read response body"));
+                } else {
+                    this.copy.onNext(chunk);
+                }
+            }
+        }
+
+        /**
+         * Fails client body once.
+         * @param err Error
+         */
+        private void fail(final Throwable err) {
+            if (this.closed.compareAndSet(false, true)) {
+                this.copy.onError(err);
+            }
+        }
+    }
+}
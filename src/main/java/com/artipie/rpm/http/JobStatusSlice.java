@@ -0,0 +1,60 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.http;
+
+import com.artipie.http.Response;
+import com.artipie.http.Slice;
+import com.artipie.http.rq.RequestLineFrom;
+import com.artipie.http.rs.StandardRs;
+import com.artipie.http.rs.common.RsJson;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.reactivestreams.Publisher;
+
+/**
+ * Slice to report metadata update job status as json.
+ * @since 1.9
+ */
+final class JobStatusSlice implements Slice {
+
+    /**
+     * Job status request path pattern.
+     */
+    static final Pattern PTRN = Pattern.compile("^/jobs/(?<id>[0-9a-f-]{36})$");
+
+    /**
+     * Update jobs.
+     */
+    private final UpdateJobs jobs;
+
+    /**
+     * Ctor.
+     * @param jobs Update jobs
+     */
+    JobStatusSlice(final UpdateJobs jobs) {
+        this.jobs = jobs;
+    }
+
+    @Override
+    public Response response(
+        final String line, final Iterable<Map.Entry<String, String>> headers,
+        final Publisher<ByteBuffer> body
+    ) {
+        final Matcher matcher = JobStatusSlice.PTRN.matcher(
+            new RequestLineFrom(line).uri().getPath()
+        );
+        final Response res;
+        if (matcher.matches()) {
+            res = this.jobs.job(matcher.group("id"))
+                .<Response>map(job -> new RsJson(job::json))
+                .orElse(StandardRs.NOT_FOUND);
+        } else {
+            res = StandardRs.NOT_FOUND;
+        }
+        return res;
+    }
+}
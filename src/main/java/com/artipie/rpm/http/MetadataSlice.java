@@ -0,0 +1,143 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.http;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.http.Headers;
+import com.artipie.http.Response;
+import com.artipie.http.Slice;
+import com.artipie.http.async.AsyncResponse;
+import com.artipie.http.headers.Header;
+import com.artipie.http.rq.RequestLineFrom;
+import com.artipie.http.rq.RqHeaders;
+import com.artipie.http.rs.StandardRs;
+import com.artipie.http.slice.KeyFromPath;
+import com.artipie.http.slice.SliceDownload;
+import com.artipie.http.slice.SliceWithHeaders;
+import com.artipie.rpm.files.Compression;
+import java.nio.ByteBuffer;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import org.reactivestreams.Publisher;
+
+/**
+ * Slice to serve repository metadata from {@code repodata} directory.
+ * <p>
+ * Compressed metadata files are served as is with compression media type and
+ * {@code Cache-Control: no-transform} header, so that proxies do not decompress
+ * them. Uncompressed metadata files (except {@code repomd.xml}) are not stored,
+ * but if client accepts gzip encoding, precompressed gzip file is served with
+ * {@code Content-Encoding: gzip}.
+ * Metadata is never compressed on the fly.
+ * </p>
+ * @since 1.9
+ */
+final class MetadataSlice implements Slice {
+
+    /**
+     * Metadata request path pattern.
+     */
+    static final Pattern PTRN = Pattern.compile("^/(.*/)?repodata/[^/]+$");
+
+    /**
+     * Cache control header value.
+     */
+    private static final Header NO_TRANSFORM = new Header("Cache-Control", "no-transform");
+
+    /**
+     * Storage.
+     */
+    private final Storage asto;
+
+    /**
+     * Ctor.
+     * @param asto Storage
+     */
+    MetadataSlice(final Storage asto) {
+        this.asto = asto;
+    }
+
+    @Override
+    public Response response(
+        final String line, final Iterable<Map.Entry<String, String>> headers,
+        final Publisher<ByteBuffer> body
+    ) {
+        final String path = new RequestLineFrom(line).uri().getPath();
+        final Optional<Compression> cmp = Compression.of(path);
+        final Response res;
+        if (cmp.isPresent()) {
+            res = this.download(
+                line, headers, new KeyFromPath(path),
+                new Headers.From(
+                    MetadataSlice.NO_TRANSFORM, new Header("Content-Type", cmp.get().mediaType())
+                )
+            );
+        } else if (path.endsWith(".xml") && !path.endsWith("repomd.xml")
+            && MetadataSlice.acceptsGzip(headers)) {
+            res = this.download(
+                line, headers,
+                new KeyFromPath(String.format("%s.%s", path, Compression.GZIP.extension())),
+                new Headers.From(
+                    new Header("Content-Encoding", "gzip"),
+                    new Header("Vary", "Accept-Encoding"),
+                    MetadataSlice.NO_TRANSFORM
+                )
+            );
+        } else {
+            res = this.download(
+                line, headers, new KeyFromPath(path), new Headers.From(MetadataSlice.NO_TRANSFORM)
+            );
+        }
+        return res;
+    }
+
+    /**
+     * Downloads file if it exists.
+     * @param line Request line
+     * @param headers Request headers
+     * @param key File key
+     * @param extra Extra response headers
+     * @return Response
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private Response download(final String line,
+        final Iterable<Map.Entry<String, String>> headers, final Key key, final Headers extra) {
+        return new AsyncResponse(
+            this.asto.exists(key).thenApply(
+                exists -> {
+                    final Response res;
+                    if (exists) {
+                        res = new SliceWithHeaders(
+                            new SliceDownload(this.asto, path -> key), extra
+                        ).response(line, headers, Content.EMPTY);
+                    } else {
+                        res = StandardRs.NOT_FOUND;
+                    }
+                    return res;
+                }
+            )
+        );
+    }
+
+    /**
+     * Checks whether client accepts gzip content encoding.
+     * @param headers Request headers
+     * @return True if gzip is acceptable
+     */
+    private static boolean acceptsGzip(final Iterable<Map.Entry<String, String>> headers) {
+        return new RqHeaders(headers, "Accept-Encoding").stream()
+            .flatMap(value -> Stream.of(value.split(",")))
+            .map(item -> item.trim().toLowerCase(Locale.US).replaceAll("\\s", ""))
+            .anyMatch(
+                item -> (item.startsWith("gzip") || item.startsWith("*"))
+                    && !item.matches(".*;q=0(\\.0*)?$")
+            );
+    }
+}
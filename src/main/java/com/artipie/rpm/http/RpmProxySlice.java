@@ -0,0 +1,88 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.http;
+
+import com.artipie.asto.Storage;
+import com.artipie.http.Slice;
+import com.artipie.http.auth.Action;
+import com.artipie.http.auth.Authentication;
+import com.artipie.http.auth.BasicAuthSlice;
+import com.artipie.http.auth.Permission;
+import com.artipie.http.auth.Permissions;
+import com.artipie.http.rq.RqMethod;
+import com.artipie.http.rs.RsStatus;
+import com.artipie.http.rs.RsWithStatus;
+import com.artipie.http.rt.ByMethodsRule;
+import com.artipie.http.rt.RtRule;
+import com.artipie.http.rt.RtRulePath;
+import com.artipie.http.rt.SliceRoute;
+import com.artipie.http.slice.SliceSimple;
+import java.time.Duration;
+
+/**
+ * Artipie {@link Slice} for RPM repository mirror: files are fetched from upstream
+ * repository on first request and cached in storage.
+ * @since 1.9
+ */
+public final class RpmProxySlice extends Slice.Wrap {
+
+    /**
+     * Default time to live of {@code repomd.xml} and other mutable files.
+     */
+    private static final Duration TTL = Duration.ofMinutes(5);
+
+    /**
+     * Ctor.
+     * @param upstream Upstream repository slice
+     * @param cache Cache storage
+     */
+    public RpmProxySlice(final Slice upstream, final Storage cache) {
+        this(upstream, cache, RpmProxySlice.TTL);
+    }
+
+    /**
+     * Ctor.
+     * @param upstream Upstream repository slice
+     * @param cache Cache storage
+     * @param ttl Time to live of {@code repomd.xml} and other mutable files
+     */
+    public RpmProxySlice(final Slice upstream, final Storage cache, final Duration ttl) {
+        this(upstream, cache, ttl, Permissions.FREE, Authentication.ANONYMOUS);
+    }
+
+    /**
+     * Ctor.
+     * @param upstream Upstream repository slice
+     * @param cache Cache storage
+     * @param ttl Time to live of {@code repomd.xml} and other mutable files
+     * @param perms Access permissions
+     * @param auth Auth details
+     * @checkstyle ParameterNumberCheck (10 lines)
+     */
+    public RpmProxySlice(
+        final Slice upstream,
+        final Storage cache,
+        final Duration ttl,
+        final Permissions perms,
+        final Authentication auth
+    ) {
+        super(
+            new SliceRoute(
+                new RtRulePath(
+                    new ByMethodsRule(RqMethod.GET),
+                    new BasicAuthSlice(
+                        new CachingSlice(upstream, cache, ttl),
+                        auth,
+                        new Permission.ByName(perms, Action.Standard.READ)
+                    )
+                ),
+                new RtRulePath(
+                    RtRule.FALLBACK,
+                    new SliceSimple(new RsWithStatus(RsStatus.METHOD_NOT_ALLOWED))
+                )
+            )
+        );
+    }
+}
@@ -12,19 +12,31 @@ import com.artipie.http.auth.BasicAuthSlice;
 import com.artipie.http.auth.Permission;
 import com.artipie.http.auth.Permissions;
 import com.artipie.http.rq.RqMethod;
+import com.artipie.http.rs.StandardRs;
 import com.artipie.http.rt.ByMethodsRule;
+import com.artipie.http.rt.RtRule;
 import com.artipie.http.rt.RtRulePath;
 import com.artipie.http.rt.SliceRoute;
 import com.artipie.http.slice.SliceDownload;
+import com.artipie.http.slice.SliceSimple;
 import com.artipie.rpm.RepoConfig;
+import com.artipie.rpm.Rpm;
+import java.util.regex.Pattern;
 
 /**
- * Artipie {@link Slice} for RPM repository HTTP API.
+ * Artipie {@link Slice} for RPM repository HTTP API. Service keys of the
+ * repository storage under {@code .artipie-*} prefixes (locks, fences, metadata
+ * journal) are not served.
  * @since 0.7
  * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
  */
 public final class RpmSlice extends Slice.Wrap {
 
+    /**
+     * Path of service keys.
+     */
+    private static final Pattern HIDDEN = Pattern.compile("^/(.*/)?\\.artipie-[^/]*(/.*)?$");
+
     /**
      * Ctor.
      * @param storage The storage.
@@ -46,9 +58,73 @@ public final class RpmSlice extends Slice.Wrap {
         final Permissions perms,
         final Authentication auth,
         final RepoConfig config
+    ) {
+        this(storage, perms, auth, config, UploadLimits.UNLIMITED);
+    }
+
+    /**
+     * Ctor.
+     * @param storage Storage
+     * @param perms Access permissions.
+     * @param auth Auth details.
+     * @param config Repository configuration.
+     * @param limits Upload limits.
+     * @checkstyle ParameterNumberCheck (10 lines)
+     */
+    public RpmSlice(
+        final Storage storage,
+        final Permissions perms,
+        final Authentication auth,
+        final RepoConfig config,
+        final UploadLimits limits
+    ) {
+        this(storage, perms, auth, new UpdateJobs(new Rpm(storage, config)), limits);
+    }
+
+    /**
+     * Ctor.
+     * @param storage Storage
+     * @param perms Access permissions.
+     * @param auth Auth details.
+     * @param jobs Metadata update jobs.
+     * @param limits Upload limits.
+     * @checkstyle ParameterNumberCheck (10 lines)
+     */
+    private RpmSlice(
+        final Storage storage,
+        final Permissions perms,
+        final Authentication auth,
+        final UpdateJobs jobs,
+        final UploadLimits limits
     ) {
         super(
             new SliceRoute(
+                new RtRulePath(
+                    new RtRule.ByPath(RpmSlice.HIDDEN),
+                    new SliceSimple(StandardRs.NOT_FOUND)
+                ),
+                new RtRulePath(
+                    new RtRule.All(
+                        new ByMethodsRule(RqMethod.GET),
+                        new RtRule.ByPath(JobStatusSlice.PTRN)
+                    ),
+                    new BasicAuthSlice(
+                        new JobStatusSlice(jobs),
+                        auth,
+                        new Permission.ByName(perms, Action.Standard.READ)
+                    )
+                ),
+                new RtRulePath(
+                    new RtRule.All(
+                        new ByMethodsRule(RqMethod.GET),
+                        new RtRule.ByPath(MetadataSlice.PTRN)
+                    ),
+                    new BasicAuthSlice(
+                        new MetadataSlice(storage),
+                        auth,
+                        new Permission.ByName(perms, Action.Standard.READ)
+                    )
+                ),
                 new RtRulePath(
                     new ByMethodsRule(RqMethod.GET),
                     new BasicAuthSlice(
@@ -60,7 +136,7 @@ public final class RpmSlice extends Slice.Wrap {
                 new RtRulePath(
                     new ByMethodsRule(RqMethod.PUT),
                     new BasicAuthSlice(
-                        new RpmUpload(storage, config),
+                        new RpmUpload(storage, jobs, limits),
                         auth,
                         new Permission.ByName(perms, Action.Standard.WRITE)
                     )
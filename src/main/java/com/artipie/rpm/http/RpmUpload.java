@@ -10,52 +10,110 @@ import com.artipie.asto.Storage;
 import com.artipie.http.Response;
 import com.artipie.http.Slice;
 import com.artipie.http.async.AsyncResponse;
+import com.artipie.http.headers.Header;
+import com.artipie.http.headers.Location;
 import com.artipie.http.rq.RequestLineFrom;
+import com.artipie.http.rq.RqHeaders;
 import com.artipie.http.rs.RsStatus;
+import com.artipie.http.rs.RsWithBody;
+import com.artipie.http.rs.RsWithHeaders;
 import com.artipie.http.rs.RsWithStatus;
-import com.artipie.rpm.RepoConfig;
-import com.artipie.rpm.Rpm;
+import com.artipie.rpm.Digest;
+import com.artipie.rpm.misc.ChecksumSidecar;
 import com.google.common.base.Splitter;
 import com.google.common.collect.Streams;
 import hu.akarnokd.rxjava2.interop.CompletableInterop;
-import io.reactivex.Completable;
+import hu.akarnokd.rxjava2.interop.SingleInterop;
+import io.reactivex.Flowable;
 import io.reactivex.Single;
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
+import javax.xml.bind.DatatypeConverter;
 import org.reactivestreams.Publisher;
 
 /**
  * Slice for rpm packages upload.
+ * <p>
+ * Upload is accepted as soon as package is saved to storage, repository metadata
+ * is updated in background, status of the update job is available by the
+ * link from `Location` header, the link is relative to the uploaded package, so
+ * it's correct when repository is mounted under some path prefix. Uploads over
+ * the configured limits are rejected with `503` status, `Retry-After` header and
+ * `X-Upload-Limit` header which is `repository` if client is throttled by limits
+ * of the repository and `global` if server is out of its global limits: http
+ * library has no `429` status. Package is saved and limits are released
+ * regardless of whether the response is sent. If `X-Checksum-Sha256` header is
+ * present, package checksum is verified while it's being saved and stored
+ * next to the package together with its size to be used on metadata update.
+ * </p>
  *
  * @since 0.8.3
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
  */
 final class RpmUpload implements Slice {
 
+    /**
+     * Retry-After header value in seconds for rejected uploads.
+     */
+    private static final String RETRY_AFTER = "10";
+
+    /**
+     * Header with expected SHA-256 checksum of the package.
+     */
+    private static final String CHECKSUM = "X-Checksum-Sha256";
+
+    /**
+     * Header with the scope of the limit which rejected upload.
+     */
+    private static final String LIMIT = "X-Upload-Limit";
+
     /**
      * Asto storage.
      */
     private final Storage asto;
 
     /**
-     * Rpm instance.
+     * Metadata update jobs.
+     */
+    private final UpdateJobs jobs;
+
+    /**
+     * Upload limits.
+     */
+    private final UploadLimits limits;
+
+    /**
+     * RPM repository HTTP API.
+     *
+     * @param storage Storage
+     * @param jobs Metadata update jobs
      */
-    private final Rpm rpm;
+    RpmUpload(final Storage storage, final UpdateJobs jobs) {
+        this(storage, jobs, UploadLimits.UNLIMITED);
+    }
 
     /**
      * RPM repository HTTP API.
      *
      * @param storage Storage
-     * @param config Repository configuration
+     * @param jobs Metadata update jobs
+     * @param limits Upload limits
      */
-    RpmUpload(final Storage storage, final RepoConfig config) {
+    RpmUpload(final Storage storage, final UpdateJobs jobs, final UploadLimits limits) {
         this.asto = storage;
-        this.rpm = new Rpm(storage, config);
+        this.jobs = jobs;
+        this.limits = limits;
     }
 
     @Override
@@ -64,45 +122,179 @@ final class RpmUpload implements Slice {
         final Publisher<ByteBuffer> body) {
         final Request request = new Request(line);
         final Key key = request.file();
-        final CompletionStage<Boolean> conflict;
-        if (request.override()) {
-            conflict = CompletableFuture.completedFuture(false);
+        final UploadLimits.Admission admission = this.limits.acquire(!request.skipUpdate());
+        return admission.permit().<Response>map(
+            permit -> {
+                final CompletionStage<Boolean> conflict;
+                if (request.override()) {
+                    conflict = CompletableFuture.completedFuture(false);
+                } else {
+                    conflict = this.asto.exists(key);
+                }
+                return new AsyncResponse(
+                    conflict.thenCompose(
+                        conflicts -> {
+                            final CompletionStage<Response> res;
+                            if (conflicts) {
+                                permit.release();
+                                res = CompletableFuture.completedFuture(
+                                    new RsWithStatus(RsStatus.CONFLICT)
+                                );
+                            } else {
+                                res = this.upload(request, headers, body, permit);
+                            }
+                            return res;
+                        }
+                    ).whenComplete(
+                        (res, err) -> {
+                            if (err != null) {
+                                permit.release();
+                            }
+                        }
+                    )
+                );
+            }
+        ).orElseGet(() -> RpmUpload.rejected(admission.throttled()));
+    }
+
+    /**
+     * Response for upload rejected by limits.
+     * @param throttled Rejected by limits of the repository
+     * @return Response
+     */
+    private static Response rejected(final boolean throttled) {
+        final String scope;
+        if (throttled) {
+            scope = "repository";
+        } else {
+            scope = "global";
+        }
+        return new RsWithHeaders(
+            new RsWithStatus(RsStatus.UNAVAILABLE),
+            new Header("Retry-After", RpmUpload.RETRY_AFTER),
+            new Header(RpmUpload.LIMIT, scope)
+        );
+    }
+
+    /**
+     * Saves package to storage and submits metadata update. Package body is
+     * consumed and permits are released as the upload stage completes, whether
+     * or not the response is ever sent to the client.
+     * @param request Request
+     * @param headers Request headers
+     * @param body Package content
+     * @param permit Upload permit
+     * @return Response
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private CompletionStage<Response> upload(final Request request,
+        final Iterable<Map.Entry<String, String>> headers, final Publisher<ByteBuffer> body,
+        final UploadLimits.Permit permit) {
+        final Key key = request.file();
+        final ChecksumSidecar sidecar = new ChecksumSidecar(this.asto, key);
+        final Optional<String> expected = new RqHeaders(headers, RpmUpload.CHECKSUM)
+            .stream().findFirst();
+        final Single<Boolean> saved;
+        if (expected.isPresent()) {
+            saved = this.verified(key, expected.get(), body, sidecar);
         } else {
-            conflict = this.asto.exists(key);
+            saved = CompletableInterop.fromFuture(this.asto.save(key, new Content.From(body)))
+                .andThen(CompletableInterop.fromFuture(sidecar.remove()))
+                .toSingleDefault(true);
         }
-        return new AsyncResponse(
-            conflict.thenApply(
-                conflicts -> {
-                    final Response response;
-                    if (conflicts) {
-                        response = new RsWithStatus(RsStatus.CONFLICT);
-                    } else {
-                        response = new AsyncResponse(
-                            CompletableInterop.fromFuture(
-                                this.asto.save(key, new Content.From(body))
-                            ).andThen(
-                                Completable.defer(
-                                    () -> {
-                                        final Completable result;
-                                        if (request.skipUpdate()) {
-                                            result = Completable.complete();
-                                        } else {
-                                            result = this.rpm.batchUpdate(Key.ROOT);
-                                        }
-                                        return result;
-                                    }
-                                )
-                            ).andThen(
-                                Single.just(new RsWithStatus(RsStatus.ACCEPTED))
-                            )
-                        );
-                    }
-                    return response;
+        return saved.to(SingleInterop.get()).whenComplete(
+            (valid, err) -> {
+                permit.uploaded();
+                if (err != null || !valid) {
+                    permit.updated();
+                }
+            }
+        ).thenApply(
+            valid -> {
+                final Response res;
+                if (valid) {
+                    res = this.accepted(request, permit);
+                } else {
+                    res = new RsWithBody(
+                        new RsWithStatus(RsStatus.BAD_REQUEST),
+                        String.format("%s header does not match content", RpmUpload.CHECKSUM),
+                        StandardCharsets.UTF_8
+                    );
                 }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Saves package to hidden temp location computing its checksum on the fly, package is
+     * moved to its key if checksum matches expected one, verified checksum is saved
+     * to sidecar.
+     * @param key Package key
+     * @param expected Expected sha256 hex
+     * @param body Package content
+     * @param sidecar Checksum sidecar
+     * @return True if checksum matches
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private Single<Boolean> verified(final Key key, final String expected,
+        final Publisher<ByteBuffer> body, final ChecksumSidecar sidecar) {
+        final Key temp = new Key.From(CachingSlice.PARTS, UUID.randomUUID().toString());
+        final MessageDigest digest = Digest.SHA256.messageDigest();
+        final AtomicLong size = new AtomicLong();
+        return CompletableInterop.fromFuture(
+            this.asto.save(
+                temp,
+                new Content.From(
+                    Flowable.fromPublisher(body).doOnNext(
+                        buf -> {
+                            size.addAndGet(buf.remaining());
+                            digest.update(buf.duplicate());
+                        }
+                    )
+                )
+            )
+        ).andThen(
+            Single.fromCallable(
+                () -> DatatypeConverter.printHexBinary(digest.digest()).toLowerCase(Locale.US)
             )
+        ).flatMap(
+            hex -> {
+                final Single<Boolean> res;
+                if (hex.equalsIgnoreCase(expected.trim())) {
+                    res = CompletableInterop.fromFuture(this.asto.move(temp, key))
+                        .andThen(CompletableInterop.fromFuture(sidecar.save(hex, size.get())))
+                        .toSingleDefault(true);
+                } else {
+                    res = CompletableInterop.fromFuture(this.asto.delete(temp))
+                        .toSingleDefault(false);
+                }
+                return res;
+            }
         );
     }
 
+    /**
+     * Accepted response, submits metadata update if required.
+     * @param request Request
+     * @param permit Upload permit
+     * @return Response
+     */
+    private Response accepted(final Request request, final UploadLimits.Permit permit) {
+        final Response accepted;
+        if (request.skipUpdate()) {
+            accepted = new RsWithStatus(RsStatus.ACCEPTED);
+        } else {
+            final UpdateJobs.Job job = this.jobs.submit();
+            job.completion().whenComplete((none, err) -> permit.updated());
+            accepted = new RsWithHeaders(
+                new RsWithStatus(RsStatus.ACCEPTED),
+                new Location(request.relative(String.format("jobs/%s", job.id())))
+            );
+        }
+        return accepted;
+    }
+
     /**
      * Request line.
      *
@@ -138,6 +330,22 @@ final class RpmUpload implements Slice {
             return new Key.From(this.path().group("rpm"));
         }
 
+        /**
+         * Reference to repository root path relative to the uploaded file, so that
+         * it's resolved correctly when repository is mounted under some prefix.
+         *
+         * @param path Path from repository root
+         * @return Relative reference
+         */
+        public String relative(final String path) {
+            final StringBuilder res = new StringBuilder();
+            final String file = this.path().group("rpm");
+            for (int idx = file.indexOf('/'); idx >= 0; idx = file.indexOf('/', idx + 1)) {
+                res.append("../");
+            }
+            return res.append(path).toString();
+        }
+
         /**
          * Returns override param.
          *
@@ -0,0 +1,356 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.http;
+
+import com.artipie.asto.Key;
+import com.artipie.rpm.Progress;
+import com.artipie.rpm.Rpm;
+import com.artipie.rpm.UpdateListener;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.jcabi.log.Logger;
+import io.reactivex.Completable;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+
+/**
+ * Background repository metadata update jobs.
+ * <p>
+ * Jobs are executed one by one: while some job is waiting in the queue,
+ * all new submissions join it instead of scheduling one more full update,
+ * as waiting job will pick up all the packages uploaded so far anyway.
+ * Jobs of all the repositories run on one shared pool of daemon threads, idle
+ * threads are stopped, so nothing has to be closed when repository is dropped.
+ * Finished jobs are kept in memory for a while to be able to report their
+ * status: at most {@link #HISTORY} jobs and not longer than {@link #EXPIRE}.
+ * </p>
+ * @since 1.9
+ */
+final class UpdateJobs {
+
+    /**
+     * Max amount of jobs to remember.
+     */
+    private static final int HISTORY = 1000;
+
+    /**
+     * How long to remember finished job.
+     */
+    private static final Duration EXPIRE = Duration.ofHours(1);
+
+    /**
+     * Pool shared by jobs of all repositories.
+     */
+    private static final ExecutorService SHARED = Executors.newCachedThreadPool(
+        new ThreadFactoryBuilder().setNameFormat("rpm-update-%d").setDaemon(true).build()
+    );
+
+    /**
+     * Metadata update operation reporting to listener.
+     */
+    private final Function<UpdateListener, Completable> update;
+
+    /**
+     * Executor to run jobs.
+     */
+    private final Executor exec;
+
+    /**
+     * Known jobs by id.
+     */
+    private final Cache<String, Job> jobs;
+
+    /**
+     * Lock to guard queued job.
+     */
+    private final Object lock;
+
+    /**
+     * Job waiting in queue, null if there is none.
+     */
+    private Job waiting;
+
+    /**
+     * Ctor.
+     * @param rpm Rpm repository
+     */
+    UpdateJobs(final Rpm rpm) {
+        this(rpm, MoreExecutors.newSequentialExecutor(UpdateJobs.SHARED));
+    }
+
+    /**
+     * Ctor.
+     * @param rpm Rpm repository
+     * @param exec Executor to run jobs, should run one job at a time
+     */
+    UpdateJobs(final Rpm rpm, final Executor exec) {
+        this(listener -> rpm.batchUpdate(Key.ROOT, listener), exec);
+    }
+
+    /**
+     * Ctor.
+     * @param update Metadata update operation
+     * @param exec Executor to run jobs, should run one job at a time
+     */
+    UpdateJobs(final Supplier<Completable> update, final Executor exec) {
+        this(listener -> update.get(), exec);
+    }
+
+    /**
+     * Primary ctor.
+     * @param update Metadata update operation reporting to listener
+     * @param exec Executor to run jobs, should run one job at a time
+     */
+    UpdateJobs(final Function<UpdateListener, Completable> update, final Executor exec) {
+        this.update = update;
+        this.exec = exec;
+        this.jobs = CacheBuilder.newBuilder()
+            .maximumSize(UpdateJobs.HISTORY)
+            .expireAfterWrite(UpdateJobs.EXPIRE.toMillis(), TimeUnit.MILLISECONDS)
+            .build();
+        this.lock = new Object();
+    }
+
+    /**
+     * Submit metadata update, joins already queued job if any.
+     * @return Job to track update status
+     */
+    Job submit() {
+        final Job job;
+        final boolean fresh;
+        synchronized (this.lock) {
+            fresh = this.waiting == null;
+            if (fresh) {
+                this.waiting = new Job();
+                this.jobs.put(this.waiting.id(), this.waiting);
+            }
+            job = this.waiting;
+        }
+        if (fresh) {
+            this.exec.execute(() -> this.run(job));
+        }
+        return job;
+    }
+
+    /**
+     * Find job by id.
+     * @param id Job id
+     * @return Job if known
+     */
+    Optional<Job> job(final String id) {
+        return Optional.ofNullable(this.jobs.getIfPresent(id));
+    }
+
+    /**
+     * Runs the job.
+     * @param job Job to run
+     */
+    @SuppressWarnings({"PMD.AvoidCatchingGenericException", "PMD.AvoidCatchingThrowable"})
+    private void run(final Job job) {
+        synchronized (this.lock) {
+            this.waiting = null;
+        }
+        final Progress progress = new Progress();
+        job.start(progress);
+        try {
+            this.update.apply(progress).blockingAwait();
+            job.finish(Optional.empty());
+        // @checkstyle IllegalCatchCheck (1 line)
+        } catch (final Throwable err) {
+            Logger.error(this, "Metadata update job %s failed: %[exception]s", job.id(), err);
+            job.finish(Optional.of(err));
+        }
+        this.jobs.put(job.id(), job);
+    }
+
+    /**
+     * Job status.
+     * @since 1.9
+     */
+    enum Status {
+
+        /**
+         * Job is waiting in queue.
+         */
+        QUEUED,
+
+        /**
+         * Job is running.
+         */
+        RUNNING,
+
+        /**
+         * Job finished successfully.
+         */
+        DONE,
+
+        /**
+         * Job failed.
+         */
+        FAILED
+    }
+
+    /**
+     * Metadata update job.
+     * @since 1.9
+     */
+    static final class Job {
+
+        /**
+         * Job id.
+         */
+        private final String uid;
+
+        /**
+         * Time when job was queued.
+         */
+        private final Instant queued;
+
+        /**
+         * Completion future.
+         */
+        private final CompletableFuture<Void> future;
+
+        /**
+         * Current status.
+         */
+        private volatile Status current;
+
+        /**
+         * Time when job was started.
+         */
+        private volatile Instant started;
+
+        /**
+         * Time when job was finished.
+         */
+        private volatile Instant finished;
+
+        /**
+         * Failure message.
+         */
+        private volatile String error;
+
+        /**
+         * Progress of the running job.
+         */
+        private volatile Progress progress;
+
+        /**
+         * Progress of the job when it was finished.
+         */
+        private volatile Progress.Snapshot last;
+
+        /**
+         * Ctor.
+         */
+        Job() {
+            this.uid = UUID.randomUUID().toString();
+            this.queued = Instant.now();
+            this.future = new CompletableFuture<>();
+            this.current = Status.QUEUED;
+        }
+
+        /**
+         * Job id.
+         * @return Id
+         */
+        String id() {
+            return this.uid;
+        }
+
+        /**
+         * Current job status.
+         * @return Status
+         */
+        Status status() {
+            return this.current;
+        }
+
+        /**
+         * Completion of the job, fails if job failed.
+         * @return Completion stage
+         */
+        CompletionStage<Void> completion() {
+            return this.future;
+        }
+
+        /**
+         * Job status as json.
+         * @return Json object
+         */
+        JsonObject json() {
+            final JsonObjectBuilder json = Json.createObjectBuilder()
+                .add("id", this.uid)
+                .add("status", this.current.name().toLowerCase(Locale.US))
+                .add("queued", this.queued.toString());
+            final Instant start = this.started;
+            if (start != null) {
+                json.add("started", start.toString())
+                    .add("wait", Duration.between(this.queued, start).toMillis());
+                final Instant end = this.finished;
+                if (end != null) {
+                    json.add("finished", end.toString())
+                        .add("duration", Duration.between(start, end).toMillis());
+                }
+            }
+            final Progress prgs = this.progress;
+            final Progress.Snapshot snapshot = this.last;
+            if (snapshot != null) {
+                json.add("progress", snapshot.json());
+            } else if (prgs != null) {
+                json.add("progress", prgs.snapshot().json());
+            }
+            final String msg = this.error;
+            if (msg != null) {
+                json.add("error", msg);
+            }
+            return json.build();
+        }
+
+        /**
+         * Mark job as started.
+         * @param prgs Job progress
+         */
+        private void start(final Progress prgs) {
+            this.progress = prgs;
+            this.started = Instant.now();
+            this.current = Status.RUNNING;
+        }
+
+        /**
+         * Mark job as finished.
+         * @param err Failure if any
+         */
+        private void finish(final Optional<Throwable> err) {
+            this.last = this.progress.snapshot();
+            this.finished = Instant.now();
+            if (err.isPresent()) {
+                this.error = String.valueOf(err.get().getMessage());
+                this.current = Status.FAILED;
+                this.future.completeExceptionally(err.get());
+            } else {
+                this.current = Status.DONE;
+                this.future.complete(null);
+            }
+        }
+    }
+}
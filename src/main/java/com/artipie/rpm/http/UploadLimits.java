@@ -0,0 +1,273 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.http;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Limits for concurrent uploads and pending metadata updates.
+ * <p>
+ * Upload permit is held while package is being saved to storage, update permit
+ * is held until the metadata update job which covers uploaded package is finished.
+ * Limits of the repository can be chained with global limits shared by several
+ * repositories, in this case permits are required from both.
+ * </p>
+ * @since 1.9
+ */
+public final class UploadLimits {
+
+    /**
+     * No limits.
+     */
+    public static final UploadLimits UNLIMITED =
+        new UploadLimits(Integer.MAX_VALUE, Integer.MAX_VALUE);
+
+    /**
+     * Permits were acquired from all the semaphores.
+     */
+    private static final int ACQUIRED = -1;
+
+    /**
+     * Upload semaphores, own first.
+     */
+    private final List<Semaphore> uploads;
+
+    /**
+     * Pending updates semaphores, own first.
+     */
+    private final List<Semaphore> updates;
+
+    /**
+     * Ctor.
+     * @param uploads Max concurrent uploads
+     * @param updates Max uploads waiting for metadata update
+     */
+    public UploadLimits(final int uploads, final int updates) {
+        this(uploads, updates, Collections.emptyList(), Collections.emptyList());
+    }
+
+    /**
+     * Ctor.
+     * @param uploads Max concurrent uploads
+     * @param updates Max uploads waiting for metadata update
+     * @param global Global limits shared with other repositories
+     */
+    public UploadLimits(final int uploads, final int updates, final UploadLimits global) {
+        this(uploads, updates, global.uploads, global.updates);
+    }
+
+    /**
+     * Primary ctor.
+     * @param uploads Max concurrent uploads
+     * @param updates Max uploads waiting for metadata update
+     * @param guploads Upload semaphores of global limits
+     * @param gupdates Pending updates semaphores of global limits
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private UploadLimits(final int uploads, final int updates,
+        final List<Semaphore> guploads, final List<Semaphore> gupdates) {
+        this.uploads = UploadLimits.chain(uploads, guploads);
+        this.updates = UploadLimits.chain(updates, gupdates);
+    }
+
+    /**
+     * Tries to acquire permits for upload.
+     * @param update Whether metadata update is required after upload
+     * @return Admission with permit if upload is admitted
+     */
+    Admission acquire(final boolean update) {
+        final Admission res;
+        final int uploading = UploadLimits.tryAcquire(this.uploads);
+        if (uploading != UploadLimits.ACQUIRED) {
+            res = new Admission(uploading == 0);
+        } else if (update) {
+            final int updating = UploadLimits.tryAcquire(this.updates);
+            if (updating == UploadLimits.ACQUIRED) {
+                res = new Admission(new Permit(this.uploads, this.updates));
+            } else {
+                UploadLimits.release(this.uploads);
+                res = new Admission(updating == 0);
+            }
+        } else {
+            res = new Admission(new Permit(this.uploads, Collections.emptyList()));
+        }
+        return res;
+    }
+
+    /**
+     * Creates semaphores chain.
+     * @param permits Own permits
+     * @param global Global semaphores
+     * @return Own semaphore followed by global ones
+     */
+    private static List<Semaphore> chain(final int permits, final List<Semaphore> global) {
+        final List<Semaphore> res = new ArrayList<>(global.size() + 1);
+        res.add(new Semaphore(permits));
+        res.addAll(global);
+        return Collections.unmodifiableList(res);
+    }
+
+    /**
+     * Tries to acquire permit from all the semaphores, acquired permits
+     * are returned if some semaphore has no permits available.
+     * @param sems Semaphores
+     * @return Index of semaphore without permits, {@link #ACQUIRED} if acquired
+     */
+    private static int tryAcquire(final List<Semaphore> sems) {
+        int acquired = 0;
+        for (final Semaphore sem : sems) {
+            if (!sem.tryAcquire()) {
+                break;
+            }
+            acquired += 1;
+        }
+        final int res;
+        if (acquired == sems.size()) {
+            res = UploadLimits.ACQUIRED;
+        } else {
+            UploadLimits.release(sems.subList(0, acquired));
+            res = acquired;
+        }
+        return res;
+    }
+
+    /**
+     * Releases permit to all the semaphores.
+     * @param sems Semaphores
+     */
+    private static void release(final List<Semaphore> sems) {
+        sems.forEach(Semaphore::release);
+    }
+
+    /**
+     * Result of upload admission.
+     * @since 1.9
+     */
+    static final class Admission {
+
+        /**
+         * Permit, empty if upload is rejected.
+         */
+        private final Optional<Permit> granted;
+
+        /**
+         * Upload is rejected by own limits of the repository.
+         */
+        private final boolean own;
+
+        /**
+         * Ctor for admitted upload.
+         * @param permit Permit
+         */
+        Admission(final Permit permit) {
+            this(Optional.of(permit), false);
+        }
+
+        /**
+         * Ctor for rejected upload.
+         * @param own Upload is rejected by own limits of the repository
+         */
+        Admission(final boolean own) {
+            this(Optional.empty(), own);
+        }
+
+        /**
+         * Primary ctor.
+         * @param granted Permit, empty if upload is rejected
+         * @param own Upload is rejected by own limits of the repository
+         */
+        private Admission(final Optional<Permit> granted, final boolean own) {
+            this.granted = granted;
+            this.own = own;
+        }
+
+        /**
+         * Upload permit.
+         * @return Permit if upload is admitted, empty otherwise
+         */
+        Optional<Permit> permit() {
+            return this.granted;
+        }
+
+        /**
+         * Whether upload is rejected by own limits of the repository, i.e. the
+         * client is throttled, rather than by global limits of the server.
+         * @return True if rejected by repository limits
+         */
+        boolean throttled() {
+            return this.own;
+        }
+    }
+
+    /**
+     * Upload permit, each part is released only once.
+     * @since 1.9
+     */
+    static final class Permit {
+
+        /**
+         * Upload semaphores.
+         */
+        private final List<Semaphore> uploads;
+
+        /**
+         * Pending updates semaphores.
+         */
+        private final List<Semaphore> updates;
+
+        /**
+         * Upload was released.
+         */
+        private final AtomicBoolean uploaded;
+
+        /**
+         * Update was released.
+         */
+        private final AtomicBoolean updated;
+
+        /**
+         * Ctor.
+         * @param uploads Upload semaphores
+         * @param updates Pending updates semaphores
+         */
+        Permit(final List<Semaphore> uploads, final List<Semaphore> updates) {
+            this.uploads = uploads;
+            this.updates = updates;
+            this.uploaded = new AtomicBoolean();
+            this.updated = new AtomicBoolean();
+        }
+
+        /**
+         * Releases upload permit.
+         */
+        void uploaded() {
+            if (this.uploaded.compareAndSet(false, true)) {
+                UploadLimits.release(this.uploads);
+            }
+        }
+
+        /**
+         * Releases pending update permit.
+         */
+        void updated() {
+            if (this.updated.compareAndSet(false, true)) {
+                UploadLimits.release(this.updates);
+            }
+        }
+
+        /**
+         * Releases all permits.
+         */
+        void release() {
+            this.uploaded();
+            this.updated();
+        }
+    }
+}
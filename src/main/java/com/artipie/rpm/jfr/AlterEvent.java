@@ -0,0 +1,117 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.jfr;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Updating packages count attribute of metadata file.
+ * Event is recorded only if JVM supports Flight Recorder, otherwise it does nothing.
+ * @since 1.9
+ */
+public final class AlterEvent {
+
+    /**
+     * Flight Recorder event, empty if Flight Recorder is not available.
+     */
+    private final Optional<AlterEvent.Recorded> origin;
+
+    /**
+     * Ctor.
+     */
+    public AlterEvent() {
+        this.origin = Jfr.AVAILABLE ? Optional.of(new AlterEvent.Recorded()) : Optional.empty();
+    }
+
+    /**
+     * Starts timing the event.
+     */
+    public void begin() {
+        if (this.origin.isPresent()) {
+            this.origin.get().start();
+        }
+    }
+
+    /**
+     * Commits the event if it's enabled.
+     * @param path Metadata file
+     * @param root Root tag
+     * @param val New attribute value
+     * @throws IOException On error
+     */
+    public void complete(final Path path, final String root, final String val) throws IOException {
+        if (this.origin.isPresent()) {
+            this.origin.get().complete(path, root, val);
+        }
+    }
+
+    /**
+     * Flight Recorder event.
+     * @since 1.9
+     */
+    @Name("com.artipie.rpm.PackagesAttribute")
+    @Label("Packages Attribute Update")
+    @Category({"Artipie", "RPM"})
+    static final class Recorded extends Event {
+
+        /**
+         * Metadata file name.
+         */
+        @Label("File")
+        private String file;
+
+        /**
+         * Root tag.
+         */
+        @Label("Tag")
+        private String tag;
+
+        /**
+         * New attribute value.
+         */
+        @Label("Value")
+        private String value;
+
+        /**
+         * Metadata size.
+         */
+        @Label("Size")
+        @DataAmount
+        private long bytes;
+
+        /**
+         * Commits the event if it's enabled.
+         * @param path Metadata file
+         * @param root Root tag
+         * @param val New attribute value
+         * @throws IOException On error
+         */
+        void complete(final Path path, final String root, final String val)
+            throws IOException {
+            if (this.shouldCommit()) {
+                this.file = path.getFileName().toString();
+                this.tag = root;
+                this.value = val;
+                this.bytes = Files.size(path);
+                this.commit();
+            }
+        }
+
+        /**
+         * Starts timing the event.
+         */
+        void start() {
+            this.begin();
+        }
+    }
+}
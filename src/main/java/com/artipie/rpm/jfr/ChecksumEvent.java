@@ -0,0 +1,105 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.jfr;
+
+import java.nio.file.Path;
+import java.util.Optional;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Computing file checksum.
+ * Event is recorded only if JVM supports Flight Recorder, otherwise it does nothing.
+ * @since 1.9
+ */
+public final class ChecksumEvent {
+
+    /**
+     * Flight Recorder event, empty if Flight Recorder is not available.
+     */
+    private final Optional<ChecksumEvent.Recorded> origin;
+
+    /**
+     * Ctor.
+     */
+    public ChecksumEvent() {
+        this.origin = Jfr.AVAILABLE ? Optional.of(new ChecksumEvent.Recorded()) : Optional.empty();
+    }
+
+    /**
+     * Starts timing the event.
+     */
+    public void begin() {
+        if (this.origin.isPresent()) {
+            this.origin.get().start();
+        }
+    }
+
+    /**
+     * Commits the event if it's enabled.
+     * @param path File
+     * @param algorithm Digest algorithm
+     * @param size Hashed bytes
+     */
+    public void complete(final Path path, final String algorithm, final long size) {
+        if (this.origin.isPresent()) {
+            this.origin.get().complete(path, algorithm, size);
+        }
+    }
+
+    /**
+     * Flight Recorder event.
+     * @since 1.9
+     */
+    @Name("com.artipie.rpm.Checksum")
+    @Label("File Checksum")
+    @Category({"Artipie", "RPM"})
+    static final class Recorded extends Event {
+
+        /**
+         * File name.
+         */
+        @Label("File")
+        private String file;
+
+        /**
+         * Digest algorithm.
+         */
+        @Label("Digest")
+        private String digest;
+
+        /**
+         * Hashed bytes.
+         */
+        @Label("Size")
+        @DataAmount
+        private long bytes;
+
+        /**
+         * Commits the event if it's enabled.
+         * @param path File
+         * @param algorithm Digest algorithm
+         * @param size Hashed bytes
+         */
+        void complete(final Path path, final String algorithm, final long size) {
+            if (this.shouldCommit()) {
+                this.file = path.getFileName().toString();
+                this.digest = algorithm;
+                this.bytes = size;
+                this.commit();
+            }
+        }
+
+        /**
+         * Starts timing the event.
+         */
+        void start() {
+            this.begin();
+        }
+    }
+}
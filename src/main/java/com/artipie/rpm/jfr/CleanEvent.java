@@ -0,0 +1,117 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.jfr;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Removing packages from metadata file.
+ * Event is recorded only if JVM supports Flight Recorder, otherwise it does nothing.
+ * @since 1.9
+ */
+public final class CleanEvent {
+
+    /**
+     * Flight Recorder event, empty if Flight Recorder is not available.
+     */
+    private final Optional<CleanEvent.Recorded> origin;
+
+    /**
+     * Ctor.
+     */
+    public CleanEvent() {
+        this.origin = Jfr.AVAILABLE ? Optional.of(new CleanEvent.Recorded()) : Optional.empty();
+    }
+
+    /**
+     * Starts timing the event.
+     */
+    public void begin() {
+        if (this.origin.isPresent()) {
+            this.origin.get().start();
+        }
+    }
+
+    /**
+     * Commits the event if it's enabled.
+     * @param path Metadata file
+     * @param ids Count of package ids to remove
+     * @param count Packages count left
+     * @throws IOException On error
+     */
+    public void complete(final Path path, final long ids, final long count) throws IOException {
+        if (this.origin.isPresent()) {
+            this.origin.get().complete(path, ids, count);
+        }
+    }
+
+    /**
+     * Flight Recorder event.
+     * @since 1.9
+     */
+    @Name("com.artipie.rpm.Clean")
+    @Label("Metadata Clean")
+    @Category({"Artipie", "RPM"})
+    static final class Recorded extends Event {
+
+        /**
+         * Metadata file name.
+         */
+        @Label("File")
+        private String file;
+
+        /**
+         * Count of package ids to remove.
+         */
+        @Label("Removed Ids")
+        private long removed;
+
+        /**
+         * Packages count left.
+         */
+        @Label("Packages Left")
+        private long left;
+
+        /**
+         * Metadata size after clean.
+         */
+        @Label("Size")
+        @DataAmount
+        private long bytes;
+
+        /**
+         * Commits the event if it's enabled.
+         * @param path Metadata file
+         * @param ids Count of package ids to remove
+         * @param count Packages count left
+         * @throws IOException On error
+         */
+        void complete(final Path path, final long ids, final long count)
+            throws IOException {
+            if (this.shouldCommit()) {
+                this.file = path.getFileName().toString();
+                this.removed = ids;
+                this.left = count;
+                this.bytes = Files.size(path);
+                this.commit();
+            }
+        }
+
+        /**
+         * Starts timing the event.
+         */
+        void start() {
+            this.begin();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.jfr;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Reading RPM package header.
+ * Event is recorded only if JVM supports Flight Recorder, otherwise it does nothing.
+ * @since 1.9
+ */
+public final class HeaderEvent {
+
+    /**
+     * Flight Recorder event, empty if Flight Recorder is not available.
+     */
+    private final Optional<HeaderEvent.Recorded> origin;
+
+    /**
+     * Ctor.
+     */
+    public HeaderEvent() {
+        this.origin = Jfr.AVAILABLE ? Optional.of(new HeaderEvent.Recorded()) : Optional.empty();
+    }
+
+    /**
+     * Starts timing the event.
+     */
+    public void begin() {
+        if (this.origin.isPresent()) {
+            this.origin.get().start();
+        }
+    }
+
+    /**
+     * Commits the event if it's enabled.
+     * @param file Package file
+     * @throws IOException On error
+     */
+    public void complete(final Path file) throws IOException {
+        if (this.origin.isPresent()) {
+            this.origin.get().complete(file);
+        }
+    }
+
+    /**
+     * Flight Recorder event.
+     * @since 1.9
+     */
+    @Name("com.artipie.rpm.PackageHeader")
+    @Label("Package Header")
+    @Category({"Artipie", "RPM"})
+    static final class Recorded extends Event {
+
+        /**
+         * Package name.
+         */
+        @Label("Package")
+        private String pkg;
+
+        /**
+         * Package size.
+         */
+        @Label("Size")
+        @DataAmount
+        private long bytes;
+
+        /**
+         * Commits the event if it's enabled.
+         * @param file Package file
+         * @throws IOException On error
+         */
+        void complete(final Path file) throws IOException {
+            if (this.shouldCommit()) {
+                this.pkg = file.getFileName().toString();
+                this.bytes = Files.size(file);
+                this.commit();
+            }
+        }
+
+        /**
+         * Starts timing the event.
+         */
+        void start() {
+            this.begin();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.jfr;
+
+/**
+ * Flight Recorder support of running JVM.
+ * @since 1.9
+ */
+final class Jfr {
+
+    /**
+     * Whether Flight Recorder events API is available.
+     */
+    static final boolean AVAILABLE = Jfr.available();
+
+    /**
+     * Ctor.
+     */
+    private Jfr() {
+    }
+
+    /**
+     * Checks that Flight Recorder events API is available: it's absent in JDK 8
+     * before 8u262.
+     * @return True if available
+     */
+    private static boolean available() {
+        boolean res;
+        try {
+            Class.forName("jdk.jfr.Event", false, Jfr.class.getClassLoader());
+            res = true;
+        } catch (final ClassNotFoundException | LinkageError ex) {
+            res = false;
+        }
+        return res;
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.jfr;
+
+import java.util.Optional;
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Waiting for repository lock.
+ * Event is recorded only if JVM supports Flight Recorder, otherwise it does nothing.
+ * @since 1.9
+ */
+public final class LockAcquireEvent {
+
+    /**
+     * Flight Recorder event, empty if Flight Recorder is not available.
+     */
+    private final Optional<LockAcquireEvent.Recorded> origin;
+
+    /**
+     * Ctor.
+     */
+    public LockAcquireEvent() {
+        this.origin = Jfr.AVAILABLE
+            ? Optional.of(new LockAcquireEvent.Recorded()) : Optional.empty();
+    }
+
+    /**
+     * Starts timing the event.
+     */
+    public void begin() {
+        if (this.origin.isPresent()) {
+            this.origin.get().start();
+        }
+    }
+
+    /**
+     * Commits the event if it's enabled.
+     * @param key Repository key
+     */
+    public void complete(final String key) {
+        if (this.origin.isPresent()) {
+            this.origin.get().complete(key);
+        }
+    }
+
+    /**
+     * Flight Recorder event.
+     * @since 1.9
+     */
+    @Name("com.artipie.rpm.LockAcquire")
+    @Label("Repository Lock Acquire")
+    @Category({"Artipie", "RPM"})
+    static final class Recorded extends Event {
+
+        /**
+         * Repository key.
+         */
+        @Label("Repository")
+        private String repository;
+
+        /**
+         * Commits the event if it's enabled.
+         * @param key Repository key
+         */
+        void complete(final String key) {
+            if (this.shouldCommit()) {
+                this.repository = key;
+                this.commit();
+            }
+        }
+
+        /**
+         * Starts timing the event.
+         */
+        void start() {
+            this.begin();
+        }
+    }
+}
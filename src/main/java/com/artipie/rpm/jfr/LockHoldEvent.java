@@ -0,0 +1,93 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.jfr;
+
+import java.util.Optional;
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Holding repository lock while repository is updated.
+ * Event is recorded only if JVM supports Flight Recorder, otherwise it does nothing.
+ * @since 1.9
+ */
+public final class LockHoldEvent {
+
+    /**
+     * Flight Recorder event, empty if Flight Recorder is not available.
+     */
+    private final Optional<LockHoldEvent.Recorded> origin;
+
+    /**
+     * Ctor.
+     */
+    public LockHoldEvent() {
+        this.origin = Jfr.AVAILABLE ? Optional.of(new LockHoldEvent.Recorded()) : Optional.empty();
+    }
+
+    /**
+     * Starts timing the event.
+     */
+    public void begin() {
+        if (this.origin.isPresent()) {
+            this.origin.get().start();
+        }
+    }
+
+    /**
+     * Commits the event if it's enabled.
+     * @param key Repository key
+     * @param succeeded Whether update succeeded
+     */
+    public void complete(final String key, final boolean succeeded) {
+        if (this.origin.isPresent()) {
+            this.origin.get().complete(key, succeeded);
+        }
+    }
+
+    /**
+     * Flight Recorder event.
+     * @since 1.9
+     */
+    @Name("com.artipie.rpm.LockHold")
+    @Label("Repository Lock Hold")
+    @Category({"Artipie", "RPM"})
+    static final class Recorded extends Event {
+
+        /**
+         * Repository key.
+         */
+        @Label("Repository")
+        private String repository;
+
+        /**
+         * Whether update succeeded.
+         */
+        @Label("Succeeded")
+        private boolean success;
+
+        /**
+         * Commits the event if it's enabled.
+         * @param key Repository key
+         * @param succeeded Whether update succeeded
+         */
+        void complete(final String key, final boolean succeeded) {
+            if (this.shouldCommit()) {
+                this.repository = key;
+                this.success = succeeded;
+                this.commit();
+            }
+        }
+
+        /**
+         * Starts timing the event.
+         */
+        void start() {
+            this.begin();
+        }
+    }
+}
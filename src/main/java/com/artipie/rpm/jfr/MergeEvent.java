@@ -0,0 +1,126 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.jfr;
+
+import java.util.Optional;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Merging new packages into existing metadata.
+ * Event is recorded only if JVM supports Flight Recorder, otherwise it does nothing.
+ * @since 1.9
+ */
+public final class MergeEvent {
+
+    /**
+     * Flight Recorder event, empty if Flight Recorder is not available.
+     */
+    private final Optional<MergeEvent.Recorded> origin;
+
+    /**
+     * Ctor.
+     */
+    public MergeEvent() {
+        this.origin = Jfr.AVAILABLE ? Optional.of(new MergeEvent.Recorded()) : Optional.empty();
+    }
+
+    /**
+     * Starts timing the event.
+     */
+    public void begin() {
+        if (this.origin.isPresent()) {
+            this.origin.get().start();
+        }
+    }
+
+    /**
+     * Commits the event if it's enabled.
+     * @param type Metadata type
+     * @param first First merged package location
+     * @param count Merged packages count
+     * @param result Packages count in result metadata
+     * @param written Written bytes
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public void complete(final String type, final String first, final long count,
+        final long result, final long written) {
+        if (this.origin.isPresent()) {
+            this.origin.get().complete(type, first, count, result, written);
+        }
+    }
+
+    /**
+     * Flight Recorder event.
+     * @since 1.9
+     */
+    @Name("com.artipie.rpm.Merge")
+    @Label("Metadata Merge")
+    @Category({"Artipie", "RPM"})
+    static final class Recorded extends Event {
+
+        /**
+         * Metadata type.
+         */
+        @Label("Metadata")
+        private String metadata;
+
+        /**
+         * First merged package location.
+         */
+        @Label("Package")
+        private String pkg;
+
+        /**
+         * Merged packages count.
+         */
+        @Label("Merged Packages")
+        private long merged;
+
+        /**
+         * Packages count in result metadata.
+         */
+        @Label("Total Packages")
+        private long total;
+
+        /**
+         * Written bytes.
+         */
+        @Label("Written")
+        @DataAmount
+        private long bytes;
+
+        /**
+         * Commits the event if it's enabled.
+         * @param type Metadata type
+         * @param first First merged package location
+         * @param count Merged packages count
+         * @param result Packages count in result metadata
+         * @param written Written bytes
+         * @checkstyle ParameterNumberCheck (5 lines)
+         */
+        void complete(final String type, final String first, final long count,
+            final long result, final long written) {
+            if (this.shouldCommit()) {
+                this.metadata = type;
+                this.pkg = first;
+                this.merged = count;
+                this.total = result;
+                this.bytes = written;
+                this.commit();
+            }
+        }
+
+        /**
+         * Starts timing the event.
+         */
+        void start() {
+            this.begin();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.jfr;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Saving metadata file: compression, checksums and {@code repomd.xml} record.
+ * Event is recorded only if JVM supports Flight Recorder, otherwise it does nothing.
+ * @since 1.9
+ */
+public final class SaveEvent {
+
+    /**
+     * Flight Recorder event, empty if Flight Recorder is not available.
+     */
+    private final Optional<SaveEvent.Recorded> origin;
+
+    /**
+     * Ctor.
+     */
+    public SaveEvent() {
+        this.origin = Jfr.AVAILABLE ? Optional.of(new SaveEvent.Recorded()) : Optional.empty();
+    }
+
+    /**
+     * Starts timing the event.
+     */
+    public void begin() {
+        if (this.origin.isPresent()) {
+            this.origin.get().start();
+        }
+    }
+
+    /**
+     * Commits the event if it's enabled.
+     * @param type Metadata type
+     * @param uncompressed Uncompressed file
+     * @param result Gzipped file
+     * @throws IOException On error
+     */
+    public void complete(final String type, final Path uncompressed, final Path result)
+        throws IOException {
+        if (this.origin.isPresent()) {
+            this.origin.get().complete(type, uncompressed, result);
+        }
+    }
+
+    /**
+     * Flight Recorder event.
+     * @since 1.9
+     */
+    @Name("com.artipie.rpm.MetadataSave")
+    @Label("Metadata Save")
+    @Category({"Artipie", "RPM"})
+    static final class Recorded extends Event {
+
+        /**
+         * Metadata type.
+         */
+        @Label("Metadata")
+        private String metadata;
+
+        /**
+         * Result file name.
+         */
+        @Label("File")
+        private String file;
+
+        /**
+         * Uncompressed size.
+         */
+        @Label("Open Size")
+        @DataAmount
+        private long open;
+
+        /**
+         * Gzipped size.
+         */
+        @Label("Gzip Size")
+        @DataAmount
+        private long gzip;
+
+        /**
+         * Commits the event if it's enabled.
+         * @param type Metadata type
+         * @param uncompressed Uncompressed file
+         * @param result Gzipped file
+         * @throws IOException On error
+         */
+        void complete(final String type, final Path uncompressed, final Path result)
+            throws IOException {
+            if (this.shouldCommit()) {
+                this.metadata = type;
+                this.file = result.getFileName().toString();
+                this.open = Files.size(uncompressed);
+                this.gzip = Files.size(result);
+                this.commit();
+            }
+        }
+
+        /**
+         * Starts timing the event.
+         */
+        void start() {
+            this.begin();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+
+/**
+ * Java Flight Recorder events of the hot repository update operations, events
+ * belong to {@code Artipie/RPM} category and are named {@code com.artipie.rpm.*}.
+ * Events are started before the operation and committed after it, event fields
+ * are filled only if the event is enabled in running recording, so overhead is
+ * negligible when recording is off. Events are recorded on JVM with Flight
+ * Recorder support (JDK 11+ or JDK 8u262+), on older JVM they do nothing: each
+ * event wraps actual {@code jdk.jfr.Event} which is created only if Flight
+ * Recorder API is available.
+ *
+ * @since 1.9
+ */
+package com.artipie.rpm.jfr;
@@ -0,0 +1,309 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.lock;
+
+import com.artipie.ArtipieException;
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.asto.lock.Lock;
+import com.artipie.asto.lock.storage.StorageLock;
+import com.jcabi.log.Logger;
+import hu.akarnokd.rxjava2.interop.CompletableInterop;
+import io.reactivex.Flowable;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.disposables.Disposables;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Storage lock with renewed lease and fencing token. Lock is a {@link StorageLock}
+ * proposal which expires after the lease, while lock is held the proposal is renewed
+ * three times per lease period, so long operations keep the lock and lock of
+ * the crashed process expires soon. On each acquisition the fencing token stored in
+ * {@code .artipie-fences} is incremented and saved together with the lock proposal
+ * identifier, holder should {@link #check()} the lock before publishing results:
+ * check fails if lease renewal failed or the lock was acquired by someone else after
+ * the lease expired. Fence is removed on release if it still belongs to this lock,
+ * keys under {@code .artipie-*} prefixes are not served by repository slices.
+ * @since 1.9
+ */
+public final class LeaseLock implements Lock {
+
+    /**
+     * Fencing tokens root key.
+     */
+    private static final Key FENCES = new Key.From(".artipie-fences");
+
+    /**
+     * Storage.
+     */
+    private final Storage storage;
+
+    /**
+     * Lock target.
+     */
+    private final Key target;
+
+    /**
+     * Lease duration.
+     */
+    private final Duration lease;
+
+    /**
+     * Lock proposal identifier.
+     */
+    private final String uuid;
+
+    /**
+     * Fencing token, zero until lock is acquired.
+     */
+    private final AtomicLong fence;
+
+    /**
+     * Lease is lost.
+     */
+    private final AtomicBoolean lost;
+
+    /**
+     * Lease renewal subscription.
+     */
+    private final AtomicReference<Disposable> heartbeat;
+
+    /**
+     * Ctor.
+     * @param storage Storage
+     * @param target Lock target
+     * @param lease Lease duration
+     */
+    public LeaseLock(final Storage storage, final Key target, final Duration lease) {
+        this.storage = storage;
+        this.target = target;
+        this.lease = lease;
+        this.uuid = UUID.randomUUID().toString();
+        this.fence = new AtomicLong();
+        this.lost = new AtomicBoolean();
+        this.heartbeat = new AtomicReference<>(Disposables.empty());
+    }
+
+    @Override
+    public CompletionStage<Void> acquire() {
+        return this.proposal().acquire()
+            .thenCompose(nothing -> this.stored())
+            .thenApply(LeaseLock::token)
+            .thenCompose(
+                token -> this.storage.save(
+                    this.fenceKey(),
+                    new Content.From(
+                        LeaseLock.fenced(token + 1, this.uuid).getBytes(StandardCharsets.US_ASCII)
+                    )
+                ).thenRun(() -> this.fence.set(token + 1))
+            ).thenRun(this::renew);
+    }
+
+    @Override
+    public CompletionStage<Void> release() {
+        this.heartbeat.get().dispose();
+        return this.stored().thenCompose(
+            fenced -> {
+                final CompletionStage<Void> res;
+                if (fenced.equals(this.fenced())) {
+                    res = this.storage.delete(this.fenceKey());
+                } else {
+                    res = CompletableFuture.allOf();
+                }
+                return res;
+            }
+        ).handle(
+            (nothing, err) -> {
+                if (err != null) {
+                    Logger.warn(
+                        this, "Failed to remove fence of the lock %s: %[exception]s",
+                        this.target.string(), err
+                    );
+                }
+                return nothing;
+            }
+        ).thenCompose(nothing -> this.proposal().release());
+    }
+
+    /**
+     * Fencing token of the acquired lock, token grows each time the lock is
+     * acquired while the fence of the previous holder is not removed, i.e. the
+     * lock is taken over after the lease expiration.
+     * @return Token or zero if lock was not acquired
+     */
+    public long token() {
+        return this.fence.get();
+    }
+
+    /**
+     * Checks lock is still held: lease was renewed and fence in storage
+     * is the fence of this lock.
+     * @return Completion, fails with {@link ArtipieException} if lock is lost
+     */
+    public CompletionStage<Void> check() {
+        final CompletionStage<Void> res;
+        if (this.lost.get()) {
+            res = LeaseLock.failed(
+                String.format("Lease of the lock %s is lost", this.target.string())
+            );
+        } else {
+            res = this.stored().thenCompose(
+                fenced -> {
+                    final CompletionStage<Void> checked;
+                    if (fenced.equals(this.fenced())) {
+                        checked = CompletableFuture.allOf();
+                    } else {
+                        checked = LeaseLock.failed(
+                            String.format(
+                                "Lock %s is fenced: fence '%s' replaced '%s'",
+                                this.target.string(), fenced, this.fenced()
+                            )
+                        );
+                    }
+                    return checked;
+                }
+            );
+        }
+        return res;
+    }
+
+    /**
+     * Starts lease renewal, proposal is saved without checking other proposals:
+     * they can't appear while the lease is valid, and the lock taken over after
+     * the lease expiration is detected by fencing token.
+     */
+    private void renew() {
+        final long period = Math.max(this.lease.toMillis() / 3, 1);
+        this.heartbeat.set(
+            Flowable.interval(period, period, TimeUnit.MILLISECONDS)
+                .concatMapCompletable(
+                    tick -> CompletableInterop.fromFuture(
+                        this.storage.save(
+                            this.proposalKey(),
+                            new Content.From(
+                                Instant.now().plus(this.lease).toString()
+                                    .getBytes(StandardCharsets.US_ASCII)
+                            )
+                        )
+                    )
+                ).subscribe(
+                    () -> { },
+                    err -> {
+                        this.lost.set(true);
+                        Logger.warn(
+                            this, "Failed to renew lease of the lock %s: %[exception]s",
+                            this.target.string(), err
+                        );
+                    }
+                )
+        );
+    }
+
+    /**
+     * Lock proposal expiring after the lease from now.
+     * @return Storage lock
+     */
+    private StorageLock proposal() {
+        return new StorageLock(
+            this.storage, this.target, this.uuid,
+            Optional.of(Instant.now().plus(this.lease))
+        );
+    }
+
+    /**
+     * Key of the lock proposal, it's the key {@link StorageLock} saves proposal
+     * with expiration time to, renewal overwrites it with the new expiration time.
+     * @return Key
+     */
+    private Key proposalKey() {
+        return new Key.From(
+            new Key.From(new Key.From(".artipie-locks"), this.target), this.uuid
+        );
+    }
+
+    /**
+     * Fence stored in storage: fencing token and lock proposal identifier.
+     * @return Fence or empty string if there is no fence
+     */
+    private CompletionStage<String> stored() {
+        return this.storage.exists(this.fenceKey()).thenCompose(
+            exists -> {
+                final CompletionStage<String> res;
+                if (exists) {
+                    res = this.storage.value(this.fenceKey())
+                        .thenCompose(content -> new PublisherAs(content).asciiString())
+                        .thenApply(String::trim);
+                } else {
+                    res = CompletableFuture.completedFuture("");
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Fence of this lock.
+     * @return Fencing token and lock proposal identifier
+     */
+    private String fenced() {
+        return LeaseLock.fenced(this.fence.get(), this.uuid);
+    }
+
+    /**
+     * Fence of the lock.
+     * @param token Fencing token
+     * @param uuid Lock proposal identifier
+     * @return Fence
+     */
+    private static String fenced(final long token, final String uuid) {
+        return String.format("%d %s", token, uuid);
+    }
+
+    /**
+     * Key of the target fencing token.
+     * @return Key
+     */
+    private Key fenceKey() {
+        return new Key.From(new Key.From(LeaseLock.FENCES, this.target), "token");
+    }
+
+    /**
+     * Fencing token of the fence.
+     * @param fenced Fence
+     * @return Token or zero if there is no fence
+     */
+    private static long token(final String fenced) {
+        final long res;
+        if (fenced.isEmpty()) {
+            res = 0;
+        } else {
+            res = Long.parseLong(fenced.split(" ")[0]);
+        }
+        return res;
+    }
+
+    /**
+     * Failed completion.
+     * @param msg Error message
+     * @return Failed completion stage
+     */
+    private static CompletionStage<Void> failed(final String msg) {
+        final CompletableFuture<Void> res = new CompletableFuture<>();
+        res.completeExceptionally(new ArtipieException(msg));
+        return res;
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.lock;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+/**
+ * In-process queue of operations waiting for the same lock. Operations with
+ * equal keys are run one by one in FIFO order, so callers of the same process
+ * wait for each other instead of competing for the storage lock. Operation can
+ * be coalesced with the last queued one if it has equal token and is not started
+ * yet: caller gets the result of the queued operation, this suits idempotent
+ * operations like full repository update where the later run has nothing to add.
+ * @since 1.9
+ */
+public final class LockQueue {
+
+    /**
+     * The last queued operation by key.
+     */
+    private final Map<Object, Entry> tails;
+
+    /**
+     * Ctor.
+     */
+    public LockQueue() {
+        this.tails = new HashMap<>();
+    }
+
+    /**
+     * Runs operation after all queued operations with equal key complete.
+     * @param key Queue key
+     * @param operation Operation
+     * @return Completion of the operation
+     */
+    public CompletionStage<Void> run(final Object key,
+        final Supplier<? extends CompletionStage<Void>> operation) {
+        return this.enqueue(key, Optional.empty(), operation);
+    }
+
+    /**
+     * Joins the last queued operation with equal key if it has equal token and is
+     * not started yet, otherwise runs operation after queued ones.
+     * @param key Queue key
+     * @param token Operation token
+     * @param operation Operation
+     * @return Completion of the operation or the joined one
+     */
+    public CompletionStage<Void> coalesce(final Object key, final Object token,
+        final Supplier<? extends CompletionStage<Void>> operation) {
+        final Optional<CompletionStage<Void>> joined;
+        synchronized (this.tails) {
+            joined = Optional.ofNullable(this.tails.get(key))
+                .filter(tail -> !tail.started && tail.token.equals(Optional.of(token)))
+                .map(tail -> tail.result);
+        }
+        return joined.orElseGet(() -> this.enqueue(key, Optional.of(token), operation));
+    }
+
+    /**
+     * Count of operations queued or running.
+     * @return Count of keys with queued operations
+     */
+    public int size() {
+        synchronized (this.tails) {
+            return this.tails.size();
+        }
+    }
+
+    /**
+     * Puts operation to the queue tail.
+     * @param key Queue key
+     * @param token Operation token
+     * @param operation Operation
+     * @return Completion of the operation
+     */
+    private CompletionStage<Void> enqueue(final Object key, final Optional<Object> token,
+        final Supplier<? extends CompletionStage<Void>> operation) {
+        final Entry entry = new Entry(token);
+        final CompletableFuture<Void> previous;
+        synchronized (this.tails) {
+            previous = Optional.ofNullable(this.tails.put(key, entry))
+                .map(tail -> tail.result.<Void>handle((nothing, err) -> null))
+                .orElseGet(() -> CompletableFuture.completedFuture(null));
+        }
+        previous.thenCompose(
+            nothing -> {
+                synchronized (this.tails) {
+                    entry.started = true;
+                }
+                return operation.get();
+            }
+        ).whenComplete(
+            (nothing, err) -> {
+                synchronized (this.tails) {
+                    this.tails.remove(key, entry);
+                }
+                if (err == null) {
+                    entry.result.complete(null);
+                } else if (err instanceof CompletionException && err.getCause() != null) {
+                    entry.result.completeExceptionally(err.getCause());
+                } else {
+                    entry.result.completeExceptionally(err);
+                }
+            }
+        );
+        return entry.result;
+    }
+
+    /**
+     * Queued operation.
+     * @since 1.9
+     */
+    private static final class Entry {
+
+        /**
+         * Operation token.
+         */
+        private final Optional<Object> token;
+
+        /**
+         * Operation result.
+         */
+        private final CompletableFuture<Void> result;
+
+        /**
+         * Operation is started, guarded by the queue.
+         */
+        private boolean started;
+
+        /**
+         * Ctor.
+         * @param token Operation token
+         */
+        Entry(final Optional<Object> token) {
+            this.token = token;
+            this.result = new CompletableFuture<>();
+        }
+    }
+}
@@ -0,0 +1,12 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+
+/**
+ * Repository locks: storage lock with renewed lease and fencing token and
+ * in-process queue of operations waiting for the same lock.
+ *
+ * @since 1.9
+ */
+package com.artipie.rpm.lock;
@@ -8,6 +8,8 @@ import com.artipie.rpm.pkg.InvalidPackageException;
 import com.artipie.rpm.pkg.Package;
 import java.io.IOException;
 import java.util.Collection;
+import java.util.stream.Collectors;
+import javax.xml.stream.XMLEventWriter;
 
 /**
  * Merged xml: merge provided packages into existing xml index.
@@ -24,6 +26,68 @@ public interface MergedXml {
      */
     Result merge(Collection<Package.Meta> packages, XmlEvent event) throws IOException;
 
+    /**
+     * Packages to append: the merge needs only their locations and a way
+     * to write them, so that packages can be replayed from pre-rendered
+     * xml instead of keeping them in memory.
+     * @since 1.9
+     */
+    interface Appended {
+
+        /**
+         * Locations of the packages in the order they are written.
+         * @return Locations
+         */
+        Collection<String> locations();
+
+        /**
+         * Writes all the packages.
+         * @param writer Event writer
+         * @throws IOException On error
+         */
+        void write(XMLEventWriter writer) throws IOException;
+
+        /**
+         * Packages appended with xml event.
+         * @since 1.9
+         */
+        final class From implements Appended {
+
+            /**
+             * Packages.
+             */
+            private final Collection<Package.Meta> packages;
+
+            /**
+             * Event to add packages with.
+             */
+            private final XmlEvent event;
+
+            /**
+             * Ctor.
+             * @param packages Packages
+             * @param event Event to add packages with
+             */
+            public From(final Collection<Package.Meta> packages, final XmlEvent event) {
+                this.packages = packages;
+                this.event = event;
+            }
+
+            @Override
+            public Collection<String> locations() {
+                return this.packages.stream().map(Package.Meta::href)
+                    .collect(Collectors.toList());
+            }
+
+            @Override
+            public void write(final XMLEventWriter writer) throws IOException {
+                for (final Package.Meta item : this.packages) {
+                    this.event.add(writer, item);
+                }
+            }
+        }
+    }
+
     /**
      * Merge result.
      * @since 1.5
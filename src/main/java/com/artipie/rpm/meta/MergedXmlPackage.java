@@ -82,6 +82,16 @@ public final class MergedXmlPackage implements MergedXml {
     @Override
     public MergedXml.Result merge(final Collection<Package.Meta> packages,
         final XmlEvent event) throws IOException {
+        return this.merge(new MergedXml.Appended.From(packages, event));
+    }
+
+    /**
+     * Appends provided packages to the index xml.
+     * @param packages Packages to append
+     * @return Merge result
+     * @throws IOException On error
+     */
+    public MergedXml.Result merge(final MergedXml.Appended packages) throws IOException {
         try {
             Optional<XMLEventReader> reader = Optional.empty();
             if (this.input.isPresent()) {
@@ -94,9 +104,7 @@ public final class MergedXmlPackage implements MergedXml {
                 if (reader.isPresent()) {
                     this.process(this.res.checksums(), reader.get(), writer);
                 }
-                for (final Package.Meta item : packages) {
-                    event.add(writer, item);
-                }
+                packages.write(writer);
                 writer.add(events.createSpace("\n"));
                 writer.add(
                     events.createEndElement(new QName(this.type.tag()), Collections.emptyIterator())
@@ -135,7 +143,7 @@ public final class MergedXmlPackage implements MergedXml {
     /**
      * Process lines. Header and root tag opening are written by method
      * {@link MergedXmlPackage#startDocument(XMLEventWriter, String, XmlPackage)} call in
-     * {@link MergedXmlPackage#merge(Collection, XmlEvent)}, that's why
+     * {@link MergedXmlPackage#merge(MergedXml.Appended)}, that's why
      * we skip first two events here.
      * @param ids Not valid ids list
      * @param reader Reader
@@ -4,6 +4,7 @@
  */
 package com.artipie.rpm.meta;
 
+import com.artipie.rpm.jfr.MergeEvent;
 import com.artipie.rpm.pkg.Package;
 import com.fasterxml.aalto.stax.InputFactoryImpl;
 import com.fasterxml.aalto.stax.OutputFactoryImpl;
@@ -13,21 +14,23 @@ import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.stream.Collectors;
 import javax.xml.namespace.QName;
 import javax.xml.stream.XMLEventFactory;
 import javax.xml.stream.XMLEventReader;
 import javax.xml.stream.XMLEventWriter;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.events.XMLEvent;
+import org.apache.commons.io.output.CountingOutputStream;
 
 /**
  * Merged primary xml: appends provided information to primary.xml,
- * excluding duplicated packages by `location` tag.
+ * excluding duplicated packages by `location` tag and packages with
+ * provided checksums.
  * @since 1.5
  * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
  */
@@ -43,14 +46,32 @@ public final class MergedXmlPrimary implements MergedXml {
      */
     private final OutputStream out;
 
+    /**
+     * Checksums of the packages to remove.
+     */
+    private final Set<String> removed;
+
     /**
      * Ctor.
      * @param input Input stream
      * @param out Output stream
+     * @param removed Checksums of the packages to remove, copied to set to be looked up
+     *  for each package record
      */
-    public MergedXmlPrimary(final Optional<InputStream> input, final OutputStream out) {
+    public MergedXmlPrimary(final Optional<InputStream> input, final OutputStream out,
+        final Collection<String> removed) {
         this.input = input;
         this.out = out;
+        this.removed = new HashSet<>(removed);
+    }
+
+    /**
+     * Ctor.
+     * @param input Input stream
+     * @param out Output stream
+     */
+    public MergedXmlPrimary(final Optional<InputStream> input, final OutputStream out) {
+        this(input, out, Collections.emptySet());
     }
 
     /**
@@ -62,10 +83,24 @@ public final class MergedXmlPrimary implements MergedXml {
         this(Optional.of(input), out);
     }
 
-    // @checkstyle ExecutableStatementCountCheck (100 lines)
     @Override
     public Result merge(final Collection<Package.Meta> packages, final XmlEvent event)
         throws IOException {
+        return this.merge(new MergedXml.Appended.From(packages, event));
+    }
+
+    /**
+     * Appends provided packages to the index xml.
+     * @param packages Packages to append
+     * @return Merge result
+     * @throws IOException On error
+     * @checkstyle ExecutableStatementCountCheck (100 lines)
+     */
+    public Result merge(final MergedXml.Appended packages) throws IOException {
+        final Collection<String> locations = packages.locations();
+        final MergeEvent jfr = new MergeEvent();
+        jfr.begin();
+        final CountingOutputStream counting = new CountingOutputStream(this.out);
         final AtomicLong res = new AtomicLong();
         Collection<String> checksums = Collections.emptyList();
         try {
@@ -73,20 +108,17 @@ public final class MergedXmlPrimary implements MergedXml {
             if (this.input.isPresent()) {
                 reader = Optional.of(new InputFactoryImpl().createXMLEventReader(this.input.get()));
             }
-            final XMLEventWriter writer = new OutputFactoryImpl().createXMLEventWriter(this.out);
+            final XMLEventWriter writer = new OutputFactoryImpl().createXMLEventWriter(counting);
             try {
                 final XMLEventFactory events = XMLEventFactory.newFactory();
                 MergedXmlPackage.startDocument(writer, "-1", XmlPackage.PRIMARY);
                 if (reader.isPresent()) {
-                    checksums = MergedXmlPrimary.processPackages(
-                        packages.stream().map(Package.Meta::href).collect(Collectors.toSet()),
-                        reader.get(), writer, res
+                    checksums = this.processPackages(
+                        new HashSet<>(locations), reader.get(), writer, res
                     );
                 }
-                for (final Package.Meta item : packages) {
-                    event.add(writer, item);
-                    res.incrementAndGet();
-                }
+                packages.write(writer);
+                res.addAndGet(locations.size());
                 writer.add(events.createSpace("\n"));
                 writer.add(
                     events.createEndElement(
@@ -102,14 +134,20 @@ public final class MergedXmlPrimary implements MergedXml {
         } catch (final XMLStreamException err) {
             throw new IOException(err);
         }
+        jfr.complete(
+            XmlPackage.PRIMARY.filename(),
+            locations.stream().findFirst().orElse(""),
+            locations.size(), res.get(), counting.getByteCount()
+        );
         return new MergedXml.Result(res.get(), checksums);
     }
 
     /**
      * Processes packages. Header and root tag opening are written by method
      * {@link MergedXmlPackage#startDocument(XMLEventWriter, String, XmlPackage)} call in
-     * {@link MergedXmlPrimary#merge(Collection, XmlEvent)}, that's why
+     * {@link MergedXmlPrimary#merge(MergedXml.Appended)}, that's why
      * we skip first two events here.
+     * Packages with checksums from {@link #removed} are skipped as well.
      * @param locations Locations to skip
      * @param reader Where to read from
      * @param writer Where to write
@@ -120,7 +158,7 @@ public final class MergedXmlPrimary implements MergedXml {
      * @checkstyle CyclomaticComplexityCheck (20 lines)
      */
     @SuppressWarnings({"PMD.AvoidDuplicateLiterals", "PMD.CyclomaticComplexity"})
-    private static Collection<String> processPackages(final Set<String> locations,
+    private Collection<String> processPackages(final Set<String> locations,
         final XMLEventReader reader, final XMLEventWriter writer, final AtomicLong cnt)
         throws XMLStreamException {
         XMLEvent event;
@@ -149,7 +187,7 @@ public final class MergedXmlPrimary implements MergedXml {
             }
             final boolean endpackage = event.isEndElement()
                 && event.asEndElement().getName().getLocalPart().equals("package");
-            if (endpackage && valid) {
+            if (endpackage && valid && !this.removed.contains(checksum)) {
                 cnt.incrementAndGet();
                 for (final XMLEvent item : pckg) {
                     writer.add(item);
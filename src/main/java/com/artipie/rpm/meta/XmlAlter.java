@@ -4,9 +4,11 @@
  */
 package com.artipie.rpm.meta;
 
+import com.artipie.rpm.jfr.AlterEvent;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
@@ -23,6 +25,7 @@ import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.events.Attribute;
 import javax.xml.stream.events.StartElement;
 import javax.xml.stream.events.XMLEvent;
+import org.apache.commons.io.IOUtils;
 
 /**
  * Alter xml file.
@@ -61,6 +64,8 @@ public interface XmlAlter {
 
         @Override
         public void pkgAttr(final String tag, final String value) throws IOException {
+            final AlterEvent event = new AlterEvent();
+            event.begin();
             final Path trf = Files.createTempFile("", ".xml");
             try (
                 InputStream input = Files.newInputStream(this.file);
@@ -68,6 +73,7 @@ public interface XmlAlter {
                 new Stream(input, out).pkgAttr(tag, value);
             }
             Files.move(trf, this.file, StandardCopyOption.REPLACE_EXISTING);
+            event.complete(this.file, tag, value);
         }
 
     }
@@ -165,4 +171,65 @@ public interface XmlAlter {
             return res;
         }
     }
+
+    /**
+     * Implementation of {@link XmlAlter} that alters attribute of the root tag without
+     * xml parsing: it looks for the attribute in the head of the document, replaces its
+     * value and copies the rest of the input to the output as is. It's much cheaper than
+     * {@link Stream} for large documents, but works only with the root tag, which has to
+     * start in the first {@link #HEAD} bytes of the document.
+     * @since 1.9
+     */
+    final class Head implements XmlAlter {
+
+        /**
+         * Max size of the document head.
+         */
+        private static final int HEAD = 8 * 1024;
+
+        /**
+         * Input.
+         */
+        private final InputStream input;
+
+        /**
+         * Output.
+         */
+        private final OutputStream out;
+
+        /**
+         * Ctor.
+         * @param input Input to read data from
+         * @param out Where to write the result
+         */
+        public Head(final InputStream input, final OutputStream out) {
+            this.input = input;
+            this.out = out;
+        }
+
+        @Override
+        public void pkgAttr(final String tag, final String value) throws IOException {
+            final byte[] head = new byte[Head.HEAD];
+            final int len = IOUtils.read(this.input, head);
+            final String text = new String(head, 0, len, StandardCharsets.ISO_8859_1);
+            final int start = text.indexOf(String.format("<%s", tag));
+            final String attr = "packages=";
+            final int pos = text.indexOf(attr, Math.max(start, 0));
+            final int from = pos + attr.length() + 1;
+            int end = -1;
+            if (start >= 0 && pos >= 0 && pos < text.indexOf('>', start) && from < len) {
+                end = text.indexOf(text.charAt(from - 1), from);
+            }
+            if (end < 0) {
+                throw new XmlException(
+                    String.format("Attribute `packages` of tag `%s` was not found", tag)
+                );
+            }
+            this.out.write(head, 0, from);
+            this.out.write(value.getBytes(StandardCharsets.UTF_8));
+            this.out.write(head, end, len - end);
+            IOUtils.copy(this.input, this.out);
+            this.out.flush();
+        }
+    }
 }
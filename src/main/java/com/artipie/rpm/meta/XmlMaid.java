@@ -4,8 +4,7 @@
  */
 package com.artipie.rpm.meta;
 
-import com.fasterxml.aalto.stax.InputFactoryImpl;
-import com.fasterxml.aalto.stax.OutputFactoryImpl;
+import com.artipie.rpm.jfr.CleanEvent;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -13,11 +12,6 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.util.Collection;
-import javax.xml.namespace.QName;
-import javax.xml.stream.XMLEventReader;
-import javax.xml.stream.XMLEventWriter;
-import javax.xml.stream.XMLStreamException;
-import javax.xml.stream.events.XMLEvent;
 
 /**
  * Xml maid.
@@ -59,6 +53,8 @@ public interface XmlMaid {
 
         @Override
         public long clean(final Collection<String> ids) throws IOException {
+            final CleanEvent event = new CleanEvent();
+            event.begin();
             final Path tmp = this.file.getParent().resolve(
                 String.format("%s.part", this.file.getFileName().toString())
             );
@@ -70,13 +66,14 @@ public interface XmlMaid {
                 throw new XmlException(ex);
             }
             Files.move(tmp, this.file, StandardCopyOption.REPLACE_EXISTING);
+            event.complete(this.file, ids.size(), res);
             return res;
         }
 
         /**
          * Implementation of {@link XmlMaid} that accepts streams and cleans xml by pkgid attribute
-         * in package tag. Input/output streams are not closed in this implementation, resources
-         * should be closed from the outside.
+         * in package tag, packages are removed by {@link XmlRemove}. Input/output streams are
+         * not closed in this implementation, resources should be closed from the outside.
          * @since 1.4
          */
         public static final class Stream implements XmlMaid {
@@ -103,60 +100,7 @@ public interface XmlMaid {
 
             @Override
             public long clean(final Collection<String> ids) throws IOException {
-                final long res;
-                try {
-                    final XMLEventReader reader =
-                        new InputFactoryImpl().createXMLEventReader(this.input);
-                    final XMLEventWriter writer =
-                        new OutputFactoryImpl().createXMLEventWriter(this.out);
-                    try {
-                        res = Stream.process(ids, reader, writer);
-                    } finally {
-                        writer.close();
-                        reader.close();
-                    }
-                } catch (final XMLStreamException err) {
-                    throw new IOException(err);
-                }
-                return res;
-            }
-
-            /**
-             * Process lines.
-             * @param ids Not valid ids list
-             * @param reader Reader
-             * @param writer Writes
-             * @return Valid packages count
-             * @throws XMLStreamException When error occurs
-             */
-            private static long process(final Collection<String> ids, final XMLEventReader reader,
-                final XMLEventWriter writer) throws XMLStreamException {
-                boolean valid = true;
-                long cnt = 0;
-                XMLEvent event;
-                while (reader.hasNext()) {
-                    event = reader.nextEvent();
-                    if (event.isStartElement()
-                        && event.asStartElement().getName().getLocalPart().equals(ByPkgidAttr.TAG)
-                    ) {
-                        if (ids.contains(
-                            event.asStartElement().getAttributeByName(new QName("pkgid")).getValue()
-                        )) {
-                            valid = false;
-                        } else {
-                            valid = true;
-                            cnt = cnt + 1;
-                        }
-                    }
-                    if (valid) {
-                        writer.add(event);
-                    }
-                    if (event.isEndElement()
-                        && event.asEndElement().getName().getLocalPart().equals(ByPkgidAttr.TAG)) {
-                        valid = true;
-                    }
-                }
-                return cnt;
+                return new XmlRemove(this.input, this.out, XmlRemove.Layout.PKGID).remove(ids);
             }
         }
 
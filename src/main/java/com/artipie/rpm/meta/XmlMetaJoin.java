@@ -4,30 +4,41 @@
  */
 package com.artipie.rpm.meta;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
 
 /**
- * Joins two meta xml-files.
+ * Joins meta xml-files at byte level: root tags are found by scanning bytes at the
+ * beginning and at the end of the files, root contents are copied with
+ * {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}
+ * without decoding. Files are expected to be written by {@link XmlPackagesFile}:
+ * root tag starts in the first {@link #HEAD} bytes and ends in the last {@link #TAIL}
+ * bytes.
  * @since 0.9
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
  */
 public final class XmlMetaJoin {
 
     /**
-     * Xml header patter.
+     * How many bytes to check for open tag.
      */
-    private static final Pattern HEADER = Pattern.compile("<\\?xml.*?>");
+    private static final int HEAD = 8 * 1024;
 
     /**
-     * How many lines to check for xml header and open tag.
+     * How many bytes to check for close tag.
      */
-    private static final int MAX = 5;
+    private static final int TAIL = 1024;
 
     /**
      * Tag.
@@ -43,81 +54,205 @@ public final class XmlMetaJoin {
     }
 
     /**
-     * Appends data from part to target.
+     * Appends data from part to target: xml header and root tag of the target
+     * are kept as is, root contents of the part are appended to the target root
+     * contents.
      * @param target Target
      * @param part File to append
      * @throws IOException On error
      */
-    @SuppressWarnings({"PMD.PrematureDeclaration", "PMD.GuardLogStatement"})
     public void merge(final Path target, final Path part) throws IOException {
         final Path res = target.getParent().resolve(
             String.format("%s.merged", target.getFileName().toString())
         );
-        try (BufferedWriter out = Files.newBufferedWriter(res)) {
-            this.writeFirstPart(target, out);
-            this.writeSecondPart(part, out);
+        try {
+            this.concat(res, Arrays.asList(target, part), Optional.empty());
         } catch (final IOException err) {
-            Files.delete(res);
+            Files.deleteIfExists(res);
             throw err;
         }
         Files.move(res, target, StandardCopyOption.REPLACE_EXISTING);
     }
 
     /**
-     * Writes the first part.
-     * @param target What to write
-     * @param writer Where to write
+     * Joins parts into target: xml header and root tag of the first part are
+     * written with provided {@code packages} attribute value, then contents of
+     * root tag of all the parts are transferred in order.
+     * @param target Target
+     * @param parts Parts to join
+     * @param count Packages count
      * @throws IOException On error
      */
-    @SuppressWarnings("PMD.AssignmentInOperand")
-    private void writeFirstPart(final Path target, final BufferedWriter writer)
+    public void join(final Path target, final List<Path> parts, final long count)
         throws IOException {
-        try (BufferedReader in = Files.newBufferedReader(target)) {
-            String line;
-            final String close = String.format("</%s>", this.tag);
-            while ((line = in.readLine()) != null) {
-                if (line.contains(close)) {
-                    line = line.replace(close, "");
-                }
-                writer.append(line);
-                writer.newLine();
-            }
-        }
+        this.concat(target, parts, Optional.of(count));
     }
 
     /**
-     * Writes the first part.
-     * @param target What to write
-     * @param writer Where to write
+     * Writes header of the first part and root contents of all the parts to target.
+     * @param target Target
+     * @param parts Parts
+     * @param count Packages count to set in the header, header is copied as is if empty
      * @throws IOException On error
      */
-    @SuppressWarnings("PMD.AssignmentInOperand")
-    private void writeSecondPart(final Path target, final BufferedWriter writer)
+    private void concat(final Path target, final List<Path> parts, final Optional<Long> count)
         throws IOException {
-        try (BufferedReader in = Files.newBufferedReader(target)) {
-            String line;
-            int cnt = 0;
-            boolean found = false;
-            final Pattern pattern = Pattern.compile(String.format("<%s.*?>", this.tag));
-            while ((line = in.readLine()) != null) {
-                if (cnt >= XmlMetaJoin.MAX && !found) {
-                    throw new IOException("Failed to merge xml, header not found in part");
-                }
-                if (cnt < XmlMetaJoin.MAX && !found) {
-                    final Matcher mheader = XmlMetaJoin.HEADER.matcher(line);
-                    if (mheader.find()) {
-                        line = mheader.replaceAll("");
+        if (parts.isEmpty()) {
+            throw new IOException("Failed to join xml, no parts provided");
+        }
+        try (FileChannel out = FileChannel.open(
+            target, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE
+        )) {
+            for (int idx = 0; idx < parts.size(); idx += 1) {
+                try (FileChannel part = FileChannel.open(parts.get(idx), StandardOpenOption.READ)) {
+                    final long[] body = this.body(part);
+                    if (idx == 0) {
+                        XmlMetaJoin.write(out, this.header(part, (int) body[0], count));
                     }
-                    final Matcher matcher = pattern.matcher(line);
-                    if (matcher.find()) {
-                        line = matcher.replaceAll("");
-                        found = true;
+                    long pos = body[0];
+                    while (pos < body[1]) {
+                        pos += part.transferTo(pos, body[1] - pos, out);
                     }
                 }
-                cnt = cnt + 1;
-                writer.append(line);
-                writer.newLine();
             }
+            XmlMetaJoin.write(
+                out, String.format("</%s>\n", this.tag).getBytes(StandardCharsets.UTF_8)
+            );
+        }
+    }
+
+    /**
+     * Xml header and root open tag of the part.
+     * @param part Part channel
+     * @param len Header length
+     * @param count Packages count to set
+     * @return Header bytes
+     * @throws IOException On error
+     */
+    private byte[] header(final FileChannel part, final int len, final Optional<Long> count)
+        throws IOException {
+        final byte[] res;
+        if (count.isPresent()) {
+            final ByteArrayOutputStream head = new ByteArrayOutputStream();
+            new XmlAlter.Head(new ByteArrayInputStream(XmlMetaJoin.open(part, len)), head)
+                .pkgAttr(this.tag, String.valueOf(count.get()));
+            res = head.toByteArray();
+        } else {
+            res = XmlMetaJoin.open(part, len);
+        }
+        return res;
+    }
+
+    /**
+     * Finds root tag contents in the part.
+     * @param part Part channel
+     * @return Start and end positions of root tag contents
+     * @throws IOException On error
+     */
+    private long[] body(final FileChannel part) throws IOException {
+        final long size = part.size();
+        final String head = new String(
+            XmlMetaJoin.read(part, 0, (int) Math.min(size, XmlMetaJoin.HEAD)),
+            StandardCharsets.ISO_8859_1
+        );
+        final int start = head.indexOf('>', this.start(head)) + 1;
+        if (start == 0) {
+            throw new IOException("Failed to join xml, open tag not found in part");
+        }
+        final long[] res;
+        if (head.charAt(start - 2) == '/') {
+            res = new long[] {start, start};
+        } else {
+            final int len = (int) Math.min(size - start, XmlMetaJoin.TAIL);
+            final int close = new String(
+                XmlMetaJoin.read(part, size - len, len), StandardCharsets.ISO_8859_1
+            ).lastIndexOf(String.format("</%s", this.tag));
+            if (close < 0) {
+                throw new IOException("Failed to join xml, close tag not found in part");
+            }
+            res = new long[] {start, size - len + close};
+        }
+        return res;
+    }
+
+    /**
+     * Finds root open tag position, tag name should be followed by whitespace,
+     * {@code >} or {@code /}.
+     * @param head Part head
+     * @return Open tag position
+     * @throws IOException If tag not found
+     */
+    private int start(final String head) throws IOException {
+        final String open = String.format("<%s", this.tag);
+        int res = head.indexOf(open);
+        while (res >= 0 && res + open.length() < head.length()
+            && !XmlMetaJoin.delimiter(head.charAt(res + open.length()))) {
+            res = head.indexOf(open, res + 1);
+        }
+        if (res < 0 || res + open.length() >= head.length()) {
+            throw new IOException("Failed to join xml, open tag not found in part");
+        }
+        return res;
+    }
+
+    /**
+     * Is character a delimiter after tag name.
+     * @param chr Character
+     * @return True if delimiter
+     */
+    private static boolean delimiter(final char chr) {
+        return Character.isWhitespace(chr) || chr == '>' || chr == '/';
+    }
+
+    /**
+     * Reads xml header and root open tag, self-closing root tag is opened.
+     * @param part Part channel
+     * @param len Header length
+     * @return Header bytes
+     * @throws IOException On error
+     */
+    private static byte[] open(final FileChannel part, final int len) throws IOException {
+        final byte[] head = XmlMetaJoin.read(part, 0, len);
+        final byte[] res;
+        if (head[len - 2] == '/') {
+            res = Arrays.copyOf(head, len - 1);
+            res[len - 2] = '>';
+        } else {
+            res = head;
+        }
+        return res;
+    }
+
+    /**
+     * Reads bytes from channel.
+     * @param channel Channel
+     * @param pos Position to read from
+     * @param len Bytes count
+     * @return Bytes
+     * @throws IOException On error
+     */
+    private static byte[] read(final FileChannel channel, final long pos, final int len)
+        throws IOException {
+        final ByteBuffer buf = ByteBuffer.allocate(len);
+        int read = 0;
+        while (buf.hasRemaining() && read >= 0) {
+            read = channel.read(buf, pos + buf.position());
+        }
+        return buf.array();
+    }
+
+    /**
+     * Writes bytes to channel.
+     * @param channel Channel
+     * @param bytes Bytes
+     * @throws IOException On error
+     */
+    private static void write(final FileChannel channel, final byte[] bytes)
+        throws IOException {
+        final ByteBuffer buf = ByteBuffer.wrap(bytes);
+        while (buf.hasRemaining()) {
+            channel.write(buf);
         }
     }
 }
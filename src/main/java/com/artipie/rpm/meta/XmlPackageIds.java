@@ -0,0 +1,132 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.meta;
+
+import com.fasterxml.aalto.stax.InputFactoryImpl;
+import java.io.InputStream;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Reads package records of metadata xml with streaming cursor parser: value of
+ * {@code packages} attribute of the root tag and id (checksum) of each package. For
+ * {@code primary.xml} package checksum type and location are read as well. Records
+ * are not kept in memory, they are passed to {@link Records} as they are read.
+ * @since 1.9
+ */
+public final class XmlPackageIds {
+
+    /**
+     * Package tag name.
+     */
+    private static final String PACKAGE = "package";
+
+    /**
+     * Input.
+     */
+    private final InputStream input;
+
+    /**
+     * Metadata type.
+     */
+    private final XmlPackage type;
+
+    /**
+     * Ctor.
+     * @param input Metadata input
+     * @param type Metadata type
+     */
+    public XmlPackageIds(final InputStream input, final XmlPackage type) {
+        this.input = input;
+        this.type = type;
+    }
+
+    /**
+     * Reads package records.
+     * @param records Records consumer
+     * @return Value of {@code packages} attribute of the root tag, -1 if absent
+     * @checkstyle CyclomaticComplexityCheck (60 lines)
+     */
+    @SuppressWarnings("PMD.CognitiveComplexity")
+    public long read(final Records records) {
+        long res = -1;
+        try {
+            final XMLStreamReader reader = new InputFactoryImpl().createXMLStreamReader(this.input);
+            try {
+                int depth = 0;
+                String id = null;
+                String alg = null;
+                String href = null;
+                while (reader.hasNext()) {
+                    final int event = reader.next();
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        depth += 1;
+                        final String name = reader.getLocalName();
+                        if (depth == 1) {
+                            res = XmlPackageIds.count(reader.getAttributeValue(null, "packages"));
+                        } else if (depth == 2 && XmlPackageIds.PACKAGE.equals(name)) {
+                            id = reader.getAttributeValue(null, "pkgid");
+                        } else if (depth == 3 && this.type == XmlPackage.PRIMARY) {
+                            if ("checksum".equals(name) && id == null) {
+                                alg = reader.getAttributeValue(null, "type");
+                                id = reader.getElementText().trim();
+                                depth -= 1;
+                            } else if ("location".equals(name)) {
+                                href = reader.getAttributeValue(null, "href");
+                            }
+                        }
+                    } else if (event == XMLStreamConstants.END_ELEMENT) {
+                        if (depth == 2 && XmlPackageIds.PACKAGE.equals(reader.getLocalName())) {
+                            records.accept(id, alg, href);
+                            id = null;
+                            alg = null;
+                            href = null;
+                        }
+                        depth -= 1;
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (final XMLStreamException err) {
+            throw new XmlException(String.format("Failed to read %s", this.type.filename()), err);
+        }
+        return res;
+    }
+
+    /**
+     * Parses packages count.
+     * @param value Attribute value
+     * @return Count or -1
+     */
+    private static long count(final String value) {
+        long res = -1;
+        if (value != null) {
+            try {
+                res = Long.parseLong(value.trim());
+            } catch (final NumberFormatException ignored) {
+                res = -1;
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Package records consumer.
+     * @since 1.9
+     */
+    @FunctionalInterface
+    public interface Records {
+
+        /**
+         * Accepts package record.
+         * @param id Package id (checksum), can be null if record has no id
+         * @param alg Checksum type for primary, null otherwise
+         * @param href Package location for primary, null otherwise
+         */
+        void accept(String id, String alg, String href);
+    }
+}
@@ -4,24 +4,14 @@
  */
 package com.artipie.rpm.meta;
 
-import com.fasterxml.aalto.stax.InputFactoryImpl;
-import com.fasterxml.aalto.stax.OutputFactoryImpl;
+import com.artipie.rpm.jfr.CleanEvent;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.List;
-import javax.xml.namespace.QName;
-import javax.xml.stream.XMLEventFactory;
-import javax.xml.stream.XMLEventReader;
-import javax.xml.stream.XMLEventWriter;
-import javax.xml.stream.XMLStreamException;
-import javax.xml.stream.events.XMLEvent;
 
 /**
  * Maid for primary.xml.
@@ -45,6 +35,8 @@ public final class XmlPrimaryMaid implements XmlMaid {
 
     @Override
     public long clean(final Collection<String> checksums) throws IOException {
+        final CleanEvent event = new CleanEvent();
+        event.begin();
         final Path tmp = this.file.getParent().resolve(
             String.format("%s.part", this.file.getFileName().toString())
         );
@@ -56,13 +48,14 @@ public final class XmlPrimaryMaid implements XmlMaid {
             throw new XmlException(ex);
         }
         Files.move(tmp, this.file, StandardCopyOption.REPLACE_EXISTING);
+        event.complete(this.file, checksums.size(), res);
         return res;
     }
 
     /**
-     * Implementation of {@link XmlMaid} to clean primary.xml and work with streams.
-     * Input/output streams are not closed in this implementation, resources
-     * should be closed from the outside.
+     * Implementation of {@link XmlMaid} to clean primary.xml and work with streams,
+     * packages are removed by {@link XmlRemove}. Input/output streams are not closed
+     * in this implementation, resources should be closed from the outside.
      * @since 1.4
      */
     public static final class Stream implements XmlMaid {
@@ -89,79 +82,7 @@ public final class XmlPrimaryMaid implements XmlMaid {
 
         @Override
         public long clean(final Collection<String> ids) throws IOException {
-            final long res;
-            try {
-                final XMLEventReader reader =
-                    new InputFactoryImpl().createXMLEventReader(this.input);
-                final XMLEventWriter writer =
-                    new OutputFactoryImpl().createXMLEventWriter(this.out);
-                try {
-                    final XMLEventFactory events = XMLEventFactory.newFactory();
-                    MergedXmlPackage.startDocument(writer, "-1", XmlPackage.PRIMARY);
-                    res = Stream.processPackages(ids, reader, writer);
-                    writer.add(events.createSpace("\n"));
-                    writer.add(
-                        events.createEndElement(
-                            new QName(XmlPackage.PRIMARY.tag()), Collections.emptyIterator()
-                        )
-                    );
-                } finally {
-                    writer.close();
-                    reader.close();
-                }
-            } catch (final XMLStreamException err) {
-                throw new IOException(err);
-            }
-            return res;
-        }
-
-        /**
-         * Processes packages.
-         * @param checksums Checksums to skip
-         * @param reader Where to read from
-         * @param writer Where to write
-         * @return Valid packages count
-         * @throws XMLStreamException If fails
-         */
-        private static long processPackages(final Collection<String> checksums,
-            final XMLEventReader reader, final XMLEventWriter writer) throws XMLStreamException {
-            XMLEvent event;
-            final List<XMLEvent> pckg = new ArrayList<>(10);
-            boolean valid = true;
-            long cnt = 0;
-            while (reader.hasNext()) {
-                event = reader.nextEvent();
-                if (Stream.isTag(event, "package")) {
-                    pckg.clear();
-                }
-                pckg.add(event);
-                if (Stream.isTag(event, "checksum")
-                ) {
-                    event = reader.nextEvent();
-                    pckg.add(event);
-                    valid = event.isCharacters()
-                        && !checksums.contains(event.asCharacters().getData());
-                }
-                if (event.isEndElement()
-                    && event.asEndElement().getName().getLocalPart().equals("package") && valid) {
-                    cnt = cnt + 1;
-                    for (final XMLEvent item : pckg) {
-                        writer.add(item);
-                    }
-                }
-            }
-            return cnt;
-        }
-
-        /**
-         * Checks event.
-         * @param event Event
-         * @param tag Xml tag
-         * @return True is this event is given xml tag
-         */
-        private static boolean isTag(final XMLEvent event, final String tag) {
-            return event.isStartElement()
-                && event.asStartElement().getName().getLocalPart().equals(tag);
+            return new XmlRemove(this.input, this.out, XmlRemove.Layout.PRIMARY).remove(ids);
         }
     }
 
@@ -0,0 +1,335 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.meta;
+
+import com.fasterxml.aalto.stax.InputFactoryImpl;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Collection;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import org.codehaus.stax2.XMLStreamReader2;
+
+/**
+ * Removes package records from metadata xml. Input is read with Aalto cursor
+ * {@link XMLStreamReader2}, which reports byte offsets of the tokens: bytes read by
+ * the parser are retained until the end of the package record, then the record is
+ * copied to the output as is or dropped. No event objects are created and kept
+ * regions are not re-encoded. Input/output streams are not closed.
+ * @since 1.9
+ */
+final class XmlRemove {
+
+    /**
+     * Package tag name.
+     */
+    private static final String PACKAGE = "package";
+
+    /**
+     * Input.
+     */
+    private final Retaining input;
+
+    /**
+     * Output.
+     */
+    private final OutputStream out;
+
+    /**
+     * Metadata layout.
+     */
+    private final Layout layout;
+
+    /**
+     * Ctor.
+     * @param input Input
+     * @param out Output
+     * @param layout Metadata layout
+     */
+    XmlRemove(final InputStream input, final OutputStream out, final Layout layout) {
+        this.input = new Retaining(input);
+        this.out = out;
+        this.layout = layout;
+    }
+
+    /**
+     * Removes packages by ids.
+     * @param ids Packages ids (checksums)
+     * @return Count of kept packages
+     * @throws IOException On error
+     */
+    long remove(final Collection<String> ids) throws IOException {
+        final long res;
+        try {
+            final XMLStreamReader2 reader =
+                (XMLStreamReader2) new InputFactoryImpl().createXMLStreamReader(this.input);
+            try {
+                res = this.process(ids, reader);
+            } finally {
+                reader.close();
+            }
+        } catch (final XMLStreamException err) {
+            throw new IOException(err);
+        }
+        return res;
+    }
+
+    /**
+     * Reads tokens and copies kept package records.
+     * @param ids Packages ids to remove
+     * @param reader Reader
+     * @return Count of kept packages
+     * @throws XMLStreamException On xml error
+     * @throws IOException On IO error
+     * @checkstyle CyclomaticComplexityCheck (50 lines)
+     */
+    @SuppressWarnings("PMD.CognitiveComplexity")
+    private long process(final Collection<String> ids, final XMLStreamReader2 reader)
+        throws XMLStreamException, IOException {
+        long done = 0;
+        long cnt = 0;
+        int depth = 0;
+        int record = -1;
+        boolean keep = true;
+        boolean found = false;
+        boolean head = true;
+        while (reader.hasNext()) {
+            final int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth += 1;
+                if (record < 0 && XmlRemove.PACKAGE.equals(reader.getLocalName())) {
+                    final long start = reader.getLocationInfo().getStartingByteOffset();
+                    this.flush(done, start, head);
+                    head = false;
+                    done = start;
+                    record = depth;
+                    keep = this.layout.keep(reader, ids);
+                    found = false;
+                } else if (!found && depth == record + 1 && this.layout.identifies(reader)) {
+                    keep = !ids.contains(reader.getElementText().trim());
+                    found = true;
+                    depth -= 1;
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                if (depth == record) {
+                    final long end = reader.getLocationInfo().getEndingByteOffset();
+                    if (keep) {
+                        this.input.copy(done, end, this.out);
+                        cnt += 1;
+                    }
+                    this.input.release(end);
+                    done = end;
+                    record = -1;
+                }
+                depth -= 1;
+            }
+        }
+        this.input.drain();
+        this.flush(done, this.input.total(), head);
+        return cnt;
+    }
+
+    /**
+     * Copies region between package records to output, xml header and root start
+     * tag go through {@link Layout#header(byte[], OutputStream)}.
+     * @param from Region start
+     * @param end Region end
+     * @param head Is it the header region
+     * @throws IOException On error
+     */
+    private void flush(final long from, final long end, final boolean head) throws IOException {
+        if (head) {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            this.input.copy(from, end, bytes);
+            this.layout.header(bytes.toByteArray(), this.out);
+        } else {
+            this.input.copy(from, end, this.out);
+        }
+        this.input.release(end);
+    }
+
+    /**
+     * Layout of metadata xml: how package id is found and how xml header is written.
+     * @since 1.9
+     */
+    enum Layout {
+
+        /**
+         * Package id is {@code pkgid} attribute of {@code package} tag, header is kept
+         * as is: {@code other.xml} and {@code filelists.xml}.
+         */
+        PKGID {
+            @Override
+            boolean keep(final XMLStreamReader2 reader, final Collection<String> ids) {
+                return !ids.contains(reader.getAttributeValue(null, "pkgid"));
+            }
+
+            @Override
+            boolean identifies(final XMLStreamReader2 reader) {
+                return false;
+            }
+
+            @Override
+            void header(final byte[] bytes, final OutputStream out) throws IOException {
+                out.write(bytes);
+            }
+        },
+
+        /**
+         * Package id is the text of {@code checksum} tag of the package, packages count
+         * in the header is reset to {@code -1}: {@code primary.xml}.
+         */
+        PRIMARY {
+            @Override
+            boolean keep(final XMLStreamReader2 reader, final Collection<String> ids) {
+                return true;
+            }
+
+            @Override
+            boolean identifies(final XMLStreamReader2 reader) {
+                return "checksum".equals(reader.getLocalName());
+            }
+
+            @Override
+            void header(final byte[] bytes, final OutputStream out) throws IOException {
+                new XmlAlter.Head(new ByteArrayInputStream(bytes), out)
+                    .pkgAttr(XmlPackage.PRIMARY.tag(), "-1");
+            }
+        };
+
+        /**
+         * Should package be kept, called on package start tag.
+         * @param reader Reader positioned at package start tag
+         * @param ids Packages ids to remove
+         * @return True to keep
+         */
+        abstract boolean keep(XMLStreamReader2 reader, Collection<String> ids);
+
+        /**
+         * Is package child tag the package id.
+         * @param reader Reader positioned at child start tag
+         * @return True if tag text is package id
+         */
+        abstract boolean identifies(XMLStreamReader2 reader);
+
+        /**
+         * Writes xml header and root start tag.
+         * @param bytes Header bytes
+         * @param out Output
+         * @throws IOException On error
+         */
+        abstract void header(byte[] bytes, OutputStream out) throws IOException;
+    }
+
+    /**
+     * Input stream retaining read bytes until they are released.
+     * @since 1.9
+     */
+    private static final class Retaining extends InputStream {
+
+        /**
+         * Origin.
+         */
+        private final InputStream origin;
+
+        /**
+         * Retained bytes.
+         */
+        private byte[] buf;
+
+        /**
+         * Retained bytes count.
+         */
+        private int len;
+
+        /**
+         * Offset of the first retained byte.
+         */
+        private long base;
+
+        /**
+         * Ctor.
+         * @param origin Origin
+         */
+        Retaining(final InputStream origin) {
+            super();
+            this.origin = origin;
+            this.buf = new byte[64 * 1024];
+        }
+
+        @Override
+        public int read() throws IOException {
+            final byte[] one = new byte[1];
+            final int res;
+            if (this.read(one, 0, 1) < 0) {
+                res = -1;
+            } else {
+                res = one[0] & 0xff;
+            }
+            return res;
+        }
+
+        @Override
+        public int read(final byte[] bytes, final int off, final int length) throws IOException {
+            final int res = this.origin.read(bytes, off, length);
+            if (res > 0) {
+                if (this.len + res > this.buf.length) {
+                    this.buf = Arrays.copyOf(
+                        this.buf, Math.max(this.buf.length * 2, this.len + res)
+                    );
+                }
+                System.arraycopy(bytes, off, this.buf, this.len, res);
+                this.len += res;
+            }
+            return res;
+        }
+
+        /**
+         * Copies retained bytes to output.
+         * @param from Start offset
+         * @param end End offset
+         * @param out Output
+         * @throws IOException On error
+         */
+        void copy(final long from, final long end, final OutputStream out) throws IOException {
+            out.write(this.buf, (int) (from - this.base), (int) (end - from));
+        }
+
+        /**
+         * Releases retained bytes before offset.
+         * @param offset Offset
+         */
+        void release(final long offset) {
+            final int shift = (int) (offset - this.base);
+            System.arraycopy(this.buf, shift, this.buf, 0, this.len - shift);
+            this.len -= shift;
+            this.base = offset;
+        }
+
+        /**
+         * Reads the rest of the origin.
+         * @throws IOException On error
+         */
+        void drain() throws IOException {
+            final byte[] bytes = new byte[1024];
+            int read;
+            do {
+                read = this.read(bytes, 0, bytes.length);
+            } while (read >= 0);
+        }
+
+        /**
+         * Total count of read bytes.
+         * @return Bytes count
+         */
+        long total() {
+            return this.base + this.len;
+        }
+    }
+}
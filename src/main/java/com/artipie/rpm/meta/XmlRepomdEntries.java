@@ -0,0 +1,239 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.meta;
+
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Reads {@code data} entries of {@code repomd.xml} with streaming parser: data type,
+ * location, checksums and sizes of compressed and open file and timestamp. Entries
+ * are small, so reading repomd is cheap and it should be used to find metadata
+ * files instead of guessing file names.
+ * @since 1.9
+ */
+public final class XmlRepomdEntries {
+
+    /**
+     * Repomd input.
+     */
+    private final InputStream input;
+
+    /**
+     * Ctor.
+     * @param input Repomd input
+     */
+    public XmlRepomdEntries(final InputStream input) {
+        this.input = input;
+    }
+
+    /**
+     * Reads entries.
+     * @return Entries by data type
+     */
+    public Map<String, Entry> read() {
+        final Map<String, Entry> res = new HashMap<>();
+        try {
+            final XMLInputFactory factory = XMLInputFactory.newInstance();
+            factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+            final XMLStreamReader reader = factory.createXMLStreamReader(this.input);
+            try {
+                Entry entry = null;
+                while (reader.hasNext()) {
+                    final int event = reader.next();
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        final String name = reader.getLocalName();
+                        if ("data".equals(name)) {
+                            entry = new Entry(reader.getAttributeValue(null, "type"));
+                        } else if (entry != null) {
+                            entry.read(name, reader);
+                        }
+                    } else if (event == XMLStreamConstants.END_ELEMENT
+                        && "data".equals(reader.getLocalName()) && entry != null) {
+                        res.put(entry.type(), entry);
+                        entry = null;
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (final XMLStreamException ex) {
+            throw new XmlException("Invalid repomd file", ex);
+        }
+        return res;
+    }
+
+    /**
+     * Repomd {@code data} entry.
+     * @since 1.9
+     */
+    public static final class Entry {
+
+        /**
+         * Data type.
+         */
+        private final String dtype;
+
+        /**
+         * Location href.
+         */
+        private String href;
+
+        /**
+         * Checksum of the compressed file.
+         */
+        private String checksum;
+
+        /**
+         * Checksum type of the compressed file.
+         */
+        private String alg;
+
+        /**
+         * Checksum of the uncompressed file.
+         */
+        private String open;
+
+        /**
+         * Checksum type of the uncompressed file.
+         */
+        private String openalg;
+
+        /**
+         * Size of the compressed file.
+         */
+        private Long size;
+
+        /**
+         * Size of the uncompressed file.
+         */
+        private Long opensize;
+
+        /**
+         * Timestamp in seconds unix time.
+         */
+        private Long timestamp;
+
+        /**
+         * Ctor.
+         * @param dtype Data type
+         */
+        private Entry(final String dtype) {
+            this.dtype = dtype;
+        }
+
+        /**
+         * Data type, e.g. {@code primary}.
+         * @return Type
+         */
+        public String type() {
+            return this.dtype;
+        }
+
+        /**
+         * Location href relative to repository root.
+         * @return Href if present
+         */
+        public Optional<String> location() {
+            return Optional.ofNullable(this.href);
+        }
+
+        /**
+         * Checksum of the compressed file.
+         * @return Checksum hex if present
+         */
+        public Optional<String> checksum() {
+            return Optional.ofNullable(this.checksum);
+        }
+
+        /**
+         * Checksum of the uncompressed file.
+         * @return Checksum hex if present
+         */
+        public Optional<String> openChecksum() {
+            return Optional.ofNullable(this.open);
+        }
+
+        /**
+         * Checksum type of the compressed file, e.g. {@code sha256}.
+         * @return Type if present
+         */
+        public Optional<String> checksumType() {
+            return Optional.ofNullable(this.alg);
+        }
+
+        /**
+         * Checksum type of the uncompressed file, e.g. {@code sha256}.
+         * @return Type if present
+         */
+        public Optional<String> openChecksumType() {
+            return Optional.ofNullable(this.openalg);
+        }
+
+        /**
+         * Size of the compressed file.
+         * @return Size in bytes if present
+         */
+        public Optional<Long> size() {
+            return Optional.ofNullable(this.size);
+        }
+
+        /**
+         * Size of the uncompressed file.
+         * @return Size in bytes if present
+         */
+        public Optional<Long> openSize() {
+            return Optional.ofNullable(this.opensize);
+        }
+
+        /**
+         * Timestamp of the file.
+         * @return Timestamp in seconds unix time if present
+         */
+        public Optional<Long> timestamp() {
+            return Optional.ofNullable(this.timestamp);
+        }
+
+        /**
+         * Reads entry element.
+         * @param name Element name
+         * @param reader Reader positioned at element start
+         * @throws XMLStreamException On error
+         */
+        private void read(final String name, final XMLStreamReader reader)
+            throws XMLStreamException {
+            switch (name) {
+                case "location":
+                    this.href = reader.getAttributeValue(null, "href");
+                    break;
+                case "checksum":
+                    this.alg = reader.getAttributeValue(null, "type");
+                    this.checksum = reader.getElementText().trim();
+                    break;
+                case "open-checksum":
+                    this.openalg = reader.getAttributeValue(null, "type");
+                    this.open = reader.getElementText().trim();
+                    break;
+                case "size":
+                    this.size = Long.valueOf(reader.getElementText().trim());
+                    break;
+                case "open-size":
+                    this.opensize = Long.valueOf(reader.getElementText().trim());
+                    break;
+                case "timestamp":
+                    this.timestamp = Long.valueOf(reader.getElementText().trim());
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+}
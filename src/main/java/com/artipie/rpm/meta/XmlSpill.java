@@ -0,0 +1,242 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.meta;
+
+import com.artipie.rpm.pkg.Package;
+import com.fasterxml.aalto.stax.InputFactoryImpl;
+import com.fasterxml.aalto.stax.OutputFactoryImpl;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.XMLEvent;
+
+/**
+ * Packages spilled to disk: each package from the iterator is rendered once into
+ * temp xml document of each metadata type, in memory only package locations are
+ * kept. {@link #appended(XmlPackage)} replays rendered packages in the same order,
+ * so that they can be merged by {@link MergedXmlPrimary#merge(MergedXml.Appended)}
+ * and {@link MergedXmlPackage#merge(MergedXml.Appended)} instead of the packages
+ * themselves and large batches are appended with bounded heap. Spilled packages
+ * should be replayed once for each type.
+ * @since 1.9
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+public final class XmlSpill implements Closeable {
+
+    /**
+     * Temp directory.
+     */
+    private final Path dir;
+
+    /**
+     * Events to render packages with by metadata types.
+     */
+    private final Map<XmlPackage, XmlEvent> events;
+
+    /**
+     * Locations of spilled packages.
+     */
+    private final List<String> locations;
+
+    /**
+     * Opened replay readers.
+     */
+    private final List<XMLEventReader> readers;
+
+    /**
+     * Opened replay inputs.
+     */
+    private final List<InputStream> inputs;
+
+    /**
+     * Ctor.
+     * @param dir Temp directory
+     * @param types Metadata types to spill
+     * @param events Events to render packages with
+     */
+    public XmlSpill(final Path dir, final Collection<XmlPackage> types,
+        final Function<XmlPackage, XmlEvent> events) {
+        this.dir = dir;
+        this.events = new EnumMap<>(XmlPackage.class);
+        for (final XmlPackage type : types) {
+            this.events.put(type, events.apply(type));
+        }
+        this.locations = new ArrayList<>(0);
+        this.readers = new ArrayList<>(this.events.size());
+        this.inputs = new ArrayList<>(this.events.size());
+    }
+
+    /**
+     * Renders packages to spill documents.
+     * @param packages Packages
+     * @throws IOException On error
+     */
+    public void write(final Iterator<? extends Package.Meta> packages) throws IOException {
+        final Map<XmlPackage, XMLEventWriter> writers = new EnumMap<>(XmlPackage.class);
+        final List<OutputStream> outs = new ArrayList<>(this.events.size());
+        try {
+            for (final XmlPackage type : this.events.keySet()) {
+                final OutputStream out = new BufferedOutputStream(
+                    Files.newOutputStream(this.file(type))
+                );
+                outs.add(out);
+                final XMLEventWriter writer = new OutputFactoryImpl().createXMLEventWriter(out);
+                MergedXmlPackage.startDocument(writer, "0", type);
+                writers.put(type, writer);
+            }
+            while (packages.hasNext()) {
+                final Package.Meta item = packages.next();
+                for (final Map.Entry<XmlPackage, XMLEventWriter> entry : writers.entrySet()) {
+                    this.events.get(entry.getKey()).add(entry.getValue(), item);
+                }
+                this.locations.add(item.href());
+            }
+            final XMLEventFactory factory = XMLEventFactory.newFactory();
+            for (final Map.Entry<XmlPackage, XMLEventWriter> entry : writers.entrySet()) {
+                entry.getValue().add(factory.createEndElement("", "", entry.getKey().tag()));
+                entry.getValue().add(factory.createEndDocument());
+                entry.getValue().close();
+            }
+        } catch (final XMLStreamException err) {
+            throw new IOException(err);
+        } finally {
+            for (final OutputStream out : outs) {
+                out.close();
+            }
+        }
+    }
+
+    /**
+     * Spilled packages of the type to merge.
+     * @param type Metadata type
+     * @return Packages which replay spilled document of the type once
+     * @throws IOException On error
+     */
+    public MergedXml.Appended appended(final XmlPackage type) throws IOException {
+        final InputStream input = new BufferedInputStream(Files.newInputStream(this.file(type)));
+        this.inputs.add(input);
+        try {
+            final XMLEventReader reader = new InputFactoryImpl().createXMLEventReader(input);
+            this.readers.add(reader);
+            reader.nextEvent();
+            reader.nextEvent();
+            return new Replay(Collections.unmodifiableList(this.locations), reader);
+        } catch (final XMLStreamException err) {
+            throw new IOException(err);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            for (final XMLEventReader reader : this.readers) {
+                reader.close();
+            }
+            for (final InputStream input : this.inputs) {
+                input.close();
+            }
+        } catch (final XMLStreamException err) {
+            throw new IOException(err);
+        } finally {
+            for (final XmlPackage type : this.events.keySet()) {
+                Files.deleteIfExists(this.file(type));
+            }
+        }
+    }
+
+    /**
+     * Spill document of the type.
+     * @param type Metadata type
+     * @return File path
+     */
+    private Path file(final XmlPackage type) {
+        return this.dir.resolve(String.format("%s.spill.xml", type.filename()));
+    }
+
+    /**
+     * Copies next {@code package} element from reader to writer.
+     * @param reader Spill document reader
+     * @param writer Metadata writer
+     * @throws IOException On error
+     */
+    private static void replay(final XMLEventReader reader, final XMLEventWriter writer)
+        throws IOException {
+        try {
+            int depth = 0;
+            while (reader.hasNext()) {
+                final XMLEvent event = reader.nextEvent();
+                if (event.isStartElement()) {
+                    depth += 1;
+                } else if (event.isEndElement()) {
+                    depth -= 1;
+                }
+                if (depth > 0 || event.isEndElement()) {
+                    writer.add(event);
+                }
+                if (depth == 0 && event.isEndElement()) {
+                    break;
+                }
+            }
+        } catch (final XMLStreamException err) {
+            throw new IOException(err);
+        }
+    }
+
+    /**
+     * Spilled packages of one type, replayed from the spill document.
+     * @since 1.9
+     */
+    private static final class Replay implements MergedXml.Appended {
+
+        /**
+         * Locations of spilled packages.
+         */
+        private final List<String> locations;
+
+        /**
+         * Spill document reader.
+         */
+        private final XMLEventReader reader;
+
+        /**
+         * Ctor.
+         * @param locations Locations of spilled packages
+         * @param reader Spill document reader
+         */
+        Replay(final List<String> locations, final XMLEventReader reader) {
+            this.locations = locations;
+            this.reader = reader;
+        }
+
+        @Override
+        public Collection<String> locations() {
+            return this.locations;
+        }
+
+        @Override
+        public void write(final XMLEventWriter writer) throws IOException {
+            for (int idx = 0; idx < this.locations.size(); idx += 1) {
+                XmlSpill.replay(this.reader, writer);
+            }
+        }
+    }
+}
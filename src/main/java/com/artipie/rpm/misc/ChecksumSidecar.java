@@ -0,0 +1,170 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.misc;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.rpm.Digest;
+import com.artipie.rpm.pkg.Checksum;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Verified SHA-256 checksum of the package stored next to it in
+ * {@code <package>.sha256} file together with the package size. Sidecar is
+ * written on upload when package checksum was verified and is used on metadata
+ * update instead of reading the whole package again, if the size of the package
+ * still matches the one recorded in sidecar.
+ * @since 1.9
+ */
+public final class ChecksumSidecar {
+
+    /**
+     * Sidecar file extension.
+     */
+    private static final String EXT = ".sha256";
+
+    /**
+     * Storage.
+     */
+    private final Storage asto;
+
+    /**
+     * Package key.
+     */
+    private final Key pkg;
+
+    /**
+     * Ctor.
+     * @param asto Storage
+     * @param pkg Package key
+     */
+    public ChecksumSidecar(final Storage asto, final Key pkg) {
+        this.asto = asto;
+        this.pkg = pkg;
+    }
+
+    /**
+     * Sidecar key.
+     * @return Key
+     */
+    public Key key() {
+        return new Key.From(String.format("%s%s", this.pkg.string(), ChecksumSidecar.EXT));
+    }
+
+    /**
+     * Saves checksum hex.
+     * @param hex Checksum hex
+     * @param size Package size
+     * @return Completion
+     */
+    public CompletableFuture<Void> save(final String hex, final long size) {
+        return this.asto.save(
+            this.key(),
+            new Content.From(
+                String.format("%s %d", hex.toLowerCase(Locale.US), size)
+                    .getBytes(StandardCharsets.US_ASCII)
+            )
+        );
+    }
+
+    /**
+     * Reads checksum if it was recorded for the package of given size.
+     * @param size Actual package size
+     * @return Checksum, empty if sidecar is malformed or package size does not match
+     */
+    public CompletionStage<Optional<Checksum>> read(final long size) {
+        return this.asto.value(this.key()).thenCompose(
+            content -> new PublisherAs(content).asciiString()
+        ).thenApply(
+            text -> {
+                final String[] parts = text.trim().split(" ");
+                final Optional<Checksum> res;
+                if (parts.length == 2 && parts[1].equals(Long.toString(size))) {
+                    res = Optional.of(new Checksum.Simple(Digest.SHA256, parts[0]));
+                } else {
+                    res = Optional.empty();
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Removes sidecar if it exists, should be called when package is replaced
+     * without checksum verification.
+     * @return Completion
+     */
+    public CompletionStage<Void> remove() {
+        return this.asto.exists(this.key()).thenCompose(
+            exists -> {
+                final CompletableFuture<Void> res;
+                if (exists) {
+                    res = this.asto.delete(this.key());
+                } else {
+                    res = CompletableFuture.allOf();
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Sidecars without packages.
+     * @since 1.9
+     */
+    public static final class Orphans {
+
+        /**
+         * Storage.
+         */
+        private final Storage asto;
+
+        /**
+         * Listed storage keys.
+         */
+        private final Collection<Key> keys;
+
+        /**
+         * Ctor.
+         * @param asto Storage
+         * @param keys Listed storage keys
+         */
+        public Orphans(final Storage asto, final Collection<Key> keys) {
+            this.asto = asto;
+            this.keys = keys;
+        }
+
+        /**
+         * Removes sidecars of the rpm packages which are not found among the keys.
+         * @return Completion
+         */
+        public CompletionStage<Void> remove() {
+            return CompletableFuture.allOf(
+                this.keys.stream()
+                    .filter(
+                        key -> key.string().endsWith(String.format(".rpm%s", ChecksumSidecar.EXT))
+                    )
+                    .filter(
+                        key -> !this.keys.contains(
+                            new Key.From(
+                                key.string().substring(
+                                    0, key.string().length() - ChecksumSidecar.EXT.length()
+                                )
+                            )
+                        )
+                    )
+                    .map(this.asto::delete)
+                    .toArray(CompletableFuture[]::new)
+            );
+        }
+    }
+}
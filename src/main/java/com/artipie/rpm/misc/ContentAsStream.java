@@ -0,0 +1,57 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.misc;
+
+import com.artipie.asto.Remaining;
+import com.google.common.collect.Iterators;
+import io.reactivex.Flowable;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import org.reactivestreams.Publisher;
+
+/**
+ * Blocking {@link InputStream} of the publisher: chunks are requested from the
+ * publisher as the stream is read, at most {@link #PREFETCH} chunks ahead. Stream
+ * should be read on the thread which can be blocked.
+ * @since 1.9
+ */
+public final class ContentAsStream {
+
+    /**
+     * Chunks to request ahead.
+     */
+    private static final int PREFETCH = 16;
+
+    /**
+     * Content.
+     */
+    private final Publisher<ByteBuffer> content;
+
+    /**
+     * Ctor.
+     * @param content Content
+     */
+    public ContentAsStream(final Publisher<ByteBuffer> content) {
+        this.content = content;
+    }
+
+    /**
+     * Input stream of the content.
+     * @return Input stream
+     */
+    public InputStream stream() {
+        return new SequenceInputStream(
+            Iterators.asEnumeration(
+                Iterators.transform(
+                    Flowable.fromPublisher(this.content)
+                        .blockingIterable(ContentAsStream.PREFETCH).iterator(),
+                    chunk -> new ByteArrayInputStream(new Remaining(chunk).bytes())
+                )
+            )
+        );
+    }
+}
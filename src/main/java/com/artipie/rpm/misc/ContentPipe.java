@@ -0,0 +1,175 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.misc;
+
+import com.artipie.asto.Content;
+import io.reactivex.Flowable;
+import io.reactivex.schedulers.Schedulers;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Pipe from blocking {@link OutputStream} to {@link Content}: bytes written to
+ * {@link #output()} are published by {@link #content()} with backpressure, writer
+ * blocks when the bounded buffer of chunks is full until the subscriber requests more.
+ * Subscriber never blocks the thread it's called on, chunks are awaited on
+ * {@link Schedulers#io()}. Output should be closed when all bytes are written or
+ * {@link #fail(Throwable)} should be called on error. Pipe content can be consumed
+ * only once.
+ * @since 1.9
+ */
+public final class ContentPipe {
+
+    /**
+     * Default buffer capacity in chunks.
+     */
+    private static final int CAPACITY = 16;
+
+    /**
+     * Chunks, empty chunk marks the end of content.
+     */
+    private final BlockingQueue<ByteBuffer> chunks;
+
+    /**
+     * Writer error.
+     */
+    private final AtomicReference<Throwable> error;
+
+    /**
+     * Was content subscription cancelled?
+     */
+    private final AtomicBoolean cancelled;
+
+    /**
+     * Ctor.
+     */
+    public ContentPipe() {
+        this(ContentPipe.CAPACITY);
+    }
+
+    /**
+     * Ctor.
+     * @param capacity Buffer capacity in chunks
+     */
+    public ContentPipe(final int capacity) {
+        this.chunks = new ArrayBlockingQueue<>(capacity);
+        this.error = new AtomicReference<>();
+        this.cancelled = new AtomicBoolean();
+    }
+
+    /**
+     * Output to write bytes to.
+     * @return Output stream
+     */
+    public OutputStream output() {
+        return new Output();
+    }
+
+    /**
+     * Content of written bytes.
+     * @return Content
+     */
+    public Content content() {
+        return new Content.From(
+            Flowable.<ByteBuffer>generate(
+                emitter -> {
+                    final ByteBuffer chunk = this.chunks.take();
+                    if (chunk.hasRemaining()) {
+                        emitter.onNext(chunk);
+                    } else if (this.error.get() == null) {
+                        emitter.onComplete();
+                    } else {
+                        emitter.onError(this.error.get());
+                    }
+                }
+            ).subscribeOn(Schedulers.io()).doOnCancel(this::cancel)
+        );
+    }
+
+    /**
+     * Fails the content with writer error.
+     * @param err Error
+     */
+    public void fail(final Throwable err) {
+        this.error.set(err);
+        this.chunks.clear();
+        this.chunks.offer(ByteBuffer.allocate(0));
+    }
+
+    /**
+     * Cancels the pipe: pending chunks are dropped and following writes fail.
+     */
+    public void cancel() {
+        this.cancelled.set(true);
+        this.chunks.clear();
+    }
+
+    /**
+     * Puts chunk to the buffer waiting for a free space.
+     * @param chunk Chunk
+     * @throws IOException If content subscription was cancelled
+     */
+    private void put(final ByteBuffer chunk) throws IOException {
+        try {
+            while (!this.chunks.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+                if (this.cancelled.get()) {
+                    throw new IOException("Content subscription was cancelled");
+                }
+            }
+        } catch (final InterruptedException err) {
+            Thread.currentThread().interrupt();
+            throw new IOException(err);
+        }
+    }
+
+    /**
+     * Pipe output.
+     * @since 1.9
+     */
+    private final class Output extends OutputStream {
+
+        /**
+         * Is output closed?
+         */
+        private final AtomicBoolean closed;
+
+        /**
+         * Ctor.
+         */
+        Output() {
+            super();
+            this.closed = new AtomicBoolean();
+        }
+
+        @Override
+        public void write(final int bte) throws IOException {
+            this.write(new byte[] {(byte) bte}, 0, 1);
+        }
+
+        @Override
+        public void write(final byte[] bytes, final int off, final int len) throws IOException {
+            if (this.closed.get()) {
+                throw new IOException("Output is closed");
+            }
+            if (len > 0) {
+                ContentPipe.this.put(ByteBuffer.wrap(Arrays.copyOfRange(bytes, off, off + len)));
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (this.closed.compareAndSet(false, true)) {
+                ContentPipe.this.put(ByteBuffer.allocate(0));
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.misc;
+
+import com.artipie.asto.Key;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Storage key of the location relative to repository prefix, e.g. of metadata
+ * file {@code location} from {@code repomd.xml}. Location is not trusted: absolute
+ * locations and locations with {@code ..} segments could point outside of the
+ * repository, so they are rejected.
+ * @since 1.9
+ */
+public final class LocationKey {
+
+    /**
+     * Repository prefix.
+     */
+    private final Key prefix;
+
+    /**
+     * Location.
+     */
+    private final String href;
+
+    /**
+     * Ctor.
+     * @param prefix Repository prefix
+     * @param href Location relative to repository prefix
+     */
+    public LocationKey(final Key prefix, final String href) {
+        this.prefix = prefix;
+        this.href = href;
+    }
+
+    /**
+     * Key of the location.
+     * @return Key if location is inside of the repository, empty otherwise
+     */
+    public Optional<Key> key() {
+        final List<String> parts = Stream.of(this.href.split("/"))
+            .filter(part -> !part.isEmpty() && !".".equals(part))
+            .collect(Collectors.toList());
+        final Optional<Key> res;
+        if (this.href.startsWith("/") || this.href.contains("\\")
+            || parts.isEmpty() || parts.contains("..")) {
+            res = Optional.empty();
+        } else {
+            res = Optional.of(new Key.From(this.prefix, parts.toArray(new String[0])));
+        }
+        return res;
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.pkg;
+
+import com.artipie.rpm.Digest;
+import com.artipie.rpm.meta.XmlMetaJoin;
+import com.artipie.rpm.meta.XmlPackage;
+import com.artipie.rpm.meta.XmlRepomd;
+import com.artipie.rpm.misc.UncheckedFunc;
+import com.jcabi.log.Logger;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Metadata file written in chunks. Packages are distributed between part outputs
+ * by location with {@link #part(String, int)}, each part is written by one thread
+ * at a time, but different parts are written in parallel, so that metadata of many
+ * packages is generated by several threads and {@link #accept(Package.Meta)} can be
+ * called concurrently. Packages of a part are written in order of arrival, so the
+ * file is the same for the same packages if packages of each part always arrive in
+ * the same order.
+ * Parts are started lazily when the first package is sent to them, so there are
+ * never more parts than packages, one empty part is started on close if there were
+ * no packages. On close parts are concatenated in order at byte level with
+ * {@link XmlMetaJoin#join(Path, List, long)} into the file of the first started part,
+ * packages count is set once by the join, so {@link #brush(List)} does nothing.
+ * @since 1.9
+ */
+public final class ChunkedMetadata implements Metadata {
+
+    /**
+     * Metadata type.
+     */
+    private final XmlPackage type;
+
+    /**
+     * Part outputs, null until started.
+     */
+    private final PackageOutput.FileOutput[] parts;
+
+    /**
+     * Starts part output by part index.
+     */
+    private final UncheckedFunc.Checked<Integer, PackageOutput.FileOutput, IOException> start;
+
+    /**
+     * Packages count.
+     */
+    private final AtomicLong cnt;
+
+    /**
+     * Ctor.
+     * @param type Metadata type
+     * @param chunks Max parts count, at least one
+     * @param start Starts part output by part index
+     */
+    public ChunkedMetadata(final XmlPackage type, final int chunks,
+        final UncheckedFunc.Checked<Integer, PackageOutput.FileOutput, IOException> start) {
+        this.type = type;
+        this.parts = new PackageOutput.FileOutput[chunks];
+        this.start = start;
+        this.cnt = new AtomicLong();
+    }
+
+    @Override
+    public void accept(final Package.Meta meta) throws IOException {
+        final PackageOutput.FileOutput part = this.part(
+            ChunkedMetadata.part(meta.href(), this.parts.length)
+        );
+        this.cnt.incrementAndGet();
+        synchronized (part) {
+            part.accept(meta);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.started().isEmpty()) {
+            this.part(0);
+        }
+        final List<PackageOutput.FileOutput> started = this.started();
+        for (final PackageOutput.FileOutput part : started) {
+            part.close();
+        }
+        final List<Path> files = started.stream().map(PackageOutput.FileOutput::file)
+            .collect(Collectors.toList());
+        final Path first = files.get(0);
+        final Path joined = first.resolveSibling(String.format("%s.join", first.getFileName()));
+        new XmlMetaJoin(this.output().tag()).join(joined, files, this.cnt.get());
+        Files.move(joined, first, StandardCopyOption.REPLACE_EXISTING);
+        for (final Path file : files.subList(1, files.size())) {
+            Files.delete(file);
+        }
+        Logger.info(this, "%d parts of %s joined", files.size(), this.output().file());
+    }
+
+    @Override
+    public void brush(final List<String> ids) {
+        // packages count was set by join
+    }
+
+    @Override
+    public Path save(final Repodata repodata, final Digest digest, final XmlRepomd repomd)
+        throws IOException {
+        return new MetadataFile(this.type, this.output()).save(repodata, digest, repomd);
+    }
+
+    @Override
+    public PackageOutput.FileOutput output() {
+        return this.started().get(0);
+    }
+
+    /**
+     * Index of the part for package location.
+     * @param href Package location
+     * @param chunks Max parts count
+     * @return Part index
+     */
+    public static int part(final String href, final int chunks) {
+        return Math.floorMod(href.hashCode(), chunks);
+    }
+
+    /**
+     * Part output by index, starts it if it's not started yet.
+     * @param idx Part index
+     * @return Started part output
+     * @throws IOException On error
+     */
+    private synchronized PackageOutput.FileOutput part(final int idx) throws IOException {
+        if (this.parts[idx] == null) {
+            this.parts[idx] = this.start.apply(idx);
+        }
+        return this.parts[idx];
+    }
+
+    /**
+     * Started parts in order.
+     * @return Part outputs
+     */
+    private synchronized List<PackageOutput.FileOutput> started() {
+        return Arrays.stream(this.parts).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+}
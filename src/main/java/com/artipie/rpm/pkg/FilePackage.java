@@ -33,14 +33,49 @@ public final class FilePackage implements Package {
      */
     private final String location;
 
+    /**
+     * Known checksum of the file.
+     */
+    private final Optional<Checksum> known;
+
+    /**
+     * Already read header of the file.
+     */
+    private final Optional<Header> hdr;
+
     /**
      * Ctor.
      * @param path The path
      * @param location File relative location
      */
     public FilePackage(final Path path, final String location) {
+        this(path, location, Optional.empty(), Optional.empty());
+    }
+
+    /**
+     * Ctor.
+     * @param path The path
+     * @param location File relative location
+     * @param known Already known and verified checksum of the file
+     */
+    public FilePackage(final Path path, final String location, final Checksum known) {
+        this(path, location, Optional.of(known), Optional.empty());
+    }
+
+    /**
+     * Primary ctor.
+     * @param path The path
+     * @param location File relative location
+     * @param known Already known and verified checksum of the file
+     * @param hdr Already read header of the file
+     * @checkstyle ParameterNumberCheck (3 lines)
+     */
+    private FilePackage(final Path path, final String location,
+        final Optional<Checksum> known, final Optional<Header> hdr) {
         this.file = path;
         this.location = location;
+        this.known = known;
+        this.hdr = hdr;
     }
 
     /**
@@ -51,11 +86,50 @@ public final class FilePackage implements Package {
         return this.file;
     }
 
+    /**
+     * Get location relatively to the updated repository.
+     * @return Location
+     */
+    public String location() {
+        return this.location;
+    }
+
+    /**
+     * Package file checksum, known checksum is used if it was computed with the
+     * same digest, otherwise checksum is computed from file.
+     * @param digest Digest
+     * @return Checksum
+     */
+    public Checksum checksum(final Digest digest) {
+        return this.known.filter(sum -> sum.digest() == digest)
+            .orElseGet(() -> new FileChecksum(this.file, digest));
+    }
+
+    /**
+     * The same package with known checksum.
+     * @param sum Already known and verified checksum of the file
+     * @return File package
+     */
+    public FilePackage withChecksum(final Checksum sum) {
+        return new FilePackage(this.file, this.location, Optional.of(sum), this.hdr);
+    }
+
+    /**
+     * The same package with already read header, so that {@link #parsed()} does not
+     * read the file once more.
+     * @param header Already read header of the file
+     * @return File package
+     */
+    public FilePackage withHeader(final Header header) {
+        return new FilePackage(this.file, this.location, this.known, Optional.of(header));
+    }
+
     @Override
     public void save(final PackageOutput out, final Digest digest) throws IOException {
         out.accept(
             new FilePackage.Headers(
-                new FilePackageHeader(this.file).header(), this.file, digest, this.location
+                new FilePackageHeader(this.file).header(), this.file,
+                this.checksum(digest), this.location
             )
         );
         Files.delete(this.file);
@@ -73,9 +147,22 @@ public final class FilePackage implements Package {
      * @throws IOException On error
      */
     public Package parsed() throws InvalidPackageException, IOException {
-        return new ParsedFilePackage(
-            new FilePackageHeader(this.file).header(), this.file, this.location
-        );
+        final Header header;
+        if (this.hdr.isPresent()) {
+            header = this.hdr.get();
+        } else {
+            header = new FilePackageHeader(this.file).header();
+        }
+        return this.parsed(header);
+    }
+
+    /**
+     * Parsed file package with already read header.
+     * @param header Package header
+     * @return Parsed package
+     */
+    public Package parsed(final Header header) {
+        return new ParsedFilePackage(header, this.file, this.location, this::checksum);
     }
 
     /**
@@ -95,9 +182,9 @@ public final class FilePackage implements Package {
         private final Path file;
 
         /**
-         * Digest.
+         * File checksum.
          */
-        private final Digest digest;
+        private final Checksum sum;
 
         /**
          * The RPM file location relatively to the updated repository.
@@ -113,10 +200,23 @@ public final class FilePackage implements Package {
          * @checkstyle ParameterNumberCheck (10 lines)
          */
         public Headers(final Header hdr, final Path file, final Digest digest,
+            final String location) {
+            this(hdr, file, new FileChecksum(file, digest), location);
+        }
+
+        /**
+         * Ctor.
+         * @param hdr Native headers
+         * @param file File path
+         * @param sum File checksum
+         * @param location File relative location
+         * @checkstyle ParameterNumberCheck (10 lines)
+         */
+        public Headers(final Header hdr, final Path file, final Checksum sum,
             final String location) {
             this.hdr = hdr;
             this.file = file;
-            this.digest = digest;
+            this.sum = sum;
             this.location = location;
         }
 
@@ -137,7 +237,7 @@ public final class FilePackage implements Package {
 
         @Override
         public Checksum checksum() {
-            return new FileChecksum(this.file, this.digest);
+            return this.sum;
         }
 
         @Override
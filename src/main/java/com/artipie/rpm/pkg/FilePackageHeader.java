@@ -4,6 +4,7 @@
  */
 package com.artipie.rpm.pkg;
 
+import com.artipie.rpm.jfr.HeaderEvent;
 import com.jcabi.log.Logger;
 import java.io.IOException;
 import java.io.PrintStream;
@@ -44,8 +45,22 @@ public final class FilePackageHeader {
      * @throws InvalidPackageException In case package is invalid.
      * @throws IOException In case of I/O error.
      */
-    @SuppressWarnings("PMD.AvoidCatchingGenericException")
     public Header header() throws InvalidPackageException, IOException {
+        return this.format().getHeader();
+    }
+
+    /**
+     * Get package format: lead, signature header and header. Signature header
+     * holds header and payload digests and signatures of the package.
+     *
+     * @return The format.
+     * @throws InvalidPackageException In case package is invalid.
+     * @throws IOException In case of I/O error.
+     */
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    public Format format() throws InvalidPackageException, IOException {
+        final HeaderEvent event = new HeaderEvent();
+        event.begin();
         try (FileChannel chan = FileChannel.open(this.file, StandardOpenOption.READ)) {
             final Format format;
             try {
@@ -56,9 +71,9 @@ public final class FilePackageHeader {
             } catch (final RuntimeException ex) {
                 throw new InvalidPackageException(ex);
             }
-            final Header header = format.getHeader();
-            Logger.debug(this, "header: %s", header.toString());
-            return header;
+            Logger.debug(this, "header: %s", format.getHeader().toString());
+            event.complete(this.file);
+            return format;
         }
     }
 }
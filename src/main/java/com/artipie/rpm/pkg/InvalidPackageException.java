@@ -21,4 +21,13 @@ public class InvalidPackageException extends ArtipieException {
     public InvalidPackageException(final Throwable cause) {
         super(cause);
     }
+
+    /**
+     * Ctor.
+     *
+     * @param message Reason of package being invalid.
+     */
+    public InvalidPackageException(final String message) {
+        super(message);
+    }
 }
@@ -6,6 +6,8 @@ package com.artipie.rpm.pkg;
 
 import com.artipie.rpm.Digest;
 import com.artipie.rpm.FileChecksum;
+import com.artipie.rpm.files.Compression;
+import com.artipie.rpm.jfr.SaveEvent;
 import com.artipie.rpm.meta.XmlAlter;
 import com.artipie.rpm.meta.XmlException;
 import com.artipie.rpm.meta.XmlPackage;
@@ -25,7 +27,8 @@ import javax.xml.stream.XMLStreamException;
  * Metadata file. It's a decorator for {@link PackageOutput},
  * so it should be used to accept metadata from {@link Package}
  * and it proxies metadata to underlying output. After closing it saves
- * all metadata to {@code repomd.xml}.
+ * all metadata to {@code repomd.xml}. Compressed variants are listed as
+ * non-standard {@code <type>_<extension>} entries, see {@link Compression}.
  * @since 0.6
  */
 public final class MetadataFile implements Metadata {
@@ -77,20 +80,25 @@ public final class MetadataFile implements Metadata {
     @Override
     public Path save(final Repodata repodata, final Digest digest, final XmlRepomd repomd)
         throws IOException {
+        final SaveEvent event = new SaveEvent();
+        event.begin();
         final Path open = this.out.file();
         Path gzip = Files.createTempFile(repodata.temp(), "", ".gz");
         MetadataFile.gzip(open, gzip);
         gzip = Files.move(gzip, repodata.metadata(this.type, gzip));
         Logger.info(this, "gzipped %s to %s", open, gzip);
-        try (XmlRepomd.Data data = repomd.beginData(this.type.filename())) {
-            data.gzipChecksum(new FileChecksum(gzip, digest));
-            data.openChecksum(new FileChecksum(open, digest));
-            data.location(String.format("repodata/%s", gzip.getFileName()));
-            data.gzipSize(Files.size(gzip));
-            data.openSize(Files.size(open));
-        } catch (final XMLStreamException err) {
-            throw new XmlException("Failed to update repomd.xml", err);
+        final Checksum opened = new Checksum.Simple(digest, new FileChecksum(open, digest).hex());
+        MetadataFile.data(repomd, this.type.filename(), gzip, open, opened);
+        for (final Compression cmp : repodata.variants()) {
+            final Path variant = cmp.variant(gzip);
+            cmp.compress(open, variant);
+            Logger.info(this, "compressed %s to %s", open, variant);
+            MetadataFile.data(
+                repomd, String.format("%s_%s", this.type.filename(), cmp.extension()),
+                variant, open, opened
+            );
         }
+        event.complete(this.type.filename(), open, gzip);
         Files.delete(open);
         return gzip;
     }
@@ -105,6 +113,29 @@ public final class MetadataFile implements Metadata {
         return String.format("MetadataFile: %s", this.type);
     }
 
+    /**
+     * Adds metadata file {@code data} entry to repomd.
+     * @param repomd Repomd
+     * @param type Data type
+     * @param file Compressed metadata file
+     * @param open Open metadata file
+     * @param opened Open metadata file checksum
+     * @throws IOException On error
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private static void data(final XmlRepomd repomd, final String type, final Path file,
+        final Path open, final Checksum opened) throws IOException {
+        try (XmlRepomd.Data data = repomd.beginData(type)) {
+            data.gzipChecksum(new FileChecksum(file, opened.digest()));
+            data.openChecksum(opened);
+            data.location(String.format("repodata/%s", file.getFileName()));
+            data.gzipSize(Files.size(file));
+            data.openSize(Files.size(open));
+        } catch (final XMLStreamException err) {
+            throw new XmlException("Failed to update repomd.xml", err);
+        }
+    }
+
     /**
      * Gzip a file.
      *
@@ -0,0 +1,593 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.pkg;
+
+import com.artipie.rpm.Digest;
+import com.artipie.rpm.jfr.ChecksumEvent;
+import com.jcabi.log.Logger;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import javax.xml.bind.DatatypeConverter;
+import org.bouncycastle.openpgp.PGPException;
+import org.bouncycastle.openpgp.PGPPublicKey;
+import org.bouncycastle.openpgp.PGPPublicKeyRingCollection;
+import org.bouncycastle.openpgp.PGPSignature;
+import org.bouncycastle.openpgp.PGPSignatureList;
+import org.bouncycastle.openpgp.PGPUtil;
+import org.bouncycastle.openpgp.bc.BcPGPObjectFactory;
+import org.bouncycastle.openpgp.operator.bc.BcKeyFingerprintCalculator;
+import org.bouncycastle.openpgp.operator.bc.BcPGPContentVerifierBuilderProvider;
+import org.cactoos.Scalar;
+import org.cactoos.scalar.Solid;
+import org.redline_rpm.header.AbstractHeader;
+import org.redline_rpm.header.Format;
+import org.redline_rpm.header.Signature;
+
+/**
+ * Verifier of RPM package file. It checks digests of the package header and payload
+ * stored in the signature header and, if local keyring is configured, OpenPGP
+ * signatures of the header and of the header with payload. Package header is
+ * already read by {@link FilePackageHeader}, so the file is read once: the same
+ * bytes are passed to the repository checksum, to digests and to signatures,
+ * each of them gets only its own region of the file.
+ * @since 1.9
+ */
+public final class PackageVerifier {
+
+    /**
+     * Read buffer size.
+     */
+    private static final int BUF_SIZE = 64 * 1024;
+
+    /**
+     * SHA-256 digest of the header signature tag, redline does not know it.
+     */
+    private static final int SHA256HEADER = 273;
+
+    /**
+     * Payload digest header tag.
+     */
+    private static final int PAYLOADDIGEST = 5092;
+
+    /**
+     * Payload digest algorithm header tag.
+     */
+    private static final int PAYLOADDIGESTALGO = 5093;
+
+    /**
+     * Signatures of the header.
+     */
+    private static final Signature.SignatureTag[] HEADER_SIGNATURES = {
+        Signature.SignatureTag.RSAHEADER, Signature.SignatureTag.DSAHEADER,
+    };
+
+    /**
+     * Signatures of the header and payload, rpm writes them with legacy tags.
+     */
+    private static final Signature.SignatureTag[] SIGNATURES = {
+        Signature.SignatureTag.LEGACY_PGP, Signature.SignatureTag.PGP,
+        Signature.SignatureTag.LEGACY_GPG, Signature.SignatureTag.GPG,
+    };
+
+    /**
+     * Local keyring path, empty if signatures are not verified.
+     */
+    private final Optional<Path> keyring;
+
+    /**
+     * Public keys of the keyring, read once.
+     */
+    private final Scalar<PGPPublicKeyRingCollection> keys;
+
+    /**
+     * Ctor to verify digests only.
+     */
+    public PackageVerifier() {
+        this(Optional.empty());
+    }
+
+    /**
+     * Ctor to verify digests and signatures.
+     * @param keyring Local OpenPGP public keyring, binary or armored
+     */
+    public PackageVerifier(final Path keyring) {
+        this(Optional.of(keyring));
+    }
+
+    /**
+     * Primary ctor.
+     * @param keyring Local keyring path
+     */
+    private PackageVerifier(final Optional<Path> keyring) {
+        this.keyring = keyring;
+        this.keys = new Solid<>(() -> PackageVerifier.keys(keyring.get()));
+    }
+
+    /**
+     * Verifies package file and computes its checksum.
+     * @param file Package file
+     * @param format Package format read from the file
+     * @param digest Repository digest
+     * @return Checksum of the file
+     * @throws InvalidPackageException If package is rejected
+     * @throws IOException On error
+     */
+    public Checksum verified(final Path file, final Format format, final Digest digest)
+        throws InvalidPackageException, IOException {
+        final List<String> failures = new ArrayList<>(0);
+        final List<Check> checks = this.checks(file, format, failures);
+        final ChecksumEvent event = new ChecksumEvent();
+        event.begin();
+        final MessageDigest sum = digest.messageDigest();
+        long pos = 0;
+        try (FileChannel chan = FileChannel.open(file, StandardOpenOption.READ)) {
+            final ByteBuffer buf = ByteBuffer.allocate(PackageVerifier.BUF_SIZE);
+            int read = chan.read(buf);
+            while (read > 0) {
+                sum.update(buf.array(), 0, read);
+                for (final Check check : checks) {
+                    check.update(pos, buf.array(), read);
+                }
+                pos += read;
+                ((Buffer) buf).clear();
+                read = chan.read(buf);
+            }
+        }
+        event.complete(file, digest.name(), pos);
+        for (final Check check : checks) {
+            check.failure().ifPresent(failures::add);
+        }
+        if (!failures.isEmpty()) {
+            throw new InvalidPackageException(
+                String.format(
+                    "Package %s is rejected: %s", file.getFileName(), String.join(", ", failures)
+                )
+            );
+        }
+        return new Checksum.Simple(
+            digest, DatatypeConverter.printHexBinary(sum.digest()).toLowerCase(Locale.US)
+        );
+    }
+
+    /**
+     * Checks of the package, failures found before reading the file are added
+     * to the list.
+     * @param file Package file
+     * @param format Package format
+     * @param failures Failures
+     * @return Checks
+     * @throws IOException On error
+     */
+    private List<Check> checks(final Path file, final Format format,
+        final List<String> failures) throws IOException {
+        final Signature sig = format.getSignature();
+        final long start = format.getHeader().getStartPos();
+        final long end = format.getHeader().getEndPos();
+        final long size = Files.size(file);
+        final Region header = new Region(start, end);
+        final Region signed = new Region(start, size);
+        final List<Check> res = new ArrayList<>(0);
+        PackageVerifier.value(sig, Signature.SignatureTag.SHA1HEADER.getCode())
+            .map(val -> PackageVerifier.digest("header SHA1", "SHA-1", header, val))
+            .ifPresent(res::add);
+        PackageVerifier.value(sig, PackageVerifier.SHA256HEADER)
+            .map(val -> PackageVerifier.digest("header SHA256", "SHA-256", header, val))
+            .ifPresent(res::add);
+        PackageVerifier.value(
+            sig, Signature.SignatureTag.LEGACY_MD5.getCode(), Signature.SignatureTag.MD5.getCode()
+        ).map(val -> PackageVerifier.digest("header and payload MD5", "MD5", signed, val))
+            .ifPresent(res::add);
+        final Optional<Object> payload = PackageVerifier.value(
+            format.getHeader(), PackageVerifier.PAYLOADDIGEST
+        );
+        if (payload.isPresent()) {
+            final String alg = PackageVerifier.algorithm(
+                PackageVerifier.value(format.getHeader(), PackageVerifier.PAYLOADDIGESTALGO)
+                    .map(val -> ((int[]) val)[0]).orElse(1)
+            );
+            res.add(
+                PackageVerifier.digest(
+                    "payload digest", alg, new Region(end, size), payload.get()
+                )
+            );
+        }
+        if (res.isEmpty()) {
+            failures.add("no digests");
+        }
+        final Optional<Object> sigsize = PackageVerifier.value(
+            sig, Signature.SignatureTag.LEGACY_SIGSIZE.getCode(),
+            Signature.SignatureTag.SIGSIZE.getCode()
+        );
+        if (sigsize.isPresent() && ((int[]) sigsize.get())[0] != size - start) {
+            failures.add("header and payload size mismatch");
+        }
+        if (this.keyring.isPresent()) {
+            final PGPPublicKeyRingCollection ring = this.ring();
+            final int before = res.size();
+            for (final Signature.SignatureTag tag : PackageVerifier.HEADER_SIGNATURES) {
+                PackageVerifier.value(sig, tag.getCode())
+                    .map(val -> PackageVerifier.signature("header", (byte[]) val, ring, header))
+                    .ifPresent(res::add);
+            }
+            for (final Signature.SignatureTag tag : PackageVerifier.SIGNATURES) {
+                PackageVerifier.value(sig, tag.getCode())
+                    .map(
+                        val -> PackageVerifier.signature(
+                            "header and payload", (byte[]) val, ring, signed
+                        )
+                    ).ifPresent(res::add);
+            }
+            if (res.size() == before) {
+                failures.add("no signatures");
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Public keys of the keyring.
+     * @return Keys
+     * @throws IOException On error
+     */
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    private PGPPublicKeyRingCollection ring() throws IOException {
+        try {
+            return this.keys.value();
+        } catch (final IOException ex) {
+            throw ex;
+        // @checkstyle IllegalCatchCheck (1 line)
+        } catch (final Exception ex) {
+            throw new IOException(
+                String.format("Failed to read keyring %s", this.keyring.get()), ex
+            );
+        }
+    }
+
+    /**
+     * Signature check.
+     * @param name Signature name
+     * @param bytes Signature packet
+     * @param ring Public keys
+     * @param region Signed region
+     * @return Check
+     */
+    private static Check signature(final String name, final byte[] bytes,
+        final PGPPublicKeyRingCollection ring, final Region region) {
+        Check res = new Failed(String.format("%s signature is invalid", name));
+        try {
+            final Object obj = new BcPGPObjectFactory(bytes).nextObject();
+            if (obj instanceof PGPSignatureList && !((PGPSignatureList) obj).isEmpty()) {
+                final PGPSignature pgp = ((PGPSignatureList) obj).get(0);
+                final PGPPublicKey key = ring.getPublicKey(pgp.getKeyID());
+                if (key == null) {
+                    res = new Failed(
+                        String.format("%s signature by unknown key %016x", name, pgp.getKeyID())
+                    );
+                } else {
+                    pgp.init(new BcPGPContentVerifierBuilderProvider(), key);
+                    res = new Signed(name, pgp, region);
+                }
+            }
+        } catch (final IOException | PGPException ex) {
+            Logger.debug(PackageVerifier.class, "Invalid signature: %[exception]s", ex);
+        }
+        return res;
+    }
+
+    /**
+     * Digest check.
+     * @param name Digest name
+     * @param alg Java digest algorithm
+     * @param region Digested region
+     * @param expected Expected value: hex string or binary
+     * @return Check
+     */
+    private static Check digest(final String name, final String alg, final Region region,
+        final Object expected) {
+        final byte[] bytes;
+        if (expected instanceof String[]) {
+            bytes = DatatypeConverter.parseHexBinary(((String[]) expected)[0]);
+        } else {
+            bytes = (byte[]) expected;
+        }
+        Check res;
+        try {
+            res = new Digested(name, MessageDigest.getInstance(alg), bytes, region);
+        } catch (final NoSuchAlgorithmException ex) {
+            res = new Failed(String.format("%s algorithm %s is not supported", name, alg));
+        }
+        return res;
+    }
+
+    /**
+     * Java digest algorithm name by OpenPGP hash algorithm id, which is used
+     * by payload digest algorithm tag.
+     * @param id Algorithm id
+     * @return Algorithm name
+     */
+    private static String algorithm(final int id) {
+        final String res;
+        switch (id) {
+            case 1:
+                res = "MD5";
+                break;
+            case 2:
+                res = "SHA-1";
+                break;
+            case 8:
+                res = "SHA-256";
+                break;
+            case 9:
+                res = "SHA-384";
+                break;
+            case 10:
+                res = "SHA-512";
+                break;
+            default:
+                res = String.format("id %d", id);
+                break;
+        }
+        return res;
+    }
+
+    /**
+     * Header entry value.
+     * @param header Header
+     * @param tags Codes of the tag variants
+     * @return Value of the first present entry
+     */
+    private static Optional<Object> value(final AbstractHeader header, final int... tags) {
+        Optional<Object> res = Optional.empty();
+        for (final int tag : tags) {
+            res = Optional.ofNullable(header.getEntry(tag)).map(AbstractHeader.Entry::getValues);
+            if (res.isPresent()) {
+                break;
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Reads keyring.
+     * @param path Keyring path
+     * @return Public keys
+     * @throws IOException On error
+     * @throws PGPException On invalid keyring
+     */
+    private static PGPPublicKeyRingCollection keys(final Path path)
+        throws IOException, PGPException {
+        try (InputStream input = PGPUtil.getDecoderStream(Files.newInputStream(path))) {
+            return new PGPPublicKeyRingCollection(input, new BcKeyFingerprintCalculator());
+        }
+    }
+
+    /**
+     * Check of file region.
+     * @since 1.9
+     */
+    private interface Check {
+
+        /**
+         * Accepts file bytes.
+         * @param pos Position of the bytes in file
+         * @param bytes Bytes
+         * @param len Bytes count
+         */
+        void update(long pos, byte[] bytes, int len);
+
+        /**
+         * Failure of the check after all bytes were accepted.
+         * @return Failure description if check failed
+         */
+        Optional<String> failure();
+    }
+
+    /**
+     * File region.
+     * @since 1.9
+     */
+    private static final class Region {
+
+        /**
+         * Region start.
+         */
+        private final long from;
+
+        /**
+         * Region end.
+         */
+        private final long end;
+
+        /**
+         * Ctor.
+         * @param from Region start
+         * @param end Region end
+         */
+        Region(final long from, final long end) {
+            this.from = from;
+            this.end = end;
+        }
+
+        /**
+         * Offset of the region part in the bytes.
+         * @param pos Position of the bytes in file
+         * @return Offset
+         */
+        int offset(final long pos) {
+            return (int) Math.max(this.from - pos, 0);
+        }
+
+        /**
+         * Length of the region part in the bytes.
+         * @param pos Position of the bytes in file
+         * @param len Bytes count
+         * @return Length, not positive if bytes are out of the region
+         */
+        int length(final long pos, final int len) {
+            return (int) (Math.min(this.end, pos + len) - Math.max(this.from, pos));
+        }
+    }
+
+    /**
+     * Digest of file region.
+     * @since 1.9
+     */
+    private static final class Digested implements Check {
+
+        /**
+         * Digest name.
+         */
+        private final String name;
+
+        /**
+         * Message digest.
+         */
+        private final MessageDigest digest;
+
+        /**
+         * Expected digest.
+         */
+        private final byte[] expected;
+
+        /**
+         * Region.
+         */
+        private final Region region;
+
+        /**
+         * Ctor.
+         * @param name Digest name
+         * @param digest Message digest
+         * @param expected Expected digest
+         * @param region Digested region
+         * @checkstyle ParameterNumberCheck (5 lines)
+         */
+        Digested(final String name, final MessageDigest digest, final byte[] expected,
+            final Region region) {
+            this.name = name;
+            this.digest = digest;
+            this.expected = expected.clone();
+            this.region = region;
+        }
+
+        @Override
+        public void update(final long pos, final byte[] bytes, final int len) {
+            final int length = this.region.length(pos, len);
+            if (length > 0) {
+                this.digest.update(bytes, this.region.offset(pos), length);
+            }
+        }
+
+        @Override
+        public Optional<String> failure() {
+            final Optional<String> res;
+            if (MessageDigest.isEqual(this.expected, this.digest.digest())) {
+                res = Optional.empty();
+            } else {
+                res = Optional.of(String.format("%s mismatch", this.name));
+            }
+            return res;
+        }
+    }
+
+    /**
+     * OpenPGP signature of file region.
+     * @since 1.9
+     */
+    private static final class Signed implements Check {
+
+        /**
+         * Signature name.
+         */
+        private final String name;
+
+        /**
+         * Signature initialized with public key.
+         */
+        private final PGPSignature sig;
+
+        /**
+         * Region.
+         */
+        private final Region region;
+
+        /**
+         * Ctor.
+         * @param name Signature name
+         * @param sig Signature initialized with public key
+         * @param region Signed region
+         */
+        Signed(final String name, final PGPSignature sig, final Region region) {
+            this.name = name;
+            this.sig = sig;
+            this.region = region;
+        }
+
+        @Override
+        public void update(final long pos, final byte[] bytes, final int len) {
+            final int length = this.region.length(pos, len);
+            if (length > 0) {
+                this.sig.update(bytes, this.region.offset(pos), length);
+            }
+        }
+
+        @Override
+        public Optional<String> failure() {
+            Optional<String> res;
+            try {
+                if (this.sig.verify()) {
+                    res = Optional.empty();
+                } else {
+                    res = Optional.of(String.format("%s signature mismatch", this.name));
+                }
+            } catch (final PGPException ex) {
+                res = Optional.of(String.format("%s signature is invalid", this.name));
+            }
+            return res;
+        }
+    }
+
+    /**
+     * Check failed before reading the file.
+     * @since 1.9
+     */
+    private static final class Failed implements Check {
+
+        /**
+         * Failure description.
+         */
+        private final String reason;
+
+        /**
+         * Ctor.
+         * @param reason Failure description
+         */
+        Failed(final String reason) {
+            this.reason = reason;
+        }
+
+        @Override
+        public void update(final long pos, final byte[] bytes, final int len) {
+            // nothing to check
+        }
+
+        @Override
+        public Optional<String> failure() {
+            return Optional.of(this.reason);
+        }
+    }
+}
@@ -8,6 +8,7 @@ import com.artipie.rpm.Digest;
 import com.jcabi.log.Logger;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.function.Function;
 import org.redline_rpm.header.Header;
 
 /**
@@ -31,21 +32,34 @@ final class ParsedFilePackage implements Package {
      */
     private final String location;
 
+    /**
+     * File checksum by digest.
+     */
+    private final Function<Digest, Checksum> checksum;
+
     /**
      * Ctor.
      * @param meta Package metadata
      * @param file File path
      * @param location File relative location
+     * @param checksum File checksum by digest
+     * @checkstyle ParameterNumberCheck (5 lines)
      */
-    ParsedFilePackage(final Header meta, final Path file, final String location) {
+    ParsedFilePackage(final Header meta, final Path file, final String location,
+        final Function<Digest, Checksum> checksum) {
         this.header = meta;
         this.file = file;
         this.location = location;
+        this.checksum = checksum;
     }
 
     @Override
     public void save(final PackageOutput out, final Digest digest) throws IOException {
         Logger.debug(this, "accepting %s", this.file.getFileName());
-        out.accept(new FilePackage.Headers(this.header, this.file, digest, this.location));
+        out.accept(
+            new FilePackage.Headers(
+                this.header, this.file, this.checksum.apply(digest), this.location
+            )
+        );
     }
 }
@@ -6,9 +6,12 @@ package com.artipie.rpm.pkg;
 
 import com.artipie.rpm.files.Gzip;
 import com.artipie.rpm.meta.XmlPackage;
+import com.artipie.rpm.meta.XmlRepomdEntries;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Optional;
 import java.util.stream.Stream;
 
@@ -80,17 +83,31 @@ public interface PrecedingMetadata {
         }
 
         /**
-         * Path to the metadata file if found.
+         * Path to the metadata file if found: if directory contains {@code repomd.xml},
+         * the file it refers to is returned, otherwise the file is searched by name.
          * @return Path
          * @throws IOException On error
          */
         private Optional<Path> find() throws IOException {
-            try (Stream<Path> files = Files.walk(this.dir)) {
-                return files.filter(
-                    path -> path.getFileName().toString()
-                        .contains(String.format("%s.xml.gz", this.type.filename()))
-                ).findFirst();
+            final Path repomd = this.dir.resolve("repomd.xml");
+            final Optional<Path> res;
+            if (Files.exists(repomd)) {
+                try (InputStream input = Files.newInputStream(repomd)) {
+                    res = Optional.ofNullable(
+                        new XmlRepomdEntries(input).read().get(this.type.filename())
+                    ).flatMap(XmlRepomdEntries.Entry::location)
+                        .map(href -> this.dir.resolve(Paths.get(href).getFileName()))
+                        .filter(Files::exists);
+                }
+            } else {
+                try (Stream<Path> files = Files.walk(this.dir)) {
+                    res = files.filter(
+                        path -> path.getFileName().toString()
+                            .contains(String.format("%s.xml.gz", this.type.filename()))
+                    ).findFirst();
+                }
             }
+            return res;
         }
     }
 
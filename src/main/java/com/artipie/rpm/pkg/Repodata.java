@@ -5,10 +5,14 @@
 package com.artipie.rpm.pkg;
 
 import com.artipie.rpm.NamingPolicy;
+import com.artipie.rpm.files.Compression;
 import com.artipie.rpm.meta.XmlPackage;
 import com.artipie.rpm.meta.XmlRepomd;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Repodata creates repomd and files for resulting repository metadata files.
@@ -38,6 +42,12 @@ public interface Repodata {
      */
     Path metadata(XmlPackage type, Path gzip) throws IOException;
 
+    /**
+     * Compressed variants to publish along with gzipped metadata.
+     * @return Compressions
+     */
+    List<Compression> variants();
+
     /**
      * Temp repodata.
      * @since 0.11
@@ -54,14 +64,30 @@ public interface Repodata {
          */
         private final Path tmp;
 
+        /**
+         * Compressed variants.
+         */
+        private final List<Compression> cmps;
+
         /**
          * Ctor.
          * @param naming Naming policy
          * @param tmp Temp directory
          */
         public Temp(final NamingPolicy naming, final Path tmp) {
+            this(naming, tmp, Collections.emptyList());
+        }
+
+        /**
+         * Ctor.
+         * @param naming Naming policy
+         * @param tmp Temp directory
+         * @param cmps Compressed variants to publish along with gzip
+         */
+        public Temp(final NamingPolicy naming, final Path tmp, final List<Compression> cmps) {
             this.policy = naming;
             this.tmp = tmp;
+            this.cmps = cmps;
         }
 
         @Override
@@ -82,6 +108,13 @@ public interface Repodata {
                 String.format("%s.xml.gz", this.policy.name(type.filename(), gzip))
             );
         }
+
+        @Override
+        public List<Compression> variants() {
+            return this.cmps.stream()
+                .filter(cmp -> cmp != Compression.GZIP)
+                .collect(Collectors.toList());
+        }
     }
 
 }
@@ -0,0 +1,124 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.blocking.BlockingStorage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.asto.test.TestResource;
+import com.artipie.rpm.meta.MergedXml;
+import com.artipie.rpm.meta.XmlPackage;
+import com.artipie.rpm.pkg.FilePackage;
+import com.artipie.rpm.pkg.FilePackageHeader;
+import com.jcabi.matchers.XhtmlMatchers;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.cactoos.list.ListOf;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link AsyncMetadata}.
+ * @since 1.9
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class AsyncMetadataTest {
+
+    @Test
+    void updatesMetadataInStorage() throws IOException {
+        final Storage storage = new InMemoryStorage();
+        new TestResource("repodata/primary.xml.example")
+            .saveTo(storage, new Key.From("primary.xml"));
+        new TestResource("repodata/other.xml.example")
+            .saveTo(storage, new Key.From("other.xml"));
+        final TestRpm.Abc abc = new TestRpm.Abc();
+        final MergedXml.Result res = new AsyncMetadata(
+            AsyncMetadataTest.item(storage, XmlPackage.PRIMARY, "primary.xml"),
+            AsyncMetadataTest.item(storage, XmlPackage.OTHER, "other.xml")
+        ).update(
+            new ListOf<>("7eaefd1cb4f9740558da7f12f9cb5a6141a47f5d064a98d46c29959869af1a44"),
+            new ListOf<>(
+                new FilePackage.Headers(
+                    new FilePackageHeader(abc.path()).header(),
+                    abc.path(), Digest.SHA256, abc.path().getFileName().toString()
+                )
+            )
+        ).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Packages count is not correct",
+            res.count(),
+            new IsEqual<>(2L)
+        );
+        MatcherAssert.assertThat(
+            "Primary xml was not updated",
+            new String(
+                new BlockingStorage(storage).value(new Key.From("out", "primary.xml")),
+                StandardCharsets.UTF_8
+            ),
+            XhtmlMatchers.hasXPaths(
+                "/*[local-name()='metadata' and @packages='2']",
+                //@checkstyle LineLengthCheck (2 lines)
+                "/*[local-name()='metadata']/*[local-name()='package']/*[local-name()='name' and text()='nginx']",
+                "/*[local-name()='metadata']/*[local-name()='package']/*[local-name()='name' and text()='abc']"
+            )
+        );
+        MatcherAssert.assertThat(
+            "Other xml was not updated",
+            new String(
+                new BlockingStorage(storage).value(new Key.From("out", "other.xml")),
+                StandardCharsets.UTF_8
+            ),
+            XhtmlMatchers.hasXPaths(
+                "/*[local-name()='otherdata' and @packages='2']",
+                "/*[local-name()='otherdata' and not(*[local-name()='package' and @name='aom'])]",
+                "/*[local-name()='otherdata']/*[local-name()='package' and @name='abc']"
+            )
+        );
+    }
+
+    @Test
+    void failsWhenOutputFails() {
+        final CompletableFuture<Void> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IllegalStateException("storage is not available"));
+        Assertions.assertThrows(
+            CompletionException.class,
+            () -> new AsyncMetadata(
+                new AsyncMetadata.Item(
+                    XmlPackage.PRIMARY,
+                    Optional.of(
+                        new Content.From(
+                            new TestResource("repodata/primary.xml.example").asBytes()
+                        )
+                    ),
+                    content -> failed
+                )
+            ).remove(new ListOf<>("abc")).toCompletableFuture().join()
+        );
+    }
+
+    /**
+     * Metadata item saving result to {@code out} directory.
+     * @param storage Storage
+     * @param type Metadata type
+     * @param name Metadata file name
+     * @return Item
+     */
+    private static AsyncMetadata.Item item(final Storage storage, final XmlPackage type,
+        final String name) {
+        return new AsyncMetadata.Item(
+            type,
+            Optional.of(storage.value(new Key.From(name)).join()),
+            content -> storage.save(new Key.From("out", name), content)
+        );
+    }
+}
@@ -4,7 +4,9 @@
  */
 package com.artipie.rpm;
 
+import com.artipie.rpm.files.Compression;
 import java.nio.file.Path;
+import java.util.Collections;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.core.IsEqual;
 import org.junit.jupiter.api.Test;
@@ -30,6 +32,26 @@ class CliArgumentsTest {
         );
     }
 
+    @Test
+    void canParseVerifyCommand(@TempDir final Path temp) {
+        final CliArguments args = new CliArguments("-r=4", "verify", temp.toString());
+        MatcherAssert.assertThat(
+            "Verify command was not parsed",
+            args.verify(),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Repository was not parsed",
+            args.repository(),
+            new IsEqual<>(temp)
+        );
+        MatcherAssert.assertThat(
+            "Rehash threads were not parsed",
+            args.rehash(),
+            new IsEqual<>(4)
+        );
+    }
+
     @Test
     void canParseNamingPolicyArgument() {
         MatcherAssert.assertThat(
@@ -50,6 +72,30 @@ class CliArgumentsTest {
         );
     }
 
+    @Test
+    void canParseCompressionArgument() {
+        MatcherAssert.assertThat(
+            new CliArguments(
+                "-c=xz"
+            ).config().compressions(),
+            new IsEqual<>(Collections.singletonList(Compression.XZ))
+        );
+    }
+
+    @Test
+    void canParseVerifyPackagesArgument() {
+        MatcherAssert.assertThat(
+            "Packages are verified",
+            new CliArguments("-v=true").config().verifier().isPresent(),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Packages are not verified by default",
+            new CliArguments().config().verifier().isPresent(),
+            new IsEqual<>(false)
+        );
+    }
+
     @Test
     void canParseDigestArgument() {
         MatcherAssert.assertThat(
@@ -33,6 +33,12 @@ final class CliTest {
         Cli.main(new String[]{"-n=sha256", "-d=sha1", "-f=true", temp.toString()});
     }
 
+    @Test
+    void testVerifyUpdatedRepository(@TempDir final Path temp) {
+        Cli.main(new String[]{temp.toString()});
+        Cli.main(new String[]{"-r=2", "verify", temp.toString()});
+    }
+
     @Test
     void testParseWithWrongArgument(@TempDir final Path temp) {
         final IllegalArgumentException err = Assertions.assertThrows(
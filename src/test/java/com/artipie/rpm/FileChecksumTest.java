@@ -31,4 +31,14 @@ final class FileChecksumTest {
             new IsEqual<>(new HexOf(new Sha256DigestOf(new InputOf(target))).asString())
         );
     }
+
+    @Test
+    void generatesSameChecksumWithSmallBuffer(@TempDir final Path tmp) throws Exception {
+        final Path target = tmp.resolve("small.bin");
+        Files.write(target, "hello world".getBytes(StandardCharsets.UTF_8));
+        MatcherAssert.assertThat(
+            new FileChecksum(target, Digest.SHA256, 3).hex(),
+            new IsEqual<>(new FileChecksum(target, Digest.SHA256).hex())
+        );
+    }
 }
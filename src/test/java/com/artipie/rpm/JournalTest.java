@@ -0,0 +1,106 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.blocking.BlockingStorage;
+import com.artipie.asto.memory.InMemoryStorage;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link Journal}.
+ * @since 1.9
+ */
+final class JournalTest {
+
+    /**
+     * Repository prefix.
+     */
+    private static final Key PREFIX = new Key.From("repo");
+
+    /**
+     * Storage.
+     */
+    private Storage storage;
+
+    @BeforeEach
+    void init() {
+        this.storage = new InMemoryStorage();
+        new BlockingStorage(this.storage).save(
+            new Key.From(JournalTest.PREFIX, "repodata", "old-primary.xml.gz"), new byte[] {1}
+        );
+    }
+
+    @Test
+    void publishesStagedFiles() {
+        final Journal journal = new Journal(this.storage, JournalTest.PREFIX);
+        journal.stage("new-primary.xml.gz", new Content.From(new byte[] {2}))
+            .andThen(journal.stage("repomd.xml", new Content.From(new byte[] {3})))
+            .andThen(
+                journal.publish(
+                    "batchUpdate", new HashSet<>(Arrays.asList("new-primary.xml.gz", "repomd.xml"))
+                )
+            ).blockingAwait();
+        MatcherAssert.assertThat(
+            this.keys(),
+            Matchers.containsInAnyOrder(
+                "repo/repodata/new-primary.xml.gz", "repo/repodata/repomd.xml"
+            )
+        );
+    }
+
+    @Test
+    void resumesInterruptedPublishing() {
+        final Journal journal = new Journal(this.storage, JournalTest.PREFIX);
+        journal.stage("new-primary.xml.gz", new Content.From(new byte[] {2})).blockingAwait();
+        new BlockingStorage(this.storage).save(
+            new Key.From(JournalTest.PREFIX, ".artipie-journal", "journal.json"),
+            "{\"operation\":\"batchUpdate\",\"files\":[\"new-primary.xml.gz\",\"repomd.xml\"]}"
+                .getBytes(StandardCharsets.UTF_8)
+        );
+        new BlockingStorage(this.storage).save(
+            new Key.From(JournalTest.PREFIX, "repodata", "repomd.xml"), new byte[] {3}
+        );
+        new Journal(this.storage, JournalTest.PREFIX).recover().blockingAwait();
+        MatcherAssert.assertThat(
+            this.keys(),
+            Matchers.containsInAnyOrder(
+                "repo/repodata/new-primary.xml.gz", "repo/repodata/repomd.xml"
+            )
+        );
+    }
+
+    @Test
+    void removesStagedLeftovers() {
+        final Journal journal = new Journal(this.storage, JournalTest.PREFIX);
+        journal.stage("new-primary.xml.gz", new Content.From(new byte[] {2})).blockingAwait();
+        new Journal(this.storage, JournalTest.PREFIX).recover().blockingAwait();
+        MatcherAssert.assertThat(
+            this.keys(),
+            new IsEqual<>(Collections.singletonList("repo/repodata/old-primary.xml.gz"))
+        );
+    }
+
+    /**
+     * Keys in storage.
+     * @return Key strings
+     */
+    private List<String> keys() {
+        return new BlockingStorage(this.storage).list(Key.ROOT).stream()
+            .map(Key::string).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm;
+
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.blocking.BlockingStorage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.asto.test.TestResource;
+import com.artipie.rpm.meta.MergedXml;
+import com.artipie.rpm.meta.XmlPackage;
+import com.artipie.rpm.pkg.FilePackage;
+import com.artipie.rpm.pkg.FilePackageHeader;
+import com.artipie.rpm.pkg.Package;
+import com.jcabi.matchers.XhtmlMatchers;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.cactoos.list.ListOf;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link MetadataBatch}.
+ * @since 1.9
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class MetadataBatchTest {
+
+    /**
+     * Primary key.
+     */
+    private static final Key PRIMARY = new Key.From("primary.xml");
+
+    /**
+     * Test storage.
+     */
+    private Storage storage;
+
+    /**
+     * Metadata reads count.
+     */
+    private AtomicInteger reads;
+
+    @BeforeEach
+    void init() {
+        this.storage = new InMemoryStorage();
+        this.reads = new AtomicInteger();
+        new TestResource("repodata/primary.xml.example")
+            .saveTo(this.storage, MetadataBatchTest.PRIMARY);
+    }
+
+    @Test
+    void foldsRequestsIntoOnePass() throws IOException {
+        final MetadataBatch batch = new MetadataBatch(this::metadata, Duration.ofMillis(300));
+        final CompletableFuture<MergedXml.Result> first = batch.append(
+            new ListOf<>(MetadataBatchTest.meta(new TestRpm.Abc()))
+        ).toCompletableFuture();
+        final CompletableFuture<MergedXml.Result> second = batch.append(
+            new ListOf<>(MetadataBatchTest.meta(new TestRpm.Libdeflt()))
+        ).toCompletableFuture();
+        final CompletableFuture<MergedXml.Result> third = batch.remove(
+            new ListOf<>("7eaefd1cb4f9740558da7f12f9cb5a6141a47f5d064a98d46c29959869af1a44")
+        ).toCompletableFuture();
+        CompletableFuture.allOf(first, second, third).join();
+        MatcherAssert.assertThat(
+            "Metadata was read more than once",
+            this.reads.get(),
+            new IsEqual<>(1)
+        );
+        MatcherAssert.assertThat(
+            "Requests got different results",
+            new long[] {first.join().count(), second.join().count(), third.join().count()},
+            new IsEqual<>(new long[] {3, 3, 3})
+        );
+        MatcherAssert.assertThat(
+            new String(
+                new BlockingStorage(this.storage).value(MetadataBatchTest.PRIMARY),
+                StandardCharsets.UTF_8
+            ),
+            XhtmlMatchers.hasXPaths(
+                "/*[local-name()='metadata' and @packages='3']",
+                "/*[local-name()='metadata' and not(*[local-name()='package']/*[text()='aom'])]",
+                //@checkstyle LineLengthCheck (2 lines)
+                "/*[local-name()='metadata']/*[local-name()='package']/*[local-name()='name' and text()='abc']",
+                "/*[local-name()='metadata']/*[local-name()='package']/*[local-name()='name' and text()='libdeflt1_0']"
+            )
+        );
+    }
+
+    @Test
+    void cancelsPendingAppendOnRemove() throws IOException {
+        final MetadataBatch batch = new MetadataBatch(this::metadata, Duration.ofMillis(100));
+        final Package.Meta abc = MetadataBatchTest.meta(new TestRpm.Abc());
+        batch.append(new ListOf<>(abc));
+        MatcherAssert.assertThat(
+            batch.remove(new ListOf<>(abc.checksum().hex())).toCompletableFuture().join().count(),
+            new IsEqual<>(2L)
+        );
+    }
+
+    @Test
+    void failsAppendWhenChecksumCannotBeRead() throws IOException {
+        final MetadataBatch batch = new MetadataBatch(this::metadata, Duration.ofMillis(100));
+        final TestRpm.Abc rpm = new TestRpm.Abc();
+        final CompletableFuture<MergedXml.Result> res = batch.append(
+            new ListOf<>(
+                new FilePackage.Headers(
+                    new FilePackageHeader(rpm.path()).header(),
+                    rpm.path().resolveSibling("missing.rpm"), Digest.SHA256, "missing.rpm"
+                )
+            )
+        ).toCompletableFuture();
+        MatcherAssert.assertThat(
+            "Append did not fail",
+            res.isCompletedExceptionally(),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Metadata was read",
+            this.reads.get(),
+            new IsEqual<>(0)
+        );
+    }
+
+    /**
+     * Reads primary metadata from storage and writes it back.
+     * @return Metadata
+     */
+    private CompletionStage<AsyncMetadata> metadata() {
+        this.reads.incrementAndGet();
+        return this.storage.value(MetadataBatchTest.PRIMARY).thenApply(
+            content -> new AsyncMetadata(
+                new AsyncMetadata.Item(
+                    XmlPackage.PRIMARY, Optional.of(content),
+                    res -> this.storage.save(MetadataBatchTest.PRIMARY, res)
+                )
+            )
+        );
+    }
+
+    /**
+     * Package metadata of test rpm.
+     * @param rpm Test rpm
+     * @return Package metadata
+     * @throws IOException On error
+     */
+    private static Package.Meta meta(final TestRpm rpm) throws IOException {
+        return new FilePackage.Headers(
+            new FilePackageHeader(rpm.path()).header(),
+            rpm.path(), Digest.SHA256, rpm.path().getFileName().toString()
+        );
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.hamcrest.core.StringContains;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link Progress}.
+ * @since 1.9
+ */
+final class ProgressTest {
+
+    @Test
+    void countsPackages() {
+        final Progress progress = new Progress();
+        progress.stage(UpdateListener.Stage.DISCOVER, "one.rpm", 0, 0);
+        progress.stage(UpdateListener.Stage.DISCOVER, "two.rpm", 0, 0);
+        progress.stage(UpdateListener.Stage.COPY, "one.rpm", 1, 100);
+        progress.stage(UpdateListener.Stage.COPY, "primary.xml.gz", 1, 50);
+        progress.stage(UpdateListener.Stage.CHECKSUM, "one.rpm", 1, 100);
+        progress.stage(UpdateListener.Stage.XML, "one.rpm", 1, 0);
+        final Progress.Snapshot snapshot = progress.snapshot();
+        MatcherAssert.assertThat(
+            new long[] {
+                snapshot.discovered(), snapshot.fetched(), snapshot.parsed(),
+                snapshot.written(), snapshot.bytes(),
+            },
+            new IsEqual<>(new long[] {2, 1, 1, 1, 100})
+        );
+    }
+
+    @Test
+    void estimatesTimeLeft() {
+        final Progress progress = new Progress(Instant.now().minus(Duration.ofMinutes(1)));
+        MatcherAssert.assertThat(
+            "Time left is unknown before first package is written",
+            progress.snapshot().eta(),
+            new IsEqual<>(Optional.empty())
+        );
+        // @checkstyle MagicNumberCheck (4 lines)
+        for (int idx = 0; idx < 4; idx += 1) {
+            progress.stage(UpdateListener.Stage.DISCOVER, String.format("%d.rpm", idx), 0, 0);
+        }
+        progress.stage(UpdateListener.Stage.XML, "0.rpm", 1, 0);
+        MatcherAssert.assertThat(
+            "Time left is estimated by written packages rate",
+            progress.snapshot().eta().get().toMinutes(),
+            new IsEqual<>(3L)
+        );
+        MatcherAssert.assertThat(
+            "Time left is in json",
+            progress.snapshot().json().getJsonNumber("eta").longValue() / 1000 / 60,
+            new IsEqual<>(3L)
+        );
+        MatcherAssert.assertThat(
+            "Snapshot is rendered",
+            progress.snapshot().toString(),
+            new StringContains("discovered=4, fetched=0, parsed=0, written=1")
+        );
+    }
+}
@@ -5,10 +5,13 @@
 package com.artipie.rpm;
 
 import com.amihaiemil.eoyaml.Yaml;
+import com.artipie.rpm.files.Compression;
+import java.util.Arrays;
 import java.util.Optional;
 import org.cactoos.func.ProcOf;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
 import org.junit.jupiter.api.Test;
 import org.llorllale.cactoos.matchers.MatcherOf;
 
@@ -40,8 +43,30 @@ public final class RepoConfigFromYamlTest {
             Matchers.allOf(
                 new MatcherOf<>(cnfg -> cnfg.digest() == Digest.SHA256),
                 new MatcherOf<>(cnfg -> cnfg.naming() == StandardNamingPolicy.SHA256),
-                new MatcherOf<>(new ProcOf<>(RepoConfig.FromYaml::filelists))
+                new MatcherOf<>(new ProcOf<>(RepoConfig.FromYaml::filelists)),
+                new MatcherOf<>(cnfg -> cnfg.compressions().size() == 0),
+                new MatcherOf<>(cnfg -> !cnfg.verifier().isPresent())
             )
         );
     }
+
+    @Test
+    void readsCompressions() {
+        MatcherAssert.assertThat(
+            new RepoConfig.FromYaml(
+                Yaml.createYamlMappingBuilder().add("compression", "xz, bzip2").build()
+            ).compressions(),
+            new IsEqual<>(Arrays.asList(Compression.XZ, Compression.BZIP2))
+        );
+    }
+
+    @Test
+    void readsKeyring() {
+        MatcherAssert.assertThat(
+            new RepoConfig.FromYaml(
+                Yaml.createYamlMappingBuilder().add("keyring", "/etc/rpm/keyring.gpg").build()
+            ).verifier().isPresent(),
+            new IsEqual<>(true)
+        );
+    }
 }
@@ -0,0 +1,68 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm;
+
+import com.artipie.rpm.files.Compression;
+import java.util.Collections;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.hamcrest.core.IsNot;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link RepoConfig.Simple}.
+ * @since 1.9
+ */
+final class RepoConfigSimpleTest {
+
+    @Test
+    void equalsWithSameSettings() {
+        final RepoConfig first = new RepoConfig.Simple(
+            Digest.SHA1, StandardNamingPolicy.SHA256, true,
+            Collections.singletonList(Compression.XZ)
+        );
+        final RepoConfig second = new RepoConfig.Simple(
+            Digest.SHA1, StandardNamingPolicy.SHA256, true,
+            Collections.singletonList(Compression.XZ)
+        );
+        MatcherAssert.assertThat(
+            "Configs are equal",
+            first,
+            new IsEqual<>(second)
+        );
+        MatcherAssert.assertThat(
+            "Hash codes are equal",
+            first.hashCode(),
+            new IsEqual<>(second.hashCode())
+        );
+    }
+
+    @Test
+    void differsWithOtherSettings() {
+        MatcherAssert.assertThat(
+            new RepoConfig.Simple(Digest.SHA256, StandardNamingPolicy.PLAIN, true),
+            new IsNot<>(
+                new IsEqual<>(
+                    new RepoConfig.Simple(Digest.SHA256, StandardNamingPolicy.PLAIN, false)
+                )
+            )
+        );
+    }
+
+    @Test
+    void differsWithOtherListener() {
+        MatcherAssert.assertThat(
+            new RepoConfig.Simple(),
+            new IsNot<>(
+                new IsEqual<>(
+                    new RepoConfig.Simple(
+                        Digest.SHA256, StandardNamingPolicy.PLAIN, false,
+                        Collections.emptyList(), new UpdateListener.Histogram()
+                    )
+                )
+            )
+        );
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm;
+
+import com.artipie.asto.Key;
+import com.artipie.asto.fs.FileStorage;
+import com.artipie.asto.test.TestResource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import javax.json.JsonObject;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.IOUtils;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test for {@link RepodataVerifier}.
+ * @since 1.9
+ */
+class RepodataVerifierTest {
+
+    /**
+     * Repository.
+     */
+    @TempDir
+    Path repo;
+
+    @BeforeEach
+    void init() throws IOException {
+        final FileStorage storage = new FileStorage(this.repo);
+        new TestRpm.Abc().put(storage);
+        new TestRpm.Libdeflt().put(storage);
+        new Rpm(storage, StandardNamingPolicy.SHA256, Digest.SHA256, true)
+            .batchUpdate(Key.ROOT).blockingAwait();
+    }
+
+    @Test
+    void verifiesConsistentRepository() throws IOException {
+        final JsonObject report = new RepodataVerifier(this.repo, 2).verify();
+        MatcherAssert.assertThat(
+            report.toString(),
+            report.getBoolean("valid"),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Packages were not re-hashed",
+            report.getInt("rehashed"),
+            new IsEqual<>(2)
+        );
+        MatcherAssert.assertThat(
+            "Wrong records count",
+            report.getJsonObject("metadata").getJsonObject("filelists").getInt("records"),
+            new IsEqual<>(2)
+        );
+    }
+
+    @Test
+    void findsModifiedPackage() throws IOException {
+        Files.write(
+            this.repo.resolve(new TestRpm.Abc().path().getFileName().toString()),
+            new byte[] {1, 2, 3}, StandardOpenOption.APPEND
+        );
+        final JsonObject report = new RepodataVerifier(this.repo, 1).verify();
+        MatcherAssert.assertThat(
+            "Modified package was not found",
+            report.getJsonObject("totals").getInt("rpm"),
+            new IsEqual<>(1)
+        );
+        MatcherAssert.assertThat(
+            report.toString(),
+            report.getBoolean("valid"),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void findsInconsistentMetadata() throws IOException {
+        final Path other;
+        try (Stream<Path> files = Files.list(this.repo.resolve("repodata"))) {
+            other = files.filter(file -> file.toString().endsWith("other.xml.gz"))
+                .findFirst().get();
+        }
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(other))) {
+            out.write(new TestResource("repodata/other.xml.example").asBytes());
+        }
+        final JsonObject report = new RepodataVerifier(this.repo, 0).verify();
+        MatcherAssert.assertThat(
+            "Packages absent in primary and missing packages were not found",
+            report.getJsonObject("totals").getInt("pkgid"),
+            new IsEqual<>(4)
+        );
+        MatcherAssert.assertThat(
+            "Checksum mismatch was not found",
+            report.getJsonObject("totals").getInt("checksum"),
+            new IsEqual<>(1)
+        );
+        MatcherAssert.assertThat(
+            "Packages were re-hashed",
+            report.getInt("rehashed"),
+            new IsEqual<>(0)
+        );
+    }
+
+    @Test
+    void rejectsPackageLocationOutsideOfRepository() throws IOException {
+        final Path primary;
+        try (Stream<Path> files = Files.list(this.repo.resolve("repodata"))) {
+            primary = files.filter(file -> file.toString().endsWith("primary.xml.gz"))
+                .findFirst().get();
+        }
+        final String name = new TestRpm.Abc().path().getFileName().toString();
+        final String xml;
+        try (InputStream input = new GZIPInputStream(Files.newInputStream(primary))) {
+            xml = new String(IOUtils.toByteArray(input), StandardCharsets.UTF_8).replace(
+                String.format("href=\"%s\"", name), String.format("href=\"../../%s\"", name)
+            );
+        }
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(primary))) {
+            out.write(xml.getBytes(StandardCharsets.UTF_8));
+        }
+        final JsonObject report = new RepodataVerifier(this.repo, 2).verify();
+        MatcherAssert.assertThat(
+            "Location outside of repository was not reported",
+            report.getJsonObject("totals").getInt("location"),
+            new IsEqual<>(1)
+        );
+        MatcherAssert.assertThat(
+            "Package outside of repository was re-hashed",
+            report.getInt("rehashed"),
+            new IsEqual<>(1)
+        );
+    }
+
+    @Test
+    void verifiesChecksumsByRepomdType() throws IOException {
+        final Path repomd = this.repo.resolve("repodata/repomd.xml");
+        final Path other = RepodataVerifierTest.metadata(this.repo, "other.xml.gz");
+        final Path filelists = RepodataVerifierTest.metadata(this.repo, "filelists.xml.gz");
+        final String sha = DigestUtils.sha512Hex(Files.readAllBytes(other));
+        Files.write(
+            repomd,
+            new String(Files.readAllBytes(repomd), StandardCharsets.UTF_8).replace(
+                String.format(
+                    "<checksum type=\"sha256\">%s</checksum>",
+                    new FileChecksum(other, Digest.SHA256).hex()
+                ),
+                String.format("<checksum type=\"sha512\">%s</checksum>", sha)
+            ).replace(
+                String.format(
+                    "<checksum type=\"sha256\">%s</checksum>",
+                    new FileChecksum(filelists, Digest.SHA256).hex()
+                ),
+                "<checksum type=\"md5\">d41d8cd98f00b204e9800998ecf8427e</checksum>"
+            ).getBytes(StandardCharsets.UTF_8)
+        );
+        final JsonObject report = new RepodataVerifier(this.repo, 0).verify();
+        MatcherAssert.assertThat(
+            report.toString(),
+            report.getJsonArray("issues").stream()
+                .map(JsonObject.class::cast)
+                .map(issue -> issue.getString("message"))
+                .collect(Collectors.toList()),
+            Matchers.contains("unsupported checksum type md5")
+        );
+        MatcherAssert.assertThat(
+            "Checksum was not computed with repomd type",
+            report.getJsonObject("metadata").getJsonObject("other").getString("checksum"),
+            new IsEqual<>(sha)
+        );
+    }
+
+    /**
+     * Finds metadata file in repodata.
+     * @param repo Repository root
+     * @param suffix File name suffix
+     * @return Metadata file
+     * @throws IOException On error
+     */
+    private static Path metadata(final Path repo, final String suffix) throws IOException {
+        final Path res;
+        try (Stream<Path> files = Files.list(repo.resolve("repodata"))) {
+            res = files.filter(file -> file.toString().endsWith(suffix)).findFirst().get();
+        }
+        return res;
+    }
+}
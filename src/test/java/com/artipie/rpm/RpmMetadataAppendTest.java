@@ -8,6 +8,7 @@ import com.artipie.asto.test.TestResource;
 import com.artipie.rpm.meta.XmlPackage;
 import com.artipie.rpm.pkg.FilePackage;
 import com.artipie.rpm.pkg.FilePackageHeader;
+import com.artipie.rpm.pkg.Package;
 import com.jcabi.matchers.XhtmlMatchers;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
@@ -129,4 +130,59 @@ class RpmMetadataAppendTest {
             )
         );
     }
+
+    @Test
+    void appendsRecordsFromIterator() throws IOException {
+        final ByteArrayOutputStream primary = new ByteArrayOutputStream();
+        final ByteArrayOutputStream filelists = new ByteArrayOutputStream();
+        final TestRpm.Libdeflt libdeflt = new TestRpm.Libdeflt();
+        final TestRpm.Abc abc = new TestRpm.Abc();
+        new RpmMetadata.Append(
+            new RpmMetadata.MetadataItem(
+                XmlPackage.PRIMARY,
+                new ByteArrayInputStream(
+                    new TestResource("repodata/primary.xml.example").asBytes()
+                ),
+                primary
+            ),
+            new RpmMetadata.MetadataItem(
+                XmlPackage.FILELISTS,
+                new ByteArrayInputStream(
+                    new TestResource("repodata/filelists.xml.example").asBytes()
+                ),
+                filelists
+            )
+        ).perform(
+            new ListOf<Package.Meta>(
+                new FilePackage.Headers(
+                    new FilePackageHeader(libdeflt.path()).header(),
+                    libdeflt.path(), Digest.SHA256, libdeflt.path().getFileName().toString()
+                ),
+                new FilePackage.Headers(
+                    new FilePackageHeader(abc.path()).header(),
+                    abc.path(), Digest.SHA256, abc.path().getFileName().toString()
+                )
+            ).iterator()
+        );
+        MatcherAssert.assertThat(
+            "Records were not added to primary xml",
+            primary.toString(),
+            XhtmlMatchers.hasXPaths(
+                "/*[local-name()='metadata' and @packages='4']",
+                //@checkstyle LineLengthCheck (3 lines)
+                "/*[local-name()='metadata']/*[local-name()='package']/*[local-name()='name' and text()='nginx']",
+                "/*[local-name()='metadata']/*[local-name()='package']/*[local-name()='name' and text()='abc']",
+                "/*[local-name()='metadata']/*[local-name()='package' and *[text()='abc']]/*[local-name()='format']/*[local-name()='header-range']"
+            )
+        );
+        MatcherAssert.assertThat(
+            "Records were not added to filelists xml",
+            filelists.toString(),
+            XhtmlMatchers.hasXPaths(
+                "/*[local-name()='filelists' and @packages='4']",
+                "/*[local-name()='filelists']/*[local-name()='package' and @name='abc']",
+                "/*[local-name()='filelists']/*[local-name()='package' and @name='libdeflt1_0']"
+            )
+        );
+    }
 }
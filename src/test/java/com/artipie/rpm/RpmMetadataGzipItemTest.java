@@ -0,0 +1,103 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm;
+
+import com.artipie.asto.test.TestResource;
+import com.artipie.rpm.meta.XmlPackage;
+import com.artipie.rpm.pkg.FilePackage;
+import com.artipie.rpm.pkg.FilePackageHeader;
+import com.jcabi.matchers.XhtmlMatchers;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.IOUtils;
+import org.cactoos.list.ListOf;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link RpmMetadata.GzipItem}.
+ * @since 1.9
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+class RpmMetadataGzipItemTest {
+
+    @Test
+    void appendsRecordsToCompressedMetadata() throws IOException {
+        final ByteArrayOutputStream primary = new ByteArrayOutputStream();
+        final ByteArrayOutputStream other = new ByteArrayOutputStream();
+        final RpmMetadata.GzipItem pitem = new RpmMetadata.GzipItem(
+            XmlPackage.PRIMARY,
+            Optional.of(RpmMetadataGzipItemTest.gzipped("repodata/primary.xml.example")),
+            primary, Digest.SHA256
+        );
+        final RpmMetadata.GzipItem oitem = new RpmMetadata.GzipItem(
+            XmlPackage.OTHER, other, Digest.SHA256
+        );
+        final TestRpm.Abc abc = new TestRpm.Abc();
+        new RpmMetadata.Append(pitem.item(), oitem.item()).perform(
+            new ListOf<>(
+                new FilePackage.Headers(
+                    new FilePackageHeader(abc.path()).header(),
+                    abc.path(), Digest.SHA256, abc.path().getFileName().toString()
+                )
+            )
+        );
+        final RpmMetadata.GzipItem.Summary summary = pitem.finish();
+        oitem.finish();
+        final byte[] xml = IOUtils.toByteArray(
+            new GZIPInputStream(new ByteArrayInputStream(primary.toByteArray()))
+        );
+        MatcherAssert.assertThat(
+            "Records were not added to primary xml",
+            new String(xml, StandardCharsets.UTF_8),
+            XhtmlMatchers.hasXPath("/*[local-name()='metadata' and @packages='3']")
+        );
+        MatcherAssert.assertThat(
+            "Records were not added to others xml",
+            IOUtils.toString(
+                new GZIPInputStream(new ByteArrayInputStream(other.toByteArray())),
+                StandardCharsets.UTF_8
+            ),
+            XhtmlMatchers.hasXPath("/*[local-name()='otherdata' and @packages='3']")
+        );
+        MatcherAssert.assertThat(
+            "Compressed checksum is not correct",
+            summary.checksum().hex(),
+            new IsEqual<>(DigestUtils.sha256Hex(primary.toByteArray()))
+        );
+        MatcherAssert.assertThat(
+            "Open checksum is not correct",
+            summary.openChecksum().hex(),
+            new IsEqual<>(DigestUtils.sha256Hex(xml))
+        );
+        MatcherAssert.assertThat(
+            "Sizes are not correct",
+            new long[] {summary.size(), summary.openSize()},
+            new IsEqual<>(new long[] {primary.size(), xml.length})
+        );
+    }
+
+    /**
+     * Gzipped test resource.
+     * @param name Resource name
+     * @return Gzipped resource input stream
+     * @throws IOException On error
+     */
+    private static ByteArrayInputStream gzipped(final String name) throws IOException {
+        final ByteArrayOutputStream res = new ByteArrayOutputStream();
+        try (OutputStream gzip = new GZIPOutputStream(res)) {
+            gzip.write(new TestResource(name).asBytes());
+        }
+        return new ByteArrayInputStream(res.toByteArray());
+    }
+}
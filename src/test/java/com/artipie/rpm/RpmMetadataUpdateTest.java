@@ -0,0 +1,113 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm;
+
+import com.artipie.asto.test.TestResource;
+import com.artipie.rpm.meta.MergedXml;
+import com.artipie.rpm.meta.XmlPackage;
+import com.artipie.rpm.pkg.FilePackage;
+import com.artipie.rpm.pkg.FilePackageHeader;
+import com.jcabi.matchers.XhtmlMatchers;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import org.cactoos.list.ListOf;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.hamcrest.core.IsNot;
+import org.hamcrest.core.StringContains;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link RpmMetadata.Update}.
+ * @since 1.9
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class RpmMetadataUpdateTest {
+
+    @Test
+    void removesAndAppendsRecords() throws IOException {
+        final ByteArrayOutputStream primary = new ByteArrayOutputStream();
+        final ByteArrayOutputStream other = new ByteArrayOutputStream();
+        final ByteArrayOutputStream filelists = new ByteArrayOutputStream();
+        final String checksum = "7eaefd1cb4f9740558da7f12f9cb5a6141a47f5d064a98d46c29959869af1a44";
+        final TestRpm.Libdeflt libdeflt = new TestRpm.Libdeflt();
+        final TestRpm.Abc abc = new TestRpm.Abc();
+        final MergedXml.Result res = new RpmMetadata.Update(
+            new RpmMetadata.MetadataItem(
+                XmlPackage.PRIMARY,
+                new ByteArrayInputStream(
+                    new TestResource("repodata/primary.xml.example").asBytes()
+                ),
+                primary
+            ),
+            new RpmMetadata.MetadataItem(
+                XmlPackage.OTHER,
+                new ByteArrayInputStream(
+                    new TestResource("repodata/other.xml.example").asBytes()
+                ),
+                other
+            ),
+            new RpmMetadata.MetadataItem(
+                XmlPackage.FILELISTS,
+                new ByteArrayInputStream(
+                    new TestResource("repodata/filelists.xml.example").asBytes()
+                ),
+                filelists
+            )
+        ).perform(
+            new ListOf<>(checksum),
+            new ListOf<>(
+                new FilePackage.Headers(
+                    new FilePackageHeader(libdeflt.path()).header(),
+                    libdeflt.path(), Digest.SHA256, libdeflt.path().getFileName().toString()
+                ),
+                new FilePackage.Headers(
+                    new FilePackageHeader(abc.path()).header(),
+                    abc.path(), Digest.SHA256, abc.path().getFileName().toString()
+                )
+            )
+        );
+        MatcherAssert.assertThat(
+            "Packages count is not correct",
+            res.count(),
+            new IsEqual<>(3L)
+        );
+        MatcherAssert.assertThat(
+            "Primary xml was not updated",
+            primary.toString(),
+            XhtmlMatchers.hasXPaths(
+                "/*[local-name()='metadata' and @packages='3']",
+                "/*[local-name()='metadata' and not(*[local-name()='package']/*[text()='aom'])]",
+                //@checkstyle LineLengthCheck (3 lines)
+                "/*[local-name()='metadata']/*[local-name()='package']/*[local-name()='name' and text()='nginx']",
+                "/*[local-name()='metadata']/*[local-name()='package']/*[local-name()='name' and text()='abc']",
+                "/*[local-name()='metadata']/*[local-name()='package']/*[local-name()='name' and text()='libdeflt1_0']"
+            )
+        );
+        MatcherAssert.assertThat(
+            "Other xml was not updated",
+            other.toString(),
+            XhtmlMatchers.hasXPaths(
+                "/*[local-name()='otherdata' and @packages='3']",
+                "/*[local-name()='otherdata' and not(*[local-name()='package' and @name='aom'])]",
+                "/*[local-name()='otherdata']/*[local-name()='package' and @name='nginx']",
+                "/*[local-name()='otherdata']/*[local-name()='package' and @name='abc']",
+                "/*[local-name()='otherdata']/*[local-name()='package' and @name='libdeflt1_0']"
+            )
+        );
+        MatcherAssert.assertThat(
+            "Filelists xml was not updated",
+            filelists.toString(),
+            new IsNot<>(new StringContains(checksum))
+        );
+        MatcherAssert.assertThat(
+            "Filelists xml packages count is not correct",
+            filelists.toString(),
+            XhtmlMatchers.hasXPath("/*[local-name()='filelists' and @packages='3']")
+        );
+    }
+}
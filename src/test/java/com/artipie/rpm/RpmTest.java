@@ -9,25 +9,36 @@ import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
 import com.artipie.asto.SubStorage;
 import com.artipie.asto.blocking.BlockingStorage;
+import com.artipie.asto.lock.storage.StorageLock;
 import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.rpm.files.Compression;
 import com.artipie.rpm.files.Gzip;
 import com.artipie.rpm.hm.StorageHasMetadata;
 import com.artipie.rpm.hm.StorageHasRepoMd;
 import com.artipie.rpm.meta.XmlPackage;
+import com.artipie.rpm.meta.XmlRepomdEntries;
+import com.artipie.rpm.misc.ChecksumSidecar;
+import com.artipie.rpm.pkg.PackageVerifier;
 import com.jcabi.matchers.XhtmlMatchers;
 import com.jcabi.xml.XMLDocument;
 import io.reactivex.Completable;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
 import java.util.function.BiFunction;
 import java.util.stream.Collectors;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.IOUtils;
 import org.cactoos.Scalar;
 import org.cactoos.list.ListOf;
 import org.cactoos.list.Mapped;
@@ -36,6 +47,8 @@ import org.cactoos.scalar.Unchecked;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
 import org.hamcrest.core.IsEqual;
+import org.hamcrest.core.IsNot;
+import org.hamcrest.core.IsNull;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
@@ -79,6 +92,45 @@ final class RpmTest {
      */
     private Storage storage;
 
+    /**
+     * Verifies that compressed variants of all metadata files are listed in
+     * repomd.xml and have the same content as gzipped metadata.
+     * @param cmp Variants compression
+     * @throws IOException On error
+     */
+    private void verifyVariantsResolvedByRepomd(final Compression cmp) throws IOException {
+        final BlockingStorage bsto = new BlockingStorage(this.storage);
+        final Map<String, XmlRepomdEntries.Entry> entries = new XmlRepomdEntries(
+            new ByteArrayInputStream(bsto.value(new Key.From("repodata/repomd.xml")))
+        ).read();
+        for (final XmlPackage pkg : XmlPackage.values()) {
+            final XmlRepomdEntries.Entry entry = entries.get(
+                String.format("%s_%s", pkg.filename(), cmp.extension())
+            );
+            MatcherAssert.assertThat(
+                String.format("%s variant is listed in repomd", pkg.filename()),
+                entry,
+                new IsNot<>(new IsNull<>())
+            );
+            final byte[] variant = bsto.value(new Key.From(entry.location().get().split("/")));
+            MatcherAssert.assertThat(
+                String.format("%s variant has checksum from repomd", pkg.filename()),
+                DigestUtils.sha256Hex(variant),
+                new IsEqual<>(entry.checksum().get())
+            );
+            final byte[] gzip = bsto.value(
+                new Key.From(entries.get(pkg.filename()).location().get().split("/"))
+            );
+            MatcherAssert.assertThat(
+                String.format("%s variant has the same content", pkg.filename()),
+                IOUtils.toByteArray(cmp.decompress(new ByteArrayInputStream(variant))),
+                new IsEqual<>(
+                    IOUtils.toByteArray(Compression.GZIP.decompress(new ByteArrayInputStream(gzip)))
+                )
+            );
+        }
+    }
+
     /**
      * Test config.
      */
@@ -142,6 +194,97 @@ final class RpmTest {
         this.verifyThatTempDirIsCleanedUp();
     }
 
+    @Test
+    void skipsPublishingOfUnchangedMetadata() throws Exception {
+        final Rpm repo = new Rpm(this.storage, this.config);
+        new TestRpm.Multiple(new TestRpm.Abc(), new TestRpm.Libdeflt()).put(this.storage);
+        repo.batchUpdateIncrementally(Key.ROOT).blockingAwait();
+        final byte[] repomd = new BlockingStorage(this.storage)
+            .value(new Key.From("repodata", "repomd.xml"));
+        final UpdateListener.Histogram histogram = new UpdateListener.Histogram();
+        repo.batchUpdateIncrementally(Key.ROOT, histogram).blockingAwait();
+        MatcherAssert.assertThat(
+            "Nothing is uploaded",
+            histogram.count(UpdateListener.Stage.UPLOAD),
+            new IsEqual<>(0L)
+        );
+        MatcherAssert.assertThat(
+            "Repomd is not replaced",
+            new BlockingStorage(this.storage).value(new Key.From("repodata", "repomd.xml")),
+            new IsEqual<>(repomd)
+        );
+        this.verifyThatTempDirIsCleanedUp();
+    }
+
+    @Test
+    void skipsPublishingOfUnchangedMetadataOnFullUpdate() throws Exception {
+        final Rpm repo = new Rpm(this.storage, this.config);
+        new TestRpm.Multiple(
+            new TestRpm.Abc(), new TestRpm.Libdeflt(), new TestRpm.Aspell(), new TestRpm.Time()
+        ).put(this.storage);
+        repo.batchUpdate(Key.ROOT).blockingAwait();
+        final byte[] repomd = new BlockingStorage(this.storage)
+            .value(new Key.From("repodata", "repomd.xml"));
+        final UpdateListener.Histogram histogram = new UpdateListener.Histogram();
+        repo.batchUpdate(Key.ROOT, histogram).blockingAwait();
+        MatcherAssert.assertThat(
+            "Nothing is uploaded",
+            histogram.count(UpdateListener.Stage.UPLOAD),
+            new IsEqual<>(0L)
+        );
+        MatcherAssert.assertThat(
+            "Repomd is not replaced",
+            new BlockingStorage(this.storage).value(new Key.From("repodata", "repomd.xml")),
+            new IsEqual<>(repomd)
+        );
+        this.verifyThatTempDirIsCleanedUp();
+    }
+
+    @Test
+    void reportsLockConflict() throws IOException {
+        new StorageLock(this.storage, Key.ROOT).acquire().toCompletableFuture().join();
+        new TestRpm.Abc().put(this.storage);
+        final Throwable err = Assertions.assertThrows(
+            RuntimeException.class,
+            () -> new Rpm(this.storage, this.config).batchUpdate(Key.ROOT).blockingAwait()
+        );
+        Throwable cause = err;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        MatcherAssert.assertThat(
+            cause.getMessage(),
+            Matchers.containsString("Failed to acquire lock")
+        );
+    }
+
+    @Test
+    void rejectsMetadataLocationOutsideOfRepository() throws IOException {
+        final Rpm repo = new Rpm(this.storage, this.config);
+        new TestRpm.Abc().put(this.storage);
+        repo.batchUpdateIncrementally(Key.ROOT).blockingAwait();
+        final BlockingStorage bsto = new BlockingStorage(this.storage);
+        final Key repomd = new Key.From("repodata", "repomd.xml");
+        bsto.save(
+            repomd,
+            new String(bsto.value(repomd), StandardCharsets.UTF_8)
+                .replace("href=\"repodata/", "href=\"../repodata/")
+                .getBytes(StandardCharsets.UTF_8)
+        );
+        final Throwable err = Assertions.assertThrows(
+            RuntimeException.class,
+            () -> repo.batchUpdateIncrementally(Key.ROOT).blockingAwait()
+        );
+        Throwable cause = err;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        MatcherAssert.assertThat(
+            cause.getMessage(),
+            Matchers.containsString("is outside of")
+        );
+    }
+
     @Test
     void doesNotTouchMetadataIfInvalidRpmIsSent() throws Exception {
         final RepoConfig cnfg =
@@ -206,7 +349,7 @@ final class RpmTest {
 
     @ParameterizedTest
     @EnumSource(UpdateType.class)
-    void throwsExceptionWhenFullUpdatesDoneSimultaneously(final UpdateType type)
+    void queuesFullUpdatesDoneSimultaneously(final UpdateType type)
         throws IOException {
         final Rpm repo =  new Rpm(
             this.storage, StandardNamingPolicy.SHA1, Digest.SHA256, true
@@ -241,8 +384,8 @@ final class RpmTest {
             }
         }
         MatcherAssert.assertThat(
-            "Some updates failed",
-            tasks.stream().anyMatch(CompletableFuture::isCompletedExceptionally),
+            "All updates succeeded",
+            tasks.stream().noneMatch(CompletableFuture::isCompletedExceptionally),
             new IsTrue()
         );
         MatcherAssert.assertThat(
@@ -289,6 +432,201 @@ final class RpmTest {
         this.verifyThatTempDirIsCleanedUp();
     }
 
+    @ParameterizedTest
+    @EnumSource(UpdateType.class)
+    void usesVerifiedChecksumFromSidecar(final UpdateType type) throws IOException {
+        final TestRpm.Abc abc = new TestRpm.Abc();
+        abc.put(this.storage);
+        final String hex = "0123456789abcdef";
+        new ChecksumSidecar(this.storage, new Key.From(abc.path().getFileName().toString()))
+            .save(hex, Files.size(abc.path())).join();
+        type.action.apply(
+            new Rpm(this.storage, StandardNamingPolicy.PLAIN, Digest.SHA256, false), Key.ROOT
+        ).blockingAwait();
+        final Path gzip = Files.createTempFile(RpmTest.tmp, XmlPackage.PRIMARY.name(), "xml.gz");
+        Files.write(
+            gzip, new BlockingStorage(this.storage).value(new Key.From("repodata/primary.xml.gz"))
+        );
+        final Path xml = Files.createTempFile(RpmTest.tmp, XmlPackage.PRIMARY.name(), "xml");
+        new Gzip(gzip).unpack(xml);
+        MatcherAssert.assertThat(
+            new XMLDocument(xml),
+            XhtmlMatchers.hasXPath(
+                String.format(
+                    //@checkstyle LineLengthCheck (1 line)
+                    "/*[local-name()='metadata']/*[local-name()='package']/*[local-name()='checksum' and text()='%s']",
+                    hex
+                )
+            )
+        );
+    }
+
+    @ParameterizedTest
+    @EnumSource(UpdateType.class)
+    void ignoresStaleSidecarAndRemovesOrphans(final UpdateType type) throws IOException {
+        final TestRpm.Abc abc = new TestRpm.Abc();
+        abc.put(this.storage);
+        final String name = abc.path().getFileName().toString();
+        new ChecksumSidecar(this.storage, new Key.From(name))
+            .save("0123456789abcdef", Files.size(abc.path()) + 1).join();
+        new ChecksumSidecar(this.storage, new Key.From("removed.rpm")).save("00", 1L).join();
+        type.action.apply(
+            new Rpm(this.storage, StandardNamingPolicy.PLAIN, Digest.SHA256, false), Key.ROOT
+        ).blockingAwait();
+        final Path gzip = Files.createTempFile(RpmTest.tmp, XmlPackage.PRIMARY.name(), "xml.gz");
+        Files.write(
+            gzip, new BlockingStorage(this.storage).value(new Key.From("repodata/primary.xml.gz"))
+        );
+        final Path xml = Files.createTempFile(RpmTest.tmp, XmlPackage.PRIMARY.name(), "xml");
+        new Gzip(gzip).unpack(xml);
+        MatcherAssert.assertThat(
+            "Package is hashed if sidecar size does not match",
+            new XMLDocument(xml),
+            XhtmlMatchers.hasXPath(
+                String.format(
+                    //@checkstyle LineLengthCheck (1 line)
+                    "/*[local-name()='metadata']/*[local-name()='package']/*[local-name()='checksum' and text()='%s']",
+                    DigestUtils.sha256Hex(Files.readAllBytes(abc.path()))
+                )
+            )
+        );
+        MatcherAssert.assertThat(
+            "Sidecar of removed package is deleted",
+            new BlockingStorage(this.storage).exists(new Key.From("removed.rpm.sha256")),
+            new IsEqual<>(false)
+        );
+    }
+
+    @ParameterizedTest
+    @EnumSource(UpdateType.class)
+    void publishesCompressedVariants(final UpdateType type) throws IOException {
+        new TestRpm.Abc().put(this.storage);
+        type.action.apply(
+            new Rpm(
+                this.storage,
+                new RepoConfig.Simple(
+                    Digest.SHA256, StandardNamingPolicy.PLAIN, true,
+                    Collections.singletonList(Compression.XZ)
+                )
+            ),
+            Key.ROOT
+        ).blockingAwait();
+        this.verifyVariantsResolvedByRepomd(Compression.XZ);
+    }
+
+    @ParameterizedTest
+    @EnumSource(UpdateType.class)
+    void publishesVariantsWhenCompressionsChanged(final UpdateType type) throws IOException {
+        new TestRpm.Abc().put(this.storage);
+        type.action.apply(
+            new Rpm(this.storage, StandardNamingPolicy.PLAIN, Digest.SHA256, true), Key.ROOT
+        ).blockingAwait();
+        type.action.apply(
+            new Rpm(
+                this.storage,
+                new RepoConfig.Simple(
+                    Digest.SHA256, StandardNamingPolicy.PLAIN, true,
+                    Collections.singletonList(Compression.BZIP2)
+                )
+            ),
+            Key.ROOT
+        ).blockingAwait();
+        this.verifyVariantsResolvedByRepomd(Compression.BZIP2);
+    }
+
+    @ParameterizedTest
+    @EnumSource(UpdateType.class)
+    void reportsUpdateStages(final UpdateType type) throws IOException {
+        final TestRpm abc = new TestRpm.Abc();
+        final TestRpm libdeflt = new TestRpm.Libdeflt();
+        new TestRpm.Multiple(abc, libdeflt).put(this.storage);
+        final UpdateListener.Histogram histogram = new UpdateListener.Histogram();
+        type.action.apply(
+            new Rpm(
+                this.storage,
+                new RepoConfig.Simple(
+                    Digest.SHA256, StandardNamingPolicy.PLAIN, true,
+                    Collections.emptyList(), histogram
+                )
+            ),
+            Key.ROOT
+        ).blockingAwait();
+        final List<String> names = new ListOf<>(
+            abc.path().getFileName().toString(), libdeflt.path().getFileName().toString()
+        );
+        MatcherAssert.assertThat(
+            "Checksum and XML are reported per package",
+            histogram.items(UpdateListener.Stage.CHECKSUM).containsAll(names)
+                && histogram.items(UpdateListener.Stage.XML).containsAll(names),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Copied bytes are reported",
+            histogram.bytes(UpdateListener.Stage.COPY),
+            new IsEqual<>(Files.size(abc.path()) + Files.size(libdeflt.path()))
+        );
+        MatcherAssert.assertThat(
+            "Uploaded metadata files are reported",
+            histogram.count(UpdateListener.Stage.UPLOAD),
+            new IsEqual<>(4L)
+        );
+        MatcherAssert.assertThat(
+            "Lock wait is reported",
+            histogram.count(UpdateListener.Stage.LOCK),
+            new IsEqual<>(1L)
+        );
+    }
+
+    @ParameterizedTest
+    @EnumSource(UpdateType.class)
+    void rejectsPackagesFailedVerification(final UpdateType type) throws IOException {
+        final TestRpm.Signed signed = new TestRpm.Signed();
+        final TestRpm abc = new TestRpm.Abc();
+        new TestRpm.Multiple(signed, abc).put(this.storage);
+        final UpdateListener.Histogram histogram = new UpdateListener.Histogram();
+        type.action.apply(
+            new Rpm(
+                this.storage,
+                new RepoConfig.Simple(
+                    Digest.SHA256, StandardNamingPolicy.PLAIN, true,
+                    Collections.emptyList(), histogram,
+                    Optional.of(new PackageVerifier(signed.keyring()))
+                )
+            ),
+            Key.ROOT
+        ).blockingAwait();
+        MatcherAssert.assertThat(
+            "Package signed with unknown key is reported as rejected",
+            histogram.items(UpdateListener.Stage.REJECT),
+            new IsEqual<>(Collections.singleton(abc.path().getFileName().toString()))
+        );
+        MatcherAssert.assertThat(
+            "Only verified package is added to metadata",
+            this.storage,
+            new StorageHasMetadata(1, true, RpmTest.tmp)
+        );
+    }
+
+    @ParameterizedTest
+    @EnumSource(UpdateType.class)
+    void reportsProgress(final UpdateType type) throws IOException {
+        new TestRpm.Multiple(new TestRpm.Abc(), new TestRpm.Libdeflt()).put(this.storage);
+        final Progress progress = new Progress();
+        final Rpm rpm = new Rpm(this.storage, this.config);
+        if (type == UpdateType.INCREMENTAL) {
+            rpm.batchUpdateIncrementally(Key.ROOT, progress).blockingAwait();
+        } else {
+            rpm.batchUpdate(Key.ROOT, progress).blockingAwait();
+        }
+        final Progress.Snapshot snapshot = progress.snapshot();
+        MatcherAssert.assertThat(
+            new long[] {
+                snapshot.discovered(), snapshot.fetched(), snapshot.parsed(), snapshot.written(),
+            },
+            new IsEqual<>(new long[] {2, 2, 2, 2})
+        );
+    }
+
     private void verifyThatTempDirIsCleanedUp() throws IOException {
         final Path systemtemp = Paths.get(System.getProperty("java.io.tmpdir"));
         MatcherAssert.assertThat(
@@ -93,6 +93,29 @@ public interface TestRpm {
         }
     }
 
+    /**
+     * Test rpm signed with test key.
+     * @since 1.9
+     */
+    final class Signed extends FromPath {
+
+        /**
+         * Ctor.
+         */
+        public Signed() {
+            super("signed-1.0-1.noarch.rpm");
+        }
+
+        /**
+         * Public keyring with the key the rpm is signed with.
+         * @return Path
+         * @checkstyle NonStaticMethodCheck (5 line)
+         */
+        public Path keyring() {
+            return new TestResource("signed-pubkey.gpg").asPath();
+        }
+    }
+
     /**
      * Libdeflt test rpm.
      * @since 0.9
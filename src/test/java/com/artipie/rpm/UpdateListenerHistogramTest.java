@@ -0,0 +1,65 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm;
+
+import java.util.concurrent.TimeUnit;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link UpdateListener.Histogram}.
+ * @since 1.9
+ */
+final class UpdateListenerHistogramTest {
+
+    @Test
+    void countsStages() {
+        final UpdateListener.Histogram histogram = new UpdateListener.Histogram();
+        histogram.stage(UpdateListener.Stage.COPY, "one.rpm", 10, 100);
+        histogram.stage(UpdateListener.Stage.COPY, "two.rpm", 20, 200);
+        histogram.stage(UpdateListener.Stage.XML, "one.rpm", 30, 0);
+        MatcherAssert.assertThat(
+            "Copy stage is counted",
+            new long[] {
+                histogram.count(UpdateListener.Stage.COPY),
+                histogram.nanos(UpdateListener.Stage.COPY),
+                histogram.bytes(UpdateListener.Stage.COPY),
+            },
+            new IsEqual<>(new long[] {2, 30, 300})
+        );
+        MatcherAssert.assertThat(
+            "Items are remembered",
+            histogram.items(UpdateListener.Stage.COPY),
+            Matchers.containsInAnyOrder("one.rpm", "two.rpm")
+        );
+        MatcherAssert.assertThat(
+            "Other stage is not affected",
+            histogram.count(UpdateListener.Stage.CHECKSUM),
+            new IsEqual<>(0L)
+        );
+    }
+
+    @Test
+    void calculatesPercentiles() {
+        final UpdateListener.Histogram histogram = new UpdateListener.Histogram();
+        // @checkstyle MagicNumberCheck (8 lines)
+        for (int idx = 0; idx < 99; idx += 1) {
+            histogram.stage(
+                UpdateListener.Stage.HEADER, "pkg", TimeUnit.MICROSECONDS.toNanos(3), 0
+            );
+        }
+        histogram.stage(UpdateListener.Stage.HEADER, "pkg", TimeUnit.MILLISECONDS.toNanos(1), 0);
+        MatcherAssert.assertThat(
+            new long[] {
+                histogram.percentile(UpdateListener.Stage.HEADER, 50),
+                histogram.percentile(UpdateListener.Stage.HEADER, 100),
+                histogram.percentile(UpdateListener.Stage.LIST, 50),
+            },
+            new IsEqual<>(new long[] {4, 1024, 0})
+        );
+    }
+}
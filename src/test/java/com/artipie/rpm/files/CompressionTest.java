@@ -0,0 +1,70 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.files;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Optional;
+import org.apache.commons.io.IOUtils;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+/**
+ * Test for {@link Compression}.
+ * @since 1.9
+ */
+class CompressionTest {
+
+    @ParameterizedTest
+    @EnumSource(Compression.class)
+    void compressesAndDecompresses(final Compression cmp, @TempDir final Path tmp)
+        throws IOException {
+        final String xml = "<metadata packages=\"0\"/>";
+        final Path open = Files.write(
+            tmp.resolve("primary.xml"), xml.getBytes(StandardCharsets.UTF_8)
+        );
+        final Path packed = tmp.resolve(String.format("primary.xml.%s", cmp.extension()));
+        cmp.compress(open, packed);
+        try (InputStream input = cmp.decompress(Files.newInputStream(packed))) {
+            MatcherAssert.assertThat(
+                IOUtils.toString(input, StandardCharsets.UTF_8),
+                new IsEqual<>(xml)
+            );
+        }
+    }
+
+    @Test
+    void resolvesVariant() {
+        MatcherAssert.assertThat(
+            Compression.XZ.variant(Paths.get("repodata", "abc-primary.xml.gz")),
+            new IsEqual<>(Paths.get("repodata", "abc-primary.xml.xz"))
+        );
+    }
+
+    @Test
+    void findsCompressionByName() {
+        MatcherAssert.assertThat(
+            Compression.of("other.xml.bz2"),
+            new IsEqual<>(Optional.of(Compression.BZIP2))
+        );
+    }
+
+    @Test
+    void parsesList() {
+        MatcherAssert.assertThat(
+            Compression.list("xz, bzip2,xz,gzip"),
+            new IsEqual<>(Arrays.asList(Compression.XZ, Compression.BZIP2))
+        );
+    }
+}
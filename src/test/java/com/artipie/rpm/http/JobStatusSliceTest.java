@@ -0,0 +1,67 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.http;
+
+import com.artipie.http.Response;
+import com.artipie.http.hm.RsHasBody;
+import com.artipie.http.hm.RsHasStatus;
+import com.artipie.http.hm.SliceHasResponse;
+import com.artipie.http.rq.RequestLine;
+import com.artipie.http.rq.RqMethod;
+import com.artipie.http.rs.RsStatus;
+import io.reactivex.Completable;
+import java.io.ByteArrayInputStream;
+import java.util.UUID;
+import javax.json.Json;
+import org.cactoos.Func;
+import org.cactoos.list.ListOf;
+import org.hamcrest.Matcher;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.AllOf;
+import org.junit.jupiter.api.Test;
+import org.llorllale.cactoos.matchers.MatcherOf;
+
+/**
+ * Test for {@link JobStatusSlice}.
+ * @since 1.9
+ */
+class JobStatusSliceTest {
+
+    @Test
+    void returnsJobStatus() {
+        final UpdateJobs jobs = new UpdateJobs(Completable::complete, Runnable::run);
+        final String id = jobs.submit().id();
+        MatcherAssert.assertThat(
+            new JobStatusSlice(jobs),
+            new SliceHasResponse(
+                new AllOf<>(
+                    new ListOf<Matcher<? super Response>>(
+                        new RsHasStatus(RsStatus.OK),
+                        new RsHasBody(
+                            new MatcherOf<>(
+                                (Func<byte[], Boolean>) body -> "done".equals(
+                                    Json.createReader(new ByteArrayInputStream(body))
+                                        .readObject().getString("status")
+                                )
+                            )
+                        )
+                    )
+                ),
+                new RequestLine(RqMethod.GET, String.format("/jobs/%s", id))
+            )
+        );
+    }
+
+    @Test
+    void returnsNotFoundForUnknownJob() {
+        MatcherAssert.assertThat(
+            new JobStatusSlice(new UpdateJobs(Completable::complete, Runnable::run)),
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.NOT_FOUND),
+                new RequestLine(RqMethod.GET, String.format("/jobs/%s", UUID.randomUUID()))
+            )
+        );
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.http;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.blocking.BlockingStorage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.http.Headers;
+import com.artipie.http.headers.Header;
+import com.artipie.http.hm.ResponseMatcher;
+import com.artipie.http.hm.RsHasStatus;
+import com.artipie.http.hm.SliceHasResponse;
+import com.artipie.http.rq.RequestLine;
+import com.artipie.http.rq.RqMethod;
+import com.artipie.http.rs.RsStatus;
+import java.nio.charset.StandardCharsets;
+import org.hamcrest.MatcherAssert;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link MetadataSlice}.
+ * @since 1.9
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class MetadataSliceTest {
+
+    /**
+     * Gzipped metadata bytes.
+     */
+    private static final byte[] GZIP = "gzipped".getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * Test storage.
+     */
+    private Storage storage;
+
+    @BeforeEach
+    void init() {
+        this.storage = new InMemoryStorage();
+        new BlockingStorage(this.storage)
+            .save(new Key.From("repo/repodata/primary.xml.gz"), MetadataSliceTest.GZIP);
+        new BlockingStorage(this.storage)
+            .save(new Key.From("repo/repodata/repomd.xml"), "<repomd/>".getBytes());
+    }
+
+    @Test
+    void servesCompressedFileAsIs() {
+        MatcherAssert.assertThat(
+            new MetadataSlice(this.storage),
+            new SliceHasResponse(
+                new ResponseMatcher(
+                    RsStatus.OK,
+                    MetadataSliceTest.GZIP,
+                    new Header("Cache-Control", "no-transform"),
+                    new Header("Content-Type", "application/gzip")
+                ),
+                new RequestLine(RqMethod.GET, "/repo/repodata/primary.xml.gz")
+            )
+        );
+    }
+
+    @Test
+    void servesPrecompressedFileWhenGzipAccepted() {
+        MatcherAssert.assertThat(
+            new MetadataSlice(this.storage),
+            new SliceHasResponse(
+                new ResponseMatcher(
+                    RsStatus.OK,
+                    MetadataSliceTest.GZIP,
+                    new Header("Content-Encoding", "gzip"),
+                    new Header("Vary", "Accept-Encoding"),
+                    new Header("Cache-Control", "no-transform")
+                ),
+                new RequestLine(RqMethod.GET, "/repo/repodata/primary.xml"),
+                new Headers.From("Accept-Encoding", "deflate, gzip;q=0.8"),
+                Content.EMPTY
+            )
+        );
+    }
+
+    @Test
+    void doesNotCompressOnTheFly() {
+        MatcherAssert.assertThat(
+            new MetadataSlice(this.storage),
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.NOT_FOUND),
+                new RequestLine(RqMethod.GET, "/repo/repodata/primary.xml"),
+                new Headers.From("Accept-Encoding", "gzip;q=0, deflate"),
+                Content.EMPTY
+            )
+        );
+    }
+
+    @Test
+    void servesRepomd() {
+        MatcherAssert.assertThat(
+            new MetadataSlice(this.storage),
+            new SliceHasResponse(
+                new ResponseMatcher(
+                    RsStatus.OK,
+                    "<repomd/>".getBytes(),
+                    new Header("Cache-Control", "no-transform")
+                ),
+                new RequestLine(RqMethod.GET, "/repo/repodata/repomd.xml"),
+                new Headers.From("Accept-Encoding", "gzip"),
+                Content.EMPTY
+            )
+        );
+    }
+}
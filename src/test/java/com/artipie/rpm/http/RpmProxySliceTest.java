@@ -0,0 +1,395 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.http;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.blocking.BlockingStorage;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.http.Headers;
+import com.artipie.http.Slice;
+import com.artipie.http.async.AsyncResponse;
+import com.artipie.http.hm.RsHasStatus;
+import com.artipie.http.hm.SliceHasResponse;
+import com.artipie.http.rq.RequestLine;
+import com.artipie.http.rq.RqMethod;
+import com.artipie.http.rs.RsFull;
+import com.artipie.http.rs.RsStatus;
+import com.artipie.http.rs.RsWithStatus;
+import com.artipie.http.slice.SliceDownload;
+import io.reactivex.Flowable;
+import io.reactivex.schedulers.Schedulers;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link RpmProxySlice}.
+ * @since 1.9
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class RpmProxySliceTest {
+
+    /**
+     * Upstream storage.
+     */
+    private Storage origin;
+
+    /**
+     * Cache storage.
+     */
+    private Storage cache;
+
+    /**
+     * Upstream calls count.
+     */
+    private AtomicInteger calls;
+
+    /**
+     * Local stand-in for upstream repository.
+     */
+    private Slice upstream;
+
+    @BeforeEach
+    void init() {
+        this.origin = new InMemoryStorage();
+        this.cache = new InMemoryStorage();
+        this.calls = new AtomicInteger();
+        this.upstream = (line, headers, body) -> {
+            this.calls.incrementAndGet();
+            return new SliceDownload(this.origin).response(line, headers, body);
+        };
+        new BlockingStorage(this.origin).save(
+            new Key.From("repo/abc-1.0.rpm"), "rpm".getBytes(StandardCharsets.US_ASCII)
+        );
+        new BlockingStorage(this.origin).save(
+            new Key.From("repo/repodata/repomd.xml"), "<v1/>".getBytes(StandardCharsets.US_ASCII)
+        );
+    }
+
+    @Test
+    void fetchesAndCachesMissingFile() {
+        final Slice slice = new RpmProxySlice(this.upstream, this.cache);
+        MatcherAssert.assertThat(
+            "Returns upstream content",
+            RpmProxySliceTest.get(slice, "/repo/abc-1.0.rpm").join(),
+            new IsEqual<>("rpm")
+        );
+        MatcherAssert.assertThat(
+            "Serves cached content",
+            RpmProxySliceTest.get(slice, "/repo/abc-1.0.rpm").join(),
+            new IsEqual<>("rpm")
+        );
+        MatcherAssert.assertThat(
+            "Saves content to cache",
+            new String(
+                new BlockingStorage(this.cache).value(new Key.From("repo/abc-1.0.rpm")),
+                StandardCharsets.US_ASCII
+            ),
+            new IsEqual<>("rpm")
+        );
+        MatcherAssert.assertThat(
+            "Calls upstream once",
+            this.calls.get(),
+            new IsEqual<>(1)
+        );
+    }
+
+    @Test
+    void keepsRepomdWithinTtl() {
+        final Slice slice = new RpmProxySlice(this.upstream, this.cache, Duration.ofHours(1));
+        RpmProxySliceTest.get(slice, "/repo/repodata/repomd.xml").join();
+        this.updateRepomd();
+        MatcherAssert.assertThat(
+            RpmProxySliceTest.get(slice, "/repo/repodata/repomd.xml").join(),
+            new IsEqual<>("<v1/>")
+        );
+    }
+
+    @Test
+    void revalidatesExpiredRepomd() {
+        new BlockingStorage(this.cache).save(
+            new Key.From("repo/repodata/repomd.xml"), "<v0/>".getBytes(StandardCharsets.US_ASCII)
+        );
+        MatcherAssert.assertThat(
+            RpmProxySliceTest.get(
+                new RpmProxySlice(this.upstream, this.cache, Duration.ZERO),
+                "/repo/repodata/repomd.xml"
+            ).join(),
+            new IsEqual<>("<v1/>")
+        );
+    }
+
+    @Test
+    void doesNotRevalidateHashedMetadata() {
+        final Key key = new Key.From(
+            "repo/repodata/0123456789abcdef0123456789abcdef01234567-primary.xml.gz"
+        );
+        new BlockingStorage(this.origin).save(key, new byte[]{1});
+        final Slice slice = new RpmProxySlice(this.upstream, this.cache, Duration.ZERO);
+        RpmProxySliceTest.get(slice, String.format("/%s", key.string())).join();
+        RpmProxySliceTest.get(slice, String.format("/%s", key.string())).join();
+        MatcherAssert.assertThat(this.calls.get(), new IsEqual<>(1));
+    }
+
+    @Test
+    void validatesMetadataByRepomd() throws InterruptedException {
+        final Duration ttl = Duration.ofMillis(500);
+        final Slice slice = new RpmProxySlice(this.upstream, this.cache, ttl);
+        this.updateMetadata("aaa", "one");
+        RpmProxySliceTest.get(slice, "/repo/repodata/repomd.xml").join();
+        RpmProxySliceTest.get(slice, "/repo/repodata/primary.xml.gz").join();
+        Thread.sleep(ttl.multipliedBy(2).toMillis());
+        RpmProxySliceTest.get(slice, "/repo/repodata/repomd.xml").join();
+        Thread.sleep(ttl.dividedBy(5).toMillis());
+        MatcherAssert.assertThat(
+            "Serves unchanged metadata from cache",
+            RpmProxySliceTest.get(slice, "/repo/repodata/primary.xml.gz").join(),
+            new IsEqual<>("one")
+        );
+        MatcherAssert.assertThat(
+            "Does not fetch unchanged metadata",
+            this.calls.get(),
+            new IsEqual<>(3)
+        );
+        this.updateMetadata("bbb", "two");
+        Thread.sleep(ttl.multipliedBy(2).toMillis());
+        RpmProxySliceTest.get(slice, "/repo/repodata/repomd.xml").join();
+        Thread.sleep(ttl.dividedBy(5).toMillis());
+        MatcherAssert.assertThat(
+            "Fetches changed metadata",
+            RpmProxySliceTest.get(slice, "/repo/repodata/primary.xml.gz").join(),
+            new IsEqual<>("two")
+        );
+    }
+
+    @Test
+    void coalescesConcurrentRequests() {
+        final CompletableFuture<Void> gate = new CompletableFuture<>();
+        final Slice slow = (line, headers, body) -> new AsyncResponse(
+            gate.thenApply(nothing -> this.upstream.response(line, headers, body))
+        );
+        final Slice slice = new RpmProxySlice(slow, this.cache);
+        final CompletableFuture<String> first = RpmProxySliceTest.get(slice, "/repo/abc-1.0.rpm");
+        final CompletableFuture<String> second =
+            RpmProxySliceTest.get(slice, "/repo/abc-1.0.rpm");
+        gate.complete(null);
+        MatcherAssert.assertThat(
+            "Returns content to all clients",
+            first.thenCombine(second, (one, two) -> one + two).join(),
+            new IsEqual<>("rpmrpm")
+        );
+        MatcherAssert.assertThat(
+            "Calls upstream once",
+            this.calls.get(),
+            new IsEqual<>(1)
+        );
+    }
+
+    @Test
+    void cachesFileWhenClientCancelsBody() {
+        final Slice slice = new RpmProxySlice(
+            (line, headers, body) -> new RsFull(
+                RsStatus.OK, Headers.EMPTY,
+                Flowable.fromArray("first", "second", "third")
+                    .map(part -> ByteBuffer.wrap(part.getBytes(StandardCharsets.US_ASCII)))
+            ),
+            this.cache
+        );
+        slice.response(
+            new RequestLine(RqMethod.GET, "/repo/big-1.0.rpm").toString(),
+            Headers.EMPTY, Content.EMPTY
+        ).send(
+            (status, headers, body) -> {
+                Flowable.fromPublisher(body).take(1).blockingSubscribe();
+                return CompletableFuture.allOf();
+            }
+        ).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Saves whole content to cache",
+            new String(
+                new BlockingStorage(this.cache).value(new Key.From("repo/big-1.0.rpm")),
+                StandardCharsets.US_ASCII
+            ),
+            new IsEqual<>("firstsecondthird")
+        );
+        MatcherAssert.assertThat(
+            "Serves next request from cache",
+            RpmProxySliceTest.get(slice, "/repo/big-1.0.rpm").join(),
+            new IsEqual<>("firstsecondthird")
+        );
+        MatcherAssert.assertThat(
+            "Leaves no temp files",
+            new BlockingStorage(this.cache).list(Key.ROOT),
+            new IsEqual<>(Collections.singletonList(new Key.From("repo/big-1.0.rpm")))
+        );
+    }
+
+    @Test
+    void streamsBodyToClientWhileCaching() {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final Slice slice = new RpmProxySlice(
+            (line, headers, body) -> new RsFull(
+                RsStatus.OK, Headers.EMPTY,
+                Flowable.concat(
+                    Flowable.just("first"),
+                    Flowable.fromCallable(
+                        () -> {
+                            latch.await(1, TimeUnit.MINUTES);
+                            return "second";
+                        }
+                    ).subscribeOn(Schedulers.io())
+                ).map(part -> ByteBuffer.wrap(part.getBytes(StandardCharsets.US_ASCII)))
+            ),
+            this.cache
+        );
+        final Key key = new Key.From("repo/slow-1.0.rpm");
+        final StringBuilder received = new StringBuilder();
+        final AtomicBoolean cached = new AtomicBoolean(true);
+        slice.response(
+            new RequestLine(RqMethod.GET, "/repo/slow-1.0.rpm").toString(),
+            Headers.EMPTY, Content.EMPTY
+        ).send(
+            (status, headers, body) -> {
+                final Iterator<ByteBuffer> chunks = Flowable.fromPublisher(body)
+                    .blockingIterable().iterator();
+                received.append(StandardCharsets.US_ASCII.decode(chunks.next()));
+                cached.set(this.cache.exists(key).join());
+                latch.countDown();
+                while (chunks.hasNext()) {
+                    received.append(StandardCharsets.US_ASCII.decode(chunks.next()));
+                }
+                return CompletableFuture.allOf();
+            }
+        ).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "First chunk was not served before the file is cached",
+            cached.get(),
+            new IsEqual<>(false)
+        );
+        MatcherAssert.assertThat(
+            "Client got wrong body",
+            received.toString(),
+            new IsEqual<>("firstsecond")
+        );
+    }
+
+    @Test
+    void doesNotServeTempFiles() {
+        new BlockingStorage(this.cache).save(
+            new Key.From(".artipie-parts", "0000"), "part".getBytes(StandardCharsets.US_ASCII)
+        );
+        MatcherAssert.assertThat(
+            new RpmProxySlice(this.upstream, this.cache),
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.NOT_FOUND),
+                new RequestLine(RqMethod.GET, "/.artipie-parts/0000")
+            )
+        );
+    }
+
+    @Test
+    void servesStaleFileWhenUpstreamFails() {
+        final Slice slice = new RpmProxySlice(
+            (line, headers, body) -> {
+                final Slice res;
+                if (this.calls.get() == 0) {
+                    res = this.upstream;
+                } else {
+                    res = (rqline, rqheaders, rqbody) -> new RsWithStatus(RsStatus.INTERNAL_ERROR);
+                }
+                return res.response(line, headers, body);
+            },
+            this.cache, Duration.ZERO
+        );
+        RpmProxySliceTest.get(slice, "/repo/repodata/repomd.xml").join();
+        MatcherAssert.assertThat(
+            RpmProxySliceTest.get(slice, "/repo/repodata/repomd.xml").join(),
+            new IsEqual<>("<v1/>")
+        );
+    }
+
+    @Test
+    void returnsNotFoundWhenUpstreamHasNoFile() {
+        MatcherAssert.assertThat(
+            new RpmProxySlice(this.upstream, this.cache),
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.NOT_FOUND),
+                new RequestLine(RqMethod.GET, "/repo/missing-1.0.rpm")
+            )
+        );
+    }
+
+    @Test
+    void rejectsUpload() {
+        MatcherAssert.assertThat(
+            new RpmProxySlice(this.upstream, this.cache),
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.METHOD_NOT_ALLOWED),
+                new RequestLine(RqMethod.PUT, "/repo/abc-1.0.rpm")
+            )
+        );
+    }
+
+    /**
+     * Updates upstream repomd.xml.
+     */
+    private void updateRepomd() {
+        new BlockingStorage(this.origin).save(
+            new Key.From("repo/repodata/repomd.xml"), "<v2/>".getBytes(StandardCharsets.US_ASCII)
+        );
+    }
+
+    /**
+     * Updates upstream primary.xml.gz and repomd.xml referring to it.
+     * @param checksum Primary checksum
+     * @param primary Primary content
+     */
+    private void updateMetadata(final String checksum, final String primary) {
+        new BlockingStorage(this.origin).save(
+            new Key.From("repo/repodata/primary.xml.gz"),
+            primary.getBytes(StandardCharsets.US_ASCII)
+        );
+        new BlockingStorage(this.origin).save(
+            new Key.From("repo/repodata/repomd.xml"),
+            String.join(
+                "",
+                "<repomd xmlns=\"http://linux.duke.edu/metadata/repo\"><data type=\"primary\">",
+                String.format("<checksum type=\"sha256\">%s</checksum>", checksum),
+                "<location href=\"repodata/primary.xml.gz\"/></data></repomd>"
+            ).getBytes(StandardCharsets.US_ASCII)
+        );
+    }
+
+    /**
+     * Performs GET request.
+     * @param slice Slice
+     * @param path Request path
+     * @return Response body
+     */
+    private static CompletableFuture<String> get(final Slice slice, final String path) {
+        final CompletableFuture<String> res = new CompletableFuture<>();
+        slice.response(
+            new RequestLine(RqMethod.GET, path).toString(), Headers.EMPTY, Content.EMPTY
+        ).send(
+            (status, headers, body) -> new PublisherAs(body).asciiString()
+                .thenAccept(res::complete)
+        );
+        return res;
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.http;
+
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.blocking.BlockingStorage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.http.hm.RsHasStatus;
+import com.artipie.http.hm.SliceHasResponse;
+import com.artipie.http.rq.RequestLine;
+import com.artipie.http.rq.RqMethod;
+import com.artipie.http.rs.RsStatus;
+import org.hamcrest.MatcherAssert;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Test for {@link RpmSlice}.
+ * @since 1.9
+ */
+class RpmSliceTest {
+
+    @ParameterizedTest
+    @ValueSource(
+        strings = {
+            ".artipie-fences/repo/token",
+            ".artipie-locks/repo/0000",
+            "repo/.artipie-journal/record.json",
+        }
+    )
+    void doesNotServeServiceKeys(final String key) {
+        final Storage storage = new InMemoryStorage();
+        new BlockingStorage(storage).save(new Key.From(key), "1".getBytes());
+        MatcherAssert.assertThat(
+            new RpmSlice(storage),
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.NOT_FOUND),
+                new RequestLine(RqMethod.GET, String.format("/%s", key))
+            )
+        );
+    }
+}
@@ -69,4 +69,19 @@ public final class RpmUploadRequestTest {
             new IsEqual<>(expected)
         );
     }
+
+    @ParameterizedTest
+    @CsvSource({
+        "/file.rpm,jobs/1",
+        "/sub/file.rpm,../jobs/1",
+        "/one/two/file.rpm?override=true,../../jobs/1"
+    })
+    void buildsRelativeReference(final String uri, final String expected) {
+        MatcherAssert.assertThat(
+            new RpmUpload.Request(
+                new RequestLine("PUT", uri).toString()
+            ).relative("jobs/1"),
+            new IsEqual<>(expected)
+        );
+    }
 }
@@ -9,19 +9,30 @@ import com.artipie.asto.Storage;
 import com.artipie.asto.blocking.BlockingStorage;
 import com.artipie.asto.memory.InMemoryStorage;
 import com.artipie.http.Headers;
+import com.artipie.http.hm.IsHeader;
+import com.artipie.http.hm.ResponseMatcher;
 import com.artipie.http.hm.RsHasStatus;
 import com.artipie.http.rq.RequestLine;
 import com.artipie.http.rs.RsStatus;
 import com.artipie.rpm.RepoConfig;
+import com.artipie.rpm.Rpm;
 import com.artipie.rpm.TestRpm;
 import io.reactivex.Flowable;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.cactoos.list.ListOf;
 import org.hamcrest.MatcherAssert;
+import org.hamcrest.collection.IsEmptyCollection;
 import org.hamcrest.core.IsEqual;
+import org.hamcrest.text.MatchesPattern;
 import org.junit.jupiter.api.Test;
 
 /**
@@ -38,13 +49,22 @@ public class RpmUploadTest {
         final Storage storage = new InMemoryStorage();
         final byte[] content = Files.readAllBytes(new TestRpm.Abc().path());
         MatcherAssert.assertThat(
-            "ACCEPTED 202 returned",
-            new RpmUpload(storage, new RepoConfig.Simple()).response(
+            "ACCEPTED 202 returned with job location",
+            new RpmUpload(
+                storage,
+                new UpdateJobs(new Rpm(storage, new RepoConfig.Simple()), Runnable::run)
+            ).response(
                 new RequestLine("PUT", "/uploaded.rpm").toString(),
                 new ListOf<Map.Entry<String, String>>(),
                 Flowable.fromArray(ByteBuffer.wrap(content))
             ),
-            new RsHasStatus(RsStatus.ACCEPTED)
+            new ResponseMatcher(
+                RsStatus.ACCEPTED,
+                new IsHeader(
+                    new IsEqual<>("Location"),
+                    new MatchesPattern(Pattern.compile("^jobs/[0-9a-f-]{36}$"))
+                )
+            )
         );
         MatcherAssert.assertThat(
             "Content saved to storage",
@@ -66,7 +86,10 @@ public class RpmUploadTest {
         final Key key = new Key.From("replaced.rpm");
         new BlockingStorage(storage).save(key, "uploaded package".getBytes());
         MatcherAssert.assertThat(
-            new RpmUpload(storage, new RepoConfig.Simple()).response(
+            new RpmUpload(
+                storage,
+                new UpdateJobs(new Rpm(storage, new RepoConfig.Simple()), Runnable::run)
+            ).response(
                 new RequestLine("PUT", "/replaced.rpm?override=true").toString(),
                 Headers.EMPTY,
                 Flowable.fromArray(ByteBuffer.wrap(content))
@@ -87,7 +110,10 @@ public class RpmUploadTest {
         final Key key = new Key.From("not-replaced.rpm");
         new BlockingStorage(storage).save(key, content);
         MatcherAssert.assertThat(
-            new RpmUpload(storage, new RepoConfig.Simple()).response(
+            new RpmUpload(
+                storage,
+                new UpdateJobs(new Rpm(storage, new RepoConfig.Simple()), Runnable::run)
+            ).response(
                 new RequestLine("PUT", "/not-replaced.rpm").toString(),
                 Headers.EMPTY,
                 Flowable.fromArray(ByteBuffer.wrap("second package content".getBytes()))
@@ -106,7 +132,10 @@ public class RpmUploadTest {
         final byte[] content = Files.readAllBytes(new TestRpm.Abc().path());
         MatcherAssert.assertThat(
             "ACCEPTED 202 returned",
-            new RpmUpload(storage, new RepoConfig.Simple()).response(
+            new RpmUpload(
+                storage,
+                new UpdateJobs(new Rpm(storage, new RepoConfig.Simple()), Runnable::run)
+            ).response(
                 new RequestLine("PUT", "/my-package.rpm?skip_update=true").toString(),
                 Headers.EMPTY,
                 Flowable.fromArray(ByteBuffer.wrap(content))
@@ -124,4 +153,196 @@ public class RpmUploadTest {
             new IsEqual<>(true)
         );
     }
+
+    @Test
+    void rejectsUploadOverLimit() throws Exception {
+        final Storage storage = new InMemoryStorage();
+        final UploadLimits limits = new UploadLimits(1, 1);
+        limits.acquire(true);
+        MatcherAssert.assertThat(
+            new RpmUpload(
+                storage,
+                new UpdateJobs(new Rpm(storage, new RepoConfig.Simple()), Runnable::run),
+                limits
+            ).response(
+                new RequestLine("PUT", "/rejected.rpm").toString(),
+                Headers.EMPTY,
+                Flowable.fromArray(ByteBuffer.wrap("rejected".getBytes()))
+            ),
+            new ResponseMatcher(
+                RsStatus.UNAVAILABLE,
+                new IsHeader("Retry-After", "10"),
+                new IsHeader("X-Upload-Limit", "repository")
+            )
+        );
+        MatcherAssert.assertThat(
+            "Content not saved to storage",
+            new BlockingStorage(storage).exists(new Key.From("rejected.rpm")),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void releasesLimitsAfterUpdate() throws Exception {
+        final Storage storage = new InMemoryStorage();
+        final RpmUpload upload = new RpmUpload(
+            storage,
+            new UpdateJobs(new Rpm(storage, new RepoConfig.Simple()), Runnable::run),
+            new UploadLimits(1, 1)
+        );
+        for (final String name : new String[] {"/first.rpm", "/second.rpm"}) {
+            MatcherAssert.assertThat(
+                upload.response(
+                    new RequestLine("PUT", name).toString(),
+                    Headers.EMPTY,
+                    Flowable.fromArray(
+                        ByteBuffer.wrap(Files.readAllBytes(new TestRpm.Abc().path()))
+                    )
+                ),
+                new RsHasStatus(RsStatus.ACCEPTED)
+            );
+        }
+    }
+
+    @Test
+    void rejectsUploadOverGlobalLimit() {
+        final Storage storage = new InMemoryStorage();
+        final UploadLimits global = new UploadLimits(1, 1);
+        new UploadLimits(1, 1, global).acquire(true);
+        MatcherAssert.assertThat(
+            new RpmUpload(
+                storage,
+                new UpdateJobs(new Rpm(storage, new RepoConfig.Simple()), Runnable::run),
+                new UploadLimits(1, 1, global)
+            ).response(
+                new RequestLine("PUT", "/global.rpm").toString(),
+                Headers.EMPTY,
+                Flowable.fromArray(ByteBuffer.wrap("global".getBytes()))
+            ),
+            new ResponseMatcher(
+                RsStatus.UNAVAILABLE,
+                new IsHeader("Retry-After", "10"),
+                new IsHeader("X-Upload-Limit", "global")
+            )
+        );
+    }
+
+    @Test
+    void releasesLimitsWithoutSendingResponse() throws Exception {
+        final Storage storage = new InMemoryStorage();
+        final UploadLimits limits = new UploadLimits(1, 1);
+        final CountDownLatch updated = new CountDownLatch(1);
+        new RpmUpload(
+            storage,
+            new UpdateJobs(
+                new Rpm(storage, new RepoConfig.Simple()),
+                task -> {
+                    task.run();
+                    updated.countDown();
+                }
+            ),
+            limits
+        ).response(
+            new RequestLine("PUT", "/dropped.rpm").toString(),
+            Headers.EMPTY,
+            Flowable.fromArray(ByteBuffer.wrap(Files.readAllBytes(new TestRpm.Abc().path())))
+        );
+        MatcherAssert.assertThat(
+            "Metadata updated",
+            updated.await(1, TimeUnit.MINUTES),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Content saved to storage",
+            new BlockingStorage(storage).exists(new Key.From("dropped.rpm")),
+            new IsEqual<>(true)
+        );
+        // permit is released by completion callback registered after the job is submitted
+        final long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(1);
+        boolean released = limits.acquire(true).permit().isPresent();
+        while (!released && System.nanoTime() < deadline) {
+            Thread.sleep(10L);
+            released = limits.acquire(true).permit().isPresent();
+        }
+        MatcherAssert.assertThat(
+            "Limits released",
+            released,
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void verifiesAndStoresChecksum() throws Exception {
+        final Storage storage = new InMemoryStorage();
+        final byte[] content = Files.readAllBytes(new TestRpm.Abc().path());
+        final String hex = DigestUtils.sha256Hex(content);
+        MatcherAssert.assertThat(
+            "ACCEPTED 202 returned",
+            new RpmUpload(
+                storage,
+                new UpdateJobs(new Rpm(storage, new RepoConfig.Simple()), Runnable::run)
+            ).response(
+                new RequestLine("PUT", "/verified.rpm").toString(),
+                new Headers.From("X-Checksum-Sha256", hex.toUpperCase(Locale.US)),
+                Flowable.fromArray(ByteBuffer.wrap(content))
+            ),
+            new RsHasStatus(RsStatus.ACCEPTED)
+        );
+        MatcherAssert.assertThat(
+            "Content saved to storage",
+            new BlockingStorage(storage).value(new Key.From("verified.rpm")),
+            new IsEqual<>(content)
+        );
+        MatcherAssert.assertThat(
+            "Checksum saved to storage",
+            new String(
+                new BlockingStorage(storage).value(new Key.From("verified.rpm.sha256")),
+                StandardCharsets.US_ASCII
+            ),
+            new IsEqual<>(String.format("%s %d", hex, content.length))
+        );
+    }
+
+    @Test
+    void rejectsChecksumMismatch() throws Exception {
+        final Storage storage = new InMemoryStorage();
+        MatcherAssert.assertThat(
+            "BAD_REQUEST 400 returned",
+            new RpmUpload(
+                storage,
+                new UpdateJobs(new Rpm(storage, new RepoConfig.Simple()), Runnable::run)
+            ).response(
+                new RequestLine("PUT", "/corrupted.rpm").toString(),
+                new Headers.From("X-Checksum-Sha256", DigestUtils.sha256Hex("expected")),
+                Flowable.fromArray(ByteBuffer.wrap("corrupted".getBytes()))
+            ),
+            new RsHasStatus(RsStatus.BAD_REQUEST)
+        );
+        MatcherAssert.assertThat(
+            "Nothing saved to storage",
+            new BlockingStorage(storage).list(Key.ROOT),
+            new IsEmptyCollection<>()
+        );
+    }
+
+    @Test
+    void removesChecksumOfReplacedArtifact() throws Exception {
+        final Storage storage = new InMemoryStorage();
+        final Key key = new Key.From("replaced.rpm");
+        new BlockingStorage(storage).save(key, "old package".getBytes());
+        new BlockingStorage(storage).save(new Key.From("replaced.rpm.sha256"), "0a".getBytes());
+        new RpmUpload(
+            storage,
+            new UpdateJobs(new Rpm(storage, new RepoConfig.Simple()), Runnable::run)
+        ).response(
+            new RequestLine("PUT", "/replaced.rpm?override=true&skip_update=true").toString(),
+            Headers.EMPTY,
+            Flowable.fromArray(ByteBuffer.wrap("new package".getBytes()))
+        ).send((status, headers, body) -> CompletableFuture.allOf())
+            .toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            new BlockingStorage(storage).list(Key.ROOT),
+            new IsEqual<>(new ListOf<>(key))
+        );
+    }
 }
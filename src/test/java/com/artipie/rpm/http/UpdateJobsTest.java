@@ -0,0 +1,145 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.http;
+
+import com.artipie.rpm.UpdateListener;
+import io.reactivex.Completable;
+import java.util.LinkedList;
+import java.util.Queue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.hamcrest.core.IsNot;
+import org.hamcrest.core.StringContains;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link UpdateJobs}.
+ * @since 1.9
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class UpdateJobsTest {
+
+    @Test
+    void joinsQueuedJob() {
+        final Queue<Runnable> queue = new LinkedList<>();
+        final AtomicInteger updates = new AtomicInteger();
+        final UpdateJobs jobs = new UpdateJobs(
+            () -> Completable.fromAction(updates::incrementAndGet), queue::add
+        );
+        final UpdateJobs.Job first = jobs.submit();
+        MatcherAssert.assertThat(
+            "Joins queued job",
+            jobs.submit().id(),
+            new IsEqual<>(first.id())
+        );
+        queue.poll().run();
+        MatcherAssert.assertThat(
+            "Starts new job when previous is not in queue",
+            jobs.submit().id(),
+            new IsNot<>(new IsEqual<>(first.id()))
+        );
+        queue.poll().run();
+        MatcherAssert.assertThat(
+            "Runs update for each started job",
+            updates.get(),
+            new IsEqual<>(2)
+        );
+    }
+
+    @Test
+    void reportsJobStatus() {
+        final Queue<Runnable> queue = new LinkedList<>();
+        final UpdateJobs jobs = new UpdateJobs(Completable::complete, queue::add);
+        final UpdateJobs.Job job = jobs.submit();
+        MatcherAssert.assertThat(
+            "Job is queued",
+            job.json().getString("status"),
+            new IsEqual<>("queued")
+        );
+        queue.poll().run();
+        MatcherAssert.assertThat(
+            "Job is done",
+            jobs.job(job.id()).get().status(),
+            new IsEqual<>(UpdateJobs.Status.DONE)
+        );
+        MatcherAssert.assertThat(
+            "Job reports duration",
+            job.json().containsKey("duration"),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void reportsJobProgress() {
+        final UpdateJobs.Job job = new UpdateJobs(
+            listener -> Completable.fromAction(
+                () -> {
+                    listener.stage(UpdateListener.Stage.DISCOVER, "one.rpm", 0, 0);
+                    listener.stage(UpdateListener.Stage.XML, "one.rpm", 1, 0);
+                }
+            ),
+            Runnable::run
+        ).submit();
+        MatcherAssert.assertThat(
+            job.json().getJsonObject("progress").getInt("written"),
+            new IsEqual<>(1)
+        );
+    }
+
+    @Test
+    void reportsFailedJob() {
+        final UpdateJobs jobs = new UpdateJobs(
+            () -> Completable.error(new IllegalStateException("update failed")),
+            Runnable::run
+        );
+        final UpdateJobs.Job job = jobs.submit();
+        MatcherAssert.assertThat(
+            "Job failed",
+            job.status(),
+            new IsEqual<>(UpdateJobs.Status.FAILED)
+        );
+        MatcherAssert.assertThat(
+            "Job reports error",
+            job.json().getString("error"),
+            new StringContains("update failed")
+        );
+        Assertions.assertThrows(
+            CompletionException.class,
+            () -> job.completion().toCompletableFuture().join()
+        );
+    }
+
+    @Test
+    void reportsJobFailedWithError() {
+        final UpdateJobs.Job job = new UpdateJobs(
+            () -> Completable.fromAction(
+                () -> {
+                    throw new NoClassDefFoundError("jdk/jfr/Event");
+                }
+            ),
+            Runnable::run
+        ).submit();
+        MatcherAssert.assertThat(
+            job.status(),
+            new IsEqual<>(UpdateJobs.Status.FAILED)
+        );
+    }
+
+    @Test
+    void runsJobInBackground() throws Exception {
+        final UpdateJobs.Job job = new UpdateJobs(
+            Completable::complete,
+            command -> new Thread(command).start()
+        ).submit();
+        job.completion().toCompletableFuture().get();
+        MatcherAssert.assertThat(
+            job.status(),
+            new IsEqual<>(UpdateJobs.Status.DONE)
+        );
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.http;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link UploadLimits}.
+ * @since 1.9
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class UploadLimitsTest {
+
+    @Test
+    void limitsConcurrentUploads() {
+        final UploadLimits limits = new UploadLimits(1, 2);
+        final UploadLimits.Permit permit = limits.acquire(false).permit().get();
+        MatcherAssert.assertThat(
+            "Rejects upload over the limit",
+            limits.acquire(false).permit().isPresent(),
+            new IsEqual<>(false)
+        );
+        permit.uploaded();
+        permit.uploaded();
+        MatcherAssert.assertThat(
+            "Admits upload after permit is released",
+            limits.acquire(false).permit().isPresent(),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Releases permit only once",
+            limits.acquire(false).permit().isPresent(),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void limitsPendingUpdates() {
+        final UploadLimits limits = new UploadLimits(2, 1);
+        final UploadLimits.Permit permit = limits.acquire(true).permit().get();
+        permit.uploaded();
+        MatcherAssert.assertThat(
+            "Rejects upload while update is pending",
+            limits.acquire(true).permit().isPresent(),
+            new IsEqual<>(false)
+        );
+        MatcherAssert.assertThat(
+            "Admits upload without update",
+            limits.acquire(false).permit().isPresent(),
+            new IsEqual<>(true)
+        );
+        permit.updated();
+        MatcherAssert.assertThat(
+            "Admits upload after update is finished",
+            limits.acquire(true).permit().isPresent(),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void sharesGlobalLimits() {
+        final UploadLimits global = new UploadLimits(1, 1);
+        final UploadLimits first = new UploadLimits(1, 1, global);
+        final UploadLimits second = new UploadLimits(1, 1, global);
+        final UploadLimits.Permit permit = first.acquire(true).permit().get();
+        MatcherAssert.assertThat(
+            "Rejects upload over global limit",
+            second.acquire(true).permit().isPresent(),
+            new IsEqual<>(false)
+        );
+        permit.release();
+        MatcherAssert.assertThat(
+            "Admits upload after global permit is released",
+            second.acquire(true).permit().isPresent(),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Keeps own limit of other repository",
+            first.acquire(true).permit().isPresent(),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void tellsRepositoryLimitFromGlobal() {
+        final UploadLimits global = new UploadLimits(1, 1);
+        final UploadLimits first = new UploadLimits(1, 1, global);
+        first.acquire(true);
+        MatcherAssert.assertThat(
+            "Rejected by own limit",
+            first.acquire(false).throttled(),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Rejected by global limit",
+            new UploadLimits(1, 1, global).acquire(false).throttled(),
+            new IsEqual<>(false)
+        );
+    }
+}
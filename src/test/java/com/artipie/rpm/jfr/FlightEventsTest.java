@@ -0,0 +1,205 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.jfr;
+
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.rpm.Digest;
+import com.artipie.rpm.Rpm;
+import com.artipie.rpm.RpmMetadata;
+import com.artipie.rpm.StandardNamingPolicy;
+import com.artipie.rpm.TestRpm;
+import com.artipie.rpm.meta.XmlPackage;
+import com.artipie.rpm.pkg.FilePackage;
+import com.artipie.rpm.pkg.FilePackageHeader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test for Flight Recorder events.
+ * @since 1.9
+ */
+final class FlightEventsTest {
+
+    @Test
+    void recordsRepositoryUpdate(@TempDir final Path tmp) throws Exception {
+        final Storage storage = new InMemoryStorage();
+        final TestRpm abc = new TestRpm.Abc();
+        new TestRpm.Multiple(abc, new TestRpm.Libdeflt()).put(storage);
+        final Rpm rpm = new Rpm(storage, StandardNamingPolicy.PLAIN, Digest.SHA256, true);
+        final List<RecordedEvent> events = FlightEventsTest.recorded(
+            tmp,
+            () -> {
+                rpm.batchUpdate(Key.ROOT).blockingAwait();
+                storage.delete(new Key.From(abc.path().getFileName().toString())).join();
+                rpm.batchUpdateIncrementally(Key.ROOT).blockingAwait();
+            }
+        );
+        MatcherAssert.assertThat(
+            "All update events are recorded",
+            events.stream().map(event -> event.getEventType().getName())
+                .collect(Collectors.toSet()),
+            Matchers.hasItems(
+                "com.artipie.rpm.PackageHeader", "com.artipie.rpm.Checksum",
+                "com.artipie.rpm.MetadataSave", "com.artipie.rpm.Clean",
+                "com.artipie.rpm.PackagesAttribute", "com.artipie.rpm.LockAcquire",
+                "com.artipie.rpm.LockHold"
+            )
+        );
+        final long size = Files.size(abc.path());
+        MatcherAssert.assertThat(
+            "Header event has package size",
+            FlightEventsTest.ofType(events, "PackageHeader")
+                .anyMatch(event -> event.getLong("bytes") == size),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void recordsMerge(@TempDir final Path tmp) throws Exception {
+        final TestRpm.Abc abc = new TestRpm.Abc();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final List<RecordedEvent> events = FlightEventsTest.recorded(
+            tmp,
+            () -> new RpmMetadata.Append(
+                new RpmMetadata.MetadataItem(XmlPackage.PRIMARY, out)
+            ).perform(
+                Collections.singletonList(
+                    new FilePackage.Headers(
+                        new FilePackageHeader(abc.path()).header(), abc.path(), Digest.SHA256
+                    )
+                )
+            )
+        );
+        final RecordedEvent merge = FlightEventsTest.ofType(events, "Merge").findFirst().get();
+        MatcherAssert.assertThat(
+            "Merge event has package and count",
+            new Object[] {merge.getString("pkg"), merge.getLong("merged")},
+            new IsEqual<>(new Object[] {abc.path().getFileName().toString(), 1L})
+        );
+        MatcherAssert.assertThat(
+            "Merge event has written bytes",
+            merge.getLong("bytes"),
+            Matchers.greaterThan(0L)
+        );
+    }
+
+    @Test
+    void doesNothingWithoutFlightRecorder() throws Exception {
+        try (URLClassLoader loader = new WithoutJfr()) {
+            final Class<?> cls = loader.loadClass(ChecksumEvent.class.getName());
+            final Object event = cls.getConstructor().newInstance();
+            cls.getMethod("begin").invoke(event);
+            cls.getMethod("complete", Path.class, String.class, long.class)
+                .invoke(event, Paths.get("abc.rpm"), "SHA256", 1L);
+            final Field available = loader.loadClass(Jfr.class.getName())
+                .getDeclaredField("AVAILABLE");
+            available.setAccessible(true);
+            MatcherAssert.assertThat(
+                "Flight Recorder is not available",
+                available.getBoolean(null),
+                new IsEqual<>(false)
+            );
+        }
+    }
+
+    /**
+     * Records events of the action.
+     * @param tmp Temp dir
+     * @param action Action
+     * @return Recorded events
+     * @throws Exception On error
+     */
+    private static List<RecordedEvent> recorded(final Path tmp, final Action action)
+        throws Exception {
+        final Path file = tmp.resolve("rpm.jfr");
+        try (Recording recording = new Recording()) {
+            for (final String name : new String[] {
+                "PackageHeader", "Checksum", "Merge", "Clean", "PackagesAttribute",
+                "MetadataSave", "LockAcquire", "LockHold",
+            }) {
+                recording.enable(String.format("com.artipie.rpm.%s", name));
+            }
+            recording.start();
+            action.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        return RecordingFile.readAllEvents(file);
+    }
+
+    /**
+     * Events of type.
+     * @param events Events
+     * @param type Event type name without {@code com.artipie.rpm.} prefix
+     * @return Events of type
+     */
+    private static Stream<RecordedEvent> ofType(final List<RecordedEvent> events,
+        final String type) {
+        return events.stream().filter(
+            event -> String.format("com.artipie.rpm.%s", type)
+                .equals(event.getEventType().getName())
+        );
+    }
+
+    /**
+     * Recorded action.
+     * @since 1.9
+     */
+    @FunctionalInterface
+    private interface Action {
+
+        /**
+         * Runs action.
+         * @throws IOException On error
+         */
+        void run() throws IOException;
+    }
+
+    /**
+     * Class loader of main classes without Flight Recorder API.
+     * @since 1.9
+     */
+    private static final class WithoutJfr extends URLClassLoader {
+
+        /**
+         * Ctor.
+         */
+        WithoutJfr() {
+            super(
+                new URL[] {ChecksumEvent.class.getProtectionDomain().getCodeSource().getLocation()},
+                null
+            );
+        }
+
+        @Override
+        protected Class<?> loadClass(final String name, final boolean resolve)
+            throws ClassNotFoundException {
+            if (name.startsWith("jdk.jfr.")) {
+                throw new ClassNotFoundException(name);
+            }
+            return super.loadClass(name, resolve);
+        }
+    }
+}
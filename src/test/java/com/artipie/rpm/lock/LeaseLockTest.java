@@ -0,0 +1,114 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.lock;
+
+import com.artipie.ArtipieException;
+import com.artipie.asto.ArtipieIOException;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.blocking.BlockingStorage;
+import com.artipie.asto.memory.InMemoryStorage;
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.hamcrest.core.IsInstanceOf;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link LeaseLock}.
+ * @since 1.9
+ */
+final class LeaseLockTest {
+
+    /**
+     * Lock target.
+     */
+    private static final Key TARGET = new Key.From("repo");
+
+    @Test
+    void removesFenceOnRelease() {
+        final Storage storage = new InMemoryStorage();
+        final LeaseLock first = new LeaseLock(storage, LeaseLockTest.TARGET, Duration.ofMinutes(1));
+        first.acquire().toCompletableFuture().join();
+        first.check().toCompletableFuture().join();
+        first.release().toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Fence is removed",
+            new BlockingStorage(storage).list(new Key.From(".artipie-fences")).isEmpty(),
+            new IsEqual<>(true)
+        );
+        final LeaseLock second = new LeaseLock(
+            storage, LeaseLockTest.TARGET, Duration.ofMinutes(1)
+        );
+        second.acquire().toCompletableFuture().join();
+        second.check().toCompletableFuture().join();
+        second.release().toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Tokens start over after release",
+            new long[] {first.token(), second.token()},
+            new IsEqual<>(new long[] {1, 1})
+        );
+    }
+
+    @Test
+    void issuesGrowingTokensOnTakeOver() {
+        final Storage storage = new InMemoryStorage();
+        final LeaseLock stale = new LeaseLock(storage, LeaseLockTest.TARGET, Duration.ofMinutes(1));
+        stale.acquire().toCompletableFuture().join();
+        new BlockingStorage(storage).list(new Key.From(".artipie-locks")).forEach(
+            key -> new BlockingStorage(storage).delete(key)
+        );
+        final LeaseLock fresh = new LeaseLock(storage, LeaseLockTest.TARGET, Duration.ofMinutes(1));
+        fresh.acquire().toCompletableFuture().join();
+        stale.release().toCompletableFuture().handle((nothing, err) -> nothing).join();
+        fresh.check().toCompletableFuture().join();
+        fresh.release().toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            new long[] {stale.token(), fresh.token()},
+            new IsEqual<>(new long[] {1, 2})
+        );
+    }
+
+    @Test
+    void renewsLease() throws InterruptedException {
+        final Storage storage = new InMemoryStorage();
+        final Duration lease = Duration.ofMillis(300);
+        final LeaseLock lock = new LeaseLock(storage, LeaseLockTest.TARGET, lease);
+        lock.acquire().toCompletableFuture().join();
+        Thread.sleep(lease.multipliedBy(3).toMillis());
+        final CompletionException err = Assertions.assertThrows(
+            CompletionException.class,
+            () -> new LeaseLock(storage, LeaseLockTest.TARGET, lease)
+                .acquire().toCompletableFuture().join()
+        );
+        lock.check().toCompletableFuture().join();
+        lock.release().toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            err.getCause(),
+            new IsInstanceOf(ArtipieIOException.class)
+        );
+    }
+
+    @Test
+    void failsCheckWhenFenced() {
+        final Storage storage = new InMemoryStorage();
+        final LeaseLock stale = new LeaseLock(storage, LeaseLockTest.TARGET, Duration.ofMinutes(1));
+        stale.acquire().toCompletableFuture().join();
+        stale.release().toCompletableFuture().join();
+        final LeaseLock fresh = new LeaseLock(storage, LeaseLockTest.TARGET, Duration.ofMinutes(1));
+        fresh.acquire().toCompletableFuture().join();
+        final CompletionException err = Assertions.assertThrows(
+            CompletionException.class,
+            () -> stale.check().toCompletableFuture().join()
+        );
+        fresh.release().toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            err.getCause(),
+            new IsInstanceOf(ArtipieException.class)
+        );
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.lock;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.hamcrest.core.IsSame;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link LockQueue}.
+ * @since 1.9
+ */
+final class LockQueueTest {
+
+    @Test
+    void runsInOrder() {
+        final LockQueue queue = new LockQueue();
+        final CompletableFuture<Void> first = new CompletableFuture<>();
+        final List<String> started = new ArrayList<>(2);
+        queue.run(
+            "repo",
+            () -> {
+                started.add("first");
+                return first;
+            }
+        );
+        final CompletionStage<Void> second = queue.run(
+            "repo",
+            () -> {
+                started.add("second");
+                return CompletableFuture.allOf();
+            }
+        );
+        queue.run("other", CompletableFuture::allOf).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Second operation waits for the first one",
+            new ArrayList<>(started),
+            new IsEqual<>(Collections.singletonList("first"))
+        );
+        first.completeExceptionally(new IllegalStateException("failed"));
+        second.toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Second operation runs after the first one failed",
+            started,
+            new IsEqual<>(Arrays.asList("first", "second"))
+        );
+        MatcherAssert.assertThat(
+            "Queue is empty",
+            queue.size(),
+            new IsEqual<>(0)
+        );
+    }
+
+    @Test
+    void coalescesPendingOperations() {
+        final LockQueue queue = new LockQueue();
+        final CompletableFuture<Void> running = new CompletableFuture<>();
+        final AtomicInteger runs = new AtomicInteger();
+        queue.coalesce("repo", "update", () -> running);
+        final CompletionStage<Void> pending = queue.coalesce(
+            "repo", "update",
+            () -> {
+                runs.incrementAndGet();
+                return CompletableFuture.allOf();
+            }
+        );
+        final CompletionStage<Void> joined = queue.coalesce(
+            "repo", "update",
+            () -> {
+                runs.incrementAndGet();
+                return CompletableFuture.allOf();
+            }
+        );
+        MatcherAssert.assertThat(
+            "Joins pending operation",
+            joined,
+            new IsSame<>(pending)
+        );
+        running.complete(null);
+        joined.toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Runs pending operation once",
+            runs.get(),
+            new IsEqual<>(1)
+        );
+        MatcherAssert.assertThat(
+            "No operation left",
+            queue.size(),
+            new IsEqual<>(0)
+        );
+    }
+}
@@ -0,0 +1,11 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+
+/**
+ * Repository locks tests.
+ *
+ * @since 1.9
+ */
+package com.artipie.rpm.lock;
@@ -7,10 +7,13 @@ package com.artipie.rpm.meta;
 import com.artipie.asto.test.TestResource;
 import com.artipie.rpm.hm.IsXmlEqual;
 import com.jcabi.matchers.XhtmlMatchers;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import org.hamcrest.MatcherAssert;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
@@ -85,4 +88,36 @@ class XmlAlterTest {
         );
     }
 
+    @Test
+    public void writesPackageCountToHead() throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new XmlAlter.Head(
+            new ByteArrayInputStream(
+                String.join(
+                    "\n",
+                    "<?xml version=\"1.0\" encoding=\"UTF-8\"?>",
+                    "<tag name=\"abc\" packages=\"-1\"><a packages=\"1\">2</a></tag>"
+                ).getBytes()
+            ),
+            out
+        ).pkgAttr("tag", "123");
+        MatcherAssert.assertThat(
+            out.toString(StandardCharsets.UTF_8.name()),
+            XhtmlMatchers.hasXPaths(
+                "/tag[@packages='123' and @name='abc']", "/tag/a[@packages='1']"
+            )
+        );
+    }
+
+    @Test
+    public void failsIfAttrNotFoundInHead() {
+        Assertions.assertThrows(
+            XmlException.class,
+            () -> new XmlAlter.Head(
+                new ByteArrayInputStream("<tag name=\"abc\"><a>2</a></tag>".getBytes()),
+                new ByteArrayOutputStream()
+            ).pkgAttr("tag", "1")
+        );
+    }
+
 }
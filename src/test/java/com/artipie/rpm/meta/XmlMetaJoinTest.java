@@ -9,7 +9,10 @@ import com.artipie.rpm.hm.IsXmlEqual;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
 import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
@@ -114,4 +117,90 @@ class XmlMetaJoinTest {
         );
     }
 
+    @Test
+    void mergesIntoEmptyTarget(@TempDir final Path temp) throws IOException {
+        final Path target = temp.resolve("empty.xml");
+        final Path part = temp.resolve("part.xml");
+        Files.write(
+            target,
+            "<?xml version=\"1.0\"?><parent packages=\"-1\"/>\n".getBytes()
+        );
+        Files.write(
+            part,
+            "<?xml version=\"1.0\"?>\n<parent packages=\"2\">\n<a>1</a><b>2</b>\n</parent>"
+                .getBytes()
+        );
+        new XmlMetaJoin("parent").merge(target, part);
+        MatcherAssert.assertThat(
+            target,
+            new IsXmlEqual("<parent packages=\"-1\"><a>1</a><b>2</b></parent>")
+        );
+    }
+
+    @Test
+    void failsToMergeWithoutRootTag(@TempDir final Path temp) throws IOException {
+        final Path target = temp.resolve("target.xml");
+        final Path part = temp.resolve("part.xml");
+        Files.write(target, "<parent><a>1</a></parent>".getBytes());
+        Files.write(part, "<other><b>2</b></other>".getBytes());
+        Assertions.assertThrows(
+            IOException.class,
+            () -> new XmlMetaJoin("parent").merge(target, part)
+        );
+        MatcherAssert.assertThat(
+            "Target was changed",
+            new String(Files.readAllBytes(target)),
+            new IsEqual<>("<parent><a>1</a></parent>")
+        );
+    }
+
+    @Test
+    void joinsPartsWithPackagesCount(@TempDir final Path temp) throws IOException {
+        final Path first = temp.resolve("first.xml");
+        final Path empty = temp.resolve("empty.xml");
+        final Path last = temp.resolve("last.xml");
+        Files.write(
+            first,
+            String.join(
+                "\n",
+                "<?xml version=\"1.0\" encoding=\"UTF-8\"?>",
+                "<metadata xmlns=\"http://linux.duke.edu/metadata/other\" packages=\"-1\">",
+                "<package name=\"a\"/>",
+                "<package name=\"b\"/>",
+                "</metadata>"
+            ).getBytes()
+        );
+        Files.write(
+            empty,
+            String.join(
+                "",
+                "<?xml version=\"1.0\" encoding=\"UTF-8\"?>",
+                "<metadata xmlns=\"http://linux.duke.edu/metadata/other\" packages=\"-1\"/>"
+            ).getBytes()
+        );
+        Files.write(
+            last,
+            String.join(
+                "",
+                "<?xml version=\"1.0\" encoding=\"UTF-8\"?>",
+                "<metadata xmlns=\"http://linux.duke.edu/metadata/other\" packages=\"-1\">",
+                "<package name=\"c\"/></metadata>"
+            ).getBytes()
+        );
+        final Path target = temp.resolve("target.xml");
+        new XmlMetaJoin("metadata").join(target, Arrays.asList(empty, first, empty, last), 3);
+        MatcherAssert.assertThat(
+            target,
+            new IsXmlEqual(
+                String.join(
+                    "\n",
+                    "<?xml version=\"1.0\" encoding=\"UTF-8\"?>",
+                    "<metadata xmlns=\"http://linux.duke.edu/metadata/other\" packages=\"3\">",
+                    "<package name=\"a\"/><package name=\"b\"/><package name=\"c\"/>",
+                    "</metadata>"
+                )
+            )
+        );
+    }
+
 }
@@ -0,0 +1,121 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.meta;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link XmlRemove}.
+ * @since 1.9
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+class XmlRemoveTest {
+
+    @Test
+    void copiesKeptPrimaryRecordsAsIs() throws IOException {
+        final List<String> removed = new ArrayList<>(1000);
+        final StringBuilder input = new StringBuilder(
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<metadata packages=\"2000\">\n"
+        );
+        final StringBuilder expected = new StringBuilder(
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<metadata packages=\"-1\">\n"
+        );
+        for (int idx = 0; idx < 2000; idx += 1) {
+            final String pkg = String.format(
+                // @checkstyle LineLengthCheck (1 line)
+                "<package type=\"rpm\"><name>pkg-ü-%d</name><checksum type=\"sha256\"> %d </checksum><description><![CDATA[a < b]]></description><checksum>x</checksum></package>\n",
+                idx, idx
+            );
+            input.append(pkg);
+            if (idx % 2 == 0) {
+                removed.add(String.valueOf(idx));
+                expected.append('\n');
+            } else {
+                expected.append(pkg);
+            }
+        }
+        input.append("</metadata>\n");
+        expected.append("</metadata>\n");
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MatcherAssert.assertThat(
+            "Wrong packages count",
+            new XmlRemove(
+                new ByteArrayInputStream(input.toString().getBytes(StandardCharsets.UTF_8)),
+                out, XmlRemove.Layout.PRIMARY
+            ).remove(removed),
+            new IsEqual<>(1000L)
+        );
+        MatcherAssert.assertThat(
+            "Kept records were changed",
+            new String(out.toByteArray(), StandardCharsets.UTF_8),
+            new IsEqual<>(expected.toString())
+        );
+    }
+
+    @Test
+    void removesByPkgidAttribute() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MatcherAssert.assertThat(
+            "Wrong packages count",
+            new XmlRemove(
+                new ByteArrayInputStream(
+                    String.join(
+                        "\n",
+                        "<otherdata packages=\"3\">",
+                        "<package pkgid=\"a\"><version ver=\"1\"/></package>",
+                        "<package pkgid=\"b\"><package pkgid=\"c\"/></package>",
+                        "<package pkgid=\"c\"></package>",
+                        "</otherdata>"
+                    ).getBytes(StandardCharsets.UTF_8)
+                ),
+                out, XmlRemove.Layout.PKGID
+            ).remove(Arrays.asList("b", "c")),
+            new IsEqual<>(1L)
+        );
+        MatcherAssert.assertThat(
+            "Wrong packages removed",
+            new String(out.toByteArray(), StandardCharsets.UTF_8),
+            new IsEqual<>(
+                String.join(
+                    "\n",
+                    "<otherdata packages=\"3\">",
+                    "<package pkgid=\"a\"><version ver=\"1\"/></package>",
+                    "",
+                    "",
+                    "</otherdata>"
+                )
+            )
+        );
+    }
+
+    @Test
+    void copiesMetadataWithoutPackages() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MatcherAssert.assertThat(
+            "Wrong packages count",
+            new XmlRemove(
+                new ByteArrayInputStream(
+                    "<metadata xmlns=\"x\" packages=\"0\"/>\n".getBytes(StandardCharsets.UTF_8)
+                ),
+                out, XmlRemove.Layout.PRIMARY
+            ).remove(new ArrayList<>(0)),
+            new IsEqual<>(0L)
+        );
+        MatcherAssert.assertThat(
+            "Metadata was changed",
+            new String(out.toByteArray(), StandardCharsets.UTF_8),
+            new IsEqual<>("<metadata xmlns=\"x\" packages=\"-1\"/>\n")
+        );
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.meta;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Optional;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link XmlRepomdEntries}.
+ * @since 1.9
+ */
+final class XmlRepomdEntriesTest {
+
+    @Test
+    void readsEntries() {
+        final Map<String, XmlRepomdEntries.Entry> entries = new XmlRepomdEntries(
+            new ByteArrayInputStream(
+                String.join(
+                    "",
+                    "<?xml version=\"1.0\" encoding=\"UTF-8\"?>",
+                    "<repomd xmlns=\"http://linux.duke.edu/metadata/repo\">",
+                    "<revision>1</revision>",
+                    "<data type=\"primary\"><checksum type=\"sha256\">abc</checksum>",
+                    "<open-checksum type=\"sha256\"> def </open-checksum>",
+                    "<location href=\"repodata/primary.xml.gz\"/><timestamp>1</timestamp>",
+                    "<size>10</size><open-size>20</open-size>",
+                    "</data>",
+                    "<data type=\"other\"><location href=\"repodata/other.xml.gz\"/></data>",
+                    "</repomd>"
+                ).getBytes(StandardCharsets.UTF_8)
+            )
+        ).read();
+        MatcherAssert.assertThat(
+            "Reads data types",
+            entries.keySet(),
+            Matchers.containsInAnyOrder("primary", "other")
+        );
+        final XmlRepomdEntries.Entry primary = entries.get("primary");
+        MatcherAssert.assertThat(
+            "Reads primary entry",
+            new Object[] {primary.location(), primary.checksum(), primary.openChecksum()},
+            new IsEqual<>(
+                new Object[] {
+                    Optional.of("repodata/primary.xml.gz"), Optional.of("abc"), Optional.of("def"),
+                }
+            )
+        );
+        MatcherAssert.assertThat(
+            "Reads primary checksum types",
+            new Object[] {primary.checksumType(), primary.openChecksumType()},
+            new IsEqual<>(new Object[] {Optional.of("sha256"), Optional.of("sha256")})
+        );
+        MatcherAssert.assertThat(
+            "Reads primary sizes and timestamp",
+            new Object[] {primary.size(), primary.openSize(), primary.timestamp()},
+            new IsEqual<>(new Object[] {Optional.of(10L), Optional.of(20L), Optional.of(1L)})
+        );
+        MatcherAssert.assertThat(
+            "Reads entry without checksums",
+            entries.get("other").openChecksum(),
+            new IsEqual<>(Optional.empty())
+        );
+    }
+}
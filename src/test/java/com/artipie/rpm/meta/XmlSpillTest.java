@@ -0,0 +1,94 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.meta;
+
+import com.artipie.asto.test.TestResource;
+import com.artipie.rpm.Digest;
+import com.artipie.rpm.pkg.FilePackage;
+import com.artipie.rpm.pkg.FilePackageHeader;
+import com.artipie.rpm.pkg.Package;
+import com.fasterxml.aalto.stax.OutputFactoryImpl;
+import com.jcabi.matchers.XhtmlMatchers;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLStreamException;
+import org.cactoos.list.ListOf;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test for {@link XmlSpill}.
+ * @since 1.9
+ */
+class XmlSpillTest {
+
+    @Test
+    void replaysSpilledPackages(@TempDir final Path tmp) throws IOException,
+        XMLStreamException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (XmlSpill spill = new XmlSpill(
+            tmp, new ListOf<>(XmlPackage.OTHER), type -> new XmlEvent.Other()
+        )) {
+            spill.write(
+                new ListOf<Package.Meta>(
+                    XmlSpillTest.meta("abc-1.01-26.git20200127.fc32.ppc64le.rpm"),
+                    XmlSpillTest.meta("libdeflt1_0-2020.03.27-25.1.armv7hl.rpm")
+                ).iterator()
+            );
+            final MergedXml.Appended spilled = spill.appended(XmlPackage.OTHER);
+            final XMLEventWriter writer = new OutputFactoryImpl().createXMLEventWriter(out);
+            MergedXmlPackage.startDocument(writer, "2", XmlPackage.OTHER);
+            spilled.write(writer);
+            writer.add(
+                XMLEventFactory.newFactory()
+                    .createEndElement("", "", XmlPackage.OTHER.tag())
+            );
+            writer.close();
+            MatcherAssert.assertThat(
+                "Spilled package locations are not correct",
+                spilled.locations(),
+                new IsEqual<>(
+                    new ListOf<>(
+                        "abc-1.01-26.git20200127.fc32.ppc64le.rpm",
+                        "libdeflt1_0-2020.03.27-25.1.armv7hl.rpm"
+                    )
+                )
+            );
+        }
+        MatcherAssert.assertThat(
+            "Packages were not replayed",
+            out.toString(),
+            XhtmlMatchers.hasXPaths(
+                "/*[local-name()='otherdata' and count(*[local-name()='package'])=2]",
+                "/*[local-name()='otherdata']/*[local-name()='package'][1][@name='abc']",
+                "/*[local-name()='otherdata']/*[local-name()='package'][2][@name='libdeflt1_0']"
+            )
+        );
+        MatcherAssert.assertThat(
+            "Spill files were not removed",
+            Files.list(tmp).count(),
+            new IsEqual<>(0L)
+        );
+    }
+
+    /**
+     * Package meta of test resource.
+     * @param name Resource name
+     * @return Package meta
+     * @throws IOException On error
+     */
+    private static Package.Meta meta(final String name) throws IOException {
+        final Path file = new TestResource(name).asPath();
+        return new FilePackage.Headers(
+            new FilePackageHeader(file).header(), file, Digest.SHA256, name
+        );
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.misc;
+
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.blocking.BlockingStorage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.rpm.Digest;
+import com.artipie.rpm.pkg.Checksum;
+import java.io.IOException;
+import java.util.stream.Collectors;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link ChecksumSidecar}.
+ * @since 1.9
+ */
+class ChecksumSidecarTest {
+
+    @Test
+    void savesAndReadsChecksum() throws IOException {
+        final Storage storage = new InMemoryStorage();
+        final ChecksumSidecar sidecar = new ChecksumSidecar(storage, new Key.From("a/b.rpm"));
+        sidecar.save("ABCDEF", 10L).join();
+        final Checksum sum = sidecar.read(10L).toCompletableFuture().join().get();
+        MatcherAssert.assertThat(
+            "Saves sidecar next to the package",
+            new BlockingStorage(storage).exists(new Key.From("a/b.rpm.sha256")),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Reads lowercase hex",
+            sum.hex(),
+            new IsEqual<>("abcdef")
+        );
+        MatcherAssert.assertThat(
+            "Reads sha256 checksum",
+            sum.digest(),
+            new IsEqual<>(Digest.SHA256)
+        );
+    }
+
+    @Test
+    void removesChecksum() {
+        final Storage storage = new InMemoryStorage();
+        final ChecksumSidecar sidecar = new ChecksumSidecar(storage, new Key.From("c.rpm"));
+        sidecar.remove().toCompletableFuture().join();
+        sidecar.save("012345", 1L).join();
+        sidecar.remove().toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            new BlockingStorage(storage).exists(sidecar.key()),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void ignoresChecksumOfOtherSize() {
+        final Storage storage = new InMemoryStorage();
+        final ChecksumSidecar sidecar = new ChecksumSidecar(storage, new Key.From("d.rpm"));
+        sidecar.save("abcd", 2L).join();
+        MatcherAssert.assertThat(
+            sidecar.read(3L).toCompletableFuture().join().isPresent(),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void ignoresChecksumWithoutSize() {
+        final Storage storage = new InMemoryStorage();
+        final ChecksumSidecar sidecar = new ChecksumSidecar(storage, new Key.From("e.rpm"));
+        new BlockingStorage(storage).save(sidecar.key(), "abcd".getBytes());
+        MatcherAssert.assertThat(
+            sidecar.read(4L).toCompletableFuture().join().isPresent(),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void removesOrphans() {
+        final Storage storage = new InMemoryStorage();
+        final BlockingStorage blocking = new BlockingStorage(storage);
+        final byte[] data = "0".getBytes();
+        blocking.save(new Key.From("kept.rpm"), data);
+        blocking.save(new Key.From("kept.rpm.sha256"), data);
+        blocking.save(new Key.From("removed.rpm.sha256"), data);
+        blocking.save(new Key.From("other.sha256"), data);
+        new ChecksumSidecar.Orphans(storage, blocking.list(Key.ROOT)).remove()
+            .toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            blocking.list(Key.ROOT).stream().map(Key::string).collect(Collectors.toList()),
+            Matchers.containsInAnyOrder("kept.rpm", "kept.rpm.sha256", "other.sha256")
+        );
+    }
+}
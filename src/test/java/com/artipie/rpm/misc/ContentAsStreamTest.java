@@ -0,0 +1,36 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.misc;
+
+import io.reactivex.Flowable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import org.apache.commons.io.IOUtils;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link ContentAsStream}.
+ * @since 1.9
+ */
+class ContentAsStreamTest {
+
+    @Test
+    void readsAllChunks() throws IOException {
+        MatcherAssert.assertThat(
+            IOUtils.toString(
+                new ContentAsStream(
+                    Flowable.range(0, 20).map(
+                        idx -> ByteBuffer.wrap(String.valueOf(idx % 10).getBytes())
+                    )
+                ).stream(),
+                StandardCharsets.UTF_8
+            ),
+            new IsEqual<>("01234567890123456789")
+        );
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.misc;
+
+import com.artipie.asto.ext.PublisherAs;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.hamcrest.core.IsInstanceOf;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link ContentPipe}.
+ * @since 1.9
+ */
+class ContentPipeTest {
+
+    @Test
+    void publishesWrittenBytes() {
+        final ContentPipe pipe = new ContentPipe(2);
+        final int count = 100;
+        final CompletableFuture<Void> writer = CompletableFuture.runAsync(
+            () -> {
+                try (OutputStream out = pipe.output()) {
+                    for (int idx = 0; idx < count; idx += 1) {
+                        out.write('a');
+                    }
+                } catch (final IOException err) {
+                    throw new IllegalStateException(err);
+                }
+            }
+        );
+        MatcherAssert.assertThat(
+            new PublisherAs(pipe.content()).bytes().toCompletableFuture().join().length,
+            new IsEqual<>(count)
+        );
+        writer.join();
+    }
+
+    @Test
+    void failsContentOnError() {
+        final ContentPipe pipe = new ContentPipe();
+        pipe.fail(new IOException("xml error"));
+        final CompletionException err = Assertions.assertThrows(
+            CompletionException.class,
+            () -> new PublisherAs(pipe.content()).bytes().toCompletableFuture().join()
+        );
+        MatcherAssert.assertThat(
+            err.getCause(),
+            new IsInstanceOf(IOException.class)
+        );
+    }
+
+    @Test
+    void failsWriterWhenCancelled() {
+        final ContentPipe pipe = new ContentPipe(1);
+        pipe.cancel();
+        Assertions.assertThrows(
+            IOException.class,
+            () -> {
+                final OutputStream out = pipe.output();
+                out.write(1);
+                out.write(2);
+            }
+        );
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.misc;
+
+import com.artipie.asto.Key;
+import java.util.Optional;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Test for {@link LocationKey}.
+ * @since 1.9
+ */
+class LocationKeyTest {
+
+    @Test
+    void resolvesLocationAgainstPrefix() {
+        MatcherAssert.assertThat(
+            new LocationKey(new Key.From("repo"), "repodata/./primary.xml.gz").key(),
+            new IsEqual<>(Optional.of(new Key.From("repo", "repodata", "primary.xml.gz")))
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(
+        strings = {
+            "../other/repodata/primary.xml.gz",
+            "repodata/../../primary.xml.gz",
+            "/etc/passwd",
+            "repodata\\..\\..\\primary.xml.gz",
+            ""
+        }
+    )
+    void rejectsLocationOutsideOfRepository(final String href) {
+        MatcherAssert.assertThat(
+            new LocationKey(new Key.From("repo"), href).key(),
+            new IsEqual<>(Optional.empty())
+        );
+    }
+}
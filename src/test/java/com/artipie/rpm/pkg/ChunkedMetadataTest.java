@@ -0,0 +1,94 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.pkg;
+
+import com.artipie.rpm.Digest;
+import com.artipie.rpm.TestRpm;
+import com.artipie.rpm.meta.XmlPackage;
+import com.jcabi.matchers.XhtmlMatchers;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test for {@link ChunkedMetadata}.
+ * @since 1.9
+ */
+class ChunkedMetadataTest {
+
+    @Test
+    void joinsChunksWithPackagesCount(@TempDir final Path tmp) throws IOException {
+        final Path target = tmp.resolve("other.xml");
+        final List<Path> files = Arrays.asList(
+            target, tmp.resolve("two.xml"), tmp.resolve("three.xml")
+        );
+        final ChunkedMetadata meta = new ChunkedMetadata(
+            XmlPackage.OTHER, files.size(), idx -> new OthersOutput(files.get(idx)).start()
+        );
+        final List<Path> rpms = Arrays.asList(
+            new TestRpm.Abc().path(), new TestRpm.Libdeflt().path()
+        );
+        for (final Path rpm : rpms) {
+            meta.accept(
+                new FilePackage.Headers(
+                    new FilePackageHeader(rpm).header(), rpm, Digest.SHA256,
+                    rpm.getFileName().toString()
+                )
+            );
+        }
+        meta.close();
+        meta.brush(Collections.emptyList());
+        MatcherAssert.assertThat(
+            "Failed to join chunks",
+            new String(Files.readAllBytes(target), StandardCharsets.UTF_8),
+            XhtmlMatchers.hasXPaths(
+                "/*[local-name()='otherdata' and @packages='2']",
+                "/*[local-name()='otherdata' and count(*[local-name()='package'])=2]",
+                "/*[local-name()='otherdata']/*[local-name()='package' and @name='abc']",
+                "/*[local-name()='otherdata']/*[local-name()='package' and @name='libdeflt1_0']"
+            )
+        );
+        MatcherAssert.assertThat(
+            "Chunks were not removed",
+            tmp.toFile().list(),
+            Matchers.arrayContaining("other.xml")
+        );
+    }
+
+    @Test
+    void startsNoMorePartsThanPackages(@TempDir final Path tmp) throws IOException {
+        final AtomicInteger started = new AtomicInteger();
+        final ChunkedMetadata meta = new ChunkedMetadata(
+            XmlPackage.OTHER, 8,
+            idx -> {
+                started.incrementAndGet();
+                return new OthersOutput(tmp.resolve(String.format("%d.xml", idx))).start();
+            }
+        );
+        final Path rpm = new TestRpm.Abc().path();
+        meta.accept(
+            new FilePackage.Headers(
+                new FilePackageHeader(rpm).header(), rpm, Digest.SHA256,
+                rpm.getFileName().toString()
+            )
+        );
+        meta.close();
+        MatcherAssert.assertThat(
+            "Started more parts than packages",
+            started.get(),
+            new IsEqual<>(1)
+        );
+    }
+}
@@ -5,6 +5,7 @@
 package com.artipie.rpm.pkg;
 
 import com.artipie.rpm.Digest;
+import com.artipie.rpm.FileChecksum;
 import com.artipie.rpm.TestRpm;
 import java.io.IOException;
 import java.nio.file.Files;
@@ -87,4 +88,36 @@ class FilePackageTest {
         );
     }
 
+
+    @Test
+    void usesKnownChecksumOfSameDigest() throws IOException {
+        final Path path = new TestRpm.Abc().path();
+        MatcherAssert.assertThat(
+            new FilePackage(
+                path, path.getFileName().toString(), new Checksum.Simple(Digest.SHA256, "abc")
+            ).checksum(Digest.SHA256).hex(),
+            new IsEqual<>("abc")
+        );
+    }
+
+    @Test
+    void computesChecksumOfOtherDigest() throws IOException {
+        final Path path = new TestRpm.Abc().path();
+        MatcherAssert.assertThat(
+            new FilePackage(
+                path, path.getFileName().toString(), new Checksum.Simple(Digest.SHA256, "abc")
+            ).checksum(Digest.SHA1).hex(),
+            new IsEqual<>(new FileChecksum(path, Digest.SHA1).hex())
+        );
+    }
+
+    @Test
+    void usesKnownHeader() throws IOException {
+        MatcherAssert.assertThat(
+            new FilePackage(Paths.get("some/file"), "file")
+                .withHeader(new FilePackageHeader(new TestRpm.Abc().path()).header())
+                .parsed(),
+            new IsInstanceOf(ParsedFilePackage.class)
+        );
+    }
 }
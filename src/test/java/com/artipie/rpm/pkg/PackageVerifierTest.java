@@ -0,0 +1,106 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.pkg;
+
+import com.artipie.rpm.Digest;
+import com.artipie.rpm.FileChecksum;
+import com.artipie.rpm.TestRpm;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.hamcrest.core.StringContains;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test for {@link PackageVerifier}.
+ * @since 1.9
+ */
+class PackageVerifierTest {
+
+    @Test
+    void verifiesDigestsAndComputesChecksum() throws IOException {
+        final Path rpm = new TestRpm.Abc().path();
+        MatcherAssert.assertThat(
+            new PackageVerifier().verified(
+                rpm, new FilePackageHeader(rpm).format(), Digest.SHA256
+            ).hex(),
+            new IsEqual<>(new FileChecksum(rpm, Digest.SHA256).hex())
+        );
+    }
+
+    @Test
+    void verifiesSignaturesWithKeyring() throws IOException {
+        final TestRpm.Signed signed = new TestRpm.Signed();
+        MatcherAssert.assertThat(
+            new PackageVerifier(signed.keyring()).verified(
+                signed.path(), new FilePackageHeader(signed.path()).format(), Digest.SHA1
+            ).hex(),
+            new IsEqual<>(new FileChecksum(signed.path(), Digest.SHA1).hex())
+        );
+    }
+
+    @Test
+    void rejectsPackageSignedWithUnknownKey() throws IOException {
+        final Path rpm = new TestRpm.Abc().path();
+        final PackageVerifier verifier = new PackageVerifier(new TestRpm.Signed().keyring());
+        final InvalidPackageException err = Assertions.assertThrows(
+            InvalidPackageException.class,
+            () -> verifier.verified(rpm, new FilePackageHeader(rpm).format(), Digest.SHA256)
+        );
+        MatcherAssert.assertThat(
+            err.getMessage(),
+            new StringContains("header signature by unknown key")
+        );
+    }
+
+    @Test
+    void rejectsPackageWithCorruptedPayload(@TempDir final Path tmp) throws IOException {
+        final Path rpm = PackageVerifierTest.corrupted(new TestRpm.Libdeflt().path(), tmp);
+        final InvalidPackageException err = Assertions.assertThrows(
+            InvalidPackageException.class,
+            () -> new PackageVerifier().verified(
+                rpm, new FilePackageHeader(rpm).format(), Digest.SHA256
+            )
+        );
+        MatcherAssert.assertThat(
+            err.getMessage(),
+            new StringContains("header and payload MD5 mismatch, payload digest mismatch")
+        );
+    }
+
+    @Test
+    void rejectsSignedPackageWithCorruptedPayload(@TempDir final Path tmp)
+        throws IOException {
+        final TestRpm.Signed signed = new TestRpm.Signed();
+        final Path rpm = PackageVerifierTest.corrupted(signed.path(), tmp);
+        final InvalidPackageException err = Assertions.assertThrows(
+            InvalidPackageException.class,
+            () -> new PackageVerifier(signed.keyring()).verified(
+                rpm, new FilePackageHeader(rpm).format(), Digest.SHA256
+            )
+        );
+        MatcherAssert.assertThat(
+            err.getMessage(),
+            new StringContains("header and payload signature mismatch")
+        );
+    }
+
+    /**
+     * Copy of the package with the last payload byte changed.
+     * @param rpm Package
+     * @param tmp Temp dir
+     * @return Corrupted package
+     * @throws IOException On error
+     */
+    private static Path corrupted(final Path rpm, final Path tmp) throws IOException {
+        final byte[] bytes = Files.readAllBytes(rpm);
+        bytes[bytes.length - 1] = (byte) (bytes[bytes.length - 1] ^ 1);
+        return Files.write(tmp.resolve(rpm.getFileName()), bytes);
+    }
+}
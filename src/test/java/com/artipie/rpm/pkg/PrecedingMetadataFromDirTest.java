@@ -7,6 +7,7 @@ package com.artipie.rpm.pkg;
 import com.artipie.asto.test.TestResource;
 import com.artipie.rpm.meta.XmlPackage;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Optional;
@@ -53,6 +54,33 @@ class PrecedingMetadataFromDirTest {
         );
     }
 
+    @Test
+    void findsFileReferencedByRepomd(@TempDir final Path temp) throws IOException {
+        this.copyExampleToTemp(temp, XmlPackage.PRIMARY);
+        Files.copy(
+            new TestResource("repodata/primary.xml.gz.example").asPath(),
+            temp.resolve("abc-primary.xml.gz")
+        );
+        Files.write(
+            temp.resolve("repomd.xml"),
+            String.join(
+                "",
+                "<repomd xmlns=\"http://linux.duke.edu/metadata/repo\"><data type=\"primary\">",
+                "<location href=\"repodata/abc-primary.xml.gz\"/></data></repomd>"
+            ).getBytes(StandardCharsets.UTF_8)
+        );
+        MatcherAssert.assertThat(
+            "Finds primary by repomd",
+            new PrecedingMetadata.FromDir(XmlPackage.PRIMARY, temp).exists(),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Does not guess file not referenced by repomd",
+            new PrecedingMetadata.FromDir(XmlPackage.OTHER, temp).exists(),
+            new IsEqual<>(false)
+        );
+    }
+
     @Test
     void doesNotFindIfNoMetadataExists(@TempDir final Path temp) throws IOException {
         temp.resolve("some.txt").toFile().createNewFile();